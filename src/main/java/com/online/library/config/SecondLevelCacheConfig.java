@@ -0,0 +1,34 @@
+package com.online.library.config;
+
+import com.github.benmanes.caffeine.jcache.CacheManagerImpl;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.Properties;
+
+@Configuration
+public class SecondLevelCacheConfig {
+
+    // A cache manager per SessionFactory. The provider hands out one shared manager per URI, and Hibernate closes
+    // it when its SessionFactory shuts down, which would take the caches away from every other context in the JVM.
+    // Owned by the context, so it is closed on shutdown even when no SessionFactory got as far as releasing it
+    // (close() is a no-op the second time).
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(@Value("${app.cache.config:classpath:caffeine.conf}") URI config) {
+        return new CacheManagerImpl(
+                Caching.getCachingProvider(CaffeineCachingProvider.class.getName()), false, config,
+                SecondLevelCacheConfig.class.getClassLoader(), new Properties());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManagerCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+}
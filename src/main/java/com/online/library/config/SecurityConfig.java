@@ -1,43 +1,114 @@
 package com.online.library.config;
 
+import com.online.library.security.AccessTokens;
+import com.online.library.security.BearerTokenAuthenticationFilter;
+import com.online.library.security.BoundedPasswordEncoder;
+import com.online.library.security.LoginThrottle;
+import com.online.library.security.LoginThrottledException;
+import com.online.library.security.ThrottlingAuthenticationProvider;
+import com.online.library.security.TokenRevocationList;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.ExceptionMappingAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+
+@Slf4j
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Threads default to half the cores: hashing is pure CPU and must leave room for everything else.
+    @Bean
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${app.security.password-hashing.bcrypt-strength:10}") int strength,
+            @Value("${app.security.password-hashing.threads:0}") int threads,
+            @Value("${app.security.password-hashing.queue-capacity:100}") int queueCapacity,
+            @Value("${app.security.password-hashing.timeout:PT5S}") Duration timeout) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(strength, poolSize, queueCapacity, timeout);
+    }
+
+    @Bean
+    public LoginThrottle loginThrottle(
+            @Value("${app.security.login-throttle.window:PT15M}") Duration window,
+            @Value("${app.security.login-throttle.max-failures-per-username:10}") int maxFailuresPerUsername,
+            @Value("${app.security.login-throttle.max-failures-per-address:50}") int maxFailuresPerAddress,
+            @Value("${app.security.login-throttle.max-tracked-keys:100000}") long maxTrackedKeys) {
+        return new LoginThrottle(window, maxFailuresPerUsername, maxFailuresPerAddress, maxTrackedKeys,
+                Clock.systemUTC());
+    }
+
+    // The only provider, so form login, HTTP Basic and the token endpoint all go through the throttle. Handed to
+    // each filter chain rather than exposed as a provider bean, which would switch off Spring's global setup with
+    // a warning on every start.
+    @Bean
+    public AuthenticationManager authenticationManager(UserDetailsService userDetailsService,
+                                                       UserDetailsPasswordService userDetailsPasswordService,
+                                                       PasswordEncoder passwordEncoder,
+                                                       LoginThrottle loginThrottle) {
+        return new ProviderManager(new ThrottlingAuthenticationProvider(userDetailsService, passwordEncoder,
+                userDetailsPasswordService, loginThrottle));
+    }
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public TokenRevocationList tokenRevocationList(@Value("${app.security.token.ttl:PT15M}") Duration ttl) {
+        return new TokenRevocationList(ttl, Clock.systemUTC());
     }
 
+    // Without a configured secret tokens are signed with a random key: they stop working on restart
+    // and are not accepted by other nodes.
     @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
-        return config.getAuthenticationManager();
+    public AccessTokens accessTokens(@Value("${app.security.token.secret:}") String secret,
+                                     @Value("${app.security.token.ttl:PT15M}") Duration ttl,
+                                     TokenRevocationList tokenRevocationList, JsonMapper jsonMapper) {
+        byte[] key;
+        if (secret.isBlank()) {
+            log.warn("app.security.token.secret nie jest ustawiony, tokeny API będą podpisywane losowym kluczem");
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        return new AccessTokens(key, ttl, tokenRevocationList, jsonMapper, Clock.systemUTC());
     }
 
     @Bean
     @Order(1)
-    public SecurityFilterChain apiFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain apiFilterChain(HttpSecurity http, AccessTokens accessTokens,
+                                              AuthenticationManager authenticationManager) throws Exception {
         http
                 .securityMatcher("/api/**")
+                .authenticationManager(authenticationManager)
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(HttpMethod.POST, "/api/v1/auth/token").permitAll()
+                        .requestMatchers(HttpMethod.DELETE, "/api/v1/auth/token").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/v1/books/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/v1/authors/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/v1/genres/**").permitAll()
                         .requestMatchers("/api/**").hasRole("ADMIN"))
+                .addFilterBefore(new BearerTokenAuthenticationFilter(accessTokens), BasicAuthenticationFilter.class)
                 .httpBasic(basic -> {
                 })
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -48,8 +119,10 @@ public class SecurityConfig {
 
     @Bean
     @Order(2)
-    public SecurityFilterChain webFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain webFilterChain(HttpSecurity http, AuthenticationManager authenticationManager)
+            throws Exception {
         http
+                .authenticationManager(authenticationManager)
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/", "/index.html", "/login", "/register", "/css/**", "/js/**", "/images/**",
                                 "/books/**")
@@ -63,7 +136,7 @@ public class SecurityConfig {
                         .loginPage("/login")
                         .loginProcessingUrl("/login")
                         .defaultSuccessUrl("/dashboard", true)
-                        .failureUrl("/login?error=true")
+                        .failureHandler(loginFailureHandler())
                         .permitAll())
                 .logout(logout -> logout
                         .logoutUrl("/logout")
@@ -74,4 +147,11 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    private static AuthenticationFailureHandler loginFailureHandler() {
+        ExceptionMappingAuthenticationFailureHandler handler = new ExceptionMappingAuthenticationFailureHandler();
+        handler.setDefaultFailureUrl("/login?error=true");
+        handler.setExceptionMappings(Map.of(LoginThrottledException.class.getName(), "/login?blocked=true"));
+        return handler;
+    }
 }
@@ -0,0 +1,61 @@
+package com.online.library.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.sql.statement-count.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatementCountConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlStatementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? SqlStatementCounter.wrap(dataSource) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> sqlStatementCountFilter(
+            @Value("${app.sql.statement-count.warn-threshold:20}") long warnThreshold) {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                    FilterChain filterChain) throws ServletException, IOException {
+                SqlStatementCounter.reset();
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    long statements = SqlStatementCounter.current();
+                    if (statements > warnThreshold) {
+                        log.warn("{} {} wykonało {} zapytań SQL", request.getMethod(), request.getRequestURI(),
+                                statements);
+                    } else {
+                        log.debug("{} {} wykonało {} zapytań SQL", request.getMethod(), request.getRequestURI(),
+                                statements);
+                    }
+                }
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,44 @@
+package com.online.library.config;
+
+import com.online.library.storage.LocalObjectStorage;
+import com.online.library.storage.ObjectStorage;
+import com.online.library.storage.S3ObjectStorage;
+import com.online.library.storage.S3Signer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+
+// app.storage.type=local keeps uploads in app.upload.dir (one node, or a shared mount);
+// app.storage.type=s3 puts them in a bucket that every node reads and writes.
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
+    public ObjectStorage localObjectStorage(@Value("${app.upload.dir:uploads}") String uploadDir) throws IOException {
+        return new LocalObjectStorage(Paths.get(uploadDir));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+    public ObjectStorage s3ObjectStorage(
+            @Value("${app.storage.s3.endpoint}") URI endpoint,
+            @Value("${app.storage.s3.region:us-east-1}") String region,
+            @Value("${app.storage.s3.bucket}") String bucket,
+            @Value("${app.storage.s3.access-key}") String accessKey,
+            @Value("${app.storage.s3.secret-key}") String secretKey,
+            @Value("${app.storage.s3.path-style:true}") boolean pathStyle,
+            @Value("${app.storage.s3.part-size:8MB}") DataSize partSize,
+            @Value("${app.storage.s3.presign-ttl:PT1H}") Duration presignTtl) {
+        return new S3ObjectStorage(endpoint, bucket, pathStyle, new S3Signer(accessKey, secretKey, region),
+                (int) partSize.toBytes(), presignTtl, Clock.systemUTC());
+    }
+}
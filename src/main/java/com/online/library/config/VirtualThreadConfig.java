@@ -0,0 +1,55 @@
+package com.online.library.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+// spring.threads.virtual.enabled=true runs Tomcat requests, @Async/MVC async work and @Scheduled jobs on
+// virtual threads. Request concurrency is then bounded by the connection pool, so callers queue for it
+// through ConnectionLimitingDataSource, and pinning (which undoes the benefit) is reported.
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public static ConnectionLimitingPostProcessor connectionLimitingDataSourcePostProcessor(
+            @Value("${app.threads.virtual.max-connection-waiters:1000}") int maxWaiters) {
+        return new ConnectionLimitingPostProcessor(maxWaiters);
+    }
+
+    @Bean
+    @ConditionalOnBooleanProperty(name = "app.threads.virtual.pinning-monitor.enabled", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${app.threads.virtual.pinning-monitor.threshold:20ms}") Duration threshold) {
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(threshold);
+        monitor.start();
+        return monitor;
+    }
+
+    // Ordered (and declared as such on the @Bean method, where the ordering is read from) so the pool is wrapped
+    // before other DataSource decorators such as SqlStatementCounter see it.
+    record ConnectionLimitingPostProcessor(int maxWaiters) implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource hikari) {
+                return new ConnectionLimitingDataSource(hikari, hikari.getMaximumPoolSize(), maxWaiters,
+                        Duration.ofMillis(hikari.getConnectionTimeout()));
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
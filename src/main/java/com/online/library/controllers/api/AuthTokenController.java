@@ -0,0 +1,97 @@
+package com.online.library.controllers.api;
+
+import com.online.library.domain.dto.AccessTokenDto;
+import com.online.library.domain.dto.UserLoginRequestDto;
+import com.online.library.security.AccessToken;
+import com.online.library.security.AccessTokens;
+import com.online.library.security.BearerTokenAuthenticationFilter;
+import com.online.library.security.LoginThrottle;
+import com.online.library.security.LoginThrottledException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Optional;
+
+// The password is checked (BCrypt) once here; the token it buys is then verified per request in memory.
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/auth/token")
+@RequiredArgsConstructor
+@Tag(name = "Uwierzytelnianie", description = "Tokeny dostępu do API")
+public class AuthTokenController {
+
+    private final AuthenticationManager authenticationManager;
+    private final AccessTokens accessTokens;
+    private final LoginThrottle loginThrottle;
+
+    @PostMapping
+    @Operation(summary = "Wydaj token", description = "Sprawdza login i hasło i zwraca krótkotrwały token dostępu, " +
+            "przesyłany dalej w nagłówku Authorization: Bearer")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Token wydany"),
+            @ApiResponse(responseCode = "401", description = "Nieprawidłowa nazwa użytkownika lub hasło"),
+            @ApiResponse(responseCode = "429", description = "Zbyt wiele nieudanych prób logowania")
+    })
+    public ResponseEntity<AccessTokenDto> issueToken(@RequestBody UserLoginRequestDto loginRequest,
+                                                     HttpServletRequest request) {
+        Authentication authentication;
+        try {
+            UsernamePasswordAuthenticationToken credentials = UsernamePasswordAuthenticationToken.unauthenticated(
+                    loginRequest.getUsername(), loginRequest.getPassword());
+            // The client address feeds the per-address login throttle
+            credentials.setDetails(new WebAuthenticationDetails(request));
+            authentication = authenticationManager.authenticate(credentials);
+        } catch (LoginThrottledException e) {
+            log.warn("Odmowa wydania tokenu dla {}: {}", loginRequest.getUsername(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginThrottle.getWindow().toSeconds()))
+                    .build();
+        } catch (AuthenticationException e) {
+            log.info("Odmowa wydania tokenu dla {}: {}", loginRequest.getUsername(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        AccessToken token = accessTokens.issue(authentication.getName(), authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        log.debug("Token issued for {}, expires at {}", token.username(), token.expiresAt());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(AccessTokenDto.builder()
+                        .accessToken(token.value())
+                        .tokenType("Bearer")
+                        .expiresIn(accessTokens.getTtl().toSeconds())
+                        .build());
+    }
+
+    @DeleteMapping
+    @Operation(summary = "Unieważnij token", description = "Unieważnia token przesłany w nagłówku Authorization")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Token unieważniony"),
+            @ApiResponse(responseCode = "400", description = "Żądanie nie zostało uwierzytelnione tokenem")
+    })
+    public ResponseEntity<Void> revokeToken(HttpServletRequest request) {
+        Optional<AccessToken> token = BearerTokenAuthenticationFilter.currentToken(request);
+        if (token.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        accessTokens.revoke(token.get());
+        return ResponseEntity.noContent().build();
+    }
+}
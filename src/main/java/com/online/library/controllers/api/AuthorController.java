@@ -1,6 +1,7 @@
 package com.online.library.controllers.api;
 
 import com.online.library.domain.dto.AuthorDto;
+import com.online.library.domain.dto.CursorPageDto;
 import com.online.library.services.AuthorService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -43,6 +44,19 @@ public class AuthorController {
         return authorService.findAll(pageable);
     }
 
+    @GetMapping(params = "after")
+    @Operation(summary = "Lista autorów (kursor)", description = "Stronicowanie po kluczu bez liczenia wszystkich rekordów. " +
+            "Autorzy po id rosnąco; pusty kursor zwraca pierwszą stronę, a nextCursor wskazuje kolejną")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Porcja autorów"),
+            @ApiResponse(responseCode = "400", description = "Nieprawidłowy kursor")
+    })
+    public CursorPageDto<AuthorDto> listAuthorsAfter(
+            @Parameter(description = "Kursor z poprzedniej odpowiedzi") @RequestParam("after") String after,
+            @Parameter(description = "Rozmiar porcji (maks. 100)") @RequestParam(name = "size", defaultValue = "20") int size) {
+        return authorService.findAllAfter(after, size);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Pobierz autora", description = "Pobiera szczegóły autora po ID")
     @ApiResponses(value = {
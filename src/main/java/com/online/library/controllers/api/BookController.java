@@ -1,6 +1,9 @@
 package com.online.library.controllers.api;
 
+import com.online.library.domain.dto.BookBrowseDto;
 import com.online.library.domain.dto.BookDto;
+import com.online.library.domain.dto.BookSuggestionDto;
+import com.online.library.domain.dto.CursorPageDto;
 import com.online.library.services.BookService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -17,6 +20,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/books")
 @RequiredArgsConstructor
@@ -37,10 +42,28 @@ public class BookController {
     }
 
     @GetMapping
-    @Operation(summary = "Lista książek", description = "Pobiera paginowaną listę wszystkich książek")
-    @ApiResponse(responseCode = "200", description = "Lista książek")
-    public Page<BookDto> listBooks(Pageable pageable) {
-        return bookService.findAll(pageable);
+    @Operation(summary = "Lista książek", description = "Pobiera paginowaną listę książek, opcjonalnie filtrowaną " +
+            "po gatunkach, autorach i dekadach wydania, wraz z liczbą książek dla każdej wartości filtra")
+    @ApiResponse(responseCode = "200", description = "Lista książek z licznikami filtrów")
+    public BookBrowseDto listBooks(
+            @Parameter(description = "ID gatunków (dowolny z nich)") @RequestParam(name = "genre", required = false) List<Long> genreIds,
+            @Parameter(description = "ID autorów (dowolny z nich)") @RequestParam(name = "author", required = false) List<Long> authorIds,
+            @Parameter(description = "Dekady wydania, np. 1990") @RequestParam(name = "decade", required = false) List<Integer> decades,
+            Pageable pageable) {
+        return bookService.browse(genreIds, authorIds, decades, pageable);
+    }
+
+    @GetMapping(params = "after")
+    @Operation(summary = "Lista książek (kursor)", description = "Stronicowanie po kluczu bez liczenia wszystkich rekordów. " +
+            "Książki po id rosnąco; pusty kursor zwraca pierwszą stronę, a nextCursor wskazuje kolejną")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Porcja książek"),
+            @ApiResponse(responseCode = "400", description = "Nieprawidłowy kursor")
+    })
+    public CursorPageDto<BookDto> listBooksAfter(
+            @Parameter(description = "Kursor z poprzedniej odpowiedzi") @RequestParam("after") String after,
+            @Parameter(description = "Rozmiar porcji (maks. 100)") @RequestParam(name = "size", defaultValue = "20") int size) {
+        return bookService.findAllAfter(after, size);
     }
 
     @GetMapping("/search")
@@ -52,6 +75,16 @@ public class BookController {
         return bookService.searchBooks(searchTerm, pageable);
     }
 
+    @GetMapping("/suggest")
+    @Operation(summary = "Podpowiedzi wyszukiwania", description = "Tytuły książek i autorzy zaczynający się od " +
+            "podanego tekstu (bez wielkości liter i polskich znaków), od najwyżej ocenianych")
+    @ApiResponse(responseCode = "200", description = "Lista podpowiedzi")
+    public List<BookSuggestionDto> suggestBooks(
+            @Parameter(description = "Początek tytułu lub nazwiska") @RequestParam(name = "prefix") String prefix,
+            @Parameter(description = "Liczba podpowiedzi (maks. 20)") @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return bookService.suggest(prefix, limit);
+    }
+
     @GetMapping("/popular")
     @Operation(summary = "Popularne książki", description = "Pobiera listę najpopularniejszych książek według ocen")
     @ApiResponse(responseCode = "200", description = "Lista popularnych książek")
@@ -0,0 +1,69 @@
+package com.online.library.controllers.api;
+
+import com.online.library.domain.dto.BookImportStatusDto;
+import com.online.library.domain.enums.ImportFormat;
+import com.online.library.services.BookImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/imports/books")
+@RequiredArgsConstructor
+@Tag(name = "Import", description = "Masowy import katalogu książek")
+public class BookImportController {
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final BookImportService bookImportService;
+
+    // The file is the raw request body rather than a multipart part, so it is not bound by the upload size limit.
+    @PostMapping(consumes = {TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Importuj książki", description = "Przyjmuje plik CSV (nagłówek z kolumnami title, isbn, " +
+            "authors, genres, publisher, publish_year, description, copies_available; autorzy i gatunki rozdzieleni '|') " +
+            "lub JSON Lines i importuje go w tle. Książki o istniejącym ISBN są pomijane, brakujący autorzy i gatunki " +
+            "są tworzeni")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Import przyjęty; postęp pod adresem z nagłówka Location"),
+            @ApiResponse(responseCode = "415", description = "Nieobsługiwany format pliku"),
+            @ApiResponse(responseCode = "503", description = "Zbyt wiele importów w kolejce; ponów po czasie z nagłówka Retry-After")
+    })
+    public ResponseEntity<BookImportStatusDto> importBooks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream content) throws IOException {
+        ImportFormat format = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType))
+                ? ImportFormat.JSON_LINES
+                : ImportFormat.CSV;
+        BookImportStatusDto status = bookImportService.startImport(content, format);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/imports/books/" + status.getId()))
+                .body(status);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Postęp importu", description = "Liczniki przetworzonych, zaimportowanych, zduplikowanych " +
+            "i odrzuconych wierszy oraz pierwsze błędy")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stan importu"),
+            @ApiResponse(responseCode = "404", description = "Import nie znaleziony")
+    })
+    public ResponseEntity<BookImportStatusDto> getImport(
+            @Parameter(description = "ID importu") @PathVariable("id") UUID id) {
+        return bookImportService.getStatus(id)
+                .map(status -> new ResponseEntity<>(status, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+}
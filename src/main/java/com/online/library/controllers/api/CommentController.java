@@ -1,6 +1,7 @@
 package com.online.library.controllers.api;
 
 import com.online.library.domain.dto.CommentDto;
+import com.online.library.domain.dto.CursorPageDto;
 import com.online.library.services.CommentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -43,6 +44,19 @@ public class CommentController {
         return commentService.findAll(pageable);
     }
 
+    @GetMapping(params = "after")
+    @Operation(summary = "Lista komentarzy (kursor)", description = "Stronicowanie po kluczu bez liczenia wszystkich rekordów. " +
+            "Komentarze od najnowszych; pusty kursor zwraca pierwszą stronę, a nextCursor wskazuje kolejną")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Porcja komentarzy"),
+            @ApiResponse(responseCode = "400", description = "Nieprawidłowy kursor")
+    })
+    public CursorPageDto<CommentDto> listCommentsAfter(
+            @Parameter(description = "Kursor z poprzedniej odpowiedzi") @RequestParam("after") String after,
+            @Parameter(description = "Rozmiar porcji (maks. 100)") @RequestParam(name = "size", defaultValue = "20") int size) {
+        return commentService.findAllAfter(after, size);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Pobierz komentarz", description = "Pobiera szczegóły komentarza po ID")
     @ApiResponses(value = {
@@ -1,5 +1,6 @@
 package com.online.library.controllers.api;
 
+import com.online.library.domain.dto.CursorPageDto;
 import com.online.library.domain.dto.GenreDto;
 import com.online.library.services.GenreService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -43,6 +44,19 @@ public class GenreController {
         return genreService.findAll(pageable);
     }
 
+    @GetMapping(params = "after")
+    @Operation(summary = "Lista gatunków (kursor)", description = "Stronicowanie po kluczu bez liczenia wszystkich rekordów. " +
+            "Gatunki po id rosnąco; pusty kursor zwraca pierwszą stronę, a nextCursor wskazuje kolejną")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Porcja gatunków"),
+            @ApiResponse(responseCode = "400", description = "Nieprawidłowy kursor")
+    })
+    public CursorPageDto<GenreDto> listGenresAfter(
+            @Parameter(description = "Kursor z poprzedniej odpowiedzi") @RequestParam("after") String after,
+            @Parameter(description = "Rozmiar porcji (maks. 100)") @RequestParam(name = "size", defaultValue = "20") int size) {
+        return genreService.findAllAfter(after, size);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Pobierz gatunek", description = "Pobiera szczegóły gatunku po ID")
     @ApiResponses(value = {
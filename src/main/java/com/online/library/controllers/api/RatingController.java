@@ -1,5 +1,6 @@
 package com.online.library.controllers.api;
 
+import com.online.library.domain.dto.CursorPageDto;
 import com.online.library.domain.dto.RatingDto;
 import com.online.library.services.RatingService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -44,6 +45,19 @@ public class RatingController {
         return ratingService.findAll(pageable);
     }
 
+    @GetMapping(params = "after")
+    @Operation(summary = "Lista ocen (kursor)", description = "Stronicowanie po kluczu bez liczenia wszystkich rekordów. " +
+            "Oceny po id rosnąco; pusty kursor zwraca pierwszą stronę, a nextCursor wskazuje kolejną")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Porcja ocen"),
+            @ApiResponse(responseCode = "400", description = "Nieprawidłowy kursor")
+    })
+    public CursorPageDto<RatingDto> listRatingsAfter(
+            @Parameter(description = "Kursor z poprzedniej odpowiedzi") @RequestParam("after") String after,
+            @Parameter(description = "Rozmiar porcji (maks. 100)") @RequestParam(name = "size", defaultValue = "20") int size) {
+        return ratingService.findAllAfter(after, size);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Pobierz ocenę", description = "Pobiera szczegóły oceny po ID")
     @ApiResponses(value = {
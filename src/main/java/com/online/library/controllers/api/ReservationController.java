@@ -1,5 +1,6 @@
 package com.online.library.controllers.api;
 
+import com.online.library.domain.dto.CursorPageDto;
 import com.online.library.domain.dto.ReservationDto;
 import com.online.library.services.ReservationService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -44,6 +45,19 @@ public class ReservationController {
         return reservationService.findAll(pageable);
     }
 
+    @GetMapping(params = "after")
+    @Operation(summary = "Lista rezerwacji (kursor)", description = "Stronicowanie po kluczu bez liczenia wszystkich rekordów. " +
+            "Rezerwacje od najnowszych; pusty kursor zwraca pierwszą stronę, a nextCursor wskazuje kolejną")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Porcja rezerwacji"),
+            @ApiResponse(responseCode = "400", description = "Nieprawidłowy kursor")
+    })
+    public CursorPageDto<ReservationDto> listReservationsAfter(
+            @Parameter(description = "Kursor z poprzedniej odpowiedzi") @RequestParam("after") String after,
+            @Parameter(description = "Rozmiar porcji (maks. 100)") @RequestParam(name = "size", defaultValue = "20") int size) {
+        return reservationService.findAllAfter(after, size);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Pobierz rezerwację", description = "Pobiera szczegóły rezerwacji po ID")
     @ApiResponses(value = {
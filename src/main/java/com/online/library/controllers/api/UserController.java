@@ -1,5 +1,6 @@
 package com.online.library.controllers.api;
 
+import com.online.library.domain.dto.CursorPageDto;
 import com.online.library.domain.dto.UserRequestDto;
 import com.online.library.domain.dto.UserResponseDto;
 import com.online.library.services.UserService;
@@ -44,6 +45,19 @@ public class UserController {
         return userService.findAll(pageable);
     }
 
+    @GetMapping(params = "after")
+    @Operation(summary = "Lista użytkowników (kursor)", description = "Stronicowanie po kluczu bez liczenia wszystkich rekordów. " +
+            "Użytkownicy po id rosnąco; pusty kursor zwraca pierwszą stronę, a nextCursor wskazuje kolejną")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Porcja użytkowników"),
+            @ApiResponse(responseCode = "400", description = "Nieprawidłowy kursor")
+    })
+    public CursorPageDto<UserResponseDto> listUsersAfter(
+            @Parameter(description = "Kursor z poprzedniej odpowiedzi") @RequestParam("after") String after,
+            @Parameter(description = "Rozmiar porcji (maks. 100)") @RequestParam(name = "size", defaultValue = "20") int size) {
+        return userService.findAllAfter(after, size);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Pobierz użytkownika", description = "Pobiera szczegóły użytkownika po ID")
     @ApiResponses(value = {
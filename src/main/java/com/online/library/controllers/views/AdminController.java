@@ -18,12 +18,12 @@ import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import jakarta.validation.Valid;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 @Slf4j
 @Controller
@@ -41,6 +41,7 @@ public class AdminController {
     private final ExportService exportService;
     private final UserService userService;
     private final FileStorageService fileStorageService;
+    private final EntityCacheService entityCacheService;
 
     @GetMapping
     public String adminDashboard(Model model) {
@@ -52,9 +53,18 @@ public class AdminController {
         model.addAttribute("popularBooks", analyticsService.getMostPopularBooks(10));
         model.addAttribute("readAuthors", analyticsService.getMostReadAuthors(10));
         model.addAttribute("activeUsers", analyticsService.getMostActiveUsers(10));
+        model.addAttribute("refreshedAt", analyticsService.getRollupsRefreshedAt().orElse(null));
+        model.addAttribute("cacheStats", entityCacheService.getRegionStatistics());
         return "admin/reports";
     }
 
+    @PostMapping("/reports/refresh")
+    public String refreshReports(RedirectAttributes redirectAttributes) {
+        analyticsService.refreshRollups();
+        redirectAttributes.addFlashAttribute("success", "Statystyki odświeżone.");
+        return "redirect:/admin/reports";
+    }
+
     @GetMapping("/reservations")
     public String listReservations(
             @RequestParam(defaultValue = "0") int page,
@@ -104,9 +114,7 @@ public class AdminController {
             Model model,
             RedirectAttributes redirectAttributes) {
         if (result.hasErrors()) {
-            model.addAttribute("allAuthors", authorService.findAll(ALL_ITEMS).getContent());
-            model.addAttribute("allGenres", genreService.findAll(ALL_ITEMS).getContent());
-            return "admin/book-form";
+            return bookFormWithSelection(bookDto, authorIds, genreIds, model);
         }
 
         // Handle cover image upload
@@ -125,25 +133,7 @@ public class AdminController {
             }
         }
 
-        // Set authors
-        if (authorIds != null && !authorIds.isEmpty()) {
-            Set<AuthorDto> authors = new HashSet<>();
-            for (Long authorId : authorIds) {
-                authorService.findById(authorId).ifPresent(authors::add);
-            }
-            bookDto.setAuthors(authors);
-        }
-
-        // Set genres
-        if (genreIds != null && !genreIds.isEmpty()) {
-            Set<GenreDto> genres = new HashSet<>();
-            for (Long genreId : genreIds) {
-                genreService.findById(genreId).ifPresent(genres::add);
-            }
-            bookDto.setGenres(genres);
-        }
-
-        bookService.save(bookDto);
+        bookService.saveWithAssociations(bookDto, authorIds, genreIds);
         redirectAttributes.addFlashAttribute("success", "Książka dodana.");
         return "redirect:/admin/books";
     }
@@ -169,9 +159,7 @@ public class AdminController {
             Model model,
             RedirectAttributes redirectAttributes) {
         if (result.hasErrors()) {
-            model.addAttribute("allAuthors", authorService.findAll(ALL_ITEMS).getContent());
-            model.addAttribute("allGenres", genreService.findAll(ALL_ITEMS).getContent());
-            return "admin/book-form";
+            return bookFormWithSelection(bookDto, authorIds, genreIds, model);
         }
         bookDto.setId(id);
 
@@ -194,41 +182,24 @@ public class AdminController {
                 }
             }
         } else {
-            // Keep existing cover - fetch it from the database
-            bookService.findById(id).ifPresent(existingBook -> {
-                if (existingBook.getCoverImagePath() != null) {
-                    bookDto.setCoverImagePath(existingBook.getCoverImagePath());
-                }
-            });
+            // Keep existing cover - only its path is read from the database
+            bookService.findCoverImagePath(id).ifPresent(bookDto::setCoverImagePath);
         }
 
-        // Set authors
-        if (authorIds != null && !authorIds.isEmpty()) {
-            Set<AuthorDto> authors = new HashSet<>();
-            for (Long authorId : authorIds) {
-                authorService.findById(authorId).ifPresent(authors::add);
-            }
-            bookDto.setAuthors(authors);
-        } else {
-            bookDto.setAuthors(new HashSet<>());
-        }
-
-        // Set genres
-        if (genreIds != null && !genreIds.isEmpty()) {
-            Set<GenreDto> genres = new HashSet<>();
-            for (Long genreId : genreIds) {
-                genreService.findById(genreId).ifPresent(genres::add);
-            }
-            bookDto.setGenres(genres);
-        } else {
-            bookDto.setGenres(new HashSet<>());
-        }
-
-        bookService.save(bookDto);
+        bookService.saveWithAssociations(bookDto, authorIds, genreIds);
         redirectAttributes.addFlashAttribute("success", "Książka zaktualizowana.");
         return "redirect:/admin/books";
     }
 
+    // Re-renders the form after a validation error with the submitted authors and genres still selected.
+    private String bookFormWithSelection(BookDto bookDto, List<Long> authorIds, List<Long> genreIds, Model model) {
+        bookDto.setAuthors(new HashSet<>(authorService.findAllByIdIn(authorIds)));
+        bookDto.setGenres(new HashSet<>(genreService.findAllByIdIn(genreIds)));
+        model.addAttribute("allAuthors", authorService.findAll(ALL_ITEMS).getContent());
+        model.addAttribute("allGenres", genreService.findAll(ALL_ITEMS).getContent());
+        return "admin/book-form";
+    }
+
     @PostMapping("/books/{id}/delete")
     public String deleteBook(@PathVariable Long id, RedirectAttributes redirectAttributes) {
         bookService.delete(id);
@@ -300,37 +271,30 @@ public class AdminController {
         return "redirect:/admin/genres";
     }
 
+    // Rows go from the database cursor straight into the response, without a limit or an in-memory copy.
     @GetMapping("/reports/export/popular-books")
-    public ResponseEntity<byte[]> exportPopularBooksCsv() {
-        List<BookStatDto> books = analyticsService.getMostPopularBooks(100);
-        byte[] csvData = exportService.exportPopularBooksToCsv(books);
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=popularne_ksiazki.csv")
-                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
-                .body(csvData);
+    public ResponseEntity<StreamingResponseBody> exportPopularBooksCsv() {
+        return csvAttachment("popularne_ksiazki.csv",
+                out -> exportService.writePopularBooksCsv(analyticsService::forEachPopularBook, out));
     }
 
     @GetMapping("/reports/export/read-authors")
-    public ResponseEntity<byte[]> exportReadAuthorsCsv() {
-        List<AuthorStatDto> authors = analyticsService.getMostReadAuthors(100);
-        byte[] csvData = exportService.exportReadAuthorsToCsv(authors);
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=czytani_autorzy.csv")
-                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
-                .body(csvData);
+    public ResponseEntity<StreamingResponseBody> exportReadAuthorsCsv() {
+        return csvAttachment("czytani_autorzy.csv",
+                out -> exportService.writeReadAuthorsCsv(analyticsService::forEachReadAuthor, out));
     }
 
     @GetMapping("/reports/export/active-users")
-    public ResponseEntity<byte[]> exportActiveUsersCsv() {
-        List<UserStatDto> users = analyticsService.getMostActiveUsers(100);
-        byte[] csvData = exportService.exportActiveUsersToCsv(users);
+    public ResponseEntity<StreamingResponseBody> exportActiveUsersCsv() {
+        return csvAttachment("aktywni_uzytkownicy.csv",
+                out -> exportService.writeActiveUsersCsv(analyticsService::forEachActiveUser, out));
+    }
 
+    private ResponseEntity<StreamingResponseBody> csvAttachment(String filename, StreamingResponseBody body) {
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=aktywni_uzytkownicy.csv")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
                 .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
-                .body(csvData);
+                .body(body);
     }
 
     @GetMapping("/users")
@@ -3,6 +3,7 @@ package com.online.library.controllers.views;
 import com.online.library.domain.dto.UserLoginRequestDto;
 import com.online.library.domain.dto.UserRequestDto;
 import com.online.library.domain.enums.UserRole;
+import com.online.library.exceptions.PasswordHashingBusyException;
 import com.online.library.services.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -26,11 +27,15 @@ public class AuthController {
     public String loginPage(
             @RequestParam(value = "error", required = false) String error,
             @RequestParam(value = "logout", required = false) String logout,
+            @RequestParam(value = "blocked", required = false) String blocked,
             Model model) {
 
         if (error != null) {
             model.addAttribute("error", "Nieprawidłowa nazwa użytkownika lub hasło");
         }
+        if (blocked != null) {
+            model.addAttribute("error", "Zbyt wiele prób logowania. Spróbuj ponownie za kilka minut.");
+        }
         if (logout != null) {
             model.addAttribute("message", "Wylogowano pomyślnie");
         }
@@ -61,7 +66,13 @@ public class AuthController {
 
         userDto.setRole(UserRole.USER);
         userDto.setEnabled(true);
-        userService.save(userDto);
+        try {
+            userService.save(userDto);
+        } catch (PasswordHashingBusyException e) {
+            log.warn("Rejestracja {} odrzucona, haszowanie haseł przeciążone", userDto.getUsername());
+            result.reject("error.user", "Serwer jest chwilowo przeciążony. Spróbuj ponownie za chwilę.");
+            return "register";
+        }
 
         return "redirect:/login?registered";
     }
@@ -1,30 +1,23 @@
 package com.online.library.controllers.views;
 
-import com.online.library.domain.dto.BookDto;
-import com.online.library.domain.dto.CommentDto;
-import com.online.library.domain.dto.ReservationDto;
-import com.online.library.domain.dto.UserResponseDto;
+import com.online.library.domain.dto.BookDetailsDto;
 import com.online.library.exceptions.ResourceNotFoundException;
 import com.online.library.services.*;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.math.BigDecimal;
 import java.security.Principal;
-import java.util.Optional;
 
 @Controller
 @RequestMapping("/books")
 @RequiredArgsConstructor
 public class BookDetailsController {
 
-    private final BookService bookService;
+    private final BookDetailsService bookDetailsService;
     private final ReservationService reservationService;
     private final RatingService ratingService;
     private final CommentService commentService;
@@ -42,42 +35,9 @@ public class BookDetailsController {
             Principal principal,
             Model model) {
 
-        BookDto book = bookService.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
-
-        BigDecimal averageRating = ratingService.calculateAverageRating(id);
-        Long ratingCount = ratingService.countRatingsForBook(id);
-
-        Pageable commentPageable = PageRequest.of(commentPage, 10);
-        Page<CommentDto> comments = commentService.findByBookId(id, commentPageable);
-        Long commentCount = commentService.countCommentsForBook(id);
-
+        String username = principal != null ? principal.getName() : null;
+        BookDetailsDto book = bookDetailsService.getBookDetails(id, username, PageRequest.of(commentPage, 10));
         model.addAttribute("book", book);
-        model.addAttribute("averageRating", averageRating);
-        model.addAttribute("ratingCount", ratingCount);
-        model.addAttribute("comments", comments);
-        model.addAttribute("commentCount", commentCount);
-
-        // Check if copies are available
-        boolean hasAvailableCopies = reservationService.hasAvailableCopies(id);
-        model.addAttribute("hasAvailableCopies", hasAvailableCopies);
-
-        if (principal != null) {
-            UserResponseDto currentUser = userService.findByUsername(principal.getName())
-                    .orElse(null);
-            if (currentUser != null) {
-                model.addAttribute("currentUser", currentUser);
-                Integer userRating = ratingService.getUserRatingForBook(currentUser.getId(), id);
-                model.addAttribute("userRating", userRating);
-
-                boolean canReserve = reservationService.canUserReserveBook(currentUser.getId(), id);
-                model.addAttribute("canReserve", canReserve);
-
-                Optional<ReservationDto> activeReservation = reservationService
-                        .getActiveReservation(currentUser.getId(), id);
-                activeReservation.ifPresent(res -> model.addAttribute("activeReservation", res));
-            }
-        }
 
         return "book-details";
     }
@@ -99,10 +59,10 @@ public class BookDetailsController {
             return "redirect:/books/" + id;
         }
 
-        UserResponseDto currentUser = userService.findByUsername(principal.getName())
+        Long currentUserId = CurrentUser.id(principal, userService)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        ratingService.rateBook(currentUser.getId(), id, rating);
+        ratingService.rateBook(currentUserId, id, rating);
         redirectAttributes.addFlashAttribute("success", "Dziękujemy za ocenę!");
 
         return "redirect:/books/" + id;
@@ -125,10 +85,10 @@ public class BookDetailsController {
             return "redirect:/books/" + id;
         }
 
-        UserResponseDto currentUser = userService.findByUsername(principal.getName())
+        Long currentUserId = CurrentUser.id(principal, userService)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        commentService.addComment(currentUser.getId(), id, content.trim());
+        commentService.addComment(currentUserId, id, content.trim());
         redirectAttributes.addFlashAttribute("success", "Komentarz został dodany!");
 
         return "redirect:/books/" + id;
@@ -145,11 +105,11 @@ public class BookDetailsController {
             return "redirect:/login";
         }
 
-        UserResponseDto currentUser = userService.findByUsername(principal.getName())
+        Long currentUserId = CurrentUser.id(principal, userService)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
         try {
-            reservationService.createReservation(currentUser.getId(), id);
+            reservationService.createReservation(currentUserId, id);
             redirectAttributes.addFlashAttribute("success",
                     "Rezerwacja została utworzona! Przejdź do panelu użytkownika, aby ją potwierdzić.");
         } catch (IllegalStateException e) {
@@ -0,0 +1,37 @@
+package com.online.library.controllers.views;
+
+import com.online.library.domain.dto.UserResponseDto;
+import com.online.library.security.LibraryUserDetails;
+import com.online.library.services.UserService;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.security.Principal;
+import java.util.Optional;
+
+// Id of the logged-in user. Form logins carry it in the principal; other principals (e.g. sessions
+// created before LibraryUserDetails) still need a lookup by name.
+final class CurrentUser {
+
+    private CurrentUser() {
+    }
+
+    static Optional<Long> id(Principal principal, UserService userService) {
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof LibraryUserDetails details) {
+            return Optional.of(details.getId());
+        }
+        return lookUp(principal.getName(), userService);
+    }
+
+    static Optional<Long> id(UserDetails userDetails, UserService userService) {
+        if (userDetails instanceof LibraryUserDetails details) {
+            return Optional.of(details.getId());
+        }
+        return lookUp(userDetails.getUsername(), userService);
+    }
+
+    private static Optional<Long> lookUp(String username, UserService userService) {
+        return userService.findByUsername(username).map(UserResponseDto::getId);
+    }
+}
@@ -1,7 +1,6 @@
 package com.online.library.controllers.views;
 
 import com.online.library.domain.dto.ReservationDto;
-import com.online.library.domain.dto.UserResponseDto;
 import com.online.library.domain.enums.ReservationStatus;
 import com.online.library.exceptions.ResourceNotFoundException;
 import com.online.library.services.ReservationService;
@@ -27,11 +26,10 @@ public class DashboardController {
 
     @GetMapping("/dashboard")
     public String dashboard(Model model, @AuthenticationPrincipal UserDetails userDetails) {
-        String username = userDetails.getUsername();
-        UserResponseDto user = userService.findByUsername(username)
+        Long userId = CurrentUser.id(userDetails, userService)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        List<ReservationDto> reservations = reservationService.findByUserIdOrderByDate(user.getId());
+        List<ReservationDto> reservations = reservationService.findByUserIdOrderByDate(userId);
 
         model.addAttribute("reservations", reservations);
 
@@ -73,13 +71,13 @@ public class DashboardController {
     }
 
     private void verifyOwnership(Long reservationId, UserDetails userDetails) {
-        UserResponseDto user = userService.findByUsername(userDetails.getUsername())
+        Long userId = CurrentUser.id(userDetails, userService)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
         ReservationDto reservation = reservationService.findById(reservationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation not found"));
 
-        if (!reservation.getUser().getId().equals(user.getId())) {
+        if (!reservation.getUser().getId().equals(userId)) {
             throw new IllegalStateException("Nie masz uprawnień do tej operacji.");
         }
     }
@@ -1,42 +1,186 @@
 package com.online.library.controllers.views;
 
+import com.online.library.domain.enums.ImageSize;
 import com.online.library.services.FileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+// Uploaded files never change: they are named after a hash of their content, so the path itself is a strong validator
+// and browsers may keep the file for a year without asking again. Conditional GETs and single byte ranges
+// are handled by Spring MVC; larger files on Tomcat go out through sendfile instead of being copied in Java.
+// When uploads live in object storage, the controller only redirects to the bucket.
 @Slf4j
 @Controller
 @RequiredArgsConstructor
 public class FileController {
 
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Below this size a plain copy is as cheap as setting up sendfile (the threshold Tomcat's DefaultServlet uses).
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private static final Map<String, MediaType> IMAGE_TYPES = Map.of(
+            "jpg", MediaType.IMAGE_JPEG,
+            "jpeg", MediaType.IMAGE_JPEG,
+            "png", MediaType.IMAGE_PNG,
+            "gif", MediaType.IMAGE_GIF);
+
     private final FileStorageService fileStorageService;
 
     @GetMapping("/uploads/{directory}/{filename:.+}")
     public ResponseEntity<Resource> downloadFile(
             @PathVariable String directory,
-            @PathVariable String filename) {
+            @PathVariable String filename,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
 
         String filePath = directory + "/" + filename;
+        Optional<URI> downloadUrl = fileStorageService.findDownloadUrl(filePath);
+        if (downloadUrl.isPresent()) {
+            return redirect(downloadUrl.get());
+        }
         Resource resource = fileStorageService.loadFileAsResource(filePath);
+        return serve(resource, filePath, filename, request, response);
+    }
+
+    // Scaled covers for the list and detail pages; the original stays available under the URL above.
+    @GetMapping("/uploads/{directory}/{size}/{filename:.+}")
+    public ResponseEntity<Resource> downloadImageDerivative(
+            @PathVariable String directory,
+            @PathVariable String size,
+            @PathVariable String filename,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        ImageSize imageSize = ImageSize.fromPath(size).orElse(null);
+        if (imageSize == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<URI> downloadUrl = fileStorageService.findDownloadUrl(directory + "/" + filename, imageSize);
+        if (downloadUrl.isPresent()) {
+            return redirect(downloadUrl.get());
+        }
+        Resource resource = fileStorageService.loadImageDerivative(directory + "/" + filename, imageSize);
+        return serve(resource, directory + "/" + size + "/" + filename, filename, request, response);
+    }
+
+    // With object storage the bytes come straight from the bucket. The redirect itself is not cached, but its
+    // target stays the same for a while, so the browser still gets the image from its cache.
+    private static ResponseEntity<Resource> redirect(URI downloadUrl) {
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .location(downloadUrl)
+                .cacheControl(CacheControl.noCache())
+                .build();
+    }
 
-        String contentType = "application/octet-stream";
-        if (filename.toLowerCase().endsWith(".jpg") || filename.toLowerCase().endsWith(".jpeg")) {
-            contentType = "image/jpeg";
-        } else if (filename.toLowerCase().endsWith(".png")) {
-            contentType = "image/png";
-        } else if (filename.toLowerCase().endsWith(".gif")) {
-            contentType = "image/gif";
+    private ResponseEntity<Resource> serve(Resource resource, String path, String filename,
+                                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String eTag = "\"" + path + "\"";
+        long lastModified = lastModified(resource);
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, lastModified)) {
+            return null;
         }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                .body(resource);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(IMAGE_TYPES.getOrDefault(extension(filename), MediaType.APPLICATION_OCTET_STREAM));
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
+        headers.setCacheControl(IMMUTABLE);
+        headers.setETag(eTag);
+        if (lastModified > 0) {
+            headers.setLastModified(lastModified);
+        }
+
+        if (sendfile(resource, eTag, headers, request, response)) {
+            return null;
+        }
+        return ResponseEntity.ok().headers(headers).body(resource);
+    }
+
+    // Hands the file to Tomcat, which writes it with sendfile once this handler returns. Only the whole file or
+    // a single range qualify; anything else (and every other container) falls back to the regular path.
+    private boolean sendfile(Resource resource, String eTag, HttpHeaders headers,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) || !resource.isFile()) {
+            return false;
+        }
+        File file = resource.getFile();
+        long length = file.length();
+        if (length < SENDFILE_THRESHOLD) {
+            return false;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        HttpStatus status = HttpStatus.OK;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(eTag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            if (ranges.size() != 1) {
+                return false;
+            }
+            start = ranges.get(0).getRangeStart(length);
+            end = ranges.get(0).getRangeEnd(length);
+            if (start >= length || start > end) {
+                return false;
+            }
+            status = HttpStatus.PARTIAL_CONTENT;
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        response.setStatus(status.value());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setContentLengthLong(end - start + 1);
+        request.setAttribute(SENDFILE_FILENAME, file.getAbsolutePath());
+        request.setAttribute(SENDFILE_START, start);
+        request.setAttribute(SENDFILE_END, end + 1);
+        log.debug("Sending {} bytes of {} with sendfile", end - start + 1, file.getName());
+        return true;
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static String extension(String filename) {
+        String extension = StringUtils.getFilenameExtension(filename);
+        return extension != null ? extension.toLowerCase(Locale.ROOT) : "";
     }
 }
@@ -1,9 +1,11 @@
 package com.online.library.controllers.views;
 
+import com.online.library.domain.dto.BookBrowseDto;
 import com.online.library.domain.dto.BookDto;
 import com.online.library.services.BookService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -12,6 +14,8 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+
 @Controller
 @RequiredArgsConstructor
 public class HomeController {
@@ -23,6 +27,9 @@ public class HomeController {
             @RequestParam(name = "q", required = false) String searchTerm,
             @RequestParam(name = "sort", defaultValue = "title") String sortField,
             @RequestParam(name = "dir", defaultValue = "asc") String sortDir,
+            @RequestParam(name = "genre", required = false) List<Long> genreIds,
+            @RequestParam(name = "author", required = false) List<Long> authorIds,
+            @RequestParam(name = "decade", required = false) List<Integer> decades,
             Pageable pageable,
             Model model) {
 
@@ -33,7 +40,10 @@ public class HomeController {
         if (searchTerm != null && !searchTerm.trim().isEmpty()) {
             books = bookService.searchBooks(searchTerm, sortedPageable);
         } else {
-            books = bookService.findAll(sortedPageable);
+            // Facets narrow the catalog listing; a text search is ranked on its own
+            BookBrowseDto browse = bookService.browse(genreIds, authorIds, decades, sortedPageable);
+            books = new PageImpl<>(browse.getContent(), sortedPageable, browse.getTotalElements());
+            model.addAttribute("facets", browse.getFacets());
         }
 
         Page<BookDto> popularBooks = bookService.getPopularBooks(PageRequest.of(0, 5));
@@ -43,6 +53,9 @@ public class HomeController {
         model.addAttribute("searchTerm", searchTerm);
         model.addAttribute("sortField", sortField);
         model.addAttribute("sortDir", sortDir);
+        model.addAttribute("selectedGenres", genreIds);
+        model.addAttribute("selectedAuthors", authorIds);
+        model.addAttribute("selectedDecades", decades);
 
         return "index";
     }
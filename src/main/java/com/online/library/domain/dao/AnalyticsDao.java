@@ -6,10 +6,17 @@ import com.online.library.domain.dto.UserStatDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @Slf4j
 @Repository
@@ -39,44 +46,110 @@ public class AnalyticsDao {
                         .reservationCount(rs.getLong("reservation_count"))
                         .build();
 
+        // Exports walk the whole result through a cursor; the fetch size keeps the driver from buffering it all.
+        private static final int EXPORT_FETCH_SIZE = 500;
+
+        // Reports read the rollup tables, so each one is an index-ordered top-N scan instead of a GROUP BY
+        // over all reservations. Ties are broken by id to match the index order.
+        private static final String POPULAR_BOOKS_SQL = """
+                        SELECT b.id, b.title, b.average_rating, COALESCE(s.reservation_count, 0) as reservation_count
+                        FROM books b
+                        LEFT JOIN book_stats s ON s.book_id = b.id
+                        ORDER BY b.average_rating DESC NULLS LAST, b.id
+                        """;
+
+        private static final String READ_AUTHORS_SQL = """
+                        SELECT a.id, a.name, a.last_name, s.loan_count
+                        FROM author_stats s
+                        JOIN authors a ON a.id = s.author_id
+                        ORDER BY s.loan_count DESC, s.author_id
+                        """;
+
+        private static final String ACTIVE_USERS_SQL = """
+                        SELECT u.id, u.username, u.email, s.reservation_count
+                        FROM user_stats s
+                        JOIN users u ON u.id = s.user_id
+                        ORDER BY s.reservation_count DESC, s.user_id
+                        """;
+
+        // Full recompute. Locking the refresh row first keeps two instances from rebuilding at once.
+        private static final String[] REFRESH_SQL = {
+                        "UPDATE analytics_refresh SET refreshed_at = CURRENT_TIMESTAMP WHERE id = 1",
+                        "DELETE FROM book_stats",
+                        """
+                        INSERT INTO book_stats (book_id, reservation_count)
+                        SELECT r.book_id, COUNT(*) FROM reservations r
+                        WHERE r.book_id IS NOT NULL
+                        GROUP BY r.book_id
+                        """,
+                        "DELETE FROM author_stats",
+                        """
+                        INSERT INTO author_stats (author_id, loan_count)
+                        SELECT ba.author_id, COUNT(r.id)
+                        FROM book_authors ba
+                        LEFT JOIN reservations r ON r.book_id = ba.book_id AND r.status IN ('WYPOŻYCZONA', 'ZWRÓCONA')
+                        GROUP BY ba.author_id
+                        """,
+                        "DELETE FROM user_stats",
+                        """
+                        INSERT INTO user_stats (user_id, reservation_count)
+                        SELECT u.id, COUNT(r.id)
+                        FROM users u
+                        LEFT JOIN reservations r ON r.user_id = u.id
+                        GROUP BY u.id
+                        """
+        };
+
         public List<BookStatDto> getMostPopularBooks(int limit) {
                 log.debug("Fetching {} most popular books", limit);
-                String sql = """
-                                SELECT b.id, b.title, b.average_rating, COUNT(r.id) as reservation_count
-                                FROM books b
-                                LEFT JOIN reservations r ON b.id = r.book_id
-                                GROUP BY b.id, b.title, b.average_rating
-                                ORDER BY b.average_rating DESC NULLS LAST
-                                LIMIT ?
-                                """;
-                return jdbcTemplate.query(sql, BOOK_STAT_ROW_MAPPER, limit);
+                return jdbcTemplate.query(POPULAR_BOOKS_SQL + "LIMIT ?", BOOK_STAT_ROW_MAPPER, limit);
         }
 
         public List<AuthorStatDto> getMostReadAuthors(int limit) {
                 log.debug("Fetching {} most read authors", limit);
-                String sql = """
-                                SELECT a.id, a.name, a.last_name, COUNT(r.id) as loan_count
-                                FROM authors a
-                                JOIN book_authors ba ON a.id = ba.author_id
-                                JOIN books b ON ba.book_id = b.id
-                                LEFT JOIN reservations r ON b.id = r.book_id AND r.status IN ('WYPOŻYCZONA', 'ZWRÓCONA')
-                                GROUP BY a.id, a.name, a.last_name
-                                ORDER BY loan_count DESC
-                                LIMIT ?
-                                """;
-                return jdbcTemplate.query(sql, AUTHOR_STAT_ROW_MAPPER, limit);
+                return jdbcTemplate.query(READ_AUTHORS_SQL + "LIMIT ?", AUTHOR_STAT_ROW_MAPPER, limit);
         }
 
         public List<UserStatDto> getMostActiveUsers(int limit) {
                 log.debug("Fetching {} most active users", limit);
-                String sql = """
-                                SELECT u.id, u.username, u.email, COUNT(r.id) as reservation_count
-                                FROM users u
-                                LEFT JOIN reservations r ON u.id = r.user_id
-                                GROUP BY u.id, u.username, u.email
-                                ORDER BY reservation_count DESC
-                                LIMIT ?
-                                """;
-                return jdbcTemplate.query(sql, USER_STAT_ROW_MAPPER, limit);
+                return jdbcTemplate.query(ACTIVE_USERS_SQL + "LIMIT ?", USER_STAT_ROW_MAPPER, limit);
+        }
+
+        public void refreshRollups() {
+                log.debug("Refreshing analytics rollups");
+                for (String sql : REFRESH_SQL) {
+                        jdbcTemplate.update(sql);
+                }
+        }
+
+        public Optional<LocalDateTime> getRollupsRefreshedAt() {
+                Timestamp refreshedAt = jdbcTemplate.queryForObject(
+                                "SELECT refreshed_at FROM analytics_refresh WHERE id = 1", Timestamp.class);
+                return Optional.ofNullable(refreshedAt).map(Timestamp::toLocalDateTime);
+        }
+
+        public void forEachPopularBook(Consumer<BookStatDto> consumer) {
+                log.debug("Streaming all books by popularity");
+                stream(POPULAR_BOOKS_SQL, BOOK_STAT_ROW_MAPPER, consumer);
+        }
+
+        public void forEachReadAuthor(Consumer<AuthorStatDto> consumer) {
+                log.debug("Streaming all authors by loan count");
+                stream(READ_AUTHORS_SQL, AUTHOR_STAT_ROW_MAPPER, consumer);
+        }
+
+        public void forEachActiveUser(Consumer<UserStatDto> consumer) {
+                log.debug("Streaming all users by reservation count");
+                stream(ACTIVE_USERS_SQL, USER_STAT_ROW_MAPPER, consumer);
+        }
+
+        // PostgreSQL only honours the fetch size inside a transaction, so callers must provide one.
+        private <T> void stream(String sql, RowMapper<T> rowMapper, Consumer<T> consumer) {
+                jdbcTemplate.query(connection -> {
+                        PreparedStatement statement = connection.prepareStatement(sql,
+                                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                        statement.setFetchSize(EXPORT_FETCH_SIZE);
+                        return statement;
+                }, (RowCallbackHandler) rs -> consumer.accept(rowMapper.mapRow(rs, rs.getRow())));
         }
 }
@@ -0,0 +1,126 @@
+package com.online.library.domain.dao;
+
+import com.online.library.domain.dto.BookDetailsDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class BookDetailsDao {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        private static final RowMapper<BookDetailsDto.Comment> COMMENT_ROW_MAPPER = (rs, rowNum) -> {
+                Timestamp createdAt = rs.getTimestamp("created_at");
+                return new BookDetailsDto.Comment(
+                                rs.getLong("id"),
+                                rs.getString("username"),
+                                rs.getString("content"),
+                                createdAt != null ? createdAt.toLocalDateTime() : null);
+        };
+
+        // One row per author x genre pair; the book columns and the per-user subqueries repeat on each row.
+        private static final String DETAILS_SQL = """
+                        SELECT b.id, b.title, b.description, b.publisher, b.publish_year, b.isbn,
+                               b.cover_image_path, b.copies_available, b.average_rating, b.rating_count,
+                               (SELECT COUNT(*) FROM reservations r
+                                WHERE r.book_id = b.id AND r.status = 'WYPOŻYCZONA') AS loaned_count,
+                               (SELECT COUNT(*) FROM comments c WHERE c.book_id = b.id) AS comment_count,
+                               cu.id AS current_user_id,
+                               (SELECT r.rating FROM ratings r
+                                WHERE r.book_id = b.id AND r.user_id = cu.id
+                                ORDER BY r.created_at DESC LIMIT 1) AS user_rating,
+                               EXISTS (SELECT 1 FROM reservations r
+                                       WHERE r.book_id = b.id AND r.user_id = cu.id
+                                       AND r.status IN ('OCZEKUJĄCA', 'POTWIERDZONA', 'WYPOŻYCZONA')) AS active_reservation,
+                               a.id AS author_id, a.name AS author_name, a.last_name AS author_last_name,
+                               g.id AS genre_id, g.name AS genre_name
+                        FROM books b
+                        LEFT JOIN users cu ON cu.username = ?
+                        LEFT JOIN book_authors ba ON ba.book_id = b.id
+                        LEFT JOIN authors a ON a.id = ba.author_id
+                        LEFT JOIN book_genres bg ON bg.book_id = b.id
+                        LEFT JOIN genres g ON g.id = bg.genre_id
+                        WHERE b.id = ?
+                        ORDER BY a.last_name, a.name, g.name
+                        """;
+
+        private static final String COMMENTS_SQL = """
+                        SELECT c.id, c.content, c.created_at, u.username
+                        FROM comments c
+                        LEFT JOIN users u ON u.id = c.user_id
+                        WHERE c.book_id = ?
+                        ORDER BY c.created_at DESC, c.id DESC
+                        LIMIT ? OFFSET ?
+                        """;
+
+        public Optional<BookDetailsDto> findBookDetails(Long bookId, String username, Pageable commentPageable) {
+                log.debug("Fetching details of book {} for user {}", bookId, username);
+                Map<Long, BookDetailsDto.Author> authors = new LinkedHashMap<>();
+                Map<Long, BookDetailsDto.Genre> genres = new LinkedHashMap<>();
+                BookDetailsDto.BookDetailsDtoBuilder[] header = new BookDetailsDto.BookDetailsDtoBuilder[1];
+
+                jdbcTemplate.query(DETAILS_SQL, rs -> {
+                        if (header[0] == null) {
+                                Integer copies = rs.getObject("copies_available", Integer.class);
+                                long loaned = rs.getLong("loaned_count");
+                                header[0] = BookDetailsDto.builder()
+                                                .id(rs.getLong("id"))
+                                                .title(rs.getString("title"))
+                                                .description(rs.getString("description"))
+                                                .publisher(rs.getString("publisher"))
+                                                .publishYear(rs.getObject("publish_year", Integer.class))
+                                                .isbn(rs.getString("isbn"))
+                                                .coverImagePath(rs.getString("cover_image_path"))
+                                                .copiesAvailable(copies)
+                                                .averageRating(Optional.ofNullable(rs.getBigDecimal("average_rating"))
+                                                                .orElse(BigDecimal.ZERO))
+                                                .ratingCount(rs.getLong("rating_count"))
+                                                .hasAvailableCopies(copies != null && copies > 0 && copies > loaned)
+                                                .commentCount(rs.getLong("comment_count"))
+                                                .currentUserId(rs.getObject("current_user_id", Long.class))
+                                                .userRating(rs.getObject("user_rating", Integer.class))
+                                                .hasActiveReservation(rs.getBoolean("active_reservation"));
+                        }
+                        long authorId = rs.getLong("author_id");
+                        if (!rs.wasNull()) {
+                                authors.putIfAbsent(authorId, new BookDetailsDto.Author(authorId,
+                                                rs.getString("author_name"), rs.getString("author_last_name")));
+                        }
+                        long genreId = rs.getLong("genre_id");
+                        if (!rs.wasNull()) {
+                                genres.putIfAbsent(genreId, new BookDetailsDto.Genre(genreId, rs.getString("genre_name")));
+                        }
+                }, username, bookId);
+
+                if (header[0] == null) {
+                        return Optional.empty();
+                }
+                BookDetailsDto details = header[0]
+                                .authors(List.copyOf(authors.values()))
+                                .genres(List.copyOf(genres.values()))
+                                .build();
+
+                // The comment total is already known from the first query, so the page needs no count query.
+                List<BookDetailsDto.Comment> comments = details.getCommentCount() == 0
+                                ? List.of()
+                                : jdbcTemplate.query(COMMENTS_SQL, COMMENT_ROW_MAPPER, bookId,
+                                                commentPageable.getPageSize(), commentPageable.getOffset());
+                return Optional.of(details.toBuilder()
+                                .comments(new PageImpl<>(comments, commentPageable, details.getCommentCount()))
+                                .build());
+        }
+}
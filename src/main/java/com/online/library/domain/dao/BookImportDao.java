@@ -0,0 +1,106 @@
+package com.online.library.domain.dao;
+
+import com.online.library.domain.dto.BookImportRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// JDBC side of the bulk import. Ids are reserved from the tables' own sequences up front, so the rows can go
+// out as plain batched INSERTs (rewritten into multi-row statements by the PostgreSQL driver) and the join rows
+// can be written without reading any generated keys back.
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class BookImportDao {
+
+        public static final String BOOKS_SEQUENCE = "books_id_seq";
+        public static final String AUTHORS_SEQUENCE = "authors_id_seq";
+        public static final String GENRES_SEQUENCE = "genres_id_seq";
+
+        private static final String INSERT_BOOK_SQL = """
+                        INSERT INTO books (id, title, description, publisher, publish_year, isbn, copies_available)
+                        VALUES (?, ?, ?, ?, ?, ?, ?)
+                        """;
+
+        private final JdbcTemplate jdbcTemplate;
+
+        public record AuthorRow(Long id, String name, String lastName) {
+        }
+
+        public record GenreRow(Long id, String name) {
+        }
+
+        public record Link(Long bookId, Long targetId) {
+        }
+
+        // The sequence name is one of the constants above, never user input.
+        public List<Long> nextIds(String sequence, int count) {
+                if (count == 0) {
+                        return List.of();
+                }
+                return jdbcTemplate.queryForList(
+                                "SELECT nextval('" + sequence + "') FROM generate_series(1, ?)", Long.class, count);
+        }
+
+        public void forEachAuthor(Consumer<AuthorRow> consumer) {
+                jdbcTemplate.query("SELECT id, name, last_name FROM authors", rs -> {
+                        consumer.accept(new AuthorRow(rs.getLong("id"), rs.getString("name"), rs.getString("last_name")));
+                });
+        }
+
+        public void forEachGenre(Consumer<GenreRow> consumer) {
+                jdbcTemplate.query("SELECT id, name FROM genres", rs -> {
+                        consumer.accept(new GenreRow(rs.getLong("id"), rs.getString("name")));
+                });
+        }
+
+        public void insertAuthors(List<AuthorRow> authors) {
+                log.debug("Inserting {} authors", authors.size());
+                batch("INSERT INTO authors (id, name, last_name) VALUES (?, ?, ?)", authors.stream()
+                                .map(author -> new Object[]{author.id(), author.name(), author.lastName()})
+                                .toList());
+        }
+
+        public void insertGenres(List<GenreRow> genres) {
+                log.debug("Inserting {} genres", genres.size());
+                batch("INSERT INTO genres (id, name) VALUES (?, ?)", genres.stream()
+                                .map(genre -> new Object[]{genre.id(), genre.name()})
+                                .toList());
+        }
+
+        // ids.get(i) becomes the id of books.get(i).
+        public void insertBooks(List<Long> ids, List<BookImportRow> books) {
+                log.debug("Inserting {} books", books.size());
+                List<Object[]> args = new ArrayList<>(books.size());
+                for (int i = 0; i < books.size(); i++) {
+                        BookImportRow book = books.get(i);
+                        args.add(new Object[]{ids.get(i), book.title(), book.description(), book.publisher(),
+                                        book.publishYear(), book.isbn(),
+                                        book.copiesAvailable() != null ? book.copiesAvailable() : 1});
+                }
+                batch(INSERT_BOOK_SQL, args);
+        }
+
+        public void insertBookAuthors(List<Link> links) {
+                batch("INSERT INTO book_authors (book_id, author_id) VALUES (?, ?)", links.stream()
+                                .map(link -> new Object[]{link.bookId(), link.targetId()})
+                                .toList());
+        }
+
+        public void insertBookGenres(List<Link> links) {
+                batch("INSERT INTO book_genres (book_id, genre_id) VALUES (?, ?)", links.stream()
+                                .map(link -> new Object[]{link.bookId(), link.targetId()})
+                                .toList());
+        }
+
+        private void batch(String sql, List<Object[]> args) {
+                if (!args.isEmpty()) {
+                        jdbcTemplate.batchUpdate(sql, args);
+                }
+        }
+}
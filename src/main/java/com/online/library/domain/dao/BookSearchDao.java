@@ -0,0 +1,185 @@
+package com.online.library.domain.dao;
+
+import com.online.library.search.FacetDocument;
+import com.online.library.search.SearchDocument;
+import com.online.library.search.Suggestion;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class BookSearchDao {
+
+        // Authors are ranked by their best rated book.
+        private static final String AUTHOR_SUGGESTIONS = """
+                        SELECT a.id, a.name, a.last_name, MAX(b.average_rating) AS rating
+                        FROM authors a
+                        LEFT JOIN book_authors ba ON ba.author_id = a.id
+                        LEFT JOIN books b ON b.id = ba.book_id
+                        """;
+
+        private static final int IN_LIST_CHUNK = 1000;
+
+        private final JdbcTemplate jdbcTemplate;
+
+        // Feeds every book to the consumer; the join tables are read once up front instead of per book.
+        public void forEachDocument(Consumer<SearchDocument> consumer) {
+                log.debug("Loading search documents for all books");
+                forEachDocument("", new Object[0], consumer);
+        }
+
+        public void forEachDocument(Collection<Long> bookIds, Consumer<SearchDocument> consumer) {
+                inChunks(bookIds, (bookFilter, args) -> forEachDocument(bookFilter, args, consumer));
+        }
+
+        // Genre and author ids and the publish year of every book, for the facet bitmaps.
+        public void forEachFacetDocument(Consumer<FacetDocument> consumer) {
+                log.debug("Loading facet documents for all books");
+                forEachFacetDocument("", new Object[0], consumer);
+        }
+
+        public void forEachFacetDocument(Collection<Long> bookIds, Consumer<FacetDocument> consumer) {
+                inChunks(bookIds, (bookFilter, args) -> forEachFacetDocument(bookFilter, args, consumer));
+        }
+
+        public List<Long> findBookIdsByAuthor(Long authorId) {
+                return jdbcTemplate.queryForList("SELECT book_id FROM book_authors WHERE author_id = ?", Long.class,
+                                authorId);
+        }
+
+        public List<Long> findBookIdsByGenre(Long genreId) {
+                return jdbcTemplate.queryForList("SELECT book_id FROM book_genres WHERE genre_id = ?", Long.class,
+                                genreId);
+        }
+
+        // bookFilter is empty or an " IN (...)" condition on the book id, applied to every query.
+        private void forEachDocument(String bookFilter, Object[] args, Consumer<SearchDocument> consumer) {
+                Map<Long, List<String>> authors = new HashMap<>();
+                jdbcTemplate.query("""
+                                SELECT ba.book_id, a.name, a.last_name
+                                FROM book_authors ba
+                                JOIN authors a ON a.id = ba.author_id
+                                """ + where("ba.book_id", bookFilter), rs -> {
+                        authors.computeIfAbsent(rs.getLong("book_id"), id -> new ArrayList<>())
+                                        .add(rs.getString("name") + " " + rs.getString("last_name"));
+                }, args);
+
+                Map<Long, List<String>> genres = new HashMap<>();
+                jdbcTemplate.query("""
+                                SELECT bg.book_id, g.name
+                                FROM book_genres bg
+                                JOIN genres g ON g.id = bg.genre_id
+                                """ + where("bg.book_id", bookFilter), rs -> {
+                        genres.computeIfAbsent(rs.getLong("book_id"), id -> new ArrayList<>())
+                                        .add(rs.getString("name"));
+                }, args);
+
+                jdbcTemplate.query("SELECT id, title, description FROM books" + where("id", bookFilter), rs -> {
+                        long id = rs.getLong("id");
+                        consumer.accept(new SearchDocument(id, rs.getString("title"), rs.getString("description"),
+                                        authors.get(id), genres.get(id)));
+                }, args);
+        }
+
+        private void forEachFacetDocument(String bookFilter, Object[] args, Consumer<FacetDocument> consumer) {
+                Map<Long, List<Long>> authors = new HashMap<>();
+                jdbcTemplate.query("SELECT book_id, author_id FROM book_authors" + where("book_id", bookFilter), rs -> {
+                        authors.computeIfAbsent(rs.getLong("book_id"), id -> new ArrayList<>())
+                                        .add(rs.getLong("author_id"));
+                }, args);
+
+                Map<Long, List<Long>> genres = new HashMap<>();
+                jdbcTemplate.query("SELECT book_id, genre_id FROM book_genres" + where("book_id", bookFilter), rs -> {
+                        genres.computeIfAbsent(rs.getLong("book_id"), id -> new ArrayList<>())
+                                        .add(rs.getLong("genre_id"));
+                }, args);
+
+                jdbcTemplate.query("SELECT id, publish_year FROM books" + where("id", bookFilter), rs -> {
+                        long id = rs.getLong("id");
+                        consumer.accept(new FacetDocument(id, rs.getObject("publish_year", Integer.class),
+                                        authors.get(id), genres.get(id)));
+                }, args);
+        }
+
+        // Splits the ids into " IN (...)" conditions of at most IN_LIST_CHUNK placeholders each.
+        private static void inChunks(Collection<Long> bookIds, BiConsumer<String, Object[]> query) {
+                List<Long> ids = new ArrayList<>(bookIds);
+                for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK) {
+                        List<Long> chunk = ids.subList(from, Math.min(from + IN_LIST_CHUNK, ids.size()));
+                        query.accept(" IN (" + placeholders(chunk.size()) + ")", chunk.toArray());
+                }
+        }
+
+        private static String where(String column, String bookFilter) {
+                return bookFilter.isEmpty() ? "" : " WHERE " + column + bookFilter;
+        }
+
+        private static String placeholders(int count) {
+                return String.join(", ", Collections.nCopies(count, "?"));
+        }
+
+        public void forEachSuggestion(Consumer<Suggestion> consumer) {
+                log.debug("Loading suggestions for all books and authors");
+                jdbcTemplate.query("SELECT id, title, average_rating FROM books",
+                                rs -> {
+                                        consumer.accept(bookSuggestion(rs));
+                                });
+                jdbcTemplate.query(AUTHOR_SUGGESTIONS + "GROUP BY a.id, a.name, a.last_name",
+                                rs -> {
+                                        consumer.accept(authorSuggestion(rs));
+                                });
+        }
+
+        public Optional<Suggestion> findAuthorSuggestion(Long authorId) {
+                return jdbcTemplate.query(AUTHOR_SUGGESTIONS + "WHERE a.id = ? GROUP BY a.id, a.name, a.last_name",
+                                (rs, rowNum) -> authorSuggestion(rs), authorId).stream().findFirst();
+        }
+
+        // Current ratings of the given books and of everyone who wrote them.
+        public List<Suggestion> findSuggestionsForBooks(Collection<Long> bookIds) {
+                List<Long> ids = new ArrayList<>(bookIds);
+                List<Suggestion> suggestions = new ArrayList<>();
+                for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK) {
+                        List<Long> chunk = ids.subList(from, Math.min(from + IN_LIST_CHUNK, ids.size()));
+                        String placeholders = placeholders(chunk.size());
+                        Object[] args = chunk.toArray();
+                        suggestions.addAll(jdbcTemplate.query(
+                                        "SELECT id, title, average_rating FROM books WHERE id IN (" + placeholders + ")",
+                                        (rs, rowNum) -> bookSuggestion(rs), args));
+                        suggestions.addAll(jdbcTemplate.query(AUTHOR_SUGGESTIONS
+                                        + "WHERE a.id IN (SELECT author_id FROM book_authors WHERE book_id IN ("
+                                        + placeholders + ")) GROUP BY a.id, a.name, a.last_name",
+                                        (rs, rowNum) -> authorSuggestion(rs), args));
+                }
+                return suggestions;
+        }
+
+        private static Suggestion bookSuggestion(ResultSet rs) throws SQLException {
+                return Suggestion.book(rs.getLong("id"), rs.getString("title"), rating(rs.getBigDecimal("average_rating")));
+        }
+
+        private static Suggestion authorSuggestion(ResultSet rs) throws SQLException {
+                return Suggestion.author(rs.getLong("id"), rs.getString("name"), rs.getString("last_name"),
+                                rating(rs.getBigDecimal("rating")));
+        }
+
+        private static float rating(BigDecimal rating) {
+                return rating != null ? rating.floatValue() : 0.0f;
+        }
+}
@@ -0,0 +1,24 @@
+package com.online.library.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// OAuth 2.0 token response field names, so generic HTTP clients understand it
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccessTokenDto {
+
+    @JsonProperty("access_token")
+    private String accessToken;
+
+    @JsonProperty("token_type")
+    private String tokenType;
+
+    @JsonProperty("expires_in")
+    private long expiresIn;
+}
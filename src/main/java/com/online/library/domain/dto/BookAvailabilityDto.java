@@ -0,0 +1,19 @@
+package com.online.library.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookAvailabilityDto {
+    private Integer copiesAvailable;
+    private Long loanedCount;
+
+    public boolean hasAvailableCopies() {
+        return copiesAvailable != null && copiesAvailable > 0 && copiesAvailable > loanedCount;
+    }
+}
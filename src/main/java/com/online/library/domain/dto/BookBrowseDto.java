@@ -0,0 +1,22 @@
+package com.online.library.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// A catalog page with the facet counts for the same filter; the page fields match a serialized Page.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookBrowseDto {
+    private List<BookDto> content;
+    private int number;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private BookFacetsDto facets;
+}
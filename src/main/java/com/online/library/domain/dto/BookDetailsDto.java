@@ -0,0 +1,48 @@
+package com.online.library.domain.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.data.domain.Page;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Everything the book details page renders, read in one go by BookDetailsDao.
+@Value
+@Builder(toBuilder = true)
+public class BookDetailsDto {
+    Long id;
+    String title;
+    String description;
+    String publisher;
+    Integer publishYear;
+    String isbn;
+    String coverImagePath;
+    Integer copiesAvailable;
+    BigDecimal averageRating;
+    long ratingCount;
+    List<Author> authors;
+    List<Genre> genres;
+    boolean hasAvailableCopies;
+    long commentCount;
+    Page<Comment> comments;
+
+    // Filled in only for a logged-in user
+    Long currentUserId;
+    Integer userRating;
+    boolean hasActiveReservation;
+
+    public boolean isCanReserve() {
+        return currentUserId != null && !hasActiveReservation && hasAvailableCopies;
+    }
+
+    public record Author(Long id, String name, String lastName) {
+    }
+
+    public record Genre(Long id, String name) {
+    }
+
+    public record Comment(Long id, String username, String content, LocalDateTime createdAt) {
+    }
+}
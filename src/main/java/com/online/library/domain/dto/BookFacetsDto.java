@@ -0,0 +1,22 @@
+package com.online.library.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookFacetsDto {
+    @Builder.Default
+    private List<FacetValueDto> genres = new ArrayList<>();
+    @Builder.Default
+    private List<FacetValueDto> authors = new ArrayList<>();
+    @Builder.Default
+    private List<FacetValueDto> decades = new ArrayList<>();
+}
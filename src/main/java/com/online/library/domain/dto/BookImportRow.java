@@ -0,0 +1,37 @@
+package com.online.library.domain.dto;
+
+import java.util.List;
+import java.util.Objects;
+
+// One book as read from an import file; authors are full names ("Imię Nazwisko"), genres are names.
+// Cleaned here for every format: text is trimmed with blanks as null, and empty names are dropped.
+public record BookImportRow(String title, String isbn, List<String> authors, List<String> genres,
+        String publisher, Integer publishYear, String description, Integer copiesAvailable) {
+
+    public BookImportRow {
+        title = text(title);
+        isbn = text(isbn);
+        authors = names(authors);
+        genres = names(genres);
+        publisher = text(publisher);
+        description = text(description);
+    }
+
+    private static String text(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static List<String> names(List<String> names) {
+        if (names == null) {
+            return List.of();
+        }
+        return names.stream()
+                .map(BookImportRow::text)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -0,0 +1,34 @@
+package com.online.library.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookImportStatusDto {
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private UUID id;
+    private State state;
+    private long processedRows;
+    private long importedBooks;
+    private long duplicateRows;
+    private long rejectedRows;
+    private long createdAuthors;
+    private long createdGenres;
+    private List<String> errors;
+    private String failure;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
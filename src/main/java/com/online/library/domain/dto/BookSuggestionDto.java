@@ -0,0 +1,18 @@
+package com.online.library.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A typeahead hit: a book title (id of the book) or an author (id of the author, rated by their best book)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookSuggestionDto {
+    private String type;
+    private Long id;
+    private String text;
+    private Double averageRating;
+}
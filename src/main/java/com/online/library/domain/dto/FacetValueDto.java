@@ -0,0 +1,18 @@
+package com.online.library.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One facet value: the genre or author id, or the first year of a decade.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetValueDto {
+    private Long value;
+    private String label;
+    private long count;
+    private boolean selected;
+}
@@ -2,7 +2,11 @@ package com.online.library.domain.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -14,6 +18,7 @@ import java.util.Set;
 @AllArgsConstructor
 @Builder
 @Entity
+@DynamicUpdate
 @Table(name = "books")
 public class BookEntity {
 
@@ -49,7 +54,11 @@ public class BookEntity {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
+    // Listings initialise the collections of a whole page in one query instead of one per book.
+    // The link ids are kept in the second-level cache; the authors and genres themselves come from their own regions.
     @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book-authors")
     @JoinTable(
             name = "book_authors",
             joinColumns = @JoinColumn(name = "book_id"),
@@ -59,6 +68,8 @@ public class BookEntity {
     private Set<AuthorEntity> authors = new HashSet<>();
 
     @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book-genres")
     @JoinTable(
             name = "book_genres",
             joinColumns = @JoinColumn(name = "book_id"),
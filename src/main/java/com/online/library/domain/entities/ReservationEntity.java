@@ -35,7 +35,7 @@ public class ReservationEntity {
     private ReservationStatus status;
 
     @CreationTimestamp
-    @Column(name = "reserved_at", updatable = false)
+    @Column(name = "reserved_at", nullable = false, updatable = false)
     private LocalDateTime reservedAt;
 
     @Column(name = "confirmed_at")
@@ -0,0 +1,36 @@
+package com.online.library.domain.enums;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+// Derived cover sizes, as bounding boxes at twice the CSS size the pages display them at (HiDPI screens).
+public enum ImageSize {
+    LIST("list", 400, 600),
+    DETAIL("detail", 800, 1200);
+
+    private final String path;
+    private final int maxWidth;
+    private final int maxHeight;
+
+    ImageSize(String path, int maxWidth, int maxHeight) {
+        this.path = path;
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    public static Optional<ImageSize> fromPath(String path) {
+        return Arrays.stream(values()).filter(size -> size.path.equals(path)).findFirst();
+    }
+}
@@ -0,0 +1,5 @@
+package com.online.library.domain.enums;
+
+public enum ImportFormat {
+    CSV, JSON_LINES
+}
@@ -0,0 +1,8 @@
+package com.online.library.exceptions;
+
+public class ImportQueueFullException extends RuntimeException {
+
+    public ImportQueueFullException(String message) {
+        super(message);
+    }
+}
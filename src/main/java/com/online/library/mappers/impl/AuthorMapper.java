@@ -1,25 +1,10 @@
 package com.online.library.mappers.impl;
 
+import com.online.library.config.MapperConfig;
 import com.online.library.domain.dto.AuthorDto;
 import com.online.library.domain.entities.AuthorEntity;
 import com.online.library.mappers.Mapper;
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
-import org.springframework.stereotype.Component;
 
-@Component
-@RequiredArgsConstructor
-public class AuthorMapper implements Mapper<AuthorEntity, AuthorDto> {
-
-    private final ModelMapper modelMapper;
-
-    @Override
-    public AuthorDto mapTo(AuthorEntity authorEntity) {
-        return modelMapper.map(authorEntity, AuthorDto.class);
-    }
-
-    @Override
-    public AuthorEntity mapFrom(AuthorDto authorDto) {
-        return modelMapper.map(authorDto, AuthorEntity.class);
-    }
+@org.mapstruct.Mapper(config = MapperConfig.class)
+public interface AuthorMapper extends Mapper<AuthorEntity, AuthorDto> {
 }
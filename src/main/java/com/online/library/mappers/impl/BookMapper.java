@@ -1,25 +1,10 @@
 package com.online.library.mappers.impl;
 
+import com.online.library.config.MapperConfig;
 import com.online.library.domain.dto.BookDto;
 import com.online.library.domain.entities.BookEntity;
 import com.online.library.mappers.Mapper;
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
-import org.springframework.stereotype.Component;
 
-@Component
-@RequiredArgsConstructor
-public class BookMapper implements Mapper<BookEntity, BookDto> {
-
-    private final ModelMapper modelMapper;
-
-    @Override
-    public BookDto mapTo(BookEntity bookEntity) {
-        return modelMapper.map(bookEntity, BookDto.class);
-    }
-
-    @Override
-    public BookEntity mapFrom(BookDto bookDto) {
-        return modelMapper.map(bookDto, BookEntity.class);
-    }
+@org.mapstruct.Mapper(config = MapperConfig.class, uses = {AuthorMapper.class, GenreMapper.class})
+public interface BookMapper extends Mapper<BookEntity, BookDto> {
 }
@@ -1,23 +1,20 @@
 package com.online.library.mappers.impl;
 
+import com.online.library.config.MapperConfig;
 import com.online.library.domain.dto.UserRequestDto;
 import com.online.library.domain.dto.UserResponseDto;
 import com.online.library.domain.entities.UserEntity;
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
-import org.springframework.stereotype.Component;
+import org.mapstruct.Mapping;
 
-@Component
-@RequiredArgsConstructor
-public class UserMapper {
+@org.mapstruct.Mapper(config = MapperConfig.class)
+public interface UserMapper {
 
-    private final ModelMapper modelMapper;
+    UserResponseDto mapToResponse(UserEntity userEntity);
 
-    public UserResponseDto mapToResponse(UserEntity userEntity) {
-        return modelMapper.map(userEntity, UserResponseDto.class);
-    }
+    @Mapping(target = "createdAt", ignore = true)
+    UserEntity mapFromRequest(UserRequestDto userRequestDto);
 
-    public UserEntity mapFromRequest(UserRequestDto userRequestDto) {
-        return modelMapper.map(userRequestDto, UserEntity.class);
-    }
+    // Nested users in comments, ratings and reservations; the password is never part of a response.
+    @Mapping(target = "password", ignore = true)
+    UserEntity mapFromResponse(UserResponseDto userResponseDto);
 }
@@ -1,9 +1,31 @@
 package com.online.library.repositories;
 
 import com.online.library.domain.entities.AuthorEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface AuthorRepository extends JpaRepository<AuthorEntity, Long> {
+    // Backs the book form pickers; the cached result is dropped as soon as the table is written through Hibernate.
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Page<AuthorEntity> findAll(Pageable pageable);
+
+    List<AuthorEntity> findAllByIdIn(Collection<Long> ids);
+
+    @Query("SELECT a.id FROM AuthorEntity a WHERE a.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    List<AuthorEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
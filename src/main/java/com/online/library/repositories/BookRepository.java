@@ -1,19 +1,38 @@
 package com.online.library.repositories;
 
+import com.online.library.domain.dto.BookAvailabilityDto;
 import com.online.library.domain.entities.BookEntity;
+import com.online.library.domain.enums.ReservationStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookRepository extends JpaRepository<BookEntity, Long> {
+    @Override
+    @EntityGraph(attributePaths = {"authors", "genres"})
+    Optional<BookEntity> findById(Long id);
+
     Optional<BookEntity> findByIsbn(String isbn);
 
+    // Batch form of findByIsbn for the bulk import: which of these ISBNs are already in the catalogue.
+    @Query("SELECT b.isbn FROM BookEntity b WHERE b.isbn IN :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
     @Query("SELECT b FROM BookEntity b " +
             "LEFT JOIN b.authors a " +
             "LEFT JOIN b.genres g " +
@@ -24,4 +43,73 @@ public interface BookRepository extends JpaRepository<BookEntity, Long> {
     Page<BookEntity> searchBooks(@Param("searchTerm") String searchTerm, Pageable pageable);
 
     Page<BookEntity> findAllByOrderByAverageRatingDesc(Pageable pageable);
+
+    Page<BookEntity> findByIdIn(Collection<Long> ids, Pageable pageable);
+
+    // Database form of the facet filter, for when the bitmaps are not built yet or a sorted result is too big
+    // for an IN list. An empty facet is passed with its flag off and a placeholder list.
+    @Query("SELECT b FROM BookEntity b WHERE " +
+            "(:anyGenre = false OR b.id IN (SELECT bg.id FROM BookEntity bg JOIN bg.genres g WHERE g.id IN :genreIds)) " +
+            "AND (:anyAuthor = false OR b.id IN (SELECT ba.id FROM BookEntity ba JOIN ba.authors a WHERE a.id IN :authorIds)) " +
+            "AND (:anyDecade = false OR b.publishYear - MOD(b.publishYear, 10) IN :decades)")
+    Page<BookEntity> findByFacets(@Param("anyGenre") boolean anyGenre, @Param("genreIds") Collection<Long> genreIds,
+                                  @Param("anyAuthor") boolean anyAuthor, @Param("authorIds") Collection<Long> authorIds,
+                                  @Param("anyDecade") boolean anyDecade, @Param("decades") Collection<Integer> decades,
+                                  Pageable pageable);
+
+    @Query("SELECT b.averageRating FROM BookEntity b WHERE b.id = :bookId")
+    Optional<BigDecimal> findAverageRatingById(@Param("bookId") Long bookId);
+
+    @Query(value = "SELECT rating_count FROM books WHERE id = :bookId", nativeQuery = true)
+    Optional<Long> findRatingCountById(@Param("bookId") Long bookId);
+
+    // Single-row update, so concurrent votes on one book serialise on its row lock instead of losing deltas.
+    // The native spaces keep Hibernate from clearing the whole second-level cache after each vote.
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "books"))
+    @Query(value = "UPDATE books SET " +
+            "rating_sum = rating_sum + :sumDelta, " +
+            "rating_count = rating_count + :countDelta, " +
+            "average_rating = CASE WHEN rating_count + :countDelta = 0 THEN 0 " +
+            "ELSE ROUND(CAST(rating_sum + :sumDelta AS DECIMAL(12, 4)) / (rating_count + :countDelta), 2) END " +
+            "WHERE id = :bookId", nativeQuery = true)
+    int applyRatingDelta(@Param("bookId") Long bookId, @Param("sumDelta") long sumDelta,
+                         @Param("countDelta") long countDelta);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "books"))
+    @Query(value = "UPDATE books SET " +
+            "rating_sum = COALESCE((SELECT SUM(r.rating) FROM ratings r WHERE r.book_id = books.id), 0), " +
+            "rating_count = (SELECT COUNT(*) FROM ratings r WHERE r.book_id = books.id), " +
+            "average_rating = COALESCE((SELECT ROUND(AVG(CAST(r.rating AS DECIMAL(12, 4))), 2) " +
+            "FROM ratings r WHERE r.book_id = books.id), 0) " +
+            "WHERE id IN (:bookIds)", nativeQuery = true)
+    int recalculateRatingAggregates(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT new com.online.library.domain.dto.BookAvailabilityDto(b.copiesAvailable, " +
+            "(SELECT COUNT(r) FROM ReservationEntity r WHERE r.book = b AND r.status = :status)) " +
+            "FROM BookEntity b WHERE b.id = :bookId")
+    Optional<BookAvailabilityDto> findAvailabilityById(@Param("bookId") Long bookId,
+                                                       @Param("status") ReservationStatus status);
+
+    // Conditional update: the row lock serialises concurrent loans, so the last copy can only go once.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BookEntity b SET b.copiesAvailable = b.copiesAvailable - 1 " +
+            "WHERE b.id = :bookId AND b.copiesAvailable > 0")
+    int decrementCopiesAvailable(@Param("bookId") Long bookId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BookEntity b SET b.copiesAvailable = COALESCE(b.copiesAvailable, 0) + 1 WHERE b.id = :bookId")
+    int incrementCopiesAvailable(@Param("bookId") Long bookId);
+
+    List<BookEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Uploaded covers are shared between books with the same image; these count who still uses one.
+    long countByCoverImagePath(String coverImagePath);
+
+    @Query("SELECT DISTINCT b.coverImagePath FROM BookEntity b WHERE b.coverImagePath IS NOT NULL")
+    List<String> findAllCoverImagePaths();
+
+    @Query("SELECT b.coverImagePath FROM BookEntity b WHERE b.id = :bookId")
+    Optional<String> findCoverImagePathById(@Param("bookId") Long bookId);
 }
@@ -1,11 +1,15 @@
 package com.online.library.repositories;
 
 import com.online.library.domain.entities.CommentEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -18,4 +22,12 @@ public interface CommentRepository extends JpaRepository<CommentEntity, Long> {
     List<CommentEntity> findByUserId(Long userId);
 
     Long countByBookId(Long bookId);
+
+    List<CommentEntity> findAllByOrderByCreatedAtDescIdDesc(Limit limit);
+
+    @Query("SELECT c FROM CommentEntity c " +
+            "WHERE c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentEntity> findOlderThan(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                      Limit limit);
 }
@@ -1,12 +1,33 @@
 package com.online.library.repositories;
 
 import com.online.library.domain.entities.GenreEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface GenreRepository extends JpaRepository<GenreEntity, Long> {
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Page<GenreEntity> findAll(Pageable pageable);
+
     Optional<GenreEntity> findByName(String name);
+
+    List<GenreEntity> findAllByIdIn(Collection<Long> ids);
+
+    @Query("SELECT g.id FROM GenreEntity g WHERE g.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    List<GenreEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -3,6 +3,7 @@ package com.online.library.repositories;
 import com.online.library.domain.entities.BookEntity;
 import com.online.library.domain.entities.RatingEntity;
 import com.online.library.domain.entities.UserEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -28,4 +29,9 @@ public interface RatingRepository extends JpaRepository<RatingEntity, Long> {
     Long countRatingsByBookId(@Param("bookId") Long bookId);
 
     boolean existsByUserAndBook(UserEntity user, BookEntity book);
+
+    @Query("SELECT DISTINCT r.book.id FROM RatingEntity r WHERE r.user.id = :userId")
+    List<Long> findRatedBookIdsByUserId(@Param("userId") Long userId);
+
+    List<RatingEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
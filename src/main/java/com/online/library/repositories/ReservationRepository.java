@@ -2,11 +2,13 @@ package com.online.library.repositories;
 
 import com.online.library.domain.entities.ReservationEntity;
 import com.online.library.domain.enums.ReservationStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,4 +30,12 @@ public interface ReservationRepository extends JpaRepository<ReservationEntity,
         Optional<ReservationEntity> findByUserIdAndBookIdAndStatusIsActive(
                         @Param("userId") Long userId,
                         @Param("bookId") Long bookId);
+
+        List<ReservationEntity> findAllByOrderByReservedAtDescIdDesc(Limit limit);
+
+        @Query("SELECT r FROM ReservationEntity r " +
+                        "WHERE r.reservedAt < :reservedAt OR (r.reservedAt = :reservedAt AND r.id < :id) " +
+                        "ORDER BY r.reservedAt DESC, r.id DESC")
+        List<ReservationEntity> findOlderThan(@Param("reservedAt") LocalDateTime reservedAt, @Param("id") Long id,
+                        Limit limit);
 }
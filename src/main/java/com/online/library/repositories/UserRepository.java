@@ -1,13 +1,17 @@
 package com.online.library.repositories;
 
 import com.online.library.domain.entities.UserEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
     Optional<UserEntity> findByUsername(String username);
     Optional<UserEntity> findByEmail(String email);
+
+    List<UserEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
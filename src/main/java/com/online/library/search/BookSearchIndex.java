@@ -0,0 +1,209 @@
+package com.online.library.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+@Slf4j
+@Component
+public class BookSearchIndex {
+
+    private static final float TITLE_WEIGHT = 4.0f;
+    private static final float AUTHOR_WEIGHT = 3.0f;
+    private static final float GENRE_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float PREFIX_MATCH_FACTOR = 0.5f;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private NavigableMap<String, PostingList> postings = new TreeMap<>();
+    private Map<Long, String[]> documentTerms = new HashMap<>();
+    private volatile boolean ready;
+    private final RebuildChanges<Long, SearchDocument> changesDuringRebuild = new RebuildChanges<>(lock);
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Builds a fresh index off to the side and swaps it in, so searches keep working during a rebuild; writes that
+    // land meanwhile are carried over by RebuildChanges.
+    public synchronized void rebuild(Consumer<Consumer<SearchDocument>> source) {
+        NavigableMap<String, PostingList> freshPostings = new TreeMap<>();
+        Map<Long, String[]> freshTerms = new HashMap<>();
+        changesDuringRebuild.rebuild(
+                () -> source.accept(document -> add(freshPostings, freshTerms, document)),
+                id -> remove(freshPostings, freshTerms, id),
+                document -> add(freshPostings, freshTerms, document),
+                () -> {
+                    postings = freshPostings;
+                    documentTerms = freshTerms;
+                });
+        ready = true;
+        log.info("Search index rebuilt: {} books, {} terms", freshTerms.size(), freshPostings.size());
+    }
+
+    public void index(SearchDocument document) {
+        lock.writeLock().lock();
+        try {
+            remove(postings, documentTerms, document.id());
+            add(postings, documentTerms, document);
+            changesDuringRebuild.record(document.id(), document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            remove(postings, documentTerms, bookId);
+            changesDuringRebuild.record(bookId, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Every query token has to match (as a whole token or a prefix of one); results are ordered by score.
+    public List<Long> search(String query) {
+        Set<String> tokens = new LinkedHashSet<>(TextNormalizer.tokenize(query));
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Float> scores = null;
+        lock.readLock().lock();
+        try {
+            for (String token : tokens) {
+                Map<Long, Float> tokenScores = scoreToken(token, scores);
+                if (tokenScores.isEmpty()) {
+                    return List.of();
+                }
+                if (scores != null) {
+                    Map<Long, Float> previous = scores;
+                    tokenScores.replaceAll((id, score) -> score + previous.get(id));
+                }
+                scores = tokenScores;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<Long, Float>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Float>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        List<Long> ids = new ArrayList<>(ranked.size());
+        for (Map.Entry<Long, Float> entry : ranked) {
+            ids.add(entry.getKey());
+        }
+        return ids;
+    }
+
+    private Map<Long, Float> scoreToken(String token, Map<Long, Float> candidates) {
+        Map<Long, Float> scores = new HashMap<>();
+        SortedMap<String, PostingList> matches = postings.subMap(token, token + Character.MAX_VALUE);
+        for (Map.Entry<String, PostingList> match : matches.entrySet()) {
+            float factor = match.getKey().length() == token.length() ? 1.0f : PREFIX_MATCH_FACTOR;
+            match.getValue().forEach((id, weight) -> {
+                if (candidates == null || candidates.containsKey(id)) {
+                    scores.merge(id, weight * factor, Math::max);
+                }
+            });
+        }
+        return scores;
+    }
+
+    private static void add(NavigableMap<String, PostingList> postings, Map<Long, String[]> documentTerms,
+            SearchDocument document) {
+        Map<String, Float> weights = new HashMap<>();
+        addTerms(weights, document.title(), TITLE_WEIGHT);
+        document.authors().forEach(author -> addTerms(weights, author, AUTHOR_WEIGHT));
+        document.genres().forEach(genre -> addTerms(weights, genre, GENRE_WEIGHT));
+        addTerms(weights, document.description(), DESCRIPTION_WEIGHT);
+
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new PostingList())
+                .put(document.id(), weight));
+        documentTerms.put(document.id(), weights.keySet().toArray(String[]::new));
+    }
+
+    private static void remove(NavigableMap<String, PostingList> postings, Map<Long, String[]> documentTerms,
+            Long bookId) {
+        String[] terms = documentTerms.remove(bookId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (list != null && list.remove(bookId) && list.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Float> weights, String text, float weight) {
+        for (String token : new HashSet<>(TextNormalizer.tokenize(text))) {
+            weights.merge(token, weight, Float::sum);
+        }
+    }
+
+    @FunctionalInterface
+    private interface PostingConsumer {
+        void accept(long bookId, float weight);
+    }
+
+    // Book ids kept sorted in primitive arrays; boxed maps would cost several times the memory per posting.
+    private static final class PostingList {
+        private long[] ids = new long[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void put(long id, float weight) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                weights[index] = weight;
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(weights, index, weights, index + 1, size - index);
+            ids[index] = id;
+            weights[index] = weight;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void forEach(PostingConsumer consumer) {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(ids[i], weights[i]);
+            }
+        }
+    }
+}
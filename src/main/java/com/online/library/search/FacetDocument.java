@@ -0,0 +1,14 @@
+package com.online.library.search;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+public record FacetDocument(Long id, Integer publishYear, Collection<Long> authorIds, Collection<Long> genreIds) {
+
+    public FacetDocument {
+        // A book is counted once per value, however often the join table lists it
+        authorIds = authorIds != null ? List.copyOf(new LinkedHashSet<>(authorIds)) : List.of();
+        genreIds = genreIds != null ? List.copyOf(new LinkedHashSet<>(genreIds)) : List.of();
+    }
+}
@@ -0,0 +1,36 @@
+package com.online.library.search;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Selected facet values: a book has to match one of the values of every facet that has any.
+public record FacetFilter(Set<Long> genreIds, Set<Long> authorIds, Set<Integer> decades) {
+
+    public static final FacetFilter NONE = new FacetFilter(Set.of(), Set.of(), Set.of());
+
+    public FacetFilter {
+        genreIds = clean(genreIds);
+        authorIds = clean(authorIds);
+        // Any year picks its decade, so ?decade=1994 means the 1990s
+        decades = clean(decades).stream().map(FacetFilter::decade).collect(Collectors.toUnmodifiableSet());
+    }
+
+    public static FacetFilter of(Collection<Long> genreIds, Collection<Long> authorIds, Collection<Integer> decades) {
+        return new FacetFilter(clean(genreIds), clean(authorIds), clean(decades));
+    }
+
+    public boolean isEmpty() {
+        return genreIds.isEmpty() && authorIds.isEmpty() && decades.isEmpty();
+    }
+
+    public static int decade(int year) {
+        return year - Math.floorMod(year, 10);
+    }
+
+    private static <T> Set<T> clean(Collection<T> values) {
+        return values == null ? Set.of()
+                : values.stream().filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+    }
+}
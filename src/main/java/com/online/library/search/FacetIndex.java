@@ -0,0 +1,285 @@
+package com.online.library.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Catalog facets as compressed bitmaps of book ids, one per genre, author and publish decade. A filter is the
+// union of the selected values within a facet intersected across facets. A facet is counted over the books the
+// other facets let through, so picking a genre narrows the author and decade counts but keeps the other genres
+// selectable.
+@Slf4j
+@Component
+public class FacetIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Facets facets = new Facets();
+    private volatile boolean ready;
+    private final RebuildChanges<Long, FacetDocument> changesDuringRebuild = new RebuildChanges<>(lock);
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return facets.all.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Builds fresh bitmaps off to the side and swaps them in, like BookSearchIndex.rebuild.
+    public synchronized void rebuild(Consumer<Consumer<FacetDocument>> source) {
+        Facets fresh = new Facets();
+        changesDuringRebuild.rebuild(
+                () -> {
+                    source.accept(fresh::add);
+                    fresh.optimize();
+                },
+                id -> fresh.remove(bitmapId(id)),
+                fresh::add,
+                () -> facets = fresh);
+        ready = true;
+        log.info("Facet index rebuilt: {} books, {} genres, {} authors, {} decades", fresh.all.getCardinality(),
+                fresh.genres.size(), fresh.authors.size(), fresh.decades.size());
+    }
+
+    public void index(FacetDocument document) {
+        lock.writeLock().lock();
+        try {
+            facets.remove(bitmapId(document.id()));
+            facets.add(document);
+            changesDuringRebuild.record(document.id(), document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            facets.remove(bitmapId(bookId));
+            changesDuringRebuild.record(bookId, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Matching books and the counts of every facet value that still has some; authors are cut to the
+    // maxAuthors largest (selected ones are always kept).
+    public FacetResult query(FacetFilter filter, int maxAuthors) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap genreMatch = facets.genres.union(filter.genreIds());
+            RoaringBitmap authorMatch = facets.authors.union(filter.authorIds());
+            RoaringBitmap decadeMatch = facets.decades.union(filter.decades());
+
+            RoaringBitmap matches = intersect(genreMatch, authorMatch, decadeMatch);
+            if (matches == null) {
+                matches = facets.all.clone();
+            }
+            return new FacetResult(matches,
+                    facets.genres.count(intersect(authorMatch, decadeMatch), filter.genreIds(), Integer.MAX_VALUE),
+                    facets.authors.count(intersect(genreMatch, decadeMatch), filter.authorIds(), maxAuthors),
+                    facets.decades.count(intersect(genreMatch, authorMatch), filter.decades(), Integer.MAX_VALUE));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Bitmaps hold 32-bit values; book ids come from an identity column and stay well below that.
+    static int bitmapId(Long bookId) {
+        return Math.toIntExact(bookId);
+    }
+
+    // A new bitmap, so it can be read after the lock is released; null when nothing restricts.
+    private static RoaringBitmap intersect(RoaringBitmap... restrictions) {
+        RoaringBitmap result = null;
+        for (RoaringBitmap restriction : restrictions) {
+            if (restriction != null) {
+                if (result == null) {
+                    result = restriction.clone();
+                } else {
+                    result.and(restriction);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static final class Facets {
+        private final RoaringBitmap all = new RoaringBitmap();
+        private final Facet<Long> genres = new Facet<>();
+        private final Facet<Long> authors = new Facet<>();
+        private final Facet<Integer> decades = new Facet<>();
+
+        void add(FacetDocument document) {
+            int bookId = bitmapId(document.id());
+            all.add(bookId);
+            genres.add(bookId, document.genreIds());
+            authors.add(bookId, document.authorIds());
+            decades.add(bookId, document.publishYear() != null
+                    ? List.of(FacetFilter.decade(document.publishYear())) : List.of());
+        }
+
+        void remove(int bookId) {
+            if (all.checkedRemove(bookId)) {
+                genres.remove(bookId);
+                authors.remove(bookId);
+                decades.remove(bookId);
+            }
+        }
+
+        void optimize() {
+            all.runOptimize();
+            genres.optimize();
+            authors.optimize();
+            decades.optimize();
+        }
+    }
+
+    // One facet. Values get dense ordinals, so the per-value book counts and each book's values are plain
+    // arrays: an unfiltered count reads sizes without touching a bitmap, and a facet with many small values
+    // (authors) is counted by walking the filtered books instead of intersecting every value's bitmap.
+    private static final class Facet<K extends Comparable<K>> {
+
+        // Walking the books costs about one step per book, intersecting about this many per value.
+        private static final int TALLY_FACTOR = 16;
+        private static final int[] NONE = new int[0];
+
+        private final Map<K, Integer> ordinals = new HashMap<>();
+        private final List<K> keys = new ArrayList<>();
+        private final List<RoaringBitmap> books = new ArrayList<>();
+        private int[] sizes = new int[16];
+        private int[][] byBook = new int[1024][];
+
+        int size() {
+            int values = 0;
+            for (int ordinal = 0; ordinal < keys.size(); ordinal++) {
+                values += sizes[ordinal] > 0 ? 1 : 0;
+            }
+            return values;
+        }
+
+        void add(int bookId, Collection<K> values) {
+            if (values.isEmpty()) {
+                return;
+            }
+            int[] bookOrdinals = new int[values.size()];
+            int i = 0;
+            for (K key : values) {
+                int ordinal = ordinals.computeIfAbsent(key, this::newOrdinal);
+                books.get(ordinal).add(bookId);
+                sizes[ordinal]++;
+                bookOrdinals[i++] = ordinal;
+            }
+            if (bookId >= byBook.length) {
+                byBook = Arrays.copyOf(byBook, Math.max(bookId + 1, byBook.length * 2));
+            }
+            byBook[bookId] = bookOrdinals;
+        }
+
+        // Ordinals are not reused; an emptied value keeps its slot with size 0 until the next rebuild.
+        void remove(int bookId) {
+            int[] bookOrdinals = bookOrdinals(bookId);
+            for (int ordinal : bookOrdinals) {
+                books.get(ordinal).remove(bookId);
+                sizes[ordinal]--;
+            }
+            if (bookOrdinals.length > 0) {
+                byBook[bookId] = null;
+            }
+        }
+
+        // null when nothing is selected in the facet, i.e. it does not restrict anything.
+        RoaringBitmap union(Set<K> selected) {
+            if (selected.isEmpty()) {
+                return null;
+            }
+            List<RoaringBitmap> selectedBooks = new ArrayList<>(selected.size());
+            for (K key : selected) {
+                Integer ordinal = ordinals.get(key);
+                if (ordinal != null) {
+                    selectedBooks.add(books.get(ordinal));
+                }
+            }
+            return selectedBooks.isEmpty() ? new RoaringBitmap() : FastAggregation.or(selectedBooks.iterator());
+        }
+
+        // base is null when the other facets select nothing, so every book counts.
+        Map<K, Integer> count(RoaringBitmap base, Set<K> selected, int limit) {
+            int values = keys.size();
+            int[] counts;
+            if (base == null) {
+                counts = sizes;
+            } else if (base.getCardinality() < (long) values * TALLY_FACTOR) {
+                int[] tally = new int[values];
+                base.forEach((int bookId) -> {
+                    for (int ordinal : bookOrdinals(bookId)) {
+                        tally[ordinal]++;
+                    }
+                });
+                counts = tally;
+            } else {
+                counts = new int[values];
+                for (int ordinal = 0; ordinal < values; ordinal++) {
+                    if (sizes[ordinal] > 0) {
+                        counts[ordinal] = RoaringBitmap.andCardinality(books.get(ordinal), base);
+                    }
+                }
+            }
+
+            // Smallest of the kept counts on top, so it is the one pushed out; only limit entries are ever held
+            Comparator<Integer> smallestFirst = Comparator.<Integer>comparingInt(ordinal -> counts[ordinal])
+                    .thenComparing(keys::get, Comparator.reverseOrder());
+            PriorityQueue<Integer> top = new PriorityQueue<>(smallestFirst);
+            for (int ordinal = 0; ordinal < values; ordinal++) {
+                if (counts[ordinal] == 0 || selected.contains(keys.get(ordinal))) {
+                    continue;
+                }
+                if (top.size() < limit) {
+                    top.add(ordinal);
+                } else if (smallestFirst.compare(ordinal, top.peek()) > 0) {
+                    top.poll();
+                    top.add(ordinal);
+                }
+            }
+
+            List<Map.Entry<K, Integer>> entries = new ArrayList<>(top.size() + selected.size());
+            top.forEach(ordinal -> entries.add(Map.entry(keys.get(ordinal), counts[ordinal])));
+            for (K key : selected) {
+                Integer ordinal = ordinals.get(key);
+                entries.add(Map.entry(key, ordinal != null ? counts[ordinal] : 0));
+            }
+            entries.sort(Map.Entry.<K, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+            Map<K, Integer> result = new LinkedHashMap<>();
+            entries.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+            return result;
+        }
+
+        void optimize() {
+            books.forEach(RoaringBitmap::runOptimize);
+        }
+
+        private int[] bookOrdinals(int bookId) {
+            int[] bookOrdinals = bookId < byBook.length ? byBook[bookId] : null;
+            return bookOrdinals != null ? bookOrdinals : NONE;
+        }
+
+        private int newOrdinal(K key) {
+            keys.add(key);
+            books.add(new RoaringBitmap());
+            if (keys.size() > sizes.length) {
+                sizes = Arrays.copyOf(sizes, sizes.length * 2);
+            }
+            return keys.size() - 1;
+        }
+    }
+}
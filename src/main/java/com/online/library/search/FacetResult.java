@@ -0,0 +1,60 @@
+package com.online.library.search;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Outcome of FacetIndex.query. Counts are ordered from the largest; matching ids come out in ascending order.
+public final class FacetResult {
+
+    private final RoaringBitmap matches;
+    private final Map<Long, Integer> genreCounts;
+    private final Map<Long, Integer> authorCounts;
+    private final Map<Integer, Integer> decadeCounts;
+
+    FacetResult(RoaringBitmap matches, Map<Long, Integer> genreCounts, Map<Long, Integer> authorCounts,
+                Map<Integer, Integer> decadeCounts) {
+        this.matches = matches;
+        this.genreCounts = genreCounts;
+        this.authorCounts = authorCounts;
+        this.decadeCounts = decadeCounts;
+    }
+
+    public int total() {
+        return matches.getCardinality();
+    }
+
+    public List<Long> ids() {
+        return ids(0, total());
+    }
+
+    // One page of ids; select jumps straight to the offset instead of walking the bitmap up to it.
+    public List<Long> ids(long offset, int count) {
+        int total = total();
+        if (offset >= total || count <= 0) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>((int) Math.min(count, total - offset));
+        PeekableIntIterator iterator = matches.getIntIterator();
+        iterator.advanceIfNeeded(matches.select((int) offset));
+        while (iterator.hasNext() && ids.size() < count) {
+            ids.add((long) iterator.next());
+        }
+        return ids;
+    }
+
+    public Map<Long, Integer> genreCounts() {
+        return genreCounts;
+    }
+
+    public Map<Long, Integer> authorCounts() {
+        return authorCounts;
+    }
+
+    public Map<Integer, Integer> decadeCounts() {
+        return decadeCounts;
+    }
+}
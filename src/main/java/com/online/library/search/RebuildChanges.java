@@ -0,0 +1,60 @@
+package com.online.library.search;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Shared by the in-memory indexes, which rebuild a fresh structure off to the side while writes keep going to
+// the live one. Writes that land meanwhile are recorded here, the latest value per key (null for a removal), and
+// replayed onto the fresh structure at the swap so that they are not lost with the old one.
+final class RebuildChanges<K, V> {
+
+    private final ReentrantReadWriteLock lock;
+    private Map<K, V> changes;
+
+    RebuildChanges(ReentrantReadWriteLock lock) {
+        this.lock = lock;
+    }
+
+    // build fills the fresh structure without the lock; remove, apply and swap run under the write lock, first
+    // replaying each recorded change (remove the key, then apply the value unless removed) and then swapping the
+    // fresh structure in. When build fails the old structure stays. Callers serialize their rebuilds.
+    void rebuild(Runnable build, Consumer<K> remove, Consumer<V> apply, Runnable swap) {
+        lock.writeLock().lock();
+        try {
+            changes = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        boolean built = false;
+        try {
+            build.run();
+            built = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (built) {
+                    changes.forEach((key, value) -> {
+                        remove.accept(key);
+                        if (value != null) {
+                            apply.accept(value);
+                        }
+                    });
+                    swap.run();
+                }
+                changes = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Called with the write lock held, after the change went to the live structure.
+    void record(K key, V value) {
+        if (changes != null) {
+            changes.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.online.library.search;
+
+import java.util.Collection;
+import java.util.List;
+
+public record SearchDocument(Long id, String title, String description,
+        Collection<String> authors, Collection<String> genres) {
+
+    public SearchDocument {
+        authors = authors != null ? authors : List.of();
+        genres = genres != null ? genres : List.of();
+    }
+}
@@ -0,0 +1,17 @@
+package com.online.library.search;
+
+// One typeahead entry. Authors are also found by their last name alone (alias).
+public record Suggestion(Type type, Long id, String text, String alias, float rating) {
+
+    public enum Type {
+        BOOK, AUTHOR
+    }
+
+    public static Suggestion book(Long id, String title, float rating) {
+        return new Suggestion(Type.BOOK, id, title, null, rating);
+    }
+
+    public static Suggestion author(Long id, String name, String lastName, float rating) {
+        return new Suggestion(Type.AUTHOR, id, name + " " + lastName, lastName, rating);
+    }
+}
@@ -0,0 +1,406 @@
+package com.online.library.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Typeahead over book titles and author names: a radix trie (runs of single-child nodes collapsed into one
+// edge label) keyed by the normalized text. Every node remembers the best rating below it, so the top k for
+// a prefix come out of a best-first walk that only opens the branches that can still beat what was found,
+// instead of visiting every title under a short prefix like "a".
+@Slf4j
+@Component
+public class SuggestionIndex {
+
+    public static final int MAX_LIMIT = 20;
+
+    private static final char[] NO_LABEL = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Suggestion[] NO_ENTRIES = new Suggestion[0];
+    private static final float NOTHING = -1.0f;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Tree tree = new Tree();
+    private volatile boolean ready;
+    private final RebuildChanges<EntryKey, Suggestion> changesDuringRebuild = new RebuildChanges<>(lock);
+
+    // Books whose rating or authors changed (votes are not worth a reindex each); picked up by a periodic refresh.
+    private final Set<Long> staleRatings = ConcurrentHashMap.newKeySet();
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tree.books.size() + tree.authors.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return count(tree.root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Builds a fresh trie off to the side and swaps it in, like BookSearchIndex.rebuild.
+    public synchronized void rebuild(Consumer<Consumer<Suggestion>> source) {
+        Tree fresh = new Tree();
+        changesDuringRebuild.rebuild(
+                () -> source.accept(fresh::put),
+                key -> fresh.remove(key.type(), key.id()),
+                fresh::put,
+                () -> tree = fresh);
+        ready = true;
+        log.info("Suggestion index rebuilt: {} books, {} authors", fresh.books.size(), fresh.authors.size());
+    }
+
+    public void put(Suggestion suggestion) {
+        lock.writeLock().lock();
+        try {
+            tree.remove(suggestion.type(), suggestion.id());
+            tree.put(suggestion);
+            recordChange(suggestion.type(), suggestion.id(), suggestion);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Suggestion.Type type, Long id) {
+        lock.writeLock().lock();
+        try {
+            tree.remove(type, id);
+            recordChange(type, id, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Like put, but leaves the trie alone when the entry is already there unchanged.
+    public void refresh(Suggestion suggestion) {
+        lock.writeLock().lock();
+        try {
+            if (!suggestion.equals(tree.entries(suggestion.type()).get(suggestion.id()))) {
+                tree.remove(suggestion.type(), suggestion.id());
+                tree.put(suggestion);
+            }
+            recordChange(suggestion.type(), suggestion.id(), suggestion);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void markRatingStale(Long bookId) {
+        staleRatings.add(bookId);
+    }
+
+    public Set<Long> drainStaleRatings() {
+        Set<Long> drained = new HashSet<>();
+        for (Iterator<Long> iterator = staleRatings.iterator(); iterator.hasNext(); ) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+
+    // Called with the write lock held.
+    private void recordChange(Suggestion.Type type, Long id, Suggestion suggestion) {
+        changesDuringRebuild.record(new EntryKey(type, id), suggestion);
+    }
+
+    private record EntryKey(Suggestion.Type type, Long id) {
+    }
+
+    // Best rated first. limit is capped at MAX_LIMIT.
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = key(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int k = Math.min(limit, MAX_LIMIT);
+
+        lock.readLock().lock();
+        try {
+            Node start = tree.find(key);
+            if (start == null) {
+                return List.of();
+            }
+            List<Suggestion> results = new ArrayList<>(k);
+            Set<Suggestion> seen = new HashSet<>();
+            PriorityQueue<Candidate> queue = new PriorityQueue<>();
+            queue.add(new Candidate(start.best, start, null));
+            while (!queue.isEmpty() && results.size() < k) {
+                Candidate candidate = queue.poll();
+                if (candidate.entry != null) {
+                    // Authors sit under two keys and may be reached twice
+                    if (seen.add(candidate.entry)) {
+                        results.add(candidate.entry);
+                    }
+                    continue;
+                }
+                for (Suggestion entry : candidate.node.entries) {
+                    queue.add(new Candidate(entry.rating(), null, entry));
+                }
+                for (Node child : candidate.node.children) {
+                    queue.add(new Candidate(child.best, child, null));
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String key(String text) {
+        return String.join(" ", TextNormalizer.tokenize(text));
+    }
+
+    private static int count(Node node) {
+        int total = 1;
+        for (Node child : node.children) {
+            total += count(child);
+        }
+        return total;
+    }
+
+    private record Candidate(float score, Node node, Suggestion entry) implements Comparable<Candidate> {
+
+        @Override
+        public int compareTo(Candidate other) {
+            int byScore = Float.compare(other.score, score);
+            if (byScore != 0) {
+                return byScore;
+            }
+            // A finished entry goes before a branch that can at best tie with it
+            if ((entry == null) != (other.entry == null)) {
+                return entry != null ? -1 : 1;
+            }
+            return entry != null ? entry.text().compareTo(other.entry.text()) : 0;
+        }
+    }
+
+    private static final class Node {
+        private char[] label;
+        private Node[] children = NO_CHILDREN;
+        private Suggestion[] entries = NO_ENTRIES;
+        private float best = NOTHING;
+
+        Node(char[] label) {
+            this.label = label;
+        }
+
+        int childIndex(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children[mid].label[0];
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void recomputeBest() {
+            float max = NOTHING;
+            for (Suggestion entry : entries) {
+                max = Math.max(max, entry.rating());
+            }
+            for (Node child : children) {
+                max = Math.max(max, child.best);
+            }
+            best = max;
+        }
+    }
+
+    private static final class Tree {
+        private final Node root = new Node(NO_LABEL);
+        private final Map<Long, Suggestion> books = new HashMap<>();
+        private final Map<Long, Suggestion> authors = new HashMap<>();
+
+        Map<Long, Suggestion> entries(Suggestion.Type type) {
+            return type == Suggestion.Type.BOOK ? books : authors;
+        }
+
+        void put(Suggestion suggestion) {
+            entries(suggestion.type()).put(suggestion.id(), suggestion);
+            for (String key : keys(suggestion)) {
+                insert(key, suggestion);
+            }
+        }
+
+        void remove(Suggestion.Type type, Long id) {
+            Suggestion existing = entries(type).remove(id);
+            if (existing != null) {
+                for (String key : keys(existing)) {
+                    delete(key, existing);
+                }
+            }
+        }
+
+        // The node whose subtree holds every key starting with prefix; the prefix may end inside its label.
+        Node find(String prefix) {
+            Node node = root;
+            int position = 0;
+            while (position < prefix.length()) {
+                int index = node.childIndex(prefix.charAt(position));
+                if (index < 0) {
+                    return null;
+                }
+                Node child = node.children[index];
+                int common = commonPrefix(child.label, prefix, position);
+                if (position + common == prefix.length()) {
+                    return child;
+                }
+                if (common < child.label.length) {
+                    return null;
+                }
+                node = child;
+                position += common;
+            }
+            return node;
+        }
+
+        private void insert(String key, Suggestion suggestion) {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            int position = 0;
+            while (position < key.length()) {
+                int index = node.childIndex(key.charAt(position));
+                if (index < 0) {
+                    Node leaf = new Node(key.substring(position).toCharArray());
+                    node.children = insertAt(node.children, -index - 1, leaf);
+                    node = leaf;
+                    path.add(node);
+                    break;
+                }
+                Node child = node.children[index];
+                int common = commonPrefix(child.label, key, position);
+                if (common < child.label.length) {
+                    Node middle = new Node(Arrays.copyOf(child.label, common));
+                    child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                    middle.children = new Node[]{child};
+                    middle.best = child.best;
+                    node.children[index] = middle;
+                    child = middle;
+                }
+                node = child;
+                path.add(node);
+                position += common;
+            }
+            Suggestion[] entries = Arrays.copyOf(node.entries, node.entries.length + 1);
+            entries[entries.length - 1] = suggestion;
+            node.entries = entries;
+            for (int i = path.size() - 1; i >= 0; i--) {
+                path.get(i).recomputeBest();
+            }
+        }
+
+        private void delete(String key, Suggestion suggestion) {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            int position = 0;
+            while (position < key.length()) {
+                int index = node.childIndex(key.charAt(position));
+                if (index < 0) {
+                    return;
+                }
+                node = node.children[index];
+                if (commonPrefix(node.label, key, position) < node.label.length) {
+                    return;
+                }
+                path.add(node);
+                position += node.label.length;
+            }
+            node.entries = without(node.entries, suggestion);
+
+            // Drop nodes left empty and fold a lone child into its parent, so the trie stays compressed.
+            for (int i = path.size() - 1; i > 0; i--) {
+                Node current = path.get(i);
+                Node parent = path.get(i - 1);
+                if (current.entries.length == 0 && current.children.length == 0) {
+                    parent.children = removeAt(parent.children, parent.childIndex(current.label[0]));
+                    continue;
+                }
+                if (current.entries.length == 0 && current.children.length == 1) {
+                    Node child = current.children[0];
+                    char[] merged = Arrays.copyOf(current.label, current.label.length + child.label.length);
+                    System.arraycopy(child.label, 0, merged, current.label.length, child.label.length);
+                    current.label = merged;
+                    current.children = child.children;
+                    current.entries = child.entries;
+                }
+                current.recomputeBest();
+            }
+            root.recomputeBest();
+        }
+
+        private static List<String> keys(Suggestion suggestion) {
+            String key = key(suggestion.text());
+            String alias = suggestion.alias() != null ? key(suggestion.alias()) : "";
+            if (alias.isEmpty() || alias.equals(key)) {
+                return key.isEmpty() ? List.of() : List.of(key);
+            }
+            return List.of(key, alias);
+        }
+
+        private static int commonPrefix(char[] label, String key, int offset) {
+            int max = Math.min(label.length, key.length() - offset);
+            int i = 0;
+            while (i < max && label[i] == key.charAt(offset + i)) {
+                i++;
+            }
+            return i;
+        }
+
+        private static Node[] insertAt(Node[] nodes, int index, Node node) {
+            Node[] result = new Node[nodes.length + 1];
+            System.arraycopy(nodes, 0, result, 0, index);
+            result[index] = node;
+            System.arraycopy(nodes, index, result, index + 1, nodes.length - index);
+            return result;
+        }
+
+        private static Node[] removeAt(Node[] nodes, int index) {
+            if (nodes.length == 1) {
+                return NO_CHILDREN;
+            }
+            Node[] result = new Node[nodes.length - 1];
+            System.arraycopy(nodes, 0, result, 0, index);
+            System.arraycopy(nodes, index + 1, result, index, nodes.length - index - 1);
+            return result;
+        }
+
+        private static Suggestion[] without(Suggestion[] entries, Suggestion suggestion) {
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].type() == suggestion.type() && entries[i].id().equals(suggestion.id())) {
+                    if (entries.length == 1) {
+                        return NO_ENTRIES;
+                    }
+                    Suggestion[] result = new Suggestion[entries.length - 1];
+                    System.arraycopy(entries, 0, result, 0, i);
+                    System.arraycopy(entries, i + 1, result, i, entries.length - i - 1);
+                    return result;
+                }
+            }
+            return entries;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.online.library.security;
+
+import java.time.Instant;
+import java.util.List;
+
+// A verified (or freshly issued) access token and the claims it carries.
+public record AccessToken(String value, String id, String username, List<String> authorities,
+                          Instant issuedAt, Instant expiresAt) {
+}
@@ -0,0 +1,122 @@
+package com.online.library.security;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+// Short-lived API access tokens as HS256-signed JWTs. Everything needed to authorize a request (user name,
+// roles, expiry) is in the signed claims, so checking a token is one HMAC and a lookup in the revocation
+// list, instead of a user query and a BCrypt comparison per request.
+public class AccessTokens {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String HEADER = encode("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final TokenRevocationList revocationList;
+    private final JsonMapper jsonMapper;
+    private final Clock clock;
+
+    public AccessTokens(byte[] secret, Duration ttl, TokenRevocationList revocationList, JsonMapper jsonMapper,
+                        Clock clock) {
+        if (secret.length < 32) {
+            throw new IllegalArgumentException("Token signing secret must be at least 32 bytes");
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.ttl = ttl;
+        this.revocationList = revocationList;
+        this.jsonMapper = jsonMapper;
+        this.clock = clock;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public AccessToken issue(String username, List<String> authorities) {
+        // Whole seconds, as in the token, so the returned claims match what verify() reads back
+        Instant issuedAt = Instant.ofEpochSecond(clock.instant().getEpochSecond());
+        Instant expiresAt = issuedAt.plus(ttl);
+        String id = UUID.randomUUID().toString();
+
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("jti", id);
+        claims.put("sub", username);
+        claims.put("roles", authorities);
+        claims.put("iat", issuedAt.getEpochSecond());
+        claims.put("exp", expiresAt.getEpochSecond());
+        String signingInput = HEADER + "." + encode(jsonMapper.writeValueAsBytes(claims));
+        String value = signingInput + "." + encode(sign(signingInput));
+        return new AccessToken(value, id, username, List.copyOf(authorities), issuedAt, expiresAt);
+    }
+
+    // The token's claims if the signature matches and it has neither expired nor been revoked.
+    public Optional<AccessToken> verify(String value) {
+        String[] parts = value.split("\\.", -1);
+        if (parts.length != 3 || !HEADER.equals(parts[0])) {
+            return Optional.empty();
+        }
+        byte[] signature;
+        try {
+            signature = DECODER.decode(parts[2]);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (!MessageDigest.isEqual(signature, sign(parts[0] + "." + parts[1]))) {
+            return Optional.empty();
+        }
+
+        AccessToken token;
+        try {
+            JsonNode claims = jsonMapper.readTree(DECODER.decode(parts[1]));
+            List<String> authorities = new ArrayList<>();
+            claims.path("roles").forEach(role -> authorities.add(role.asString()));
+            token = new AccessToken(value, claims.path("jti").asString(), claims.path("sub").asString(),
+                    List.copyOf(authorities), Instant.ofEpochSecond(claims.path("iat").asLong()),
+                    Instant.ofEpochSecond(claims.path("exp").asLong()));
+        } catch (JacksonException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (!clock.instant().isBefore(token.expiresAt())
+                || revocationList.isRevoked(token.id(), token.username(), token.issuedAt())) {
+            return Optional.empty();
+        }
+        return Optional.of(token);
+    }
+
+    public void revoke(AccessToken token) {
+        revocationList.revokeToken(token.id(), token.expiresAt());
+    }
+
+    private byte[] sign(String signingInput) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
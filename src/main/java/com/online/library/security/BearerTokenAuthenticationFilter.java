@@ -0,0 +1,62 @@
+package com.online.library.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+// Authenticates "Authorization: Bearer <token>" requests from the token alone. Requests without a bearer
+// token pass through untouched, so HTTP Basic keeps working for clients that have not switched yet.
+@Slf4j
+public class BearerTokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final AccessTokens accessTokens;
+
+    public BearerTokenAuthenticationFilter(AccessTokens accessTokens) {
+        this.accessTokens = accessTokens;
+    }
+
+    // The verified token of the current request, for endpoints that act on the token itself (logout).
+    public static Optional<AccessToken> currentToken(HttpServletRequest request) {
+        return Optional.ofNullable((AccessToken) request.getAttribute(AccessToken.class.getName()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Optional<AccessToken> token = accessTokens.verify(header.substring(BEARER_PREFIX.length()).trim());
+        if (token.isEmpty()) {
+            log.debug("Odrzucono nieprawidłowy token dla {} {}", request.getMethod(), request.getRequestURI());
+            SecurityContextHolder.clearContext();
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        AccessToken accessToken = token.get();
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(accessToken.username(), null,
+                accessToken.authorities().stream().map(SimpleGrantedAuthority::new).toList()));
+        SecurityContextHolder.setContext(context);
+        request.setAttribute(AccessToken.class.getName(), accessToken);
+        filterChain.doFilter(request, response);
+    }
+}
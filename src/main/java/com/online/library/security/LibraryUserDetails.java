@@ -0,0 +1,28 @@
+package com.online.library.security;
+
+import com.online.library.domain.enums.UserRole;
+import lombok.Getter;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.io.Serial;
+import java.util.List;
+
+// The logged-in user as kept in the session: besides what Spring Security needs, the id and role, so
+// controllers can act on behalf of the user without looking them up again on every request.
+@Getter
+public class LibraryUserDetails extends User {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final UserRole role;
+
+    public LibraryUserDetails(Long id, String username, String password, boolean enabled, UserRole role) {
+        super(username, password, enabled, true, true, true,
+                List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        this.id = id;
+        this.role = role;
+    }
+}
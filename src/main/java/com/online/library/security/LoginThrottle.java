@@ -0,0 +1,97 @@
+package com.online.library.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+
+// Counts failed logins per user name and per client address over a sliding window: the current fixed window
+// plus the previous one weighted by how much of it still overlaps. Only failures count, so a user who logs in
+// correctly is never slowed down, and both maps are bounded so a flood of random names cannot grow them.
+public class LoginThrottle {
+
+    private final Duration window;
+    private final int maxFailuresPerUsername;
+    private final int maxFailuresPerAddress;
+    private final Clock clock;
+    private final Cache<String, SlidingWindow> usernames;
+    private final Cache<String, SlidingWindow> addresses;
+
+    public LoginThrottle(Duration window, int maxFailuresPerUsername, int maxFailuresPerAddress, long maxTrackedKeys,
+                         Clock clock) {
+        this.window = window;
+        this.maxFailuresPerUsername = maxFailuresPerUsername;
+        this.maxFailuresPerAddress = maxFailuresPerAddress;
+        this.clock = clock;
+        this.usernames = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(window.multipliedBy(2))
+                .build();
+        this.addresses = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(window.multipliedBy(2))
+                .build();
+    }
+
+    public boolean isBlocked(String username, String address) {
+        long now = clock.millis();
+        if (username != null && count(usernames, key(username), now) >= maxFailuresPerUsername) {
+            return true;
+        }
+        return address != null && count(addresses, address, now) >= maxFailuresPerAddress;
+    }
+
+    public void recordFailure(String username, String address) {
+        long now = clock.millis();
+        if (username != null) {
+            usernames.get(key(username), key -> new SlidingWindow()).increment(now, window.toMillis());
+        }
+        if (address != null) {
+            addresses.get(address, key -> new SlidingWindow()).increment(now, window.toMillis());
+        }
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    private double count(Cache<String, SlidingWindow> cache, String key, long now) {
+        SlidingWindow counter = cache.getIfPresent(key);
+        return counter != null ? counter.count(now, window.toMillis()) : 0;
+    }
+
+    // "Admin" and "admin" are the same target for an attacker
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class SlidingWindow {
+
+        private long windowStart;
+        private int current;
+        private int previous;
+
+        synchronized void increment(long now, long length) {
+            roll(now, length);
+            current++;
+        }
+
+        synchronized double count(long now, long length) {
+            roll(now, length);
+            double overlap = 1.0 - (double) (now - windowStart) / length;
+            return current + previous * overlap;
+        }
+
+        private void roll(long now, long length) {
+            long start = now - Math.floorMod(now, length);
+            if (start == windowStart) {
+                return;
+            }
+            previous = start - windowStart == length ? current : 0;
+            current = 0;
+            windowStart = start;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.online.library.security;
+
+import org.springframework.security.core.AuthenticationException;
+
+// Login refused without checking the password: too many recent failures, or no capacity left to hash it.
+public class LoginThrottledException extends AuthenticationException {
+
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+
+    public LoginThrottledException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
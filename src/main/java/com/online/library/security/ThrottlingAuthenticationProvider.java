@@ -0,0 +1,61 @@
+package com.online.library.security;
+
+import com.online.library.exceptions.PasswordHashingBusyException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+// Used by form login, HTTP Basic and the token endpoint alike. A throttled name or address is refused before
+// the account is loaded or a hash computed, so a credential-stuffing run costs a map lookup per attempt.
+// Hashes made with another BCrypt cost are replaced through the UserDetailsPasswordService after a successful login.
+@Slf4j
+public class ThrottlingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final LoginThrottle loginThrottle;
+
+    public ThrottlingAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+                                            UserDetailsPasswordService userDetailsPasswordService,
+                                            LoginThrottle loginThrottle) {
+        super(userDetailsService);
+        setPasswordEncoder(passwordEncoder);
+        setUserDetailsPasswordService(userDetailsPasswordService);
+        this.loginThrottle = loginThrottle;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        String address = address(authentication);
+        if (loginThrottle.isBlocked(username, address)) {
+            log.warn("Logowanie {} z adresu {} zablokowane po zbyt wielu nieudanych próbach", username, address);
+            throw new LoginThrottledException("Too many failed login attempts");
+        }
+        try {
+            return super.authenticate(authentication);
+        } catch (BadCredentialsException e) {
+            loginThrottle.recordFailure(username, address);
+            throw e;
+        } catch (PasswordHashingBusyException e) {
+            throw new LoginThrottledException("Password hashing is busy", e);
+        } catch (InternalAuthenticationServiceException e) {
+            // Unknown user names are hashed too (against timing attacks), inside the wrapped account lookup
+            if (e.getCause() instanceof PasswordHashingBusyException busy) {
+                throw new LoginThrottledException("Password hashing is busy", busy);
+            }
+            throw e;
+        }
+    }
+
+    private static String address(Authentication authentication) {
+        return authentication.getDetails() instanceof WebAuthenticationDetails details
+                ? details.getRemoteAddress()
+                : null;
+    }
+}
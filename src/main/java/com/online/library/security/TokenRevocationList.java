@@ -0,0 +1,65 @@
+package com.online.library.security;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Access tokens are checked without touching the database, so taking one back has to be remembered here:
+// single tokens by id (logout) and everything a user was issued up to some moment (password, role or
+// account changes). Entries only need to outlive the tokens they reject, so they are dropped after one TTL.
+// The list is per node; with several nodes keep the TTL short, as that bounds how long a revoked token lives.
+public class TokenRevocationList {
+
+    private final Duration tokenTtl;
+    private final Clock clock;
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<String, Instant> revokedUsers = new ConcurrentHashMap<>();
+
+    public TokenRevocationList(Duration tokenTtl, Clock clock) {
+        this.tokenTtl = tokenTtl;
+        this.clock = clock;
+    }
+
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        purgeExpired();
+        revokedTokens.put(tokenId, expiresAt);
+    }
+
+    // Rejects every token the user was issued before now; tokens issued later are accepted again. Token iat has
+    // whole seconds, so the cutoff does too and a token issued in the same second as the change is kept.
+    public void revokeUser(String username) {
+        revokeUpTo(username, clock.instant().truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    // For a deleted or disabled account, which must not keep even a token issued earlier in the current second.
+    public void lockOutUser(String username) {
+        revokeUpTo(username, clock.instant().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1));
+    }
+
+    public boolean isRevoked(String tokenId, String username, Instant issuedAt) {
+        if (revokedTokens.containsKey(tokenId)) {
+            return true;
+        }
+        Instant cutoff = revokedUsers.get(username);
+        return cutoff != null && issuedAt.isBefore(cutoff);
+    }
+
+    public int size() {
+        return revokedTokens.size() + revokedUsers.size();
+    }
+
+    // The later cutoff wins, so a password change right after a lock-out does not shorten it.
+    private void revokeUpTo(String username, Instant cutoff) {
+        purgeExpired();
+        revokedUsers.merge(username, cutoff, (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    private void purgeExpired() {
+        Instant now = clock.instant();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+        revokedUsers.values().removeIf(revokedAt -> revokedAt.plus(tokenTtl).isBefore(now));
+    }
+}
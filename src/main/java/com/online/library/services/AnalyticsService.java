@@ -4,7 +4,10 @@ import com.online.library.domain.dto.AuthorStatDto;
 import com.online.library.domain.dto.BookStatDto;
 import com.online.library.domain.dto.UserStatDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface AnalyticsService {
     List<BookStatDto> getMostPopularBooks(int limit);
@@ -12,4 +15,14 @@ public interface AnalyticsService {
     List<AuthorStatDto> getMostReadAuthors(int limit);
 
     List<UserStatDto> getMostActiveUsers(int limit);
+
+    void refreshRollups();
+
+    Optional<LocalDateTime> getRollupsRefreshedAt();
+
+    void forEachPopularBook(Consumer<BookStatDto> consumer);
+
+    void forEachReadAuthor(Consumer<AuthorStatDto> consumer);
+
+    void forEachActiveUser(Consumer<UserStatDto> consumer);
 }
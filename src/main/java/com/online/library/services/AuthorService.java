@@ -2,5 +2,9 @@ package com.online.library.services;
 
 import com.online.library.domain.dto.AuthorDto;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface AuthorService extends BaseService<AuthorDto, Long> {
+    List<AuthorDto> findAllByIdIn(Collection<Long> ids);
 }
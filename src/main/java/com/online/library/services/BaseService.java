@@ -1,5 +1,6 @@
 package com.online.library.services;
 
+import com.online.library.domain.dto.CursorPageDto;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
 
@@ -10,6 +11,8 @@ public interface BaseService<D, ID> {
 
     Page<D> findAll(Pageable pageable);
 
+    CursorPageDto<D> findAllAfter(String cursor, int size);
+
     Optional<D> findById(ID id);
 
     boolean isExists(ID id);
@@ -0,0 +1,8 @@
+package com.online.library.services;
+
+import com.online.library.domain.dto.BookDetailsDto;
+import org.springframework.data.domain.Pageable;
+
+public interface BookDetailsService {
+    BookDetailsDto getBookDetails(Long bookId, String username, Pageable commentPageable);
+}
@@ -0,0 +1,17 @@
+package com.online.library.services;
+
+import com.online.library.domain.dto.BookImportStatusDto;
+import com.online.library.domain.enums.ImportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BookImportService {
+
+    // Copies the file aside and imports it in the background; progress is polled with getStatus.
+    BookImportStatusDto startImport(InputStream content, ImportFormat format) throws IOException;
+
+    Optional<BookImportStatusDto> getStatus(UUID id);
+}
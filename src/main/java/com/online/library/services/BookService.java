@@ -1,10 +1,35 @@
 package com.online.library.services;
 
+import com.online.library.domain.dto.BookBrowseDto;
 import com.online.library.domain.dto.BookDto;
+import com.online.library.domain.dto.BookSuggestionDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 public interface BookService extends BaseService<BookDto, Long> {
     Page<BookDto> searchBooks(String searchTerm, Pageable pageable);
     Page<BookDto> getPopularBooks(Pageable pageable);
+
+    // Saves the book's own fields and links it to the given authors and genres by id; returns the book id.
+    Long saveWithAssociations(BookDto bookDto, Collection<Long> authorIds, Collection<Long> genreIds);
+
+    // Just the stored cover path, for edits that keep the current cover.
+    Optional<String> findCoverImagePath(Long id);
+
+    // Catalog page filtered by genre, author and publish decade (any selected value within a facet, every facet
+    // with a selection), together with the book counts of the facet values.
+    BookBrowseDto browse(Collection<Long> genreIds, Collection<Long> authorIds, Collection<Integer> decades,
+                         Pageable pageable);
+
+    // Titles and author names starting with the prefix, best rated first.
+    List<BookSuggestionDto> suggest(String prefix, int limit);
+
+    // Keep the search, suggestion and facet indexes in step with author and genre writes. Call inside the writing
+    // transaction and before a delete, while the affected books can still be found.
+    void reindexAuthor(Long authorId);
+    void reindexGenre(Long genreId);
 }
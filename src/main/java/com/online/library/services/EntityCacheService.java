@@ -0,0 +1,23 @@
+package com.online.library.services;
+
+import com.online.library.domain.dto.CacheRegionStatsDto;
+
+import java.util.List;
+
+public interface EntityCacheService {
+
+    // After an update; Hibernate caches new rows itself, so creates need nothing.
+    void evictAuthor(Long authorId);
+
+    void evictGenre(Long genreId);
+
+    // Call inside the deleting transaction and before the delete, while the books linked to it can still be found.
+    void evictDeletedAuthor(Long authorId);
+
+    void evictDeletedGenre(Long genreId);
+
+    // For rows written past Hibernate (plain JDBC), which it cannot tell the cached queries about.
+    void evictQueryResults();
+
+    List<CacheRegionStatsDto> getRegionStatistics();
+}
@@ -4,7 +4,10 @@ import com.online.library.domain.dto.AuthorStatDto;
 import com.online.library.domain.dto.BookStatDto;
 import com.online.library.domain.dto.UserStatDto;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ExportService {
 
@@ -13,4 +16,10 @@ public interface ExportService {
     byte[] exportReadAuthorsToCsv(List<AuthorStatDto> authors);
 
     byte[] exportActiveUsersToCsv(List<UserStatDto> users);
+
+    void writePopularBooksCsv(Consumer<Consumer<BookStatDto>> books, OutputStream out) throws IOException;
+
+    void writeReadAuthorsCsv(Consumer<Consumer<AuthorStatDto>> authors, OutputStream out) throws IOException;
+
+    void writeActiveUsersCsv(Consumer<Consumer<UserStatDto>> users, OutputStream out) throws IOException;
 }
@@ -1,12 +1,30 @@
 package com.online.library.services;
 
+import com.online.library.domain.enums.ImageSize;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.net.URI;
+import java.util.Optional;
+
 public interface FileStorageService {
     String storeFile(MultipartFile file, String directory);
 
     Resource loadFileAsResource(String filePath);
 
+    // A scaled-down copy of an uploaded image, made on first use; files that are not images come back as they are.
+    Resource loadImageDerivative(String filePath, ImageSize size);
+
+    // Where clients can download the file straight from the storage backend; empty when the application serves it.
+    Optional<URI> findDownloadUrl(String filePath);
+
+    Optional<URI> findDownloadUrl(String filePath, ImageSize size);
+
     void deleteFile(String filePath);
+
+    // Deletes the file once no book uses it as a cover any more.
+    void release(String filePath);
+
+    // Deletes stored files that no book references; returns how many were removed.
+    int collectGarbage();
 }
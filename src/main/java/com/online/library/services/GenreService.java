@@ -2,5 +2,9 @@ package com.online.library.services;
 
 import com.online.library.domain.dto.GenreDto;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface GenreService extends BaseService<GenreDto, Long> {
+    List<GenreDto> findAllByIdIn(Collection<Long> ids);
 }
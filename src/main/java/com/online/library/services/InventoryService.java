@@ -0,0 +1,12 @@
+package com.online.library.services;
+
+public interface InventoryService {
+
+    boolean hasAvailableCopies(Long bookId);
+
+    void checkOut(Long bookId);
+
+    void checkIn(Long bookId);
+
+    void evict(Long bookId);
+}
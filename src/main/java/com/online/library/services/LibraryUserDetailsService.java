@@ -0,0 +1,10 @@
+package com.online.library.services;
+
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+public interface LibraryUserDetailsService extends UserDetailsService, UserDetailsPasswordService {
+
+    // Drops the cached account, so the next login or Basic-authenticated request reads it again.
+    void evict(String username);
+}
@@ -1,5 +1,6 @@
 package com.online.library.services;
 
+import com.online.library.domain.dto.CursorPageDto;
 import com.online.library.domain.dto.UserRequestDto;
 import com.online.library.domain.dto.UserResponseDto;
 import org.springframework.data.domain.Page;
@@ -12,6 +13,7 @@ public interface UserService {
     UserResponseDto save(UserRequestDto userDto);
     List<UserResponseDto> findAll();
     Page<UserResponseDto> findAll(Pageable pageable);
+    CursorPageDto<UserResponseDto> findAllAfter(String cursor, int size);
     Optional<UserResponseDto> findById(Long id);
     Optional<UserResponseDto> findByUsername(String username);
     boolean isExists(Long id);
@@ -7,10 +7,16 @@ import com.online.library.domain.dto.UserStatDto;
 import com.online.library.services.AnalyticsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -37,4 +43,38 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         log.info("Getting {} most active users", limit);
         return analyticsDao.getMostActiveUsers(limit);
     }
+
+    // One transaction, so reports keep reading the previous rollup until the new one commits.
+    @Override
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.analytics.refresh-interval:PT5M}",
+            initialDelayString = "${app.analytics.refresh-interval:PT5M}")
+    public void refreshRollups() {
+        log.info("Odświeżanie statystyk raportów");
+        analyticsDao.refreshRollups();
+    }
+
+    @Override
+    public Optional<LocalDateTime> getRollupsRefreshedAt() {
+        return analyticsDao.getRollupsRefreshedAt();
+    }
+
+    @Override
+    public void forEachPopularBook(Consumer<BookStatDto> consumer) {
+        log.info("Streaming popular books");
+        analyticsDao.forEachPopularBook(consumer);
+    }
+
+    @Override
+    public void forEachReadAuthor(Consumer<AuthorStatDto> consumer) {
+        log.info("Streaming read authors");
+        analyticsDao.forEachReadAuthor(consumer);
+    }
+
+    @Override
+    public void forEachActiveUser(Consumer<UserStatDto> consumer) {
+        log.info("Streaming active users");
+        analyticsDao.forEachActiveUser(consumer);
+    }
 }
@@ -1,17 +1,23 @@
 package com.online.library.services.impl;
 
 import com.online.library.domain.dto.AuthorDto;
+import com.online.library.domain.dto.CursorPageDto;
 import com.online.library.domain.entities.AuthorEntity;
 import com.online.library.exceptions.ResourceNotFoundException;
 import com.online.library.mappers.Mapper;
 import com.online.library.repositories.AuthorRepository;
 import com.online.library.services.AuthorService;
+import com.online.library.services.BookService;
+import com.online.library.services.EntityCacheService;
+import com.online.library.services.support.KeysetPagination;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -20,12 +26,19 @@ public class AuthorServiceImpl implements AuthorService {
 
     private final AuthorRepository authorRepository;
     private final Mapper<AuthorEntity, AuthorDto> authorMapper;
+    private final EntityCacheService entityCacheService;
+    private final BookService bookService;
 
     @Override
     @Transactional
     public AuthorDto save(AuthorDto authorDto) {
         AuthorEntity authorEntity = authorMapper.mapFrom(authorDto);
         AuthorEntity savedAuthorEntity = authorRepository.save(authorEntity);
+        // A PUT over an existing author; a new one is cached by Hibernate as it is written
+        if (authorDto.getId() != null) {
+            entityCacheService.evictAuthor(savedAuthorEntity.getId());
+        }
+        bookService.reindexAuthor(savedAuthorEntity.getId());
         return authorMapper.mapTo(savedAuthorEntity);
     }
 
@@ -36,6 +49,24 @@ public class AuthorServiceImpl implements AuthorService {
         return foundAuthors.map(authorMapper::mapTo);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<AuthorDto> findAllAfter(String cursor, int size) {
+        int pageSize = KeysetPagination.size(size);
+        List<AuthorEntity> rows = authorRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPagination.decodeId(cursor), KeysetPagination.limit(pageSize));
+        return KeysetPagination.slice(rows, pageSize, row -> KeysetPagination.encodeId(row.getId()), authorMapper::mapTo);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AuthorDto> findAllByIdIn(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return authorRepository.findAllByIdIn(ids).stream().map(authorMapper::mapTo).toList();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<AuthorDto> findById(Long id) {
@@ -57,13 +88,18 @@ public class AuthorServiceImpl implements AuthorService {
             Optional.ofNullable(authorDto.getName()).ifPresent(existingAuthor::setName);
             Optional.ofNullable(authorDto.getLastName()).ifPresent(existingAuthor::setLastName);
             Optional.ofNullable(authorDto.getBio()).ifPresent(existingAuthor::setBio);
-            return authorMapper.mapTo(authorRepository.save(existingAuthor));
+            AuthorEntity savedAuthorEntity = authorRepository.save(existingAuthor);
+            entityCacheService.evictAuthor(id);
+            bookService.reindexAuthor(id);
+            return authorMapper.mapTo(savedAuthorEntity);
         }).orElseThrow(() -> new ResourceNotFoundException("Author does not exist"));
     }
 
     @Override
     @Transactional
     public void delete(Long id) {
+        bookService.reindexAuthor(id);
+        entityCacheService.evictDeletedAuthor(id);
         authorRepository.deleteById(id);
     }
 }
@@ -0,0 +1,26 @@
+package com.online.library.services.impl;
+
+import com.online.library.domain.dao.BookDetailsDao;
+import com.online.library.domain.dto.BookDetailsDto;
+import com.online.library.exceptions.ResourceNotFoundException;
+import com.online.library.services.BookDetailsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class BookDetailsServiceImpl implements BookDetailsService {
+
+    private final BookDetailsDao bookDetailsDao;
+
+    @Override
+    public BookDetailsDto getBookDetails(Long bookId, String username, Pageable commentPageable) {
+        return bookDetailsDao.findBookDetails(bookId, username, commentPageable)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
+    }
+}
@@ -0,0 +1,406 @@
+package com.online.library.services.impl;
+
+import com.online.library.domain.dao.BookImportDao;
+import com.online.library.domain.dao.BookImportDao.AuthorRow;
+import com.online.library.domain.dao.BookImportDao.GenreRow;
+import com.online.library.domain.dao.BookImportDao.Link;
+import com.online.library.domain.dto.BookImportRow;
+import com.online.library.domain.dto.BookImportStatusDto;
+import com.online.library.domain.dto.BookImportStatusDto.State;
+import com.online.library.domain.enums.ImportFormat;
+import com.online.library.exceptions.ImportQueueFullException;
+import com.online.library.repositories.BookRepository;
+import com.online.library.search.BookSearchIndex;
+import com.online.library.search.FacetDocument;
+import com.online.library.search.FacetIndex;
+import com.online.library.search.SearchDocument;
+import com.online.library.search.Suggestion;
+import com.online.library.search.SuggestionIndex;
+import com.online.library.services.BookImportService;
+import com.online.library.services.EntityCacheService;
+import com.online.library.services.support.BookImportReader;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Imports run one at a time on their own thread. The file is read as a stream and written in chunks, one
+// transaction each: a chunk costs one ISBN lookup, one id reservation per table and a handful of JDBC batches,
+// instead of a SELECT and an INSERT per book. Authors and genres are matched by name against an in-memory
+// map loaded once per import; a failed chunk stops the import, earlier chunks stay committed. Every waiting
+// import holds a temp copy of its file, so only a few may wait and further uploads are turned away.
+@Slf4j
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_KEPT_IMPORTS = 50;
+
+    private final BookImportDao bookImportDao;
+    private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final SuggestionIndex suggestionIndex;
+    private final FacetIndex facetIndex;
+    private final EntityCacheService entityCacheService;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonMapper jsonMapper;
+    private final int batchSize;
+    private final ThreadPoolExecutor executor;
+    // Insertion order, so the oldest finished imports are forgotten first; queued and running ones are always kept.
+    private final Map<UUID, ImportJob> jobs = new LinkedHashMap<>();
+
+    public BookImportServiceImpl(BookImportDao bookImportDao, BookRepository bookRepository,
+                                 BookSearchIndex bookSearchIndex, SuggestionIndex suggestionIndex,
+                                 FacetIndex facetIndex, EntityCacheService entityCacheService,
+                                 TransactionTemplate transactionTemplate, JsonMapper jsonMapper,
+                                 @Value("${app.import.batch-size:1000}") int batchSize,
+                                 @Value("${app.import.max-queued:4}") int maxQueuedImports) {
+        this.bookImportDao = bookImportDao;
+        this.bookRepository = bookRepository;
+        this.bookSearchIndex = bookSearchIndex;
+        this.suggestionIndex = suggestionIndex;
+        this.facetIndex = facetIndex;
+        this.entityCacheService = entityCacheService;
+        this.transactionTemplate = transactionTemplate;
+        this.jsonMapper = jsonMapper;
+        this.batchSize = batchSize;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueuedImports), Thread.ofPlatform().name("book-import").daemon().factory());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public BookImportStatusDto startImport(InputStream content, ImportFormat format) throws IOException {
+        // Checked up front as well, so a full queue does not cost a copy of the upload first
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw queueFull();
+        }
+        // The request body is gone once the request ends, so the import works from a copy.
+        Path file = Files.createTempFile("book-import-", format == ImportFormat.CSV ? ".csv" : ".jsonl");
+        Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+
+        ImportJob job = new ImportJob(UUID.randomUUID());
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+            forgetFinishedJobs();
+        }
+        log.info("Import {} ({}, {} B) w kolejce", job.id, format, Files.size(file));
+        try {
+            executor.execute(() -> run(job, file, format));
+        } catch (RejectedExecutionException e) {
+            synchronized (jobs) {
+                jobs.remove(job.id);
+            }
+            Files.deleteIfExists(file);
+            throw queueFull();
+        }
+        return job.snapshot();
+    }
+
+    @Override
+    public Optional<BookImportStatusDto> getStatus(UUID id) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(id)).map(ImportJob::snapshot);
+        }
+    }
+
+    // Called with the jobs lock held.
+    private void forgetFinishedJobs() {
+        Iterator<ImportJob> oldestFirst = jobs.values().iterator();
+        while (jobs.size() > MAX_KEPT_IMPORTS && oldestFirst.hasNext()) {
+            if (oldestFirst.next().isFinished()) {
+                oldestFirst.remove();
+            }
+        }
+    }
+
+    private ImportQueueFullException queueFull() {
+        return new ImportQueueFullException("Zbyt wiele importów w kolejce, spróbuj ponownie później");
+    }
+
+    private void run(ImportJob job, Path file, ImportFormat format) {
+        job.state = State.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        long started = System.nanoTime();
+        try (Reader input = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             BookImportReader reader = format == ImportFormat.CSV
+                     ? BookImportReader.csv(input)
+                     : BookImportReader.jsonLines(input, jsonMapper)) {
+            Map<String, Long> authorIds = new HashMap<>();
+            bookImportDao.forEachAuthor(author -> authorIds.putIfAbsent(authorKey(author.name(), author.lastName()), author.id()));
+            Map<String, Long> genreIds = new HashMap<>();
+            bookImportDao.forEachGenre(genre -> genreIds.putIfAbsent(genreKey(genre.name()), genre.id()));
+
+            List<BookImportRow> chunk = new ArrayList<>(batchSize);
+            while (true) {
+                BookImportRow row;
+                try {
+                    row = reader.next();
+                } catch (IllegalArgumentException e) {
+                    job.processedRows++;
+                    job.reject(reader.line(), e.getMessage());
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+                job.processedRows++;
+                String problem = validate(row);
+                if (problem != null) {
+                    job.reject(reader.line(), problem);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == batchSize) {
+                    importChunk(chunk, authorIds, genreIds, job);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, authorIds, genreIds, job);
+            }
+            job.state = State.COMPLETED;
+            log.info("Import {} zakończony w {} ms: {} książek, {} duplikatów, {} odrzuconych", job.id,
+                    (System.nanoTime() - started) / 1_000_000, job.importedBooks, job.duplicateRows, job.rejectedRows);
+        } catch (Exception e) {
+            log.error("Import {} przerwany po {} wierszach", job.id, job.processedRows, e);
+            job.failure = e.getMessage();
+            job.state = State.FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete import file {}", file, e);
+            }
+        }
+    }
+
+    private void importChunk(List<BookImportRow> rows, Map<String, Long> authorIds, Map<String, Long> genreIds,
+                             ImportJob job) {
+        Map<String, BookImportRow> byIsbn = new LinkedHashMap<>();
+        rows.forEach(row -> byIsbn.putIfAbsent(row.isbn(), row));
+
+        ChunkResult result = transactionTemplate.execute(status -> {
+            Set<String> existing = new HashSet<>(bookRepository.findExistingIsbns(byIsbn.keySet()));
+            List<BookImportRow> books = byIsbn.values().stream()
+                    .filter(book -> !existing.contains(book.isbn()))
+                    .toList();
+
+            Map<String, AuthorRow> newAuthors = new LinkedHashMap<>();
+            Map<String, GenreRow> newGenres = new LinkedHashMap<>();
+            for (BookImportRow book : books) {
+                for (String fullName : book.authors()) {
+                    String[] name = splitName(fullName);
+                    String key = authorKey(name[0], name[1]);
+                    if (!authorIds.containsKey(key)) {
+                        newAuthors.putIfAbsent(key, new AuthorRow(null, name[0], name[1]));
+                    }
+                }
+                for (String genre : book.genres()) {
+                    String key = genreKey(genre);
+                    if (!genreIds.containsKey(key)) {
+                        newGenres.putIfAbsent(key, new GenreRow(null, genre.trim()));
+                    }
+                }
+            }
+
+            Map<String, Long> createdAuthors = withIds(newAuthors.keySet(),
+                    bookImportDao.nextIds(BookImportDao.AUTHORS_SEQUENCE, newAuthors.size()));
+            bookImportDao.insertAuthors(newAuthors.entrySet().stream()
+                    .map(e -> new AuthorRow(createdAuthors.get(e.getKey()), e.getValue().name(), e.getValue().lastName()))
+                    .toList());
+            Map<String, Long> createdGenres = withIds(newGenres.keySet(),
+                    bookImportDao.nextIds(BookImportDao.GENRES_SEQUENCE, newGenres.size()));
+            bookImportDao.insertGenres(newGenres.entrySet().stream()
+                    .map(e -> new GenreRow(createdGenres.get(e.getKey()), e.getValue().name()))
+                    .toList());
+
+            List<Long> bookIds = bookImportDao.nextIds(BookImportDao.BOOKS_SEQUENCE, books.size());
+            bookImportDao.insertBooks(bookIds, books);
+
+            List<Link> authorLinks = new ArrayList<>();
+            List<Link> genreLinks = new ArrayList<>();
+            List<FacetDocument> facets = new ArrayList<>(books.size());
+            for (int i = 0; i < books.size(); i++) {
+                Long bookId = bookIds.get(i);
+                Set<Long> linkedAuthors = new LinkedHashSet<>();
+                for (String fullName : books.get(i).authors()) {
+                    String[] name = splitName(fullName);
+                    String key = authorKey(name[0], name[1]);
+                    linkedAuthors.add(authorIds.getOrDefault(key, createdAuthors.get(key)));
+                }
+                linkedAuthors.forEach(authorId -> authorLinks.add(new Link(bookId, authorId)));
+                Set<Long> linkedGenres = new LinkedHashSet<>();
+                for (String genre : books.get(i).genres()) {
+                    String key = genreKey(genre);
+                    linkedGenres.add(genreIds.getOrDefault(key, createdGenres.get(key)));
+                }
+                linkedGenres.forEach(genreId -> genreLinks.add(new Link(bookId, genreId)));
+                facets.add(new FacetDocument(bookId, books.get(i).publishYear(), linkedAuthors, linkedGenres));
+            }
+            bookImportDao.insertBookAuthors(authorLinks);
+            bookImportDao.insertBookGenres(genreLinks);
+            return new ChunkResult(books, bookIds, facets, createdAuthors, createdGenres);
+        });
+
+        // Only now that the chunk is committed do the new names count as existing.
+        authorIds.putAll(result.createdAuthors());
+        genreIds.putAll(result.createdGenres());
+        job.importedBooks += result.books().size();
+        job.duplicateRows += rows.size() - result.books().size();
+        job.createdAuthors += result.createdAuthors().size();
+        job.createdGenres += result.createdGenres().size();
+        if (!result.createdAuthors().isEmpty() || !result.createdGenres().isEmpty()) {
+            entityCacheService.evictQueryResults();
+        }
+        for (int i = 0; i < result.books().size(); i++) {
+            BookImportRow book = result.books().get(i);
+            Long bookId = result.bookIds().get(i);
+            bookSearchIndex.index(new SearchDocument(bookId, book.title(), book.description(),
+                    book.authors(), book.genres()));
+            // Unrated yet; the periodic rating refresh also picks up the authors this import created
+            suggestionIndex.put(Suggestion.book(bookId, book.title(), 0.0f));
+            suggestionIndex.markRatingStale(bookId);
+            facetIndex.index(result.facets().get(i));
+        }
+        log.debug("Import {}: {} wierszy przetworzonych", job.id, job.processedRows);
+    }
+
+    private static String validate(BookImportRow row) {
+        if (row.title() == null || row.title().isBlank()) {
+            return "Brak tytułu";
+        }
+        if (row.isbn() == null || row.isbn().isBlank()) {
+            return "Brak ISBN";
+        }
+        if (row.title().length() > 255 || row.isbn().length() > 20
+                || (row.publisher() != null && row.publisher().length() > 100)) {
+            return "Tytuł, ISBN lub wydawca są za długie";
+        }
+        for (String fullName : row.authors()) {
+            String[] name = splitName(fullName);
+            if (name[0].length() > 100 || name[1].length() > 100) {
+                return "Za długie imię lub nazwisko autora: " + fullName;
+            }
+        }
+        for (String genre : row.genres()) {
+            if (genre.length() > 50) {
+                return "Nieprawidłowa nazwa gatunku: " + genre;
+            }
+        }
+        return null;
+    }
+
+    // "J.R.R. Tolkien" -> ["J.R.R.", "Tolkien"]; a single word is taken as the last name.
+    private static String[] splitName(String fullName) {
+        String trimmed = fullName.trim();
+        int space = trimmed.lastIndexOf(' ');
+        if (space < 0) {
+            return new String[]{"", trimmed};
+        }
+        return new String[]{trimmed.substring(0, space).trim(), trimmed.substring(space + 1)};
+    }
+
+    private static String authorKey(String name, String lastName) {
+        return (name.trim() + '\n' + lastName.trim()).toLowerCase(Locale.ROOT);
+    }
+
+    private static String genreKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, Long> withIds(Set<String> keys, List<Long> ids) {
+        Map<String, Long> result = new HashMap<>();
+        int i = 0;
+        for (String key : keys) {
+            result.put(key, ids.get(i++));
+        }
+        return result;
+    }
+
+    private record ChunkResult(List<BookImportRow> books, List<Long> bookIds, List<FacetDocument> facets,
+                               Map<String, Long> createdAuthors, Map<String, Long> createdGenres) {
+    }
+
+    // Written only by the import thread; status requests read a snapshot.
+    private static final class ImportJob {
+
+        private final UUID id;
+        private final List<String> errors = new CopyOnWriteArrayList<>();
+        private volatile State state = State.QUEUED;
+        private volatile long processedRows;
+        private volatile long importedBooks;
+        private volatile long duplicateRows;
+        private volatile long rejectedRows;
+        private volatile long createdAuthors;
+        private volatile long createdGenres;
+        private volatile String failure;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        private ImportJob(UUID id) {
+            this.id = id;
+        }
+
+        private void reject(long line, String reason) {
+            rejectedRows++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Wiersz " + line + ": " + reason);
+            }
+        }
+
+        private boolean isFinished() {
+            return state == State.COMPLETED || state == State.FAILED;
+        }
+
+        private BookImportStatusDto snapshot() {
+            return BookImportStatusDto.builder()
+                    .id(id)
+                    .state(state)
+                    .processedRows(processedRows)
+                    .importedBooks(importedBooks)
+                    .duplicateRows(duplicateRows)
+                    .rejectedRows(rejectedRows)
+                    .createdAuthors(createdAuthors)
+                    .createdGenres(createdGenres)
+                    .errors(List.copyOf(errors))
+                    .failure(failure)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
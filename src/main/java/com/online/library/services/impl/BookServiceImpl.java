@@ -1,27 +1,108 @@
 package com.online.library.services.impl;
 
+import com.online.library.domain.dao.BookSearchDao;
+import com.online.library.domain.dto.BookBrowseDto;
 import com.online.library.domain.dto.BookDto;
+import com.online.library.domain.dto.BookFacetsDto;
+import com.online.library.domain.dto.BookSuggestionDto;
+import com.online.library.domain.dto.CursorPageDto;
+import com.online.library.domain.dto.FacetValueDto;
+import com.online.library.domain.entities.AuthorEntity;
 import com.online.library.domain.entities.BookEntity;
+import com.online.library.domain.entities.GenreEntity;
 import com.online.library.exceptions.ResourceNotFoundException;
 import com.online.library.mappers.Mapper;
+import com.online.library.repositories.AuthorRepository;
 import com.online.library.repositories.BookRepository;
+import com.online.library.repositories.GenreRepository;
+import com.online.library.search.BookSearchIndex;
+import com.online.library.search.FacetDocument;
+import com.online.library.search.FacetFilter;
+import com.online.library.search.FacetIndex;
+import com.online.library.search.FacetResult;
+import com.online.library.search.SearchDocument;
+import com.online.library.search.Suggestion;
+import com.online.library.search.SuggestionIndex;
 import com.online.library.services.BookService;
+import com.online.library.services.FileStorageService;
+import com.online.library.services.InventoryService;
+import com.online.library.services.support.KeysetPagination;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.online.library.services.support.TransactionCallbacks.afterCommit;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class BookServiceImpl implements BookService {
 
+    // Above this many hits a sorted search goes to the database instead of a huge IN list.
+    private static final int MAX_SORTED_CANDIDATES = 10_000;
+    // Genres and decades are few; authors can run into thousands, so only the largest are listed.
+    private static final int MAX_FACET_AUTHORS = 20;
+
     private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final GenreRepository genreRepository;
     private final Mapper<BookEntity, BookDto> bookMapper;
+    private final BookSearchIndex bookSearchIndex;
+    private final SuggestionIndex suggestionIndex;
+    private final FacetIndex facetIndex;
+    private final BookSearchDao bookSearchDao;
+    private final InventoryService inventoryService;
+    private final FileStorageService fileStorageService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildSearchIndex() {
+        log.info("Budowanie indeksu wyszukiwania książek");
+        bookSearchIndex.rebuild(bookSearchDao::forEachDocument);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildSuggestionIndex() {
+        log.info("Budowanie indeksu podpowiedzi");
+        suggestionIndex.rebuild(bookSearchDao::forEachSuggestion);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildFacetIndex() {
+        log.info("Budowanie indeksu facet");
+        facetIndex.rebuild(bookSearchDao::forEachFacetDocument);
+    }
+
+    // Votes and imports only mark their books; the new averages and the authors (their best rating, or
+    // the authors an import created) are read here in one batch.
+    @Scheduled(fixedDelayString = "${app.search.suggest.rating-refresh-interval:PT30S}",
+            initialDelayString = "${app.search.suggest.rating-refresh-interval:PT30S}")
+    public void refreshSuggestionRatings() {
+        Set<Long> bookIds = suggestionIndex.drainStaleRatings();
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        bookSearchDao.findSuggestionsForBooks(bookIds).forEach(suggestionIndex::refresh);
+        log.debug("Suggestion ratings refreshed for {} books", bookIds.size());
+    }
 
     @Override
     @Transactional
@@ -30,9 +111,39 @@ public class BookServiceImpl implements BookService {
         BookEntity bookEntity = bookMapper.mapFrom(bookDto);
         BookEntity savedBookEntity = bookRepository.save(bookEntity);
         log.debug("Książka zapisana z id: {}", savedBookEntity.getId());
+        reindexAfterCommit(savedBookEntity);
         return bookMapper.mapTo(savedBookEntity);
     }
 
+    @Override
+    @Transactional
+    public Long saveWithAssociations(BookDto bookDto, Collection<Long> authorIds, Collection<Long> genreIds) {
+        log.info("Zapisywanie książki: {}", bookDto.getTitle());
+        String previousCover = bookDto.getId() != null
+                ? bookRepository.findCoverImagePathById(bookDto.getId()).orElse(null)
+                : null;
+        BookEntity bookEntity = bookMapper.mapFrom(bookDto);
+        // The join rows only need the ids, so the authors and genres are linked as references, not loaded.
+        bookEntity.setAuthors(references(authorIds, authorRepository::findExistingIds,
+                authorRepository::getReferenceById));
+        bookEntity.setGenres(references(genreIds, genreRepository::findExistingIds,
+                genreRepository::getReferenceById));
+        BookEntity savedBookEntity = bookRepository.save(bookEntity);
+        log.debug("Książka zapisana z id: {}", savedBookEntity.getId());
+        reindexAfterCommit(savedBookEntity);
+        if (bookDto.getId() != null) {
+            inventoryService.evict(savedBookEntity.getId());
+        }
+        releaseCoverAfterCommit(previousCover, savedBookEntity.getCoverImagePath());
+        return savedBookEntity.getId();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> findCoverImagePath(Long id) {
+        return bookRepository.findCoverImagePathById(id);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<BookDto> findAll(Pageable pageable) {
@@ -40,6 +151,15 @@ public class BookServiceImpl implements BookService {
         return foundBooks.map(bookMapper::mapTo);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<BookDto> findAllAfter(String cursor, int size) {
+        int pageSize = KeysetPagination.size(size);
+        List<BookEntity> rows = bookRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPagination.decodeId(cursor), KeysetPagination.limit(pageSize));
+        return KeysetPagination.slice(rows, pageSize, row -> KeysetPagination.encodeId(row.getId()), bookMapper::mapTo);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<BookDto> findById(Long id) {
@@ -59,6 +179,7 @@ public class BookServiceImpl implements BookService {
         bookDto.setId(id);
 
         return bookRepository.findById(id).map(existingBook -> {
+            String previousCover = existingBook.getCoverImagePath();
             Optional.ofNullable(bookDto.getTitle()).ifPresent(existingBook::setTitle);
             Optional.ofNullable(bookDto.getDescription()).ifPresent(existingBook::setDescription);
             Optional.ofNullable(bookDto.getPublisher()).ifPresent(existingBook::setPublisher);
@@ -67,15 +188,50 @@ public class BookServiceImpl implements BookService {
             Optional.ofNullable(bookDto.getCoverImagePath()).ifPresent(existingBook::setCoverImagePath);
             Optional.ofNullable(bookDto.getCopiesAvailable()).ifPresent(existingBook::setCopiesAvailable);
             Optional.ofNullable(bookDto.getAverageRating()).ifPresent(existingBook::setAverageRating);
-            return bookMapper.mapTo(bookRepository.save(existingBook));
+            BookEntity updatedBook = bookRepository.save(existingBook);
+            reindexAfterCommit(updatedBook);
+            inventoryService.evict(id);
+            releaseCoverAfterCommit(previousCover, updatedBook.getCoverImagePath());
+            return bookMapper.mapTo(updatedBook);
         }).orElseThrow(() -> new ResourceNotFoundException("Book does not exist"));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<BookDto> searchBooks(String searchTerm, Pageable pageable) {
-        Page<BookEntity> books = bookRepository.searchBooks(searchTerm, pageable);
-        return books.map(bookMapper::mapTo);
+        if (searchTerm == null || searchTerm.isBlank()) {
+            return findAll(pageable);
+        }
+        if (!bookSearchIndex.isReady()) {
+            log.debug("Indeks wyszukiwania nie jest gotowy, szukanie w bazie danych: {}", searchTerm);
+            return bookRepository.searchBooks(searchTerm, pageable).map(bookMapper::mapTo);
+        }
+
+        List<Long> rankedIds = bookSearchIndex.search(searchTerm);
+        if (rankedIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        if (pageable.getSort().isSorted()) {
+            if (rankedIds.size() > MAX_SORTED_CANDIDATES) {
+                return bookRepository.searchBooks(searchTerm, pageable).map(bookMapper::mapTo);
+            }
+            return bookRepository.findByIdIn(rankedIds, pageable).map(bookMapper::mapTo);
+        }
+
+        List<Long> pageIds = rankedIds;
+        if (pageable.isPaged()) {
+            int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+            int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+            pageIds = rankedIds.subList(from, to);
+        }
+        Map<Long, BookEntity> booksById = bookRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(BookEntity::getId, Function.identity()));
+        List<BookDto> content = pageIds.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .map(bookMapper::mapTo)
+                .toList();
+        return new PageImpl<>(content, pageable, rankedIds.size());
     }
 
     @Override
@@ -85,10 +241,172 @@ public class BookServiceImpl implements BookService {
         return books.map(bookMapper::mapTo);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public BookBrowseDto browse(Collection<Long> genreIds, Collection<Long> authorIds, Collection<Integer> decades,
+                                Pageable pageable) {
+        FacetFilter filter = FacetFilter.of(genreIds, authorIds, decades);
+        if (!facetIndex.isReady()) {
+            log.debug("Indeks facet nie jest gotowy, filtrowanie w bazie danych");
+            return browsePage(findByFacets(filter, pageable), new BookFacetsDto());
+        }
+
+        FacetResult result = facetIndex.query(filter, MAX_FACET_AUTHORS);
+        Page<BookEntity> books;
+        if (filter.isEmpty()) {
+            books = bookRepository.findAll(pageable);
+        } else if (result.total() == 0) {
+            books = Page.empty(pageable);
+        } else if (pageable.getSort().isSorted() || pageable.isUnpaged()) {
+            books = result.total() > MAX_SORTED_CANDIDATES
+                    ? findByFacets(filter, pageable)
+                    : bookRepository.findByIdIn(result.ids(), pageable);
+        } else {
+            // Unsorted pages come straight off the bitmap, in id order
+            List<Long> pageIds = result.ids(pageable.getOffset(), pageable.getPageSize());
+            List<BookEntity> content = bookRepository.findAllById(pageIds).stream()
+                    .sorted(Comparator.comparing(BookEntity::getId))
+                    .toList();
+            books = new PageImpl<>(content, pageable, result.total());
+        }
+        return browsePage(books, facets(filter, result));
+    }
+
+    @Override
+    public List<BookSuggestionDto> suggest(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, limit).stream()
+                .map(suggestion -> BookSuggestionDto.builder()
+                        .type(suggestion.type().name())
+                        .id(suggestion.id())
+                        .text(suggestion.text())
+                        .averageRating((double) suggestion.rating())
+                        .build())
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void reindexAuthor(Long authorId) {
+        List<Long> bookIds = bookSearchDao.findBookIdsByAuthor(authorId);
+        afterCommit(() -> {
+            bookSearchDao.forEachDocument(bookIds, bookSearchIndex::index);
+            bookSearchDao.forEachFacetDocument(bookIds, facetIndex::index);
+            bookSearchDao.findAuthorSuggestion(authorId).ifPresentOrElse(suggestionIndex::put,
+                    () -> suggestionIndex.remove(Suggestion.Type.AUTHOR, authorId));
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void reindexGenre(Long genreId) {
+        List<Long> bookIds = bookSearchDao.findBookIdsByGenre(genreId);
+        afterCommit(() -> {
+            bookSearchDao.forEachDocument(bookIds, bookSearchIndex::index);
+            bookSearchDao.forEachFacetDocument(bookIds, facetIndex::index);
+        });
+    }
+
     @Override
     @Transactional
     public void delete(Long id) {
         log.info("Usuwanie książki o id: {}", id);
+        String cover = bookRepository.findCoverImagePathById(id).orElse(null);
         bookRepository.deleteById(id);
+        afterCommit(() -> {
+            bookSearchIndex.remove(id);
+            suggestionIndex.remove(Suggestion.Type.BOOK, id);
+            facetIndex.remove(id);
+        });
+        inventoryService.evict(id);
+        releaseCoverAfterCommit(cover, null);
+    }
+
+    private Page<BookEntity> findByFacets(FacetFilter filter, Pageable pageable) {
+        return bookRepository.findByFacets(
+                !filter.genreIds().isEmpty(), orPlaceholder(filter.genreIds(), -1L),
+                !filter.authorIds().isEmpty(), orPlaceholder(filter.authorIds(), -1L),
+                !filter.decades().isEmpty(), orPlaceholder(filter.decades(), -1),
+                pageable);
+    }
+
+    // An empty IN list is not valid SQL everywhere; the flag next to it already switches the condition off.
+    private static <T> Collection<T> orPlaceholder(Collection<T> values, T placeholder) {
+        return values.isEmpty() ? List.of(placeholder) : values;
+    }
+
+    private BookBrowseDto browsePage(Page<BookEntity> books, BookFacetsDto facets) {
+        return BookBrowseDto.builder()
+                .content(books.getContent().stream().map(bookMapper::mapTo).toList())
+                .number(books.getNumber())
+                .size(books.getSize())
+                .totalElements(books.getTotalElements())
+                .totalPages(books.getTotalPages())
+                .facets(facets)
+                .build();
+    }
+
+    // The index only knows ids; names come from the (second-level cached) genres and authors. Values whose
+    // genre or author is already gone are left out.
+    private BookFacetsDto facets(FacetFilter filter, FacetResult result) {
+        Map<Long, String> genreNames = genreRepository.findAllById(result.genreCounts().keySet()).stream()
+                .collect(Collectors.toMap(GenreEntity::getId, GenreEntity::getName));
+        Map<Long, String> authorNames = authorRepository.findAllById(result.authorCounts().keySet()).stream()
+                .collect(Collectors.toMap(AuthorEntity::getId, author -> author.getName() + " " + author.getLastName()));
+        return BookFacetsDto.builder()
+                .genres(facetValues(result.genreCounts(), genreNames::get, filter.genreIds()))
+                .authors(facetValues(result.authorCounts(), authorNames::get, filter.authorIds()))
+                .decades(facetValues(new TreeMap<>(result.decadeCounts()),
+                        decade -> decade + "–" + (decade + 9), filter.decades()))
+                .build();
+    }
+
+    private static <K extends Number> List<FacetValueDto> facetValues(Map<K, Integer> counts,
+            Function<K, String> label, Set<K> selected) {
+        return counts.entrySet().stream()
+                .filter(entry -> label.apply(entry.getKey()) != null)
+                .map(entry -> FacetValueDto.builder()
+                        .value(entry.getKey().longValue())
+                        .label(label.apply(entry.getKey()))
+                        .count(entry.getValue())
+                        .selected(selected.contains(entry.getKey()))
+                        .build())
+                .toList();
+    }
+
+    // Ids deleted in the meantime are skipped, as the per-id lookup used to, instead of failing on the foreign key.
+    private static <T> Set<T> references(Collection<Long> ids, Function<Collection<Long>, List<Long>> existing,
+                                         Function<Long, T> reference) {
+        Set<T> references = new HashSet<>();
+        List<Long> requested = ids != null ? ids.stream().filter(Objects::nonNull).distinct().toList() : List.of();
+        if (!requested.isEmpty()) {
+            existing.apply(requested).stream().map(reference).forEach(references::add);
+        }
+        return references;
+    }
+
+    // Other books may share the same (content-addressed) file, so it is only released, not deleted.
+    private void releaseCoverAfterCommit(String previousCover, String currentCover) {
+        if (previousCover != null && !previousCover.equals(currentCover)) {
+            afterCommit(() -> fileStorageService.release(previousCover));
+        }
+    }
+
+    private void reindexAfterCommit(BookEntity book) {
+        // Built here, while the lazy collections can still be read.
+        SearchDocument document = new SearchDocument(book.getId(), book.getTitle(), book.getDescription(),
+                book.getAuthors().stream().map(author -> author.getName() + " " + author.getLastName()).toList(),
+                book.getGenres().stream().map(GenreEntity::getName).toList());
+        Suggestion suggestion = Suggestion.book(book.getId(), book.getTitle(),
+                book.getAverageRating() != null ? book.getAverageRating().floatValue() : 0.0f);
+        FacetDocument facets = new FacetDocument(book.getId(), book.getPublishYear(),
+                book.getAuthors().stream().map(AuthorEntity::getId).toList(),
+                book.getGenres().stream().map(GenreEntity::getId).toList());
+        afterCommit(() -> {
+            bookSearchIndex.index(document);
+            facetIndex.index(facets);
+            suggestionIndex.put(suggestion);
+            // The authors' best rating may have moved with this book
+            suggestionIndex.markRatingStale(suggestion.id());
+        });
     }
 }
@@ -1,6 +1,7 @@
 package com.online.library.services.impl;
 
 import com.online.library.domain.dto.CommentDto;
+import com.online.library.domain.dto.CursorPageDto;
 import com.online.library.domain.entities.BookEntity;
 import com.online.library.domain.entities.CommentEntity;
 import com.online.library.domain.entities.UserEntity;
@@ -10,6 +11,7 @@ import com.online.library.repositories.BookRepository;
 import com.online.library.repositories.CommentRepository;
 import com.online.library.repositories.UserRepository;
 import com.online.library.services.CommentService;
+import com.online.library.services.support.KeysetPagination;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -44,6 +46,19 @@ public class CommentServiceImpl implements CommentService {
         return foundComments.map(commentMapper::mapTo);
     }
 
+    // Newest first; the cursor carries (createdAt, id) so rows sharing a timestamp are neither skipped nor repeated.
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<CommentDto> findAllAfter(String cursor, int size) {
+        int pageSize = KeysetPagination.size(size);
+        KeysetPagination.Position position = KeysetPagination.decodePosition(cursor);
+        List<CommentEntity> rows = position == null
+                ? commentRepository.findAllByOrderByCreatedAtDescIdDesc(KeysetPagination.limit(pageSize))
+                : commentRepository.findOlderThan(position.timestamp(), position.id(), KeysetPagination.limit(pageSize));
+        return KeysetPagination.slice(rows, pageSize,
+                row -> KeysetPagination.encodePosition(row.getCreatedAt(), row.getId()), commentMapper::mapTo);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<CommentDto> findById(Long id) {
@@ -0,0 +1,110 @@
+package com.online.library.services.impl;
+
+import com.online.library.domain.dao.BookSearchDao;
+import com.online.library.domain.dto.CacheRegionStatsDto;
+import com.online.library.domain.entities.AuthorEntity;
+import com.online.library.domain.entities.BookEntity;
+import com.online.library.domain.entities.GenreEntity;
+import com.online.library.services.EntityCacheService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static com.online.library.services.support.TransactionCallbacks.afterCommit;
+
+// Hibernate keeps the second-level cache in step with writes it performs itself. Deleting an author or genre
+// also removes book_authors/book_genres rows through ON DELETE CASCADE, which it never sees, so the cached
+// collections of the books that were linked to it are dropped explicitly once the change has committed.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EntityCacheServiceImpl implements EntityCacheService {
+
+    private static final String BOOK_AUTHORS_ROLE = BookEntity.class.getName() + ".authors";
+    private static final String BOOK_GENRES_ROLE = BookEntity.class.getName() + ".genres";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final BookSearchDao bookSearchDao;
+
+    @Override
+    public void evictAuthor(Long authorId) {
+        afterCommit(() -> {
+            sessionFactory().getCache().evictEntityData(AuthorEntity.class, authorId);
+            log.debug("Evicted author {} from the second-level cache", authorId);
+        });
+    }
+
+    @Override
+    public void evictGenre(Long genreId) {
+        afterCommit(() -> {
+            sessionFactory().getCache().evictEntityData(GenreEntity.class, genreId);
+            log.debug("Evicted genre {} from the second-level cache", genreId);
+        });
+    }
+
+    @Override
+    public void evictDeletedAuthor(Long authorId) {
+        List<Long> bookIds = bookSearchDao.findBookIdsByAuthor(authorId);
+        afterCommit(() -> {
+            Cache cache = sessionFactory().getCache();
+            cache.evictEntityData(AuthorEntity.class, authorId);
+            bookIds.forEach(bookId -> cache.evictCollectionData(BOOK_AUTHORS_ROLE, bookId));
+            log.debug("Evicted deleted author {} and {} book author lists from the second-level cache",
+                    authorId, bookIds.size());
+        });
+    }
+
+    @Override
+    public void evictDeletedGenre(Long genreId) {
+        List<Long> bookIds = bookSearchDao.findBookIdsByGenre(genreId);
+        afterCommit(() -> {
+            Cache cache = sessionFactory().getCache();
+            cache.evictEntityData(GenreEntity.class, genreId);
+            bookIds.forEach(bookId -> cache.evictCollectionData(BOOK_GENRES_ROLE, bookId));
+            log.debug("Evicted deleted genre {} and {} book genre lists from the second-level cache",
+                    genreId, bookIds.size());
+        });
+    }
+
+    @Override
+    public void evictQueryResults() {
+        afterCommit(() -> {
+            sessionFactory().getCache().evictDefaultQueryRegion();
+            log.debug("Evicted cached query results");
+        });
+    }
+
+    @Override
+    public List<CacheRegionStatsDto> getRegionStatistics() {
+        Statistics statistics = sessionFactory().getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(statistics::getCacheRegionStatistics)
+                .filter(Objects::nonNull)
+                .map(EntityCacheServiceImpl::toDto)
+                .toList();
+    }
+
+    private static CacheRegionStatsDto toDto(CacheRegionStatistics statistics) {
+        return CacheRegionStatsDto.builder()
+                .region(statistics.getRegionName())
+                .hitCount(statistics.getHitCount())
+                .missCount(statistics.getMissCount())
+                .putCount(statistics.getPutCount())
+                .elementCount(statistics.getElementCountInMemory())
+                .build();
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -4,97 +4,91 @@ import com.online.library.domain.dto.AuthorStatDto;
 import com.online.library.domain.dto.BookStatDto;
 import com.online.library.domain.dto.UserStatDto;
 import com.online.library.services.ExportService;
+import com.online.library.services.support.CsvWriter;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
-import java.io.PrintWriter;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class ExportServiceImpl implements ExportService {
 
-    private static final String CSV_SEPARATOR = ";";
-    private static final String BOM = "\uFEFF"; // UTF-8 BOM for Excel compatibility
+    private static final char CSV_SEPARATOR = ';';
 
     @Override
     public byte[] exportPopularBooksToCsv(List<BookStatDto> books) {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (PrintWriter writer = new PrintWriter(baos, true, StandardCharsets.UTF_8)) {
-            writer.print(BOM);
-            // Header
-            writer.println("ID" + CSV_SEPARATOR +
-                    "Tytuł" + CSV_SEPARATOR +
-                    "Średnia ocena" + CSV_SEPARATOR +
-                    "Liczba rezerwacji");
-
-            // Data
-            for (BookStatDto book : books) {
-                writer.println(
-                        escapeCsv(String.valueOf(book.getId())) + CSV_SEPARATOR +
-                                escapeCsv(book.getTitle()) + CSV_SEPARATOR +
-                                escapeCsv(book.getAverageRating() != null ? book.getAverageRating().toString() : "N/A")
-                                + CSV_SEPARATOR +
-                                escapeCsv(String.valueOf(book.getReservationCount())));
-            }
-        }
+        inMemory(() -> writePopularBooksCsv(books::forEach, baos));
         return baos.toByteArray();
     }
 
     @Override
     public byte[] exportReadAuthorsToCsv(List<AuthorStatDto> authors) {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (PrintWriter writer = new PrintWriter(baos, true, StandardCharsets.UTF_8)) {
-            writer.print(BOM);
-            // Header
-            writer.println("ID" + CSV_SEPARATOR +
-                    "Imię" + CSV_SEPARATOR +
-                    "Nazwisko" + CSV_SEPARATOR +
-                    "Liczba wypożyczeń");
-
-            // Data
-            for (AuthorStatDto author : authors) {
-                writer.println(
-                        escapeCsv(String.valueOf(author.getId())) + CSV_SEPARATOR +
-                                escapeCsv(author.getName()) + CSV_SEPARATOR +
-                                escapeCsv(author.getLastName()) + CSV_SEPARATOR +
-                                escapeCsv(String.valueOf(author.getLoanCount())));
-            }
-        }
+        inMemory(() -> writeReadAuthorsCsv(authors::forEach, baos));
         return baos.toByteArray();
     }
 
     @Override
     public byte[] exportActiveUsersToCsv(List<UserStatDto> users) {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (PrintWriter writer = new PrintWriter(baos, true, StandardCharsets.UTF_8)) {
-            writer.print(BOM);
-            // Header
-            writer.println("ID" + CSV_SEPARATOR +
-                    "Nazwa użytkownika" + CSV_SEPARATOR +
-                    "Email" + CSV_SEPARATOR +
-                    "Liczba rezerwacji");
-
-            // Data
-            for (UserStatDto user : users) {
-                writer.println(
-                        escapeCsv(String.valueOf(user.getId())) + CSV_SEPARATOR +
-                                escapeCsv(user.getUsername()) + CSV_SEPARATOR +
-                                escapeCsv(user.getEmail()) + CSV_SEPARATOR +
-                                escapeCsv(String.valueOf(user.getReservationCount())));
-            }
-        }
+        inMemory(() -> writeActiveUsersCsv(users::forEach, baos));
         return baos.toByteArray();
     }
 
-    private String escapeCsv(String value) {
-        if (value == null) {
-            return "";
-        }
-        if (value.contains(CSV_SEPARATOR) || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
-            value = value.replace("\"", "\"\"");
-            return "\"" + value + "\"";
+    @Override
+    public void writePopularBooksCsv(Consumer<Consumer<BookStatDto>> books, OutputStream out) throws IOException {
+        CsvWriter csv = new CsvWriter(out, CSV_SEPARATOR);
+        csv.bom().field("ID").field("Tytuł").field("Średnia ocena").field("Liczba rezerwacji").endRow();
+        books.accept(book -> csv
+                .field(book.getId())
+                .field(book.getTitle())
+                .field(book.getAverageRating() != null ? book.getAverageRating().toString() : "N/A")
+                .field(book.getReservationCount())
+                .endRow());
+        csv.flush();
+    }
+
+    @Override
+    public void writeReadAuthorsCsv(Consumer<Consumer<AuthorStatDto>> authors, OutputStream out) throws IOException {
+        CsvWriter csv = new CsvWriter(out, CSV_SEPARATOR);
+        csv.bom().field("ID").field("Imię").field("Nazwisko").field("Liczba wypożyczeń").endRow();
+        authors.accept(author -> csv
+                .field(author.getId())
+                .field(author.getName())
+                .field(author.getLastName())
+                .field(author.getLoanCount())
+                .endRow());
+        csv.flush();
+    }
+
+    @Override
+    public void writeActiveUsersCsv(Consumer<Consumer<UserStatDto>> users, OutputStream out) throws IOException {
+        CsvWriter csv = new CsvWriter(out, CSV_SEPARATOR);
+        csv.bom().field("ID").field("Nazwa użytkownika").field("Email").field("Liczba rezerwacji").endRow();
+        users.accept(user -> csv
+                .field(user.getId())
+                .field(user.getUsername())
+                .field(user.getEmail())
+                .field(user.getReservationCount())
+                .endRow());
+        csv.flush();
+    }
+
+    private interface CsvExport {
+        void write() throws IOException;
+    }
+
+    // A ByteArrayOutputStream never throws, so the checked exception cannot actually happen here.
+    private static void inMemory(CsvExport export) {
+        try {
+            export.write();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return value;
     }
 }
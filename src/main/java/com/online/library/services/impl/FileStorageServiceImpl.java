@@ -1,37 +1,75 @@
 package com.online.library.services.impl;
 
+import com.online.library.domain.enums.ImageSize;
 import com.online.library.exceptions.FileStorageException;
+import com.online.library.repositories.BookRepository;
 import com.online.library.services.FileStorageService;
+import com.online.library.services.support.ImageResizer;
+import com.online.library.storage.ObjectStorage;
+import com.online.library.storage.StoredObject;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
+// Uploads are content-addressed: a file is named after the SHA-256 of its bytes, so uploading the same image
+// twice stores it once. A file lives as long as some book's cover_image_path points at it; release() drops it
+// as soon as the last book lets go, and collectGarbage() sweeps whatever is left over (abandoned forms,
+// crashes, files from before). Files touched within the grace period are never deleted, since the book
+// that is about to reference them may not have committed yet. The bytes themselves live in ObjectStorage,
+// a local directory or a bucket shared by all nodes.
 @Slf4j
 @Service
 public class FileStorageServiceImpl implements FileStorageService {
 
-    private final Path uploadDir;
+    // Derivatives are immutable once made, so after one existence check they need not be checked again; the
+    // remembered keys are dropped wholesale past this size.
+    private static final int MAX_REMEMBERED_KEYS = 10_000;
 
-    public FileStorageServiceImpl(@Value("${app.upload.dir:uploads}") String uploadDir) {
-        this.uploadDir = Paths.get(uploadDir).toAbsolutePath().normalize();
-        try {
-            Files.createDirectories(this.uploadDir);
-            log.info("Upload directory initialized at: {}", this.uploadDir);
-        } catch (IOException e) {
-            throw new FileStorageException("Could not create upload directory", e);
-        }
+    private final ObjectStorage storage;
+    private final Duration gracePeriod;
+    private final BookRepository bookRepository;
+    // Makes "reuse an existing file" and "delete an unreferenced file" mutually exclusive on this node;
+    // across nodes the grace period does the same job. Not a monitor: the critical sections do storage I/O,
+    // which would pin a virtual thread to its carrier inside synchronized.
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<String> knownDerivatives = ConcurrentHashMap.newKeySet();
+    // Originals ImageResizer cannot decode (e.g. CMYK JPEGs); keys are content hashes, so that never changes
+    // and they are served unscaled without another download and decode.
+    private final Set<String> undecodableOriginals = ConcurrentHashMap.newKeySet();
+
+    public FileStorageServiceImpl(ObjectStorage storage,
+                                  @Value("${app.upload.gc-grace-period:PT1H}") Duration gracePeriod,
+                                  BookRepository bookRepository) {
+        this.storage = storage;
+        this.gracePeriod = gracePeriod;
+        this.bookRepository = bookRepository;
     }
 
     @Override
@@ -47,21 +85,43 @@ public class FileStorageServiceImpl implements FileStorageService {
         String fileExtension = "";
         int dotIndex = originalFilename.lastIndexOf('.');
         if (dotIndex > 0) {
-            fileExtension = originalFilename.substring(dotIndex);
+            fileExtension = originalFilename.substring(dotIndex).toLowerCase(Locale.ROOT);
         }
 
-        String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
-
         try {
-            Path targetDir = this.uploadDir.resolve(directory);
-            Files.createDirectories(targetDir);
+            // Hashed on the way to disk, so the upload is read only once.
+            MessageDigest digest = sha256();
+            Path tempPath = Files.createTempFile("upload-", fileExtension);
+            try {
+                try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                    Files.copy(in, tempPath, StandardCopyOption.REPLACE_EXISTING);
+                }
+                String relativePath = key(directory + "/" + HexFormat.of().formatHex(digest.digest()) + fileExtension);
 
-            Path targetPath = targetDir.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+                boolean created;
+                lock.lock();
+                try {
+                    created = storage.stat(relativePath).isEmpty();
+                    if (created) {
+                        storage.put(relativePath, tempPath);
+                    } else {
+                        // Restarts the grace period, so the collector leaves the file alone until the book is saved.
+                        storage.touch(relativePath);
+                    }
+                } finally {
+                    lock.unlock();
+                }
 
-            String relativePath = directory + "/" + uniqueFilename;
-            log.info("File stored successfully: {}", relativePath);
-            return relativePath;
+                if (created) {
+                    log.info("File stored successfully: {}", relativePath);
+                    createDerivatives(tempPath, relativePath);
+                } else {
+                    log.info("File already stored, reusing: {}", relativePath);
+                }
+                return relativePath;
+            } finally {
+                Files.deleteIfExists(tempPath);
+            }
         } catch (IOException e) {
             log.error("Failed to store file: {}", originalFilename, e);
             throw new FileStorageException("Failed to store file: " + originalFilename, e);
@@ -71,31 +131,253 @@ public class FileStorageServiceImpl implements FileStorageService {
     @Override
     public Resource loadFileAsResource(String filePath) {
         log.debug("Loading file: {}", filePath);
+        String key = key(filePath);
         try {
-            Path path = this.uploadDir.resolve(filePath).normalize();
-            Resource resource = new UrlResource(path.toUri());
-
-            if (resource.exists() && resource.isReadable()) {
-                return resource;
-            } else {
+            if (storage.stat(key).isEmpty()) {
                 log.error("File not found or not readable: {}", filePath);
                 throw new FileStorageException("File not found: " + filePath);
             }
-        } catch (MalformedURLException e) {
+            return storage.get(key);
+        } catch (IOException e) {
             log.error("File not found: {}", filePath, e);
             throw new FileStorageException("File not found: " + filePath, e);
         }
     }
 
+    @Override
+    public Resource loadImageDerivative(String filePath, ImageSize size) {
+        return loadFileAsResource(derivativeOrOriginal(key(filePath), size));
+    }
+
+    @Override
+    public Optional<URI> findDownloadUrl(String filePath) {
+        return storage.downloadUrl(key(filePath));
+    }
+
+    @Override
+    public Optional<URI> findDownloadUrl(String filePath, ImageSize size) {
+        String key = key(filePath);
+        if (storage.downloadUrl(key).isEmpty()) {
+            return Optional.empty();
+        }
+        return storage.downloadUrl(derivativeOrOriginal(key, size));
+    }
+
     @Override
     public void deleteFile(String filePath) {
         log.debug("Deleting file: {}", filePath);
+        String key = key(filePath);
         try {
-            Path path = this.uploadDir.resolve(filePath).normalize();
-            Files.deleteIfExists(path);
+            storage.delete(key);
+            undecodableOriginals.remove(key);
+            for (ImageSize size : ImageSize.values()) {
+                String derivative = derivativeKey(key, size);
+                knownDerivatives.remove(derivative);
+                storage.delete(derivative);
+            }
             log.info("File deleted: {}", filePath);
         } catch (IOException e) {
             log.error("Failed to delete file: {}", filePath, e);
         }
     }
+
+    @Override
+    public void release(String filePath) {
+        if (filePath == null) {
+            return;
+        }
+        long references = bookRepository.countByCoverImagePath(filePath);
+        if (references > 0) {
+            log.debug("File {} is still used by {} book(s)", filePath, references);
+            return;
+        }
+        if (deleteIfStale(key(filePath), Instant.now().minus(gracePeriod))) {
+            log.info("File released: {}", filePath);
+        }
+    }
+
+    // Storage keys are <directory>/<file> for uploads and <directory>/<size>/<file> for derivatives.
+    @Override
+    @Scheduled(fixedDelayString = "${app.upload.gc-interval:PT6H}",
+            initialDelayString = "${app.upload.gc-interval:PT6H}")
+    public int collectGarbage() {
+        log.info("Collecting unreferenced files");
+        Set<String> referenced = new HashSet<>(bookRepository.findAllCoverImagePaths());
+        Set<String> sizePaths = Arrays.stream(ImageSize.values())
+                .map(ImageSize::getPath)
+                .collect(Collectors.toSet());
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        int deleted = 0;
+        try {
+            List<StoredObject> objects = storage.list("");
+            Set<String> originals = objects.stream()
+                    .map(StoredObject::key)
+                    .filter(key -> key.split("/").length == 2)
+                    .collect(Collectors.toSet());
+            for (StoredObject object : objects) {
+                String[] segments = object.key().split("/");
+                String name = segments[segments.length - 1];
+                boolean stale = !object.lastModified().isAfter(cutoff);
+                if (segments.length == 2) {
+                    // Leftover temp files are swept too; anything else must be referenced by a book.
+                    boolean orphan = name.startsWith(".") || !referenced.contains(object.key());
+                    if (orphan && stale && deleteIfStale(object.key(), cutoff)) {
+                        deleted++;
+                    }
+                } else if (segments.length == 3 && sizePaths.contains(segments[1]) && stale
+                        && (name.startsWith(".") || !originals.contains(segments[0] + "/" + name))) {
+                    // Derivatives whose original is gone (e.g. removed by hand) and leftover resize temp files
+                    knownDerivatives.remove(object.key());
+                    storage.delete(object.key());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to collect unreferenced files", e);
+        }
+        log.info("Deleted {} unreferenced files", deleted);
+        return deleted;
+    }
+
+    private boolean deleteIfStale(String key, Instant cutoff) {
+        lock.lock();
+        try {
+            try {
+                Optional<StoredObject> object = storage.stat(key);
+                if (object.isEmpty() || object.get().lastModified().isAfter(cutoff)) {
+                    return false;
+                }
+            } catch (IOException e) {
+                log.error("Failed to check file: {}", key, e);
+                return false;
+            }
+            deleteFile(key);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The derivative's key, made on first use if needed; the original's key when the file cannot be scaled.
+    private String derivativeOrOriginal(String key, ImageSize size) {
+        if (ImageResizer.formatOf(key) == null || undecodableOriginals.contains(key)) {
+            return key;
+        }
+        String derivative = derivativeKey(key, size);
+        if (knownDerivatives.contains(derivative)) {
+            return derivative;
+        }
+        try {
+            if (storage.stat(derivative).isEmpty() && !createDerivative(key, derivative, size)) {
+                return key;
+            }
+        } catch (IOException e) {
+            log.error("Failed to check {} derivative of {}", size, key, e);
+            return key;
+        }
+        remember(knownDerivatives, derivative);
+        return derivative;
+    }
+
+    private static void remember(Set<String> keys, String key) {
+        if (keys.size() >= MAX_REMEMBERED_KEYS) {
+            keys.clear();
+        }
+        keys.add(key);
+    }
+
+    // Made right away from the uploaded file, so the first page view does not pay for the resize;
+    // a failure here is retried on first use.
+    private void createDerivatives(Path source, String key) {
+        if (ImageResizer.formatOf(key) == null) {
+            return;
+        }
+        for (ImageSize size : ImageSize.values()) {
+            createDerivative(source, key, derivativeKey(key, size), size);
+        }
+    }
+
+    private boolean createDerivative(String key, String derivative, ImageSize size) {
+        Path source = null;
+        try {
+            Resource original = storage.get(key);
+            if (original.isFile()) {
+                return createDerivative(original.getFile().toPath(), key, derivative, size);
+            }
+            source = Files.createTempFile("original-", extension(key));
+            try (InputStream in = original.getInputStream()) {
+                Files.copy(in, source, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return createDerivative(source, key, derivative, size);
+        } catch (FileNotFoundException e) {
+            return false;
+        } catch (IOException e) {
+            log.error("Failed to create {} derivative of {}", size, key, e);
+            return false;
+        } finally {
+            deleteQuietly(source);
+        }
+    }
+
+    private boolean createDerivative(Path source, String key, String derivative, ImageSize size) {
+        if (!Files.isRegularFile(source)) {
+            return false;
+        }
+        Path target = null;
+        try {
+            target = Files.createTempFile("derivative-", extension(key));
+            boolean created = ImageResizer.resize(source, target, size.getMaxWidth(), size.getMaxHeight());
+            if (created) {
+                storage.put(derivative, target);
+                log.debug("Created {} derivative of {}", size, key);
+            } else {
+                log.warn("Could not decode image {}, serving it unscaled", key);
+                remember(undecodableOriginals, key);
+            }
+            return created;
+        } catch (IOException e) {
+            log.error("Failed to create {} derivative of {}", size, key, e);
+            return false;
+        } finally {
+            deleteQuietly(target);
+        }
+    }
+
+    // Rejects anything that could point outside the upload area.
+    private static String key(String filePath) {
+        String key = StringUtils.cleanPath(filePath);
+        if (key.startsWith("/") || key.startsWith("..") || key.contains("/../")) {
+            throw new FileStorageException("Invalid file path: " + filePath);
+        }
+        return key;
+    }
+
+    // covers/abc.jpg -> covers/list/abc.jpg
+    private static String derivativeKey(String key, ImageSize size) {
+        int slash = key.lastIndexOf('/');
+        return key.substring(0, slash + 1) + size.getPath() + "/" + key.substring(slash + 1);
+    }
+
+    private static String extension(String key) {
+        int dot = key.lastIndexOf('.');
+        return dot > key.lastIndexOf('/') ? key.substring(dot) : "";
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary file {}", path, e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 }
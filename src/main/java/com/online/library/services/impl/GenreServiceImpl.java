@@ -1,17 +1,23 @@
 package com.online.library.services.impl;
 
+import com.online.library.domain.dto.CursorPageDto;
 import com.online.library.domain.dto.GenreDto;
 import com.online.library.domain.entities.GenreEntity;
 import com.online.library.exceptions.ResourceNotFoundException;
 import com.online.library.mappers.Mapper;
 import com.online.library.repositories.GenreRepository;
+import com.online.library.services.BookService;
+import com.online.library.services.EntityCacheService;
 import com.online.library.services.GenreService;
+import com.online.library.services.support.KeysetPagination;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -20,12 +26,19 @@ public class GenreServiceImpl implements GenreService {
 
     private final GenreRepository genreRepository;
     private final Mapper<GenreEntity, GenreDto> genreMapper;
+    private final EntityCacheService entityCacheService;
+    private final BookService bookService;
 
     @Override
     @Transactional
     public GenreDto save(GenreDto genreDto) {
         GenreEntity genreEntity = genreMapper.mapFrom(genreDto);
         GenreEntity savedGenreEntity = genreRepository.save(genreEntity);
+        // A PUT over an existing genre; a new one is cached by Hibernate as it is written
+        if (genreDto.getId() != null) {
+            entityCacheService.evictGenre(savedGenreEntity.getId());
+        }
+        bookService.reindexGenre(savedGenreEntity.getId());
         return genreMapper.mapTo(savedGenreEntity);
     }
 
@@ -36,6 +49,24 @@ public class GenreServiceImpl implements GenreService {
         return foundGenres.map(genreMapper::mapTo);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<GenreDto> findAllAfter(String cursor, int size) {
+        int pageSize = KeysetPagination.size(size);
+        List<GenreEntity> rows = genreRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPagination.decodeId(cursor), KeysetPagination.limit(pageSize));
+        return KeysetPagination.slice(rows, pageSize, row -> KeysetPagination.encodeId(row.getId()), genreMapper::mapTo);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<GenreDto> findAllByIdIn(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return genreRepository.findAllByIdIn(ids).stream().map(genreMapper::mapTo).toList();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<GenreDto> findById(Long id) {
@@ -55,13 +86,18 @@ public class GenreServiceImpl implements GenreService {
 
         return genreRepository.findById(id).map(existingGenre -> {
             Optional.ofNullable(genreDto.getName()).ifPresent(existingGenre::setName);
-            return genreMapper.mapTo(genreRepository.save(existingGenre));
+            GenreEntity savedGenreEntity = genreRepository.save(existingGenre);
+            entityCacheService.evictGenre(id);
+            bookService.reindexGenre(id);
+            return genreMapper.mapTo(savedGenreEntity);
         }).orElseThrow(() -> new ResourceNotFoundException("Genre does not exist"));
     }
 
     @Override
     @Transactional
     public void delete(Long id) {
+        bookService.reindexGenre(id);
+        entityCacheService.evictDeletedGenre(id);
         genreRepository.deleteById(id);
     }
 }
@@ -0,0 +1,98 @@
+package com.online.library.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.online.library.domain.dto.BookAvailabilityDto;
+import com.online.library.domain.enums.ReservationStatus;
+import com.online.library.exceptions.ResourceNotFoundException;
+import com.online.library.repositories.BookRepository;
+import com.online.library.services.InventoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.online.library.services.support.TransactionCallbacks.afterCommit;
+
+// Availability is read on every book page and reservation check, so it is served from memory and
+// adjusted in place after each committed loan or return instead of being recounted from the database.
+@Slf4j
+@Service
+public class InventoryServiceImpl implements InventoryService {
+
+    private final BookRepository bookRepository;
+    // Bounded, so the least used books drop out once it is full; entries are cheap to reload.
+    private final Cache<Long, BookAvailabilityDto> availability;
+    // Bumped on every change, so a value read from the database while a loan committed is not cached.
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public InventoryServiceImpl(BookRepository bookRepository,
+                                @Value("${app.inventory.cache-size:10000}") int maxCachedBooks) {
+        this(bookRepository, maxCachedBooks, ForkJoinPool.commonPool());
+    }
+
+    // The executor runs Caffeine's eviction; tests pass a direct one to see it happen synchronously.
+    InventoryServiceImpl(BookRepository bookRepository, int maxCachedBooks, Executor maintenance) {
+        this.bookRepository = bookRepository;
+        this.availability = Caffeine.newBuilder()
+                .maximumSize(maxCachedBooks)
+                .executor(maintenance)
+                .build();
+    }
+
+    // No transaction of its own: a hit is a map lookup, and on a miss the repository query brings its own.
+    @Override
+    public boolean hasAvailableCopies(Long bookId) {
+        BookAvailabilityDto cached = availability.getIfPresent(bookId);
+        if (cached == null) {
+            long readAt = generation.get();
+            cached = bookRepository.findAvailabilityById(bookId, ReservationStatus.WYPOŻYCZONA)
+                    .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
+            availability.asMap().putIfAbsent(bookId, cached);
+            if (generation.get() != readAt) {
+                availability.invalidate(bookId);
+            }
+        }
+        return cached.hasAvailableCopies();
+    }
+
+    @Override
+    @Transactional
+    public void checkOut(Long bookId) {
+        if (bookRepository.decrementCopiesAvailable(bookId) == 0) {
+            throw new IllegalStateException("No copies available");
+        }
+        afterCommit(() -> adjust(bookId, -1));
+    }
+
+    @Override
+    @Transactional
+    public void checkIn(Long bookId) {
+        if (bookRepository.incrementCopiesAvailable(bookId) == 0) {
+            throw new ResourceNotFoundException("Book not found");
+        }
+        afterCommit(() -> adjust(bookId, +1));
+    }
+
+    @Override
+    public void evict(Long bookId) {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            availability.invalidate(bookId);
+        });
+    }
+
+    private void adjust(Long bookId, int copiesDelta) {
+        generation.incrementAndGet();
+        availability.asMap().computeIfPresent(bookId, (id, current) -> current.getCopiesAvailable() == null
+                ? null
+                : new BookAvailabilityDto(current.getCopiesAvailable() + copiesDelta,
+                        current.getLoanedCount() - copiesDelta));
+    }
+}
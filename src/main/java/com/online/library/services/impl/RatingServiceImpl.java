@@ -1,5 +1,6 @@
 package com.online.library.services.impl;
 
+import com.online.library.domain.dto.CursorPageDto;
 import com.online.library.domain.dto.RatingDto;
 import com.online.library.domain.entities.BookEntity;
 import com.online.library.domain.entities.RatingEntity;
@@ -9,7 +10,9 @@ import com.online.library.mappers.Mapper;
 import com.online.library.repositories.BookRepository;
 import com.online.library.repositories.RatingRepository;
 import com.online.library.repositories.UserRepository;
+import com.online.library.search.SuggestionIndex;
 import com.online.library.services.RatingService;
+import com.online.library.services.support.KeysetPagination;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -19,9 +22,12 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import static com.online.library.services.support.TransactionCallbacks.afterCommit;
+
 @Service
 @RequiredArgsConstructor
 public class RatingServiceImpl implements RatingService {
@@ -30,12 +36,18 @@ public class RatingServiceImpl implements RatingService {
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
     private final Mapper<RatingEntity, RatingDto> ratingMapper;
+    private final SuggestionIndex suggestionIndex;
 
     @Override
     @Transactional
     public RatingDto save(RatingDto ratingDto) {
+        // Read before the save, which merges the new values into the same managed entity
+        Optional<Vote> previousVote = Optional.ofNullable(ratingDto.getId())
+                .flatMap(ratingRepository::findById)
+                .map(Vote::of);
         RatingEntity ratingEntity = ratingMapper.mapFrom(ratingDto);
         RatingEntity savedRatingEntity = ratingRepository.save(ratingEntity);
+        applyRatingChange(savedRatingEntity, previousVote);
         return ratingMapper.mapTo(savedRatingEntity);
     }
 
@@ -45,6 +57,15 @@ public class RatingServiceImpl implements RatingService {
         return ratingRepository.findAll(pageable).map(ratingMapper::mapTo);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<RatingDto> findAllAfter(String cursor, int size) {
+        int pageSize = KeysetPagination.size(size);
+        List<RatingEntity> rows = ratingRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPagination.decodeId(cursor), KeysetPagination.limit(pageSize));
+        return KeysetPagination.slice(rows, pageSize, row -> KeysetPagination.encodeId(row.getId()), ratingMapper::mapTo);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<RatingDto> findById(Long id) {
@@ -61,15 +82,22 @@ public class RatingServiceImpl implements RatingService {
     @Transactional
     public RatingDto partialUpdate(Long id, RatingDto ratingDto) {
         return ratingRepository.findById(id).map(existingRating -> {
+            Vote previousVote = Vote.of(existingRating);
             Optional.ofNullable(ratingDto.getRating()).ifPresent(existingRating::setRating);
-            return ratingMapper.mapTo(ratingRepository.save(existingRating));
+            RatingEntity savedRating = ratingRepository.save(existingRating);
+            applyRatingChange(savedRating, Optional.of(previousVote));
+            return ratingMapper.mapTo(savedRating);
         }).orElseThrow(() -> new ResourceNotFoundException("Rating does not exist"));
     }
 
     @Override
     @Transactional
     public void delete(Long id) {
-        ratingRepository.deleteById(id);
+        ratingRepository.findById(id).ifPresent(rating -> {
+            Vote vote = Vote.of(rating);
+            ratingRepository.delete(rating);
+            applyDelta(vote.bookId(), -valueOf(vote.rating()), -1);
+        });
     }
 
     @Override
@@ -97,7 +125,9 @@ public class RatingServiceImpl implements RatingService {
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
 
         // Find existing rating or create new one
-        RatingEntity ratingEntity = ratingRepository.findByUserAndBook(user, book)
+        Optional<RatingEntity> existingRating = ratingRepository.findByUserAndBook(user, book);
+        Optional<Vote> previousVote = existingRating.map(Vote::of);
+        RatingEntity ratingEntity = existingRating
                 .orElse(RatingEntity.builder()
                         .user(user)
                         .book(book)
@@ -106,7 +136,7 @@ public class RatingServiceImpl implements RatingService {
         ratingEntity.setRating(rating);
         RatingEntity savedRating = ratingRepository.save(ratingEntity);
 
-        updateBookAverageRating(bookId);
+        applyRatingChange(savedRating, previousVote);
 
         return ratingMapper.mapTo(savedRating);
     }
@@ -114,7 +144,7 @@ public class RatingServiceImpl implements RatingService {
     @Override
     @Transactional(readOnly = true)
     public BigDecimal calculateAverageRating(Long bookId) {
-        return ratingRepository.calculateAverageRatingByBookId(bookId)
+        return bookRepository.findAverageRatingById(bookId)
                 .map(avg -> avg.setScale(2, RoundingMode.HALF_UP))
                 .orElse(BigDecimal.ZERO);
     }
@@ -122,7 +152,7 @@ public class RatingServiceImpl implements RatingService {
     @Override
     @Transactional(readOnly = true)
     public Long countRatingsForBook(Long bookId) {
-        return ratingRepository.countRatingsByBookId(bookId);
+        return bookRepository.findRatingCountById(bookId).orElse(0L);
     }
 
     @Override
@@ -140,11 +170,34 @@ public class RatingServiceImpl implements RatingService {
                 .orElse(null);
     }
 
-    private void updateBookAverageRating(Long bookId) {
-        BigDecimal averageRating = calculateAverageRating(bookId);
-        BookEntity book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
-        book.setAverageRating(averageRating);
-        bookRepository.save(book);
+    // The book keeps a running sum and count of its ratings; a vote only moves them by the difference. A vote
+    // moved to another book leaves the old one and counts as new on the other.
+    private void applyRatingChange(RatingEntity rating, Optional<Vote> previousVote) {
+        Vote vote = Vote.of(rating);
+        if (previousVote.isPresent() && Objects.equals(previousVote.get().bookId(), vote.bookId())) {
+            applyDelta(vote.bookId(), valueOf(vote.rating()) - valueOf(previousVote.get().rating()), 0);
+            return;
+        }
+        previousVote.ifPresent(previous -> applyDelta(previous.bookId(), -valueOf(previous.rating()), -1));
+        applyDelta(vote.bookId(), valueOf(vote.rating()), 1);
+    }
+
+    private void applyDelta(Long bookId, long sumDelta, long countDelta) {
+        if (bookId == null || (sumDelta == 0 && countDelta == 0)) {
+            return;
+        }
+        bookRepository.applyRatingDelta(bookId, sumDelta, countDelta);
+        afterCommit(() -> suggestionIndex.markRatingStale(bookId));
+    }
+
+    private static long valueOf(Integer rating) {
+        return rating == null ? 0 : rating;
+    }
+
+    // A rating as counted in its book's aggregates, copied out before the entity is changed.
+    private record Vote(Long bookId, Integer rating) {
+        static Vote of(RatingEntity rating) {
+            return new Vote(rating.getBook() != null ? rating.getBook().getId() : null, rating.getRating());
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.online.library.services.impl;
 
+import com.online.library.domain.dto.CursorPageDto;
 import com.online.library.domain.dto.ReservationDto;
 import com.online.library.domain.entities.BookEntity;
 import com.online.library.domain.entities.ReservationEntity;
@@ -10,7 +11,9 @@ import com.online.library.mappers.Mapper;
 import com.online.library.repositories.BookRepository;
 import com.online.library.repositories.ReservationRepository;
 import com.online.library.repositories.UserRepository;
+import com.online.library.services.InventoryService;
 import com.online.library.services.ReservationService;
+import com.online.library.services.support.KeysetPagination;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -32,12 +35,15 @@ public class ReservationServiceImpl implements ReservationService {
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
     private final Mapper<ReservationEntity, ReservationDto> reservationMapper;
+    private final InventoryService inventoryService;
 
     @Override
     @Transactional
     public ReservationDto save(ReservationDto reservationDto) {
         ReservationEntity entity = reservationMapper.mapFrom(reservationDto);
-        return reservationMapper.mapTo(reservationRepository.save(entity));
+        ReservationEntity saved = reservationRepository.save(entity);
+        evictInventory(saved);
+        return reservationMapper.mapTo(saved);
     }
 
     @Override
@@ -46,6 +52,19 @@ public class ReservationServiceImpl implements ReservationService {
         return reservationRepository.findAll(pageable).map(reservationMapper::mapTo);
     }
 
+    // Newest first; the cursor carries (reservedAt, id) so rows sharing a timestamp are neither skipped nor repeated.
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<ReservationDto> findAllAfter(String cursor, int size) {
+        int pageSize = KeysetPagination.size(size);
+        KeysetPagination.Position position = KeysetPagination.decodePosition(cursor);
+        List<ReservationEntity> rows = position == null
+                ? reservationRepository.findAllByOrderByReservedAtDescIdDesc(KeysetPagination.limit(pageSize))
+                : reservationRepository.findOlderThan(position.timestamp(), position.id(), KeysetPagination.limit(pageSize));
+        return KeysetPagination.slice(rows, pageSize,
+                row -> KeysetPagination.encodePosition(row.getReservedAt(), row.getId()), reservationMapper::mapTo);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<ReservationDto> findById(Long id) {
@@ -66,6 +85,7 @@ public class ReservationServiceImpl implements ReservationService {
             Optional.ofNullable(dto.getConfirmedAt()).ifPresent(existing::setConfirmedAt);
             Optional.ofNullable(dto.getLoanedAt()).ifPresent(existing::setLoanedAt);
             Optional.ofNullable(dto.getReturnedAt()).ifPresent(existing::setReturnedAt);
+            evictInventory(existing);
             return reservationMapper.mapTo(reservationRepository.save(existing));
         }).orElseThrow(() -> new ResourceNotFoundException("Reservation does not exist"));
     }
@@ -73,6 +93,7 @@ public class ReservationServiceImpl implements ReservationService {
     @Override
     @Transactional
     public void delete(Long id) {
+        reservationRepository.findById(id).ifPresent(this::evictInventory);
         reservationRepository.deleteById(id);
     }
 
@@ -152,9 +173,9 @@ public class ReservationServiceImpl implements ReservationService {
 
         // Handle book copies when loaning or returning
         if (newStatus == ReservationStatus.WYPOŻYCZONA) {
-            adjustBookCopies(reservation.getBook(), -1);
+            inventoryService.checkOut(reservation.getBook().getId());
         } else if (newStatus == ReservationStatus.ZWRÓCONA) {
-            adjustBookCopies(reservation.getBook(), +1);
+            inventoryService.checkIn(reservation.getBook().getId());
         }
 
         // Set timestamps and status
@@ -193,16 +214,7 @@ public class ReservationServiceImpl implements ReservationService {
     @Override
     @Transactional(readOnly = true)
     public boolean hasAvailableCopies(Long bookId) {
-        BookEntity book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
-
-        Integer copies = book.getCopiesAvailable();
-        if (copies == null || copies <= 0) {
-            return false;
-        }
-
-        Long loanedCount = reservationRepository.countByBookIdAndStatus(bookId, ReservationStatus.WYPOŻYCZONA);
-        return copies > loanedCount;
+        return inventoryService.hasAvailableCopies(bookId);
     }
 
     @Override
@@ -212,13 +224,10 @@ public class ReservationServiceImpl implements ReservationService {
                 .map(reservationMapper::mapTo);
     }
 
-    private void adjustBookCopies(BookEntity book, int delta) {
-        int current = book.getCopiesAvailable() != null ? book.getCopiesAvailable() : 0;
-        int newValue = current + delta;
-        if (newValue < 0) {
-            throw new IllegalStateException("No copies available");
+    // Direct edits may add or drop a loan, so the cached availability of the book is reloaded.
+    private void evictInventory(ReservationEntity reservation) {
+        if (reservation.getBook() != null && reservation.getBook().getId() != null) {
+            inventoryService.evict(reservation.getBook().getId());
         }
-        book.setCopiesAvailable(newValue);
-        bookRepository.save(book);
     }
 }
@@ -1,36 +1,80 @@
 package com.online.library.services.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.online.library.domain.entities.UserEntity;
+import com.online.library.domain.enums.UserRole;
 import com.online.library.repositories.UserRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
+import com.online.library.security.LibraryUserDetails;
+import com.online.library.services.LibraryUserDetailsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collections;
+import java.time.Duration;
 
+// API clients on HTTP Basic authenticate every request, so accounts are cached by user name. Entries are
+// evicted by UserServiceImpl when an account changes and expire on their own as a backstop for changes made
+// elsewhere. The cache holds plain values and every call gets a fresh UserDetails: Spring Security erases
+// the password of the one it authenticated, which must not reach the cached copy.
+@Slf4j
 @Service
-@RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements LibraryUserDetailsService {
 
     private final UserRepository userRepository;
+    private final Cache<String, CachedAccount> accounts;
+
+    public UserDetailsServiceImpl(UserRepository userRepository,
+                                  @Value("${app.security.user-cache.max-size:10000}") long maxSize,
+                                  @Value("${app.security.user-cache.ttl:PT10M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        UserEntity userEntity = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
-
-        return new User(
-                userEntity.getUsername(),
-                userEntity.getPassword(),
-                userEntity.getEnabled() != null ? userEntity.getEnabled() : true,
-                true,
-                true,
-                true,
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + userEntity.getRole().name()))
-        );
+        // Unknown names are not cached, so a freshly registered user can log in straight away
+        CachedAccount account = accounts.get(username, name -> userRepository.findByUsername(name)
+                .map(CachedAccount::of)
+                .orElse(null));
+        if (account == null) {
+            throw new UsernameNotFoundException("User not found with username: " + username);
+        }
+        return new LibraryUserDetails(account.id(), account.username(), account.password(), account.enabled(),
+                account.role());
+    }
+
+    // Called after a successful login whose hash was made with another BCrypt cost
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserEntity entity = userRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + user.getUsername()));
+        entity.setPassword(newPassword);
+        userRepository.save(entity);
+        evict(entity.getUsername());
+        log.info("Hasło użytkownika {} przeliczone z aktualnym kosztem BCrypt", entity.getUsername());
+        return new LibraryUserDetails(entity.getId(), entity.getUsername(), newPassword,
+                entity.getEnabled() != null ? entity.getEnabled() : true, entity.getRole());
+    }
+
+    @Override
+    public void evict(String username) {
+        accounts.invalidate(username);
+        log.debug("Evicted account {} from the user cache", username);
+    }
+
+    private record CachedAccount(Long id, String username, String password, boolean enabled, UserRole role) {
+
+        static CachedAccount of(UserEntity user) {
+            return new CachedAccount(user.getId(), user.getUsername(), user.getPassword(),
+                    user.getEnabled() != null ? user.getEnabled() : true, user.getRole());
+        }
     }
 }
@@ -1,12 +1,20 @@
 package com.online.library.services.impl;
 
+import com.online.library.domain.dto.CursorPageDto;
 import com.online.library.domain.dto.UserRequestDto;
 import com.online.library.domain.dto.UserResponseDto;
 import com.online.library.domain.entities.UserEntity;
 import com.online.library.exceptions.ResourceNotFoundException;
 import com.online.library.mappers.impl.UserMapper;
+import com.online.library.repositories.BookRepository;
+import com.online.library.repositories.RatingRepository;
 import com.online.library.repositories.UserRepository;
+import com.online.library.search.SuggestionIndex;
+import com.online.library.security.TokenRevocationList;
+import com.online.library.services.LibraryUserDetailsService;
 import com.online.library.services.UserService;
+import com.online.library.services.support.KeysetPagination;
+import com.online.library.services.support.TransactionCallbacks;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -28,15 +36,29 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final RatingRepository ratingRepository;
+    private final BookRepository bookRepository;
+    private final TokenRevocationList tokenRevocationList;
+    private final LibraryUserDetailsService userDetailsService;
+    private final SuggestionIndex suggestionIndex;
 
     @Override
     @Transactional
     public UserResponseDto save(UserRequestDto userDto) {
         log.info("Creating new user: {}", userDto.getUsername());
+        // PUT replaces an existing account wholesale; its cached copy and issued tokens go like on a partial update
+        Optional<String> previousUsername = userDto.getId() != null
+                ? userRepository.findById(userDto.getId()).map(UserEntity::getUsername)
+                : Optional.empty();
         UserEntity userEntity = userMapper.mapFromRequest(userDto);
         userEntity.setPassword(passwordEncoder.encode(userEntity.getPassword()));
         UserEntity savedUserEntity = userRepository.save(userEntity);
         log.debug("User created with id: {}", savedUserEntity.getId());
+        boolean disabled = Boolean.FALSE.equals(savedUserEntity.getEnabled());
+        previousUsername.ifPresent(name -> TransactionCallbacks.afterCommit(() -> {
+            userDetailsService.evict(name);
+            revokeTokens(name, disabled);
+        }));
         return userMapper.mapToResponse(savedUserEntity);
     }
 
@@ -55,6 +77,15 @@ public class UserServiceImpl implements UserService {
         return foundEntities.map(userMapper::mapToResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<UserResponseDto> findAllAfter(String cursor, int size) {
+        int pageSize = KeysetPagination.size(size);
+        List<UserEntity> rows = userRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPagination.decodeId(cursor), KeysetPagination.limit(pageSize));
+        return KeysetPagination.slice(rows, pageSize, row -> KeysetPagination.encodeId(row.getId()), userMapper::mapToResponse);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<UserResponseDto> findById(Long id) {
@@ -79,6 +110,10 @@ public class UserServiceImpl implements UserService {
         userDto.setId(id);
 
         return userRepository.findById(id).map(existingUser -> {
+            String previousUsername = existingUser.getUsername();
+            boolean credentialsChanged = userDto.getUsername() != null || userDto.getRole() != null
+                    || userDto.getEnabled() != null;
+            boolean disabled = Boolean.FALSE.equals(userDto.getEnabled());
             Optional.ofNullable(userDto.getUsername()).ifPresent(existingUser::setUsername);
             Optional.ofNullable(userDto.getEmail()).ifPresent(existingUser::setEmail);
             if (userDto.getPassword() != null && !userDto.getPassword().isEmpty()) {
@@ -86,16 +121,43 @@ public class UserServiceImpl implements UserService {
                     throw new IllegalArgumentException("Password must be between 12 and 256 characters");
                 }
                 existingUser.setPassword(passwordEncoder.encode(userDto.getPassword()));
+                credentialsChanged = true;
             }
             Optional.ofNullable(userDto.getRole()).ifPresent(existingUser::setRole);
             Optional.ofNullable(userDto.getEnabled()).ifPresent(existingUser::setEnabled);
-            return userMapper.mapToResponse(userRepository.save(existingUser));
+            UserResponseDto saved = userMapper.mapToResponse(userRepository.save(existingUser));
+            TransactionCallbacks.afterCommit(() -> userDetailsService.evict(previousUsername));
+            if (credentialsChanged) {
+                // API tokens carry the name and roles they were issued with, so the old ones must stop working
+                TransactionCallbacks.afterCommit(() -> revokeTokens(previousUsername, disabled));
+            }
+            return saved;
         }).orElseThrow(() -> new ResourceNotFoundException("User does not exist"));
     }
 
     @Override
     @Transactional
     public void delete(Long id) {
+        // The user's ratings go with them (ON DELETE CASCADE), so the rated books' aggregates are rebuilt.
+        List<Long> ratedBookIds = ratingRepository.findRatedBookIdsByUserId(id);
+        Optional<String> username = userRepository.findById(id).map(UserEntity::getUsername);
         userRepository.deleteById(id);
+        username.ifPresent(name -> TransactionCallbacks.afterCommit(() -> {
+            userDetailsService.evict(name);
+            tokenRevocationList.lockOutUser(name);
+        }));
+        if (!ratedBookIds.isEmpty()) {
+            bookRepository.recalculateRatingAggregates(ratedBookIds);
+            TransactionCallbacks.afterCommit(() -> ratedBookIds.forEach(suggestionIndex::markRatingStale));
+        }
+    }
+
+    // A password or role change keeps the token issued in the same second; a disabled account keeps none.
+    private void revokeTokens(String username, boolean disabled) {
+        if (disabled) {
+            tokenRevocationList.lockOutUser(username);
+        } else {
+            tokenRevocationList.revokeUser(username);
+        }
     }
 }
@@ -0,0 +1,165 @@
+package com.online.library.services.support;
+
+import com.online.library.domain.dto.BookImportRow;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Streams books out of an import file. next() returns null at the end and throws IllegalArgumentException
+// for a record it cannot read; the reader is then already past that record, so the caller can carry on.
+public abstract class BookImportReader implements Closeable {
+
+    private static final int HEADER_PEEK_LIMIT = 64 * 1024;
+
+    public abstract BookImportRow next() throws IOException;
+
+    // Line on which the record last returned by next() starts.
+    public abstract long line();
+
+    // Header row with (at least) title and isbn columns; authors and genres are separated with '|'.
+    // The separator is ';' (as in the report exports) or ',', whichever the header uses.
+    public static BookImportReader csv(Reader reader) throws IOException {
+        BufferedReader buffered = new BufferedReader(reader, HEADER_PEEK_LIMIT);
+        buffered.mark(HEADER_PEEK_LIMIT);
+        String header = buffered.readLine();
+        buffered.reset();
+        char separator = header != null && count(header, ';') >= count(header, ',') ? ';' : ',';
+        return new Csv(new CsvReader(buffered, separator));
+    }
+
+    // One JSON object per line, with the fields of BookImportRow.
+    public static BookImportReader jsonLines(Reader reader, JsonMapper jsonMapper) {
+        return new JsonLines(new BufferedReader(reader), jsonMapper);
+    }
+
+    private static int count(String text, char c) {
+        return (int) text.chars().filter(ch -> ch == c).count();
+    }
+
+    private static final class Csv extends BookImportReader {
+
+        private final CsvReader csv;
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        private Csv(CsvReader csv) throws IOException {
+            this.csv = csv;
+            List<String> header = csv.next();
+            if (header == null) {
+                throw new IllegalArgumentException("Plik importu jest pusty");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.putIfAbsent(header.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("title") || !columns.containsKey("isbn")) {
+                throw new IllegalArgumentException("Nagłówek CSV musi zawierać kolumny title i isbn");
+            }
+        }
+
+        @Override
+        public BookImportRow next() throws IOException {
+            List<String> fields = csv.next();
+            if (fields == null) {
+                return null;
+            }
+            return new BookImportRow(
+                    text(fields, "title"),
+                    text(fields, "isbn"),
+                    names(fields, "authors"),
+                    names(fields, "genres"),
+                    text(fields, "publisher"),
+                    number(fields, "publishyear"),
+                    text(fields, "description"),
+                    number(fields, "copiesavailable"));
+        }
+
+        @Override
+        public long line() {
+            return csv.line();
+        }
+
+        @Override
+        public void close() throws IOException {
+            csv.close();
+        }
+
+        private String text(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private List<String> names(List<String> fields, String column) {
+            String value = text(fields, column);
+            if (value == null) {
+                return List.of();
+            }
+            // Trimmed and emptied out by BookImportRow
+            return Arrays.asList(value.split("\\|"));
+        }
+
+        private Integer number(List<String> fields, String column) {
+            String value = text(fields, column);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Integer.valueOf(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Nieprawidłowa liczba w kolumnie " + column + ": " + value);
+            }
+        }
+    }
+
+    private static final class JsonLines extends BookImportReader {
+
+        private final BufferedReader reader;
+        private final JsonMapper jsonMapper;
+        private long line;
+        private long recordLine;
+
+        private JsonLines(BufferedReader reader, JsonMapper jsonMapper) {
+            this.reader = reader;
+            this.jsonMapper = jsonMapper;
+        }
+
+        @Override
+        public BookImportRow next() throws IOException {
+            String json;
+            do {
+                json = reader.readLine();
+                line++;
+            } while (json != null && json.isBlank());
+            if (json == null) {
+                return null;
+            }
+            recordLine = line;
+            try {
+                return jsonMapper.readValue(json, BookImportRow.class);
+            } catch (JacksonException e) {
+                throw new IllegalArgumentException("Nieprawidłowy JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public long line() {
+            return recordLine;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.online.library.services.support;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// Writes CSV rows straight to a stream. Each row is assembled in one reused buffer, so memory stays
+// flat however many rows go through it.
+public final class CsvWriter implements Flushable {
+
+    private static final String BOM = "\uFEFF"; // UTF-8 BOM for Excel compatibility
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final Writer writer;
+    private final char separator;
+    private final StringBuilder row = new StringBuilder(256);
+    private boolean firstField = true;
+
+    public CsvWriter(OutputStream out, char separator) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.separator = separator;
+    }
+
+    public CsvWriter bom() {
+        row.append(BOM);
+        return this;
+    }
+
+    public CsvWriter field(String value) {
+        startField();
+        if (value != null) {
+            appendEscaped(value);
+        }
+        return this;
+    }
+
+    public CsvWriter field(Object value) {
+        return field(String.valueOf(value));
+    }
+
+    public void endRow() {
+        row.append(System.lineSeparator());
+        try {
+            writer.append(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        row.setLength(0);
+        firstField = true;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void startField() {
+        if (!firstField) {
+            row.append(separator);
+        }
+        firstField = false;
+    }
+
+    private void appendEscaped(String value) {
+        if (!needsQuoting(value)) {
+            row.append(value);
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        row.append('"');
+    }
+
+    private boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == separator || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
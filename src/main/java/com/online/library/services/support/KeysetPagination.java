@@ -0,0 +1,105 @@
+package com.online.library.services.support;
+
+import com.online.library.domain.dto.CursorPageDto;
+import com.online.library.exceptions.InvalidCursorException;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+// Seek pagination: the cursor holds the sort key of the last row served, so the next page is an index
+// range scan that costs the same at any depth and needs no COUNT(*). Cursors are opaque base64 to clients.
+public final class KeysetPagination {
+
+    public static final int MAX_SIZE = 100;
+
+    private static final String ID_PREFIX = "i:";
+    private static final String TIMESTAMP_PREFIX = "t:";
+
+    private KeysetPagination() {
+    }
+
+    public record Position(LocalDateTime timestamp, long id) {
+    }
+
+    public static int size(int requested) {
+        return Math.clamp(requested, 1, MAX_SIZE);
+    }
+
+    // One extra row tells whether another page follows.
+    public static Limit limit(int size) {
+        return Limit.of(size + 1);
+    }
+
+    public static String encodeId(long id) {
+        return encode(ID_PREFIX + id);
+    }
+
+    public static String encodePosition(LocalDateTime timestamp, long id) {
+        return encode(TIMESTAMP_PREFIX + timestamp + "|" + id);
+    }
+
+    // Ids are positive, so an empty cursor starts before the first row.
+    public static long decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        String value = decode(cursor, ID_PREFIX);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    // Returns null for the first page.
+    public static Position decodePosition(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String value = decode(cursor, TIMESTAMP_PREFIX);
+        int separator = value.lastIndexOf('|');
+        if (separator < 0) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+        try {
+            return new Position(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    public static <E, D> CursorPageDto<D> slice(List<E> rows, int size, Function<E, String> cursorOf,
+                                                Function<E, D> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> page = hasNext ? rows.subList(0, size) : rows;
+        return CursorPageDto.<D>builder()
+                .content(page.stream().map(mapper).toList())
+                .size(page.size())
+                .nextCursor(hasNext ? cursorOf.apply(page.get(page.size() - 1)) : null)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor, String prefix) {
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+        if (!value.startsWith(prefix)) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+        return value.substring(prefix.length());
+    }
+}
@@ -0,0 +1,33 @@
+package com.online.library.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+// Where uploaded bytes live. FileStorageService decides the keys (content hashes, derivatives, garbage
+// collection); a backend only moves bytes, so every node of a cluster can share one bucket.
+public interface ObjectStorage {
+
+    // Stores the file under key, replacing whatever was there; readers never see a partial object.
+    void put(String key, Path source) throws IOException;
+
+    Optional<StoredObject> stat(String key) throws IOException;
+
+    // The object as a Resource; reading it fails with FileNotFoundException if it does not exist.
+    Resource get(String key) throws IOException;
+
+    // Bumps the last-modified time, which the garbage collector's grace period is measured from.
+    void touch(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    // Every object whose key starts with prefix, nested keys included.
+    List<StoredObject> list(String prefix) throws IOException;
+
+    // A URL clients can fetch the object from directly, or empty when the application has to serve it.
+    Optional<URI> downloadUrl(String key);
+}
@@ -0,0 +1,348 @@
+package com.online.library.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+// Objects in an S3-compatible bucket, spoken to over plain HTTP with SigV4 signing. Files larger than one
+// part go up as a multipart upload, one part in memory at a time. Downloads are presigned URLs, so clients
+// fetch the bytes from the bucket and the application only answers with a redirect.
+@Slf4j
+public class S3ObjectStorage implements ObjectStorage {
+
+    // Stored with every object, since keys are content hashes and never change.
+    private static final String OBJECT_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final Duration MAX_PRESIGN_EXPIRY = Duration.ofDays(7);
+
+    private final URI endpoint;
+    private final String bucket;
+    private final boolean pathStyle;
+    private final S3Signer signer;
+    private final int partSize;
+    private final Duration presignTtl;
+    private final HttpClient httpClient;
+    private final Clock clock;
+
+    public S3ObjectStorage(URI endpoint, String bucket, boolean pathStyle, S3Signer signer,
+                           int partSize, Duration presignTtl, Clock clock) {
+        // A URL signed at the end of its window must still be valid for presignTtl, so the expiry is two windows
+        // and S3 caps it at seven days.
+        if (presignTtl.toSeconds() <= 0 || presignTtl.multipliedBy(2).compareTo(MAX_PRESIGN_EXPIRY) > 0) {
+            throw new IllegalArgumentException(
+                    "Presign TTL must be between 1 second and " + MAX_PRESIGN_EXPIRY.dividedBy(2) + ": " + presignTtl);
+        }
+        this.endpoint = endpoint;
+        this.bucket = bucket;
+        this.pathStyle = pathStyle;
+        this.signer = signer;
+        this.partSize = partSize;
+        this.presignTtl = presignTtl;
+        this.clock = clock;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        log.info("Object storage: bucket {} at {}", bucket, endpoint);
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        long size = Files.size(source);
+        if (size <= partSize) {
+            Map<String, String> headers = objectHeaders(key);
+            send("PUT", key, Map.of(), headers, HttpRequest.BodyPublishers.ofFile(source), S3Signer.UNSIGNED_PAYLOAD);
+        } else {
+            putMultipart(key, source);
+        }
+        log.debug("Uploaded {} ({} bytes)", key, size);
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) throws IOException {
+        HttpResponse<byte[]> response = exchange("HEAD", key, Map.of(), Map.of(),
+                HttpRequest.BodyPublishers.noBody(), S3Signer.EMPTY_PAYLOAD);
+        if (response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        check(response, "HEAD", key);
+        long size = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        Instant lastModified = response.headers().firstValue("Last-Modified")
+                .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant())
+                .orElse(Instant.EPOCH);
+        return Optional.of(new StoredObject(key, size, lastModified));
+    }
+
+    @Override
+    public Resource get(String key) {
+        return new ObjectResource(key);
+    }
+
+    // S3 objects cannot be modified, so the object is copied onto itself, which gives it a new timestamp.
+    // The metadata has to be restated, because REPLACE is the only directive allowed for a self-copy.
+    @Override
+    public void touch(String key) throws IOException {
+        Map<String, String> headers = objectHeaders(key);
+        headers.put("x-amz-copy-source", "/" + bucket + "/" + S3Signer.encode(key, true));
+        headers.put("x-amz-metadata-directive", "REPLACE");
+        byte[] body = send("PUT", key, Map.of(), headers, HttpRequest.BodyPublishers.noBody(), S3Signer.EMPTY_PAYLOAD);
+        // A failed copy may still come back as 200 with an error document
+        checkNoError(body, "COPY", key);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        send("DELETE", key, Map.of(), Map.of(), HttpRequest.BodyPublishers.noBody(), S3Signer.EMPTY_PAYLOAD);
+    }
+
+    @Override
+    public List<StoredObject> list(String prefix) throws IOException {
+        List<StoredObject> objects = new ArrayList<>();
+        String continuationToken = null;
+        do {
+            Map<String, String> query = new TreeMap<>();
+            query.put("list-type", "2");
+            query.put("prefix", prefix);
+            if (continuationToken != null) {
+                query.put("continuation-token", continuationToken);
+            }
+            Document result = xml(send("GET", "", query, Map.of(),
+                    HttpRequest.BodyPublishers.noBody(), S3Signer.EMPTY_PAYLOAD));
+            NodeList contents = result.getElementsByTagName("Contents");
+            for (int i = 0; i < contents.getLength(); i++) {
+                Element content = (Element) contents.item(i);
+                objects.add(new StoredObject(
+                        text(content, "Key"),
+                        Long.parseLong(text(content, "Size")),
+                        Instant.parse(text(content, "LastModified"))));
+            }
+            continuationToken = "true".equals(text(result.getDocumentElement(), "IsTruncated"))
+                    ? text(result.getDocumentElement(), "NextContinuationToken")
+                    : null;
+        } while (continuationToken != null);
+        return objects;
+    }
+
+    // Signed for a fixed time window rather than for "now", so the URL of an object stays the same for a
+    // while and browsers can cache the image. Every URL handed out is valid for at least presignTtl.
+    @Override
+    public Optional<URI> downloadUrl(String key) {
+        long window = presignTtl.toSeconds();
+        Instant signedAt = Instant.ofEpochSecond(clock.instant().getEpochSecond() / window * window);
+        URI uri = uri(key, Map.of());
+        String query = signer.presignedQuery(uri.getRawPath(), host(uri), signedAt, presignTtl.multipliedBy(2));
+        return Optional.of(URI.create(uri + "?" + query));
+    }
+
+    private void putMultipart(String key, Path source) throws IOException {
+        Document initiated = xml(send("POST", key, Map.of("uploads", ""), objectHeaders(key),
+                HttpRequest.BodyPublishers.noBody(), S3Signer.EMPTY_PAYLOAD));
+        String uploadId = text(initiated.getDocumentElement(), "UploadId");
+        try {
+            StringBuilder complete = new StringBuilder("<CompleteMultipartUpload>");
+            byte[] buffer = new byte[partSize];
+            try (InputStream in = Files.newInputStream(source)) {
+                int partNumber = 1;
+                int read;
+                while ((read = in.readNBytes(buffer, 0, partSize)) > 0) {
+                    Map<String, String> query = Map.of("partNumber", Integer.toString(partNumber), "uploadId", uploadId);
+                    HttpResponse<byte[]> response = exchange("PUT", key, query, Map.of(),
+                            HttpRequest.BodyPublishers.ofByteArray(buffer, 0, read), S3Signer.UNSIGNED_PAYLOAD);
+                    check(response, "PUT part " + partNumber, key);
+                    String eTag = response.headers().firstValue("ETag")
+                            .orElseThrow(() -> new IOException("S3 returned no ETag for a part of " + key));
+                    complete.append("<Part><PartNumber>").append(partNumber).append("</PartNumber><ETag>")
+                            .append(eTag.replace("\"", "&quot;")).append("</ETag></Part>");
+                    partNumber++;
+                }
+            }
+            complete.append("</CompleteMultipartUpload>");
+            byte[] body = complete.toString().getBytes(StandardCharsets.UTF_8);
+            byte[] result = send("POST", key, Map.of("uploadId", uploadId), new LinkedHashMap<>(),
+                    HttpRequest.BodyPublishers.ofByteArray(body), S3Signer.sha256Hex(body));
+            checkNoError(result, "complete multipart upload of", key);
+        } catch (IOException | RuntimeException e) {
+            try {
+                send("DELETE", key, Map.of("uploadId", uploadId), Map.of(),
+                        HttpRequest.BodyPublishers.noBody(), S3Signer.EMPTY_PAYLOAD);
+            } catch (IOException abortFailure) {
+                e.addSuppressed(abortFailure);
+            }
+            throw e;
+        }
+    }
+
+    private Map<String, String> objectHeaders(String key) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Content-Type",
+                MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        headers.put("Cache-Control", OBJECT_CACHE_CONTROL);
+        return headers;
+    }
+
+    private byte[] send(String method, String key, Map<String, String> query, Map<String, String> headers,
+                        HttpRequest.BodyPublisher body, String payloadHash) throws IOException {
+        HttpResponse<byte[]> response = exchange(method, key, query, headers, body, payloadHash);
+        check(response, method, key);
+        return response.body();
+    }
+
+    private HttpResponse<byte[]> exchange(String method, String key, Map<String, String> query,
+                                          Map<String, String> headers, HttpRequest.BodyPublisher body,
+                                          String payloadHash) throws IOException {
+        return exchange(method, key, query, headers, body, payloadHash, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private <T> HttpResponse<T> exchange(String method, String key, Map<String, String> query,
+                                         Map<String, String> headers, HttpRequest.BodyPublisher body,
+                                         String payloadHash, HttpResponse.BodyHandler<T> handler) throws IOException {
+        URI uri = uri(key, query);
+        Map<String, String> signed = new TreeMap<>(headers);
+        signed.put("host", host(uri));
+        signed.put("x-amz-date", S3Signer.amzDate(clock.instant()));
+        signed.put("x-amz-content-sha256", payloadHash);
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMinutes(2))
+                .method(method, body)
+                .header("Authorization", signer.authorization(method, uri.getRawPath(), query, signed, payloadHash));
+        // Host is set by the client itself (and signed above with the same value)
+        signed.forEach((name, value) -> {
+            if (!name.equals("host")) {
+                request.header(name, value);
+            }
+        });
+        try {
+            return httpClient.send(request.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while talking to S3", e);
+        }
+    }
+
+    private URI uri(String key, Map<String, String> query) {
+        String base = endpoint.toString().replaceAll("/+$", "");
+        String path = "/" + S3Signer.encode(key, true);
+        String url = pathStyle
+                ? base + "/" + bucket + path
+                : endpoint.getScheme() + "://" + bucket + "." + endpoint.getRawAuthority() + path;
+        return URI.create(query.isEmpty() ? url : url + "?" + S3Signer.canonicalQuery(query));
+    }
+
+    private static String host(URI uri) {
+        return uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+    }
+
+    private static void check(HttpResponse<?> response, String operation, String key) throws IOException {
+        int status = response.statusCode();
+        if (status / 100 == 2) {
+            return;
+        }
+        String detail = response.body() instanceof byte[] body ? new String(body, StandardCharsets.UTF_8) : "";
+        if (status == 404) {
+            throw new FileNotFoundException("S3 object not found: " + key);
+        }
+        throw new IOException("S3 " + operation + " " + key + " failed with " + status + ": " + detail);
+    }
+
+    private static void checkNoError(byte[] body, String operation, String key) throws IOException {
+        if (body.length > 0 && xml(body).getDocumentElement().getTagName().equals("Error")) {
+            throw new IOException("S3 " + operation + " " + key + " failed: " + new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Document xml(byte[] body) throws IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder().parse(new ByteArrayInputStream(body));
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Unreadable S3 response", e);
+        }
+    }
+
+    private static String text(Element parent, String tag) {
+        NodeList nodes = parent.getElementsByTagName(tag);
+        return nodes.getLength() > 0 ? nodes.item(0).getTextContent() : null;
+    }
+
+    // Streams the object on every getInputStream(); length and timestamp come from a HEAD request.
+    private final class ObjectResource extends AbstractResource {
+
+        private final String key;
+
+        private ObjectResource(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public boolean exists() {
+            try {
+                return stat(key).isPresent();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return stat(key).orElseThrow(() -> new FileNotFoundException(key)).size();
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return stat(key).orElseThrow(() -> new FileNotFoundException(key)).lastModified().toEpochMilli();
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            HttpResponse<InputStream> response = exchange("GET", key, Map.of(), Map.of(),
+                    HttpRequest.BodyPublishers.noBody(), S3Signer.EMPTY_PAYLOAD, HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() / 100 != 2) {
+                response.body().close();
+                check(response, "GET", key);
+            }
+            return response.body();
+        }
+
+        @Override
+        public String getFilename() {
+            return key.substring(key.lastIndexOf('/') + 1);
+        }
+
+        @Override
+        public String getDescription() {
+            return "S3 object [" + bucket + "/" + key + "]";
+        }
+    }
+}
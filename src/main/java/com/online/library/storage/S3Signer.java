@@ -0,0 +1,132 @@
+package com.online.library.storage;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+// AWS Signature Version 4 for S3 and S3-compatible stores (MinIO, Ceph, R2...), header and query-string forms.
+// Canonical URIs are passed in already encoded, exactly as they appear on the wire.
+public class S3Signer {
+
+    public static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    public static final String EMPTY_PAYLOAD = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final DateTimeFormatter AMZ_DATE =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+
+    public S3Signer(String accessKey, String secretKey, String region) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+    }
+
+    public static String amzDate(Instant time) {
+        return AMZ_DATE.format(time);
+    }
+
+    // Value of the Authorization header. Every header passed in is signed; it must include host,
+    // x-amz-date and x-amz-content-sha256.
+    public String authorization(String method, String canonicalUri, Map<String, String> query,
+                                Map<String, String> headers, String payloadHash) {
+        SortedMap<String, String> canonicalHeaders = new TreeMap<>();
+        headers.forEach((name, value) -> canonicalHeaders.put(name.toLowerCase(Locale.ROOT), value.trim()));
+        String amzDate = canonicalHeaders.get("x-amz-date");
+        String signedHeaders = String.join(";", canonicalHeaders.keySet());
+        String signature = sign(amzDate, canonicalRequest(method, canonicalUri, query, canonicalHeaders, payloadHash));
+        return ALGORITHM + " Credential=" + accessKey + "/" + scope(amzDate) +
+                ",SignedHeaders=" + signedHeaders + ",Signature=" + signature;
+    }
+
+    // Query string (without '?') of a presigned GET that is valid for expires from time.
+    public String presignedQuery(String canonicalUri, String host, Instant time, Duration expires) {
+        String amzDate = amzDate(time);
+        SortedMap<String, String> query = new TreeMap<>();
+        query.put("X-Amz-Algorithm", ALGORITHM);
+        query.put("X-Amz-Credential", accessKey + "/" + scope(amzDate));
+        query.put("X-Amz-Date", amzDate);
+        query.put("X-Amz-Expires", Long.toString(expires.toSeconds()));
+        query.put("X-Amz-SignedHeaders", "host");
+        String signature = sign(amzDate,
+                canonicalRequest("GET", canonicalUri, query, new TreeMap<>(Map.of("host", host)), UNSIGNED_PAYLOAD));
+        return canonicalQuery(query) + "&X-Amz-Signature=" + signature;
+    }
+
+    // S3's flavour of percent-encoding: only unreserved characters are kept, optionally '/' too.
+    public static String encode(String value, boolean keepSlash) {
+        StringBuilder encoded = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (keepSlash && c == '/')) {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(HexFormat.of().withUpperCase().toHexDigits(b));
+            }
+        }
+        return encoded.toString();
+    }
+
+    public static String canonicalQuery(Map<String, String> query) {
+        return new TreeMap<>(query).entrySet().stream()
+                .map(entry -> encode(entry.getKey(), false) + "=" + encode(entry.getValue(), false))
+                .collect(Collectors.joining("&"));
+    }
+
+    public static String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String canonicalRequest(String method, String canonicalUri, Map<String, String> query,
+                                           SortedMap<String, String> headers, String payloadHash) {
+        String canonicalHeaders = headers.entrySet().stream()
+                .map(entry -> entry.getKey() + ":" + entry.getValue() + "\n")
+                .collect(Collectors.joining());
+        return method + "\n" + canonicalUri + "\n" + canonicalQuery(query) + "\n" + canonicalHeaders + "\n" +
+                String.join(";", headers.keySet()) + "\n" + payloadHash;
+    }
+
+    private String sign(String amzDate, String canonicalRequest) {
+        String stringToSign = ALGORITHM + "\n" + amzDate + "\n" + scope(amzDate) + "\n" +
+                sha256Hex(canonicalRequest.getBytes(StandardCharsets.UTF_8));
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), amzDate.substring(0, 8));
+        key = hmac(key, region);
+        key = hmac(key, "s3");
+        key = hmac(key, "aws4_request");
+        return HexFormat.of().formatHex(hmac(key, stringToSign));
+    }
+
+    private String scope(String amzDate) {
+        return amzDate.substring(0, 8) + "/" + region + "/s3/aws4_request";
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.online.library.storage;
+
+import java.time.Instant;
+
+// Key is relative to the storage root, with '/' separators (e.g. covers/list/abc.jpg).
+public record StoredObject(String key, long size, Instant lastModified) {
+}
@@ -1,18 +1,3 @@
-
--- Dropping tables before init
-DROP TABLE IF EXISTS users CASCADE;
-DROP TABLE IF EXISTS authors CASCADE;
-DROP TABLE IF EXISTS genres CASCADE;
-DROP TABLE IF EXISTS books CASCADE;
-DROP TABLE IF EXISTS book_authors CASCADE;
-DROP TABLE IF EXISTS book_genres CASCADE;
-DROP TABLE IF EXISTS reservations CASCADE;
-DROP TABLE IF EXISTS ratings CASCADE;
-DROP TABLE IF EXISTS comments CASCADE;
-
-DROP TYPE IF EXISTS user_role CASCADE;
-DROP TYPE IF EXISTS reservation_status CASCADE;
-
 CREATE TYPE user_role AS ENUM ('ADMIN', 'USER');
 CREATE TYPE reservation_status AS ENUM ('OCZEKUJĄCA', 'POTWIERDZONA', 'WYPOŻYCZONA', 'ZWRÓCONA');
 
@@ -48,6 +33,8 @@ CREATE TABLE books (
     cover_image_path VARCHAR(255),
     copies_available INTEGER DEFAULT 1,
     average_rating DECIMAL(3, 2) DEFAULT 0.0,
+    rating_sum BIGINT NOT NULL DEFAULT 0,
+    rating_count BIGINT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
@@ -91,3 +78,26 @@ CREATE TABLE comments (
     content TEXT NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
+
+-- Report rollups, rebuilt on a schedule by AnalyticsDao.refreshRollups()
+CREATE TABLE book_stats (
+    book_id INTEGER PRIMARY KEY REFERENCES books(id) ON DELETE CASCADE,
+    reservation_count BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE author_stats (
+    author_id INTEGER PRIMARY KEY REFERENCES authors(id) ON DELETE CASCADE,
+    loan_count BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE user_stats (
+    user_id INTEGER PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    reservation_count BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE analytics_refresh (
+    id INTEGER PRIMARY KEY,
+    refreshed_at TIMESTAMP
+);
+
+INSERT INTO analytics_refresh (id, refreshed_at) VALUES (1, NULL);
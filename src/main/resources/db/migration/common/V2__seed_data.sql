@@ -47,7 +47,9 @@ INSERT INTO ratings (user_id, book_id, rating) VALUES
 (3, 1, 4),
 (2, 3, 5);
 
-UPDATE books SET average_rating = (SELECT AVG(rating) FROM ratings WHERE ratings.book_id = books.id)
+UPDATE books SET average_rating = (SELECT AVG(rating) FROM ratings WHERE ratings.book_id = books.id),
+    rating_sum = (SELECT SUM(rating) FROM ratings WHERE ratings.book_id = books.id),
+    rating_count = (SELECT COUNT(*) FROM ratings WHERE ratings.book_id = books.id)
 WHERE EXISTS (SELECT 1 FROM ratings WHERE ratings.book_id = books.id);
 
 INSERT INTO comments (user_id, book_id, content) VALUES
@@ -0,0 +1,8 @@
+-- Keyset cursors seek on (created_at, id) and (reserved_at, id); a NULL timestamp can be neither encoded in a
+-- cursor nor matched by the range predicate, so such rows would drop out of the pages. Rows written without
+-- one get the epoch and land on the last page.
+UPDATE comments SET created_at = TIMESTAMP '1970-01-01 00:00:00' WHERE created_at IS NULL;
+UPDATE reservations SET reserved_at = TIMESTAMP '1970-01-01 00:00:00' WHERE reserved_at IS NULL;
+
+ALTER TABLE comments ALTER COLUMN created_at SET NOT NULL;
+ALTER TABLE reservations ALTER COLUMN reserved_at SET NOT NULL;
@@ -0,0 +1,19 @@
+-- Secondary indexes; the PostgreSQL variant of this version builds them concurrently
+-- Report rollups
+CREATE INDEX IF NOT EXISTS idx_books_average_rating ON books (average_rating DESC NULLS LAST, id);
+CREATE INDEX IF NOT EXISTS idx_author_stats_loan_count ON author_stats (loan_count DESC, author_id);
+CREATE INDEX IF NOT EXISTS idx_user_stats_reservation_count ON user_stats (reservation_count DESC, user_id);
+
+-- Keyset pagination: newest-first cursors over (timestamp, id)
+CREATE INDEX IF NOT EXISTS idx_comments_created_at_id ON comments (created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_reservations_reserved_at_id ON reservations (reserved_at DESC, id DESC);
+
+-- Foreign-key lookups behind the repository finders (see RepositoryQueryPlanTest)
+CREATE INDEX IF NOT EXISTS idx_book_authors_author_id ON book_authors (author_id);
+CREATE INDEX IF NOT EXISTS idx_book_genres_genre_id ON book_genres (genre_id);
+CREATE INDEX IF NOT EXISTS idx_reservations_user_reserved_at ON reservations (user_id, reserved_at DESC);
+CREATE INDEX IF NOT EXISTS idx_reservations_book_status ON reservations (book_id, status);
+CREATE INDEX IF NOT EXISTS idx_reservations_status ON reservations (status);
+CREATE INDEX IF NOT EXISTS idx_ratings_book_rating ON ratings (book_id, rating);
+CREATE INDEX IF NOT EXISTS idx_comments_book_created_at ON comments (book_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_comments_user_id ON comments (user_id);
@@ -0,0 +1,17 @@
+-- Named id sequences like the ones PostgreSQL creates for SERIAL columns, so the bulk import can
+-- reserve a block of ids in one query (nextval over generate_series) on both databases.
+-- PostgreSQL already has books_id_seq, authors_id_seq and genres_id_seq, hence no variant there.
+CREATE SEQUENCE books_id_seq;
+ALTER SEQUENCE books_id_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM books);
+ALTER TABLE books ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE books ALTER COLUMN id SET DEFAULT nextval('books_id_seq');
+
+CREATE SEQUENCE authors_id_seq;
+ALTER SEQUENCE authors_id_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM authors);
+ALTER TABLE authors ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE authors ALTER COLUMN id SET DEFAULT nextval('authors_id_seq');
+
+CREATE SEQUENCE genres_id_seq;
+ALTER SEQUENCE genres_id_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM genres);
+ALTER TABLE genres ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE genres ALTER COLUMN id SET DEFAULT nextval('genres_id_seq');
@@ -0,0 +1,3 @@
+-- Shared covers: every release counts the books still using a file (BookRepository.countByCoverImagePath);
+-- the PostgreSQL variant of this version builds the index concurrently
+CREATE INDEX IF NOT EXISTS idx_books_cover_image_path ON books (cover_image_path);
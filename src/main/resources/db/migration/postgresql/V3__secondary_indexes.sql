@@ -0,0 +1,35 @@
+-- Built CONCURRENTLY so the migration does not block writes on an existing database;
+-- Flyway runs the script outside a transaction (spring.flyway.mixed=true).
+-- Report rollups
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_books_average_rating ON books (average_rating DESC NULLS LAST, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_author_stats_loan_count ON author_stats (loan_count DESC, author_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_stats_reservation_count ON user_stats (reservation_count DESC, user_id);
+
+-- Keyset pagination: newest-first cursors over (timestamp, id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comments_created_at_id ON comments (created_at DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reservations_reserved_at_id ON reservations (reserved_at DESC, id DESC);
+
+-- Foreign-key lookups behind the repository finders (see RepositoryQueryPlanTest)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_book_authors_author_id ON book_authors (author_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_book_genres_genre_id ON book_genres (genre_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reservations_user_reserved_at ON reservations (user_id, reserved_at DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reservations_book_status ON reservations (book_id, status);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reservations_status ON reservations (status);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_ratings_book_rating ON ratings (book_id, rating);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comments_book_created_at ON comments (book_id, created_at DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comments_user_id ON comments (user_id);
+
+-- PostgreSQL-only: partial and trigram indexes
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Active reservations: the per-user "already reserved" check and the loaned-copies counts
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reservations_active ON reservations (user_id, book_id)
+    WHERE status IN ('OCZEKUJĄCA', 'POTWIERDZONA', 'WYPOŻYCZONA');
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reservations_loaned ON reservations (book_id)
+    WHERE status = 'WYPOŻYCZONA';
+
+-- Substring search (LOWER(x) LIKE '%term%') in BookRepository.searchBooks
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_books_title_trgm ON books USING gin (LOWER(title) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_authors_name_trgm ON authors USING gin (LOWER(name) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_authors_last_name_trgm ON authors USING gin (LOWER(last_name) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_genres_name_trgm ON genres USING gin (LOWER(name) gin_trgm_ops);
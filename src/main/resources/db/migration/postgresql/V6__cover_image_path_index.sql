@@ -0,0 +1,4 @@
+-- Shared covers: every release counts the books still using a file (BookRepository.countByCoverImagePath).
+-- Built CONCURRENTLY so the migration does not block writes on an existing database;
+-- Flyway runs the script outside a transaction (spring.flyway.mixed=true).
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_books_cover_image_path ON books (cover_image_path);
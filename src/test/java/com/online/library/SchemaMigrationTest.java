@@ -0,0 +1,46 @@
+package com.online.library;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Boots the application twice against one database: the second start applies nothing and keeps the data.
+public class SchemaMigrationTest {
+
+    private static final String URL = "jdbc:h2:mem:migrationtest;MODE=PostgreSQL;DATABASE_TO_LOWER=true;"
+            + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    @Test
+    public void testThatRestartKeepsDataAndAppliesNoMigrations() {
+        try (ConfigurableApplicationContext first = start()) {
+            JdbcTemplate jdbcTemplate = first.getBean(JdbcTemplate.class);
+            assertThat(appliedMigrations(jdbcTemplate)).isEqualTo(6);
+            jdbcTemplate.update("INSERT INTO genres (name) VALUES ('Reportaż')");
+        }
+
+        try (ConfigurableApplicationContext second = start()) {
+            JdbcTemplate jdbcTemplate = second.getBean(JdbcTemplate.class);
+            assertThat(appliedMigrations(jdbcTemplate)).isEqualTo(6);
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM genres WHERE name = 'Reportaż'", Integer.class)).isEqualTo(1);
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM users WHERE username = 'admin'", Integer.class)).isEqualTo(1);
+        } finally {
+            new JdbcTemplate(new DriverManagerDataSource(URL, "sa", "password")).execute("SHUTDOWN");
+        }
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(LibraryApplication.class)
+                .run("--spring.datasource.url=" + URL, "--server.port=0");
+    }
+
+    private static int appliedMigrations(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM flyway_schema_history WHERE type = 'SQL' AND success = TRUE", Integer.class);
+    }
+}
@@ -0,0 +1,85 @@
+package com.online.library.benchmarks;
+
+import com.online.library.LibraryApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Boots the application against the in-memory H2 (PostgreSQL mode) test database and fills it with a
+// deterministic catalogue, so service benchmarks measure real queries rather than mocks.
+final class BenchmarkDataset {
+
+    static final long FIRST_ID = 1_000;
+    static final int AUTHORS = 500;
+    static final int GENRES = 20;
+    static final int USERS = 1_000;
+
+    private static final String[] WORDS = {
+            "wiedźmin", "pan", "lalka", "ogniem", "mieczem", "potop", "faraon", "chłopi", "dziady", "ferdydurke",
+            "solaris", "cyberiada", "hobbit", "pierścień", "władca", "zamek", "noc", "dzień", "miasto", "las",
+            "rzeka", "morze", "góry", "wojna", "pokój", "miłość", "zbrodnia", "kara", "podróż", "powrót",
+            "cień", "światło", "król", "królowa", "smok", "czarodziej", "tajemnica", "ogród", "dom", "droga"};
+    private static final String[] LAST_NAMES = {
+            "Sapkowski", "Tolkien", "Lem", "Prus", "Sienkiewicz", "Mickiewicz", "Reymont", "Gombrowicz",
+            "Orzeszkowa", "Szymborska"};
+
+    private BenchmarkDataset() {
+    }
+
+    static ConfigurableApplicationContext start(String... overrides) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.main.banner-mode=off",
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--app.sql.statement-count.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.online.library=WARN"));
+        args.addAll(List.of(overrides));
+        return SpringApplication.run(LibraryApplication.class, args.toArray(String[]::new));
+    }
+
+    static void populate(JdbcTemplate jdbcTemplate, int books) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < GENRES; i++) {
+            rows.add(new Object[]{FIRST_ID + i, "gatunek-" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO genres (id, name) VALUES (?, ?)", rows);
+
+        rows.clear();
+        for (int i = 0; i < AUTHORS; i++) {
+            rows.add(new Object[]{FIRST_ID + i, "Autor" + i, LAST_NAMES[i % LAST_NAMES.length]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO authors (id, name, last_name) VALUES (?, ?, ?)", rows);
+
+        rows.clear();
+        for (int i = 0; i < USERS; i++) {
+            rows.add(new Object[]{FIRST_ID + i, "bench" + i, "{noop}bench", "bench" + i + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, password, email) VALUES (?, ?, ?, ?)", rows);
+
+        for (int from = 0; from < books; from += 5_000) {
+            List<Object[]> bookRows = new ArrayList<>();
+            List<Object[]> authorLinks = new ArrayList<>();
+            List<Object[]> genreLinks = new ArrayList<>();
+            for (int i = from; i < Math.min(from + 5_000, books); i++) {
+                long id = FIRST_ID + i;
+                bookRows.add(new Object[]{id, title(i), "Opis książki " + WORDS[(i * 13) % WORDS.length],
+                        "Wydawnictwo " + (i % 50), 1900 + i % 125, "BENCH-" + i, 1 + i % 5});
+                authorLinks.add(new Object[]{id, FIRST_ID + i % AUTHORS});
+                genreLinks.add(new Object[]{id, FIRST_ID + i % GENRES});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO books (id, title, description, publisher, publish_year, isbn, " +
+                    "copies_available) VALUES (?, ?, ?, ?, ?, ?, ?)", bookRows);
+            jdbcTemplate.batchUpdate("INSERT INTO book_authors (book_id, author_id) VALUES (?, ?)", authorLinks);
+            jdbcTemplate.batchUpdate("INSERT INTO book_genres (book_id, genre_id) VALUES (?, ?)", genreLinks);
+        }
+    }
+
+    static String title(int i) {
+        return WORDS[i % WORDS.length] + " " + WORDS[(i * 7 + 3) % WORDS.length] + " " + i;
+    }
+}
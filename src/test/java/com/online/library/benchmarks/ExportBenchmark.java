@@ -0,0 +1,68 @@
+package com.online.library.benchmarks;
+
+import com.online.library.domain.dto.AuthorStatDto;
+import com.online.library.domain.dto.BookStatDto;
+import com.online.library.domain.dto.UserStatDto;
+import com.online.library.services.impl.ExportServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ExportBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private ExportServiceImpl exportService;
+    private List<BookStatDto> books;
+    private List<AuthorStatDto> authors;
+    private List<UserStatDto> users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        exportService = new ExportServiceImpl();
+        books = new ArrayList<>(rows);
+        authors = new ArrayList<>(rows);
+        users = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            long id = i + 1;
+            // Every tenth title needs quoting, so the escaping path is exercised too.
+            String title = i % 10 == 0 ? "Tytuł; \"wydanie\" " + i : "Tytuł " + i;
+            books.add(new BookStatDto(id, title, BigDecimal.valueOf(i % 500, 2), (long) i % 100));
+            authors.add(new AuthorStatDto(id, "Imię" + i, "Nazwisko" + i, (long) i % 1000));
+            users.add(new UserStatDto(id, "user" + i, "user" + i + "@example.com", (long) i % 50));
+        }
+    }
+
+    @Benchmark
+    public byte[] popularBooks() {
+        return exportService.exportPopularBooksToCsv(books);
+    }
+
+    // Same rows written through to a sink, as the admin export now does; allocation stays per row.
+    @Benchmark
+    public void popularBooksStreamed() throws IOException {
+        exportService.writePopularBooksCsv(books::forEach, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public byte[] readAuthors() {
+        return exportService.exportReadAuthorsToCsv(authors);
+    }
+
+    @Benchmark
+    public byte[] activeUsers() {
+        return exportService.exportActiveUsersToCsv(users);
+    }
+}
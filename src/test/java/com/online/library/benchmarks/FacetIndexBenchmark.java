@@ -0,0 +1,64 @@
+package com.online.library.benchmarks;
+
+import com.online.library.search.FacetDocument;
+import com.online.library.search.FacetFilter;
+import com.online.library.search.FacetIndex;
+import com.online.library.search.FacetResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FacetIndexBenchmark {
+
+    private static final int GENRES = 40;
+
+    @Param({"100000", "1000000"})
+    private int books;
+
+    private FacetIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Skewed like a real catalog: a few big genres, many authors with a handful of books each
+        Random random = new Random(42);
+        int authors = books / 10;
+        index = new FacetIndex();
+        index.rebuild(consumer -> {
+            for (long id = 1; id <= books; id++) {
+                long genre = (long) (GENRES * Math.pow(random.nextDouble(), 2));
+                consumer.accept(new FacetDocument(id, 1900 + random.nextInt(125),
+                        List.of((long) random.nextInt(authors)), List.of(genre, (long) random.nextInt(GENRES))));
+            }
+        });
+    }
+
+    // The unfiltered catalog page: counts over every book
+    @Benchmark
+    public FacetResult noFilter() {
+        return index.query(FacetFilter.NONE, 20);
+    }
+
+    @Benchmark
+    public FacetResult oneGenre() {
+        return index.query(new FacetFilter(Set.of(0L), Set.of(), Set.of()), 20);
+    }
+
+    @Benchmark
+    public FacetResult genresAndDecade() {
+        return index.query(new FacetFilter(Set.of(1L, 5L, 20L), Set.of(), Set.of(1980)), 20);
+    }
+
+    @Benchmark
+    public List<Long> oneAuthorPage() {
+        return index.query(new FacetFilter(Set.of(), Set.of(7L), Set.of()), 20).ids(0, 20);
+    }
+}
@@ -0,0 +1,88 @@
+package com.online.library.benchmarks;
+
+import com.online.library.domain.dto.BookDto;
+import com.online.library.domain.dto.ReservationDto;
+import com.online.library.domain.entities.AuthorEntity;
+import com.online.library.domain.entities.BookEntity;
+import com.online.library.domain.entities.GenreEntity;
+import com.online.library.domain.entities.ReservationEntity;
+import com.online.library.domain.entities.UserEntity;
+import com.online.library.mappers.impl.*;
+import com.online.library.utils.TestDataUtil;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Generated mappers against the ModelMapper (LOOSE) setup they replaced.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private ModelMapper modelMapper;
+    private BookMapper bookMapper;
+    private ReservationMapper reservationMapper;
+    private BookEntity book;
+    private ReservationEntity reservation;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.LOOSE);
+
+        bookMapper = new BookMapperImpl(new AuthorMapperImpl(), new GenreMapperImpl());
+        reservationMapper = new ReservationMapperImpl(new UserMapperImpl(), bookMapper);
+
+        AuthorEntity author = TestDataUtil.createTestAuthor();
+        author.setId(1L);
+        AuthorEntity coAuthor = AuthorEntity.builder().id(2L).name("August").lastName("Derleth").build();
+        GenreEntity genre = TestDataUtil.createTestGenre();
+        genre.setId(1L);
+
+        book = TestDataUtil.createTestBook();
+        book.setId(1L);
+        book.setDescription("A novella about a decaying Massachusetts seaport.");
+        book.setPublisher("Visionary Publishing");
+        book.setPublishYear(1936);
+        book.setAverageRating(new BigDecimal("4.50"));
+        book.setCreatedAt(LocalDateTime.now());
+        book.setAuthors(Set.of(author, coAuthor));
+        book.setGenres(Set.of(genre));
+
+        UserEntity user = TestDataUtil.createTestUser();
+        user.setId(1L);
+        user.setCreatedAt(LocalDateTime.now());
+
+        reservation = TestDataUtil.createTestReservation(user, book);
+        reservation.setId(1L);
+        reservation.setReservedAt(LocalDateTime.now());
+    }
+
+    @Benchmark
+    public BookDto bookModelMapper() {
+        return modelMapper.map(book, BookDto.class);
+    }
+
+    @Benchmark
+    public BookDto bookGenerated() {
+        return bookMapper.mapTo(book);
+    }
+
+    @Benchmark
+    public ReservationDto reservationModelMapper() {
+        return modelMapper.map(reservation, ReservationDto.class);
+    }
+
+    @Benchmark
+    public ReservationDto reservationGenerated() {
+        return reservationMapper.mapTo(reservation);
+    }
+}
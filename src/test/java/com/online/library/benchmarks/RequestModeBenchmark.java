@@ -0,0 +1,75 @@
+package com.online.library.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Platform vs virtual request threads under more concurrent clients than Tomcat has threads: 200 clients fetch
+// books over HTTP while every statement waits `latency` ms, as it would on a remote database. Throughput and
+// the sample-time percentiles (p99) show whether requests queue for a Tomcat thread or for a JDBC connection.
+// ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="RequestModeBenchmark"
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(200)
+@State(Scope.Benchmark)
+public class RequestModeBenchmark {
+
+    private static final int BOOKS = 10_000;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"0", "2"})
+    private long latency;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String h2Url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=true;" +
+                "DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1";
+        context = BenchmarkDataset.start(
+                "--spring.threads.virtual.enabled=" + mode.equals("virtual"),
+                "--spring.datasource.url=" + SlowJdbcDriver.url(latency, h2Url),
+                "--spring.datasource.driver-class-name=" + SlowJdbcDriver.class.getName(),
+                "--spring.datasource.hikari.maximum-pool-size=20",
+                // Fewer Tomcat threads than clients, as in production, so platform mode has to queue for them
+                "--server.tomcat.threads.max=50",
+                "--spring.jpa.properties.hibernate.generate_statistics=false");
+        BenchmarkDataset.populate(context.getBean(JdbcTemplate.class), BOOKS);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int getBook() throws IOException, InterruptedException {
+        long id = BenchmarkDataset.FIRST_ID + ThreadLocalRandom.current().nextInt(BOOKS);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/books/" + id)).build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /api/v1/books/" + id + " returned " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,33 @@
+package com.online.library.benchmarks;
+
+import com.online.library.domain.enums.ReservationStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReservationStatusBenchmark {
+
+    private ReservationStatus[] statuses;
+
+    @Setup
+    public void setUp() {
+        statuses = ReservationStatus.values();
+    }
+
+    // All 16 from/to pairs per invocation.
+    @Benchmark
+    public void canTransitionToAllPairs(Blackhole blackhole) {
+        for (ReservationStatus from : statuses) {
+            for (ReservationStatus to : statuses) {
+                blackhole.consume(from.canTransitionTo(to));
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.online.library.benchmarks;
+
+import com.online.library.domain.dto.BookDto;
+import com.online.library.domain.dto.ReservationDto;
+import com.online.library.services.BookService;
+import com.online.library.services.ReservationService;
+import com.online.library.services.impl.BookServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+// End-to-end service calls: Spring context, transactions, Hibernate and H2 in PostgreSQL mode.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceBenchmark {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+    private static final Pageable FIRST_PAGE_BY_TITLE = PageRequest.of(0, 20, Sort.by("title"));
+
+    @Param({"10000", "100000"})
+    private int books;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private BookService bookService;
+    private ReservationService reservationService;
+    private long reservationCounter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDataset.start();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkDataset.populate(jdbcTemplate, books);
+        context.getBean(BookServiceImpl.class).rebuildSearchIndex();
+        bookService = context.getBean(BookService.class);
+        reservationService = context.getBean(ReservationService.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearReservations() {
+        jdbcTemplate.update("DELETE FROM reservations WHERE user_id >= ?", BenchmarkDataset.FIRST_ID);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<BookDto> searchSingleTerm() {
+        return bookService.searchBooks("tolkien", FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<BookDto> searchTwoTerms() {
+        return bookService.searchBooks("wiedźmin smok", FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<BookDto> searchSortedByTitle() {
+        return bookService.searchBooks("lem", FIRST_PAGE_BY_TITLE);
+    }
+
+    @Benchmark
+    public ReservationDto createReservation() {
+        // Walks user/book pairs so no user ever holds two active reservations for one book.
+        long n = reservationCounter++;
+        long userId = BenchmarkDataset.FIRST_ID + n % BenchmarkDataset.USERS;
+        long bookId = BenchmarkDataset.FIRST_ID + (n / BenchmarkDataset.USERS) % books;
+        return reservationService.createReservation(userId, bookId);
+    }
+}
@@ -0,0 +1,91 @@
+package com.online.library.benchmarks;
+
+import com.online.library.search.Suggestion;
+import com.online.library.search.SuggestionIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:+UseParallelGC"})
+@State(Scope.Benchmark)
+public class SuggestionIndexBenchmark {
+
+    private static final String[] SYLLABLES = {
+            "pan", "ta", "de", "usz", "wo", "ło", "dy", "jow", "ski", "lal", "ka", "kro", "ni", "ki", "dzia",
+            "dy", "ogni", "em", "mie", "czem", "po", "top", "noc", "dzień", "las", "mo", "rze", "góry", "sta", "ry"
+    };
+
+    @Param({"100000", "1000000"})
+    private int titles;
+
+    private SuggestionIndex index;
+
+    // Prints the memory budget once per fork: retained heap and node count for the given number of titles.
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        long before = usedHeap();
+        index = new SuggestionIndex();
+        index.rebuild(consumer -> {
+            for (long id = 1; id <= titles; id++) {
+                consumer.accept(Suggestion.book(id, title(random), random.nextInt(501) / 100.0f));
+            }
+            for (long id = 1; id <= titles / 20; id++) {
+                consumer.accept(Suggestion.author(id, word(random), word(random), random.nextInt(501) / 100.0f));
+            }
+        });
+        long retained = usedHeap() - before;
+        System.out.printf("%nSuggestion index: %d entries, %d nodes, ~%d MB retained (%d B per entry)%n",
+                index.size(), index.nodeCount(), retained >> 20, retained / index.size());
+    }
+
+    @Benchmark
+    public List<Suggestion> shortPrefix() {
+        return index.suggest("p", 10);
+    }
+
+    @Benchmark
+    public List<Suggestion> wordPrefix() {
+        return index.suggest("pan ta", 10);
+    }
+
+    @Benchmark
+    public List<Suggestion> longPrefix() {
+        return index.suggest("dzia lal ka mo", 10);
+    }
+
+    private static String title(Random random) {
+        StringBuilder title = new StringBuilder();
+        int words = 1 + random.nextInt(4);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                title.append(' ');
+            }
+            title.append(word(random));
+        }
+        return title.toString();
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int syllables = 1 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
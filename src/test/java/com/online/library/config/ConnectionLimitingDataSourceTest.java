@@ -0,0 +1,144 @@
+package com.online.library.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConnectionLimitingDataSourceTest {
+
+    private DataSource target;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+    }
+
+    @Test
+    void testCloseReturnsPermitOnlyOnce() throws SQLException {
+        // Given
+        ConnectionLimitingDataSource underTest = new ConnectionLimitingDataSource(target, 2, 10, Duration.ofSeconds(1));
+        Connection connection = underTest.getConnection();
+        assertThat(underTest.getAvailablePermits()).isEqualTo(1);
+
+        // When
+        connection.close();
+        connection.close();
+
+        // Then
+        assertThat(underTest.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void testCallsAreDelegatedToPooledConnection() throws SQLException {
+        // Given
+        Connection pooled = mock(Connection.class);
+        when(target.getConnection()).thenReturn(pooled);
+        ConnectionLimitingDataSource underTest = new ConnectionLimitingDataSource(target, 1, 10, Duration.ofSeconds(1));
+
+        // When
+        try (Connection connection = underTest.getConnection()) {
+            connection.setAutoCommit(false);
+        }
+
+        // Then
+        verify(pooled).setAutoCommit(false);
+        verify(pooled).close();
+    }
+
+    @Test
+    void testWaiterGetsConnectionWhenOneIsReturned() throws Exception {
+        // Given
+        ConnectionLimitingDataSource underTest = new ConnectionLimitingDataSource(target, 1, 10, Duration.ofSeconds(5));
+        Connection first = underTest.getConnection();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<Connection> second = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return underTest.getConnection();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, executor);
+            waitUntil(() -> underTest.getWaiting() == 1);
+            assertThat(second).isNotDone();
+
+            // When
+            first.close();
+
+            // Then
+            assertThat(second.get(5, TimeUnit.SECONDS)).isNotNull();
+        }
+    }
+
+    @Test
+    void testTimesOutWhenNoConnectionIsReturned() throws SQLException {
+        // Given
+        ConnectionLimitingDataSource underTest = new ConnectionLimitingDataSource(target, 1, 10, Duration.ofMillis(50));
+        underTest.getConnection();
+
+        // When/Then
+        assertThatThrownBy(underTest::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("50 ms");
+    }
+
+    @Test
+    void testRejectsImmediatelyWhenTooManyAreWaiting() throws Exception {
+        // Given - one connection in use and one caller already waiting for it
+        ConnectionLimitingDataSource underTest = new ConnectionLimitingDataSource(target, 1, 1, Duration.ofSeconds(5));
+        Connection first = underTest.getConnection();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> {
+                underTest.getConnection().close();
+                return null;
+            });
+            waitUntil(() -> underTest.getWaiting() == 1);
+
+            // When/Then
+            long start = System.nanoTime();
+            assertThatThrownBy(underTest::getConnection)
+                    .isInstanceOf(SQLTransientConnectionException.class)
+                    .hasMessageContaining("Too many requests");
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+            first.close();
+        }
+    }
+
+    @Test
+    void testPermitIsReturnedWhenPoolFails() throws SQLException {
+        // Given
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        ConnectionLimitingDataSource underTest = new ConnectionLimitingDataSource(target, 1, 10, Duration.ofSeconds(1));
+
+        // When
+        assertThatThrownBy(underTest::getConnection).hasMessage("pool exhausted");
+
+        // Then
+        assertThat(underTest.getAvailablePermits()).isEqualTo(1);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 10 seconds");
+            }
+            Thread.sleep(20);
+        }
+    }
+}
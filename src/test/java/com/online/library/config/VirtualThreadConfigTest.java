@@ -0,0 +1,40 @@
+package com.online.library.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadConfigTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private VirtualThreadPinningMonitor pinningMonitor;
+
+    @Test
+    void testDataSourceIsLimitedToPoolSize() throws SQLException {
+        // Given
+        ConnectionLimitingDataSource limited = dataSource.unwrap(ConnectionLimitingDataSource.class);
+        int permits = limited.getAvailablePermits();
+
+        // When
+        Long books = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Long.class);
+
+        // Then
+        assertThat(books).isNotNull();
+        assertThat(permits).isEqualTo(10);
+        assertThat(limited.getAvailablePermits()).isEqualTo(permits);
+        assertThat(pinningMonitor).isNotNull();
+    }
+}
@@ -0,0 +1,83 @@
+package com.online.library.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final Object monitor = new Object();
+    private VirtualThreadPinningMonitor underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new VirtualThreadPinningMonitor(Duration.ofMillis(10));
+        underTest.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.close();
+    }
+
+    @Test
+    void testReportsBlockingInsideSynchronized() throws InterruptedException {
+        // When
+        Thread.ofVirtual().start(this::sleepHoldingMonitor).join();
+
+        // Then
+        waitUntil(() -> !underTest.getPinnedSites().isEmpty());
+        assertThat(underTest.getPinnedSites().keySet())
+                .anyMatch(site -> site.startsWith(getClass().getName() + ".sleepHoldingMonitor"));
+    }
+
+    @Test
+    void testIgnoresBlockingUnderReentrantLock() throws InterruptedException {
+        // Given
+        ReentrantLock lock = new ReentrantLock();
+
+        // When
+        Thread.ofVirtual().start(() -> {
+            lock.lock();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        }).join();
+        Thread.ofVirtual().start(this::sleepHoldingMonitor).join();
+
+        // Then - wait for the pinned event so the lock's one would have arrived too
+        waitUntil(() -> !underTest.getPinnedSites().isEmpty());
+        assertThat(underTest.getPinnedSites()).hasSize(1);
+    }
+
+    private void sleepHoldingMonitor() {
+        synchronized (monitor) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 10 seconds");
+            }
+            Thread.sleep(20);
+        }
+    }
+}
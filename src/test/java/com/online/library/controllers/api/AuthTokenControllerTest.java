@@ -0,0 +1,132 @@
+package com.online.library.controllers.api;
+
+import com.online.library.security.AccessTokens;
+import com.online.library.security.LoginThrottle;
+import com.online.library.security.LoginThrottledException;
+import com.online.library.security.TokenRevocationList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthTokenControllerTest {
+
+    private static final String LOGIN_JSON = """
+            {"username":"admin","password":"adminPassword123"}
+            """;
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    private AccessTokens accessTokens;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        Duration ttl = Duration.ofMinutes(15);
+        accessTokens = new AccessTokens("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8), ttl,
+                new TokenRevocationList(ttl, Clock.systemUTC()), JsonMapper.builder().build(), Clock.systemUTC());
+        LoginThrottle loginThrottle = new LoginThrottle(ttl, 10, 50, 1000, Clock.systemUTC());
+        mockMvc = MockMvcBuilders.standaloneSetup(new AuthTokenController(authenticationManager, accessTokens,
+                loginThrottle)).build();
+    }
+
+    @Test
+    void testValidCredentialsReturnToken() throws Exception {
+        // Given
+        when(authenticationManager.authenticate(any())).thenReturn(UsernamePasswordAuthenticationToken.authenticated(
+                "admin", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        // When/Then
+        String response = mockMvc.perform(post("/api/v1/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(LOGIN_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(jsonPath("$.token_type").value("Bearer"))
+                .andExpect(jsonPath("$.expires_in").value(900))
+                .andReturn().getResponse().getContentAsString();
+
+        String token = JsonMapper.builder().build().readTree(response).path("access_token").asString();
+        assertThat(accessTokens.verify(token)).get()
+                .satisfies(verified -> assertThat(verified.authorities()).containsExactly("ROLE_ADMIN"));
+    }
+
+    @Test
+    void testInvalidCredentialsReturn401() throws Exception {
+        // Given
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        // When/Then
+        mockMvc.perform(post("/api/v1/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(LOGIN_JSON))
+                .andExpect(status().isUnauthorized())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testThrottledLoginReturns429WithRetryAfter() throws Exception {
+        // Given
+        when(authenticationManager.authenticate(any()))
+                .thenThrow(new LoginThrottledException("Too many failed login attempts"));
+
+        // When/Then
+        mockMvc.perform(post("/api/v1/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(LOGIN_JSON))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "900"));
+    }
+
+    @Test
+    void testCredentialsCarryClientAddress() throws Exception {
+        // Given
+        ArgumentCaptor<Authentication> captor = ArgumentCaptor.forClass(Authentication.class);
+        when(authenticationManager.authenticate(captor.capture())).thenThrow(new BadCredentialsException("Bad"));
+
+        // When
+        mockMvc.perform(post("/api/v1/auth/token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(LOGIN_JSON)
+                .with(request -> {
+                    request.setRemoteAddr("203.0.113.7");
+                    return request;
+                }));
+
+        // Then
+        assertThat(captor.getValue().getDetails()).isInstanceOfSatisfying(WebAuthenticationDetails.class,
+                details -> assertThat(details.getRemoteAddress()).isEqualTo("203.0.113.7"));
+    }
+
+    @Test
+    void testRevokeWithoutBearerTokenReturns400() throws Exception {
+        mockMvc.perform(delete("/api/v1/auth/token"))
+                .andExpect(status().isBadRequest());
+    }
+}
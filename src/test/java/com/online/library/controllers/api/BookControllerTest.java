@@ -1,6 +1,12 @@
 package com.online.library.controllers.api;
 
+import com.online.library.domain.dto.BookBrowseDto;
 import com.online.library.domain.dto.BookDto;
+import com.online.library.domain.dto.BookFacetsDto;
+import com.online.library.domain.dto.BookSuggestionDto;
+import com.online.library.domain.dto.CursorPageDto;
+import com.online.library.domain.dto.FacetValueDto;
+import com.online.library.exceptions.InvalidCursorException;
 import com.online.library.services.BookService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +17,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
@@ -79,9 +86,12 @@ class BookControllerTest {
                 BookDto book1 = BookDto.builder().id(1L).title("Book One").build();
                 BookDto book2 = BookDto.builder().id(2L).title("Book Two").build();
                 BookDto book3 = BookDto.builder().id(3L).title("Book Three").build();
-                Page<BookDto> bookPage = new PageImpl<>(List.of(book1, book2, book3), PageRequest.of(0, 10), 3);
+                BookBrowseDto bookPage = BookBrowseDto.builder()
+                                .content(List.of(book1, book2, book3)).number(0).size(10).totalElements(3).totalPages(1)
+                                .facets(new BookFacetsDto())
+                                .build();
 
-                when(bookService.findAll(any())).thenReturn(bookPage);
+                when(bookService.browse(any(), any(), any(), any())).thenReturn(bookPage);
 
                 // When/Then
                 mockMvc.perform(get("/api/v1/books")
@@ -93,7 +103,7 @@ class BookControllerTest {
                                 .andExpect(jsonPath("$.content[1].title").value("Book Two"))
                                 .andExpect(jsonPath("$.content[2].title").value("Book Three"));
 
-                verify(bookService).findAll(any());
+                verify(bookService).browse(isNull(), isNull(), isNull(), any());
         }
 
         @Test
@@ -133,6 +143,24 @@ class BookControllerTest {
                 verify(bookService).searchBooks(isNull(), any());
         }
 
+        @Test
+        void testSuggestBooksReturnsList() throws Exception {
+                // Given
+                when(bookService.suggest("pan", 5)).thenReturn(List.of(BookSuggestionDto.builder()
+                                .type("BOOK").id(2L).text("Pan Wołodyjowski").averageRating(4.8).build()));
+
+                // When/Then
+                mockMvc.perform(get("/api/v1/books/suggest")
+                                .param("prefix", "pan")
+                                .param("limit", "5"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(1))
+                                .andExpect(jsonPath("$[0].type").value("BOOK"))
+                                .andExpect(jsonPath("$[0].text").value("Pan Wołodyjowski"));
+
+                verify(bookService).suggest("pan", 5);
+        }
+
         @Test
         void testGetPopularBooksReturnsPage() throws Exception {
                 // Given
@@ -297,9 +325,12 @@ class BookControllerTest {
         void testListBooksWithPagination() throws Exception {
                 // Given
                 BookDto book = BookDto.builder().id(1L).title("Book").build();
-                Page<BookDto> bookPage = new PageImpl<>(List.of(book), PageRequest.of(2, 5), 11);
+                BookBrowseDto bookPage = BookBrowseDto.builder()
+                                .content(List.of(book)).number(2).size(5).totalElements(11).totalPages(3)
+                                .facets(new BookFacetsDto())
+                                .build();
 
-                when(bookService.findAll(any())).thenReturn(bookPage);
+                when(bookService.browse(any(), any(), any(), any())).thenReturn(bookPage);
 
                 // When/Then
                 mockMvc.perform(get("/api/v1/books")
@@ -311,6 +342,65 @@ class BookControllerTest {
                                 .andExpect(jsonPath("$.totalElements").value(11))
                                 .andExpect(jsonPath("$.number").value(2));
 
-                verify(bookService).findAll(any());
+                verify(bookService).browse(isNull(), isNull(), isNull(), any());
+        }
+
+        @Test
+        void testListBooksWithFacetsReturnsCounts() throws Exception {
+                // Given
+                BookFacetsDto facets = BookFacetsDto.builder()
+                                .genres(List.of(FacetValueDto.builder().value(3L).label("Powieść").count(2).selected(true).build(),
+                                                FacetValueDto.builder().value(4L).label("Poezja").count(1).build()))
+                                .authors(List.of(FacetValueDto.builder().value(7L).label("Bolesław Prus").count(2).build()))
+                                .decades(List.of(FacetValueDto.builder().value(1890L).label("1890–1899").count(2).build()))
+                                .build();
+                BookBrowseDto bookPage = BookBrowseDto.builder()
+                                .content(List.of(BookDto.builder().id(1L).title("Lalka").build(),
+                                                BookDto.builder().id(2L).title("Emancypantki").build()))
+                                .number(0).size(20).totalElements(2).totalPages(1)
+                                .facets(facets)
+                                .build();
+
+                when(bookService.browse(eq(List.of(3L, 4L)), isNull(), eq(List.of(1890)), any())).thenReturn(bookPage);
+
+                // When/Then
+                mockMvc.perform(get("/api/v1/books")
+                                .param("genre", "3", "4")
+                                .param("decade", "1890"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content.length()").value(2))
+                                .andExpect(jsonPath("$.totalElements").value(2))
+                                .andExpect(jsonPath("$.facets.genres[0].label").value("Powieść"))
+                                .andExpect(jsonPath("$.facets.genres[0].selected").value(true))
+                                .andExpect(jsonPath("$.facets.authors[0].count").value(2))
+                                .andExpect(jsonPath("$.facets.decades[0].value").value(1890));
+        }
+
+        @Test
+        void testListBooksWithCursorReturnsSliceWithoutTotals() throws Exception {
+                CursorPageDto<BookDto> slice = CursorPageDto.<BookDto>builder()
+                                .content(List.of(BookDto.builder().id(5L).title("Book 5").build()))
+                                .size(1)
+                                .nextCursor("aTo1")
+                                .hasNext(true)
+                                .build();
+                when(bookService.findAllAfter("", 1)).thenReturn(slice);
+
+                mockMvc.perform(get("/api/v1/books").param("after", "").param("size", "1"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content[0].id").value(5))
+                                .andExpect(jsonPath("$.nextCursor").value("aTo1"))
+                                .andExpect(jsonPath("$.hasNext").value(true))
+                                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+                verify(bookService, never()).findAll(any(Pageable.class));
+        }
+
+        @Test
+        void testListBooksWithMalformedCursorReturns400() throws Exception {
+                when(bookService.findAllAfter("garbage", 20)).thenThrow(new InvalidCursorException("Invalid cursor"));
+
+                mockMvc.perform(get("/api/v1/books").param("after", "garbage"))
+                                .andExpect(status().isBadRequest());
         }
 }
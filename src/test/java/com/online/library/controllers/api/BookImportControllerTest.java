@@ -0,0 +1,123 @@
+package com.online.library.controllers.api;
+
+import com.online.library.domain.dto.BookImportStatusDto;
+import com.online.library.domain.enums.ImportFormat;
+import com.online.library.exceptions.GlobalExceptionHandler;
+import com.online.library.exceptions.ImportQueueFullException;
+import com.online.library.services.BookImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportControllerTest {
+
+        private static final UUID IMPORT_ID = UUID.fromString("8f14e45f-ceea-467a-9b5e-2f1a6c1b2d3e");
+
+        private MockMvc mockMvc;
+
+        @Mock
+        private BookImportService bookImportService;
+
+        @InjectMocks
+        private BookImportController underTest;
+
+        @BeforeEach
+        void setUp() {
+                mockMvc = MockMvcBuilders.standaloneSetup(underTest)
+                                .setControllerAdvice(new GlobalExceptionHandler())
+                                .build();
+        }
+
+        @Test
+        void testImportCsvReturns202WithLocation() throws Exception {
+                when(bookImportService.startImport(any(InputStream.class), eq(ImportFormat.CSV)))
+                                .thenReturn(BookImportStatusDto.builder()
+                                                .id(IMPORT_ID)
+                                                .state(BookImportStatusDto.State.QUEUED)
+                                                .build());
+
+                mockMvc.perform(post("/api/v1/imports/books")
+                                .contentType("text/csv")
+                                .content("title;isbn\nSolaris;9788308049832\n"))
+                                .andExpect(status().isAccepted())
+                                .andExpect(header().string("Location", "/api/v1/imports/books/" + IMPORT_ID))
+                                .andExpect(jsonPath("$.state").value("QUEUED"));
+
+                verify(bookImportService).startImport(any(InputStream.class), eq(ImportFormat.CSV));
+        }
+
+        @Test
+        void testImportJsonLinesUsesJsonLinesFormat() throws Exception {
+                when(bookImportService.startImport(any(InputStream.class), eq(ImportFormat.JSON_LINES)))
+                                .thenReturn(BookImportStatusDto.builder().id(IMPORT_ID).build());
+
+                mockMvc.perform(post("/api/v1/imports/books")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content("{\"title\":\"Solaris\",\"isbn\":\"9788308049832\"}\n"))
+                                .andExpect(status().isAccepted());
+
+                verify(bookImportService).startImport(any(InputStream.class), eq(ImportFormat.JSON_LINES));
+        }
+
+        @Test
+        void testImportReturns503WhenQueueIsFull() throws Exception {
+                when(bookImportService.startImport(any(InputStream.class), eq(ImportFormat.CSV)))
+                                .thenThrow(new ImportQueueFullException("Zbyt wiele importów w kolejce"));
+
+                mockMvc.perform(post("/api/v1/imports/books")
+                                .contentType("text/csv")
+                                .content("title;isbn\nSolaris;9788308049832\n"))
+                                .andExpect(status().isServiceUnavailable())
+                                .andExpect(header().exists("Retry-After"));
+        }
+
+        @Test
+        void testImportRejectsUnsupportedContentType() throws Exception {
+                mockMvc.perform(post("/api/v1/imports/books")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[]"))
+                                .andExpect(status().isUnsupportedMediaType());
+
+                verifyNoInteractions(bookImportService);
+        }
+
+        @Test
+        void testGetImportReturnsProgress() throws Exception {
+                when(bookImportService.getStatus(IMPORT_ID)).thenReturn(Optional.of(BookImportStatusDto.builder()
+                                .id(IMPORT_ID)
+                                .state(BookImportStatusDto.State.RUNNING)
+                                .processedRows(5000)
+                                .importedBooks(4990)
+                                .build()));
+
+                mockMvc.perform(get("/api/v1/imports/books/{id}", IMPORT_ID))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.processedRows").value(5000))
+                                .andExpect(jsonPath("$.importedBooks").value(4990));
+        }
+
+        @Test
+        void testGetUnknownImportReturns404() throws Exception {
+                when(bookImportService.getStatus(IMPORT_ID)).thenReturn(Optional.empty());
+
+                mockMvc.perform(get("/api/v1/imports/books/{id}", IMPORT_ID))
+                                .andExpect(status().isNotFound());
+        }
+}
@@ -14,10 +14,14 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
@@ -58,6 +62,9 @@ class AdminControllerTest {
         @MockitoBean
         private FileStorageService fileStorageService;
 
+        @MockitoBean
+        private EntityCacheService entityCacheService;
+
         // ==================== Dashboard Tests ====================
 
         @Test
@@ -113,6 +120,43 @@ class AdminControllerTest {
                                 .andExpect(model().attribute("activeUsers", List.of(userStat)));
         }
 
+        @Test
+        void testReportsPageShowsRefreshTime() throws Exception {
+                LocalDateTime refreshedAt = LocalDateTime.of(2025, 1, 1, 12, 30);
+                when(analyticsService.getRollupsRefreshedAt()).thenReturn(Optional.of(refreshedAt));
+
+                mockMvc.perform(get("/admin/reports")
+                                .with(user("admin").roles("ADMIN")))
+                                .andExpect(status().isOk())
+                                .andExpect(model().attribute("refreshedAt", refreshedAt))
+                                .andExpect(content().string(containsString("01.01.2025 12:30")));
+        }
+
+        @Test
+        void testReportsPageShowsCacheStatistics() throws Exception {
+                CacheRegionStatsDto authors = CacheRegionStatsDto.builder()
+                                .region("authors").hitCount(3).missCount(1).putCount(1).elementCount(1).build();
+                when(entityCacheService.getRegionStatistics()).thenReturn(List.of(authors));
+
+                mockMvc.perform(get("/admin/reports")
+                                .with(user("admin").roles("ADMIN")))
+                                .andExpect(status().isOk())
+                                .andExpect(model().attribute("cacheStats", List.of(authors)))
+                                .andExpect(content().string(containsString("75")));
+        }
+
+        @Test
+        void testRefreshReportsRecalculatesRollups() throws Exception {
+                mockMvc.perform(post("/admin/reports/refresh")
+                                .with(user("admin").roles("ADMIN"))
+                                .with(csrf()))
+                                .andExpect(status().is3xxRedirection())
+                                .andExpect(redirectedUrl("/admin/reports"))
+                                .andExpect(flash().attributeExists("success"));
+
+                verify(analyticsService).refreshRollups();
+        }
+
         // ==================== Reservations Tests ====================
 
         @Test
@@ -208,7 +252,7 @@ class AdminControllerTest {
 
                 when(authorService.findAll(any(Pageable.class))).thenReturn(authorPage);
                 when(genreService.findAll(any(Pageable.class))).thenReturn(genrePage);
-                when(bookService.save(any(BookDto.class))).thenReturn(BookDto.builder().id(1L).build());
+                when(bookService.saveWithAssociations(any(BookDto.class), any(), any())).thenReturn(1L);
 
                 mockMvc.perform(post("/admin/books")
                                 .param("title", "New Book")
@@ -221,7 +265,7 @@ class AdminControllerTest {
                                 .andExpect(redirectedUrl("/admin/books"))
                                 .andExpect(flash().attributeExists("success"));
 
-                verify(bookService).save(any(BookDto.class));
+                verify(bookService).saveWithAssociations(any(BookDto.class), any(), any());
         }
 
         @Test
@@ -231,7 +275,7 @@ class AdminControllerTest {
 
                 when(authorService.findAll(any(Pageable.class))).thenReturn(authorPage);
                 when(genreService.findAll(any(Pageable.class))).thenReturn(genrePage);
-                when(bookService.save(any(BookDto.class))).thenReturn(BookDto.builder().id(1L).build());
+                when(bookService.saveWithAssociations(any(BookDto.class), any(), any())).thenReturn(1L);
                 when(fileStorageService.storeFile(any(), eq("covers"))).thenReturn("covers/test.jpg");
 
                 MockMultipartFile coverImage = new MockMultipartFile(
@@ -249,7 +293,7 @@ class AdminControllerTest {
                                 .andExpect(redirectedUrl("/admin/books"));
 
                 verify(fileStorageService).storeFile(any(), eq("covers"));
-                verify(bookService).save(any(BookDto.class));
+                verify(bookService).saveWithAssociations(any(BookDto.class), any(), any());
         }
 
         @Test
@@ -262,9 +306,7 @@ class AdminControllerTest {
 
                 when(authorService.findAll(any(Pageable.class))).thenReturn(authorPage);
                 when(genreService.findAll(any(Pageable.class))).thenReturn(genrePage);
-                when(authorService.findById(1L)).thenReturn(Optional.of(author));
-                when(genreService.findById(1L)).thenReturn(Optional.of(genre));
-                when(bookService.save(any(BookDto.class))).thenReturn(BookDto.builder().id(1L).build());
+                when(bookService.saveWithAssociations(any(BookDto.class), any(), any())).thenReturn(1L);
 
                 mockMvc.perform(post("/admin/books")
                                 .param("title", "New Book")
@@ -278,9 +320,9 @@ class AdminControllerTest {
                                 .andExpect(status().is3xxRedirection())
                                 .andExpect(redirectedUrl("/admin/books"));
 
-                verify(authorService).findById(1L);
-                verify(genreService).findById(1L);
-                verify(bookService).save(any(BookDto.class));
+                verify(authorService, never()).findById(any());
+                verify(genreService, never()).findById(any());
+                verify(bookService).saveWithAssociations(any(BookDto.class), eq(List.of(1L)), eq(List.of(1L)));
         }
 
         @Test
@@ -304,15 +346,13 @@ class AdminControllerTest {
 
         @Test
         void testUpdateBook() throws Exception {
-                BookDto existingBook = BookDto.builder().id(1L).title("Old Title").coverImagePath("covers/old.jpg")
-                                .build();
                 Page<AuthorDto> authorPage = new PageImpl<>(List.of());
                 Page<GenreDto> genrePage = new PageImpl<>(List.of());
 
-                when(bookService.findById(1L)).thenReturn(Optional.of(existingBook));
+                when(bookService.findCoverImagePath(1L)).thenReturn(Optional.of("covers/old.jpg"));
                 when(authorService.findAll(any(Pageable.class))).thenReturn(authorPage);
                 when(genreService.findAll(any(Pageable.class))).thenReturn(genrePage);
-                when(bookService.save(any(BookDto.class))).thenReturn(existingBook);
+                when(bookService.saveWithAssociations(any(BookDto.class), any(), any())).thenReturn(1L);
 
                 mockMvc.perform(post("/admin/books/1")
                                 .param("title", "Updated Title")
@@ -325,7 +365,9 @@ class AdminControllerTest {
                                 .andExpect(redirectedUrl("/admin/books"))
                                 .andExpect(flash().attributeExists("success"));
 
-                verify(bookService).save(any(BookDto.class));
+                verify(bookService).saveWithAssociations(
+                                argThat(book -> "covers/old.jpg".equals(book.getCoverImagePath())), any(), any());
+                verify(bookService, never()).findById(any());
         }
 
         @Test
@@ -337,7 +379,7 @@ class AdminControllerTest {
                 when(bookService.findById(1L)).thenReturn(Optional.of(existingBook));
                 when(authorService.findAll(any(Pageable.class))).thenReturn(authorPage);
                 when(genreService.findAll(any(Pageable.class))).thenReturn(genrePage);
-                when(bookService.save(any(BookDto.class))).thenReturn(existingBook);
+                when(bookService.saveWithAssociations(any(BookDto.class), any(), any())).thenReturn(1L);
 
                 mockMvc.perform(post("/admin/books/1")
                                 .param("title", "Book Title")
@@ -350,7 +392,7 @@ class AdminControllerTest {
                                 .andExpect(status().is3xxRedirection())
                                 .andExpect(redirectedUrl("/admin/books"));
 
-                verify(bookService).save(any(BookDto.class));
+                verify(bookService).saveWithAssociations(any(BookDto.class), any(), any());
         }
 
         @Test
@@ -482,50 +524,68 @@ class AdminControllerTest {
 
         @Test
         void testExportPopularBooksCsv() throws Exception {
-                when(analyticsService.getMostPopularBooks(100)).thenReturn(List.of());
-                when(exportService.exportPopularBooksToCsv(any())).thenReturn("csv content".getBytes());
+                doAnswer(invocation -> {
+                        invocation.<OutputStream>getArgument(1).write("csv content".getBytes());
+                        return null;
+                }).when(exportService).writePopularBooksCsv(any(), any());
 
-                mockMvc.perform(get("/admin/reports/export/popular-books")
+                MvcResult asyncResult = mockMvc.perform(get("/admin/reports/export/popular-books")
                                 .with(user("admin").roles("ADMIN")))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+
+                mockMvc.perform(asyncDispatch(asyncResult))
                                 .andExpect(status().isOk())
                                 .andExpect(header().string("Content-Disposition",
                                                 "attachment; filename=popularne_ksiazki.csv"))
-                                .andExpect(content().contentType("text/csv;charset=UTF-8"));
+                                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                                .andExpect(content().string("csv content"));
 
-                verify(analyticsService).getMostPopularBooks(100);
-                verify(exportService).exportPopularBooksToCsv(any());
+                verify(exportService).writePopularBooksCsv(any(), any());
         }
 
         @Test
         void testExportReadAuthorsCsv() throws Exception {
-                when(analyticsService.getMostReadAuthors(100)).thenReturn(List.of());
-                when(exportService.exportReadAuthorsToCsv(any())).thenReturn("csv content".getBytes());
+                doAnswer(invocation -> {
+                        invocation.<OutputStream>getArgument(1).write("csv content".getBytes());
+                        return null;
+                }).when(exportService).writeReadAuthorsCsv(any(), any());
 
-                mockMvc.perform(get("/admin/reports/export/read-authors")
+                MvcResult asyncResult = mockMvc.perform(get("/admin/reports/export/read-authors")
                                 .with(user("admin").roles("ADMIN")))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+
+                mockMvc.perform(asyncDispatch(asyncResult))
                                 .andExpect(status().isOk())
                                 .andExpect(header().string("Content-Disposition",
                                                 "attachment; filename=czytani_autorzy.csv"))
-                                .andExpect(content().contentType("text/csv;charset=UTF-8"));
+                                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                                .andExpect(content().string("csv content"));
 
-                verify(analyticsService).getMostReadAuthors(100);
-                verify(exportService).exportReadAuthorsToCsv(any());
+                verify(exportService).writeReadAuthorsCsv(any(), any());
         }
 
         @Test
         void testExportActiveUsersCsv() throws Exception {
-                when(analyticsService.getMostActiveUsers(100)).thenReturn(List.of());
-                when(exportService.exportActiveUsersToCsv(any())).thenReturn("csv content".getBytes());
+                doAnswer(invocation -> {
+                        invocation.<OutputStream>getArgument(1).write("csv content".getBytes());
+                        return null;
+                }).when(exportService).writeActiveUsersCsv(any(), any());
 
-                mockMvc.perform(get("/admin/reports/export/active-users")
+                MvcResult asyncResult = mockMvc.perform(get("/admin/reports/export/active-users")
                                 .with(user("admin").roles("ADMIN")))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+
+                mockMvc.perform(asyncDispatch(asyncResult))
                                 .andExpect(status().isOk())
                                 .andExpect(header().string("Content-Disposition",
                                                 "attachment; filename=aktywni_uzytkownicy.csv"))
-                                .andExpect(content().contentType("text/csv;charset=UTF-8"));
+                                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                                .andExpect(content().string("csv content"));
 
-                verify(analyticsService).getMostActiveUsers(100);
-                verify(exportService).exportActiveUsersToCsv(any());
+                verify(exportService).writeActiveUsersCsv(any(), any());
         }
 
         // ==================== Users Tests ====================
@@ -734,7 +794,7 @@ class AdminControllerTest {
                                 .andExpect(status().isOk())
                                 .andExpect(view().name("admin/book-form"));
 
-                verify(bookService, never()).save(any(BookDto.class));
+                verify(bookService, never()).saveWithAssociations(any(BookDto.class), any(), any());
         }
 
         @Test
@@ -777,7 +837,7 @@ class AdminControllerTest {
                                 .andExpect(status().isOk())
                                 .andExpect(view().name("admin/book-form"));
 
-                verify(bookService, never()).save(any(BookDto.class));
+                verify(bookService, never()).saveWithAssociations(any(BookDto.class), any(), any());
         }
 
         @Test
@@ -817,7 +877,7 @@ class AdminControllerTest {
 
                 when(authorService.findAll(any(Pageable.class))).thenReturn(authorPage);
                 when(genreService.findAll(any(Pageable.class))).thenReturn(genrePage);
-                when(bookService.save(any(BookDto.class))).thenReturn(BookDto.builder().id(1L).build());
+                when(bookService.saveWithAssociations(any(BookDto.class), any(), any())).thenReturn(1L);
                 when(fileStorageService.storeFile(any(), eq("covers")))
                                 .thenThrow(new RuntimeException("Upload failed"));
 
@@ -848,7 +908,7 @@ class AdminControllerTest {
                 when(bookService.findById(1L)).thenReturn(Optional.of(existingBook));
                 when(authorService.findAll(any(Pageable.class))).thenReturn(authorPage);
                 when(genreService.findAll(any(Pageable.class))).thenReturn(genrePage);
-                when(bookService.save(any(BookDto.class))).thenReturn(existingBook);
+                when(bookService.saveWithAssociations(any(BookDto.class), any(), any())).thenReturn(1L);
                 when(fileStorageService.storeFile(any(), eq("covers"))).thenReturn("covers/new.jpg");
 
                 MockMultipartFile coverImage = new MockMultipartFile(
@@ -866,7 +926,7 @@ class AdminControllerTest {
                                 .andExpect(redirectedUrl("/admin/books"));
 
                 verify(fileStorageService).storeFile(any(), eq("covers"));
-                verify(bookService).save(any(BookDto.class));
+                verify(bookService).saveWithAssociations(any(BookDto.class), any(), any());
         }
 
         @Test
@@ -66,6 +66,15 @@ class AuthControllerTest {
                 .andExpect(model().attribute("message", "Wylogowano pomyślnie"));
     }
 
+    @Test
+    void testLoginPageWithBlockedParameter() throws Exception {
+        mockMvc.perform(get("/login")
+                .param("blocked", "true"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("login"))
+                .andExpect(model().attribute("error", "Zbyt wiele prób logowania. Spróbuj ponownie za kilka minut."));
+    }
+
     @Test
     void testRegisterFormLoads() throws Exception {
         mockMvc.perform(get("/register"))
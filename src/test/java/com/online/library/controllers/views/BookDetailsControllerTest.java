@@ -2,25 +2,31 @@ package com.online.library.controllers.views;
 
 import com.online.library.domain.dto.*;
 import com.online.library.domain.enums.ReservationStatus;
+import com.online.library.domain.enums.UserRole;
+import com.online.library.exceptions.ResourceNotFoundException;
+import com.online.library.security.LibraryUserDetails;
 import com.online.library.services.*;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
-import java.util.HashSet;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
@@ -38,6 +44,9 @@ class BookDetailsControllerTest {
     @MockitoBean
     private BookService bookService;
 
+    @MockitoBean
+    private BookDetailsService bookDetailsService;
+
     @MockitoBean
     private ReservationService reservationService;
 
@@ -61,188 +70,93 @@ class BookDetailsControllerTest {
 
     // ==================== Book Details Tests ====================
 
-    @Test
-    void testBookDetailsLoadsForAnonymousUser() throws Exception {
-        BookDto book = BookDto.builder()
+    private static BookDetailsDto bookDetails(Long currentUserId, boolean hasAvailableCopies,
+                                              boolean hasActiveReservation) {
+        return BookDetailsDto.builder()
                 .id(1L)
                 .title("Test Book")
-                .authors(new HashSet<>())
-                .genres(new HashSet<>())
+                .averageRating(BigDecimal.valueOf(4.5))
+                .ratingCount(10L)
+                .authors(List.of(new BookDetailsDto.Author(1L, "Jan", "Kowalski")))
+                .genres(List.of(new BookDetailsDto.Genre(1L, "Fantasy")))
+                .hasAvailableCopies(hasAvailableCopies)
+                .commentCount(1L)
+                .comments(new PageImpl<>(List.of(
+                        new BookDetailsDto.Comment(1L, "testuser", "Great book", LocalDateTime.now()))))
+                .currentUserId(currentUserId)
+                .userRating(currentUserId != null ? 5 : null)
+                .hasActiveReservation(hasActiveReservation)
                 .build();
+    }
 
-        Page<CommentDto> commentsPage = new PageImpl<>(List.of());
+    @Test
+    void testBookDetailsLoadsForAnonymousUser() throws Exception {
+        BookDetailsDto book = bookDetails(null, true, false);
 
-        when(bookService.findById(1L)).thenReturn(Optional.of(book));
-        when(ratingService.calculateAverageRating(1L)).thenReturn(BigDecimal.valueOf(4.5));
-        when(ratingService.countRatingsForBook(1L)).thenReturn(10L);
-        when(commentService.findByBookId(eq(1L), any(Pageable.class))).thenReturn(commentsPage);
-        when(commentService.countCommentsForBook(1L)).thenReturn(5L);
-        when(reservationService.hasAvailableCopies(1L)).thenReturn(true);
+        when(bookDetailsService.getBookDetails(eq(1L), isNull(), any(Pageable.class))).thenReturn(book);
 
         mockMvc.perform(get("/books/1"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("book-details"))
                 .andExpect(model().attribute("book", book))
-                .andExpect(model().attribute("averageRating", BigDecimal.valueOf(4.5)))
-                .andExpect(model().attribute("ratingCount", 10L))
-                .andExpect(model().attribute("commentCount", 5L))
-                .andExpect(model().attribute("hasAvailableCopies", true));
-
-        verify(bookService).findById(1L);
-        verify(ratingService).calculateAverageRating(1L);
-        verify(ratingService).countRatingsForBook(1L);
-        verify(commentService).findByBookId(eq(1L), any(Pageable.class));
-        verify(commentService).countCommentsForBook(1L);
-        verify(reservationService).hasAvailableCopies(1L);
+                .andExpect(content().string(containsString("Jan Kowalski")))
+                .andExpect(content().string(containsString("Great book")));
+
+        verify(bookDetailsService).getBookDetails(eq(1L), isNull(), any(Pageable.class));
+        verifyNoInteractions(bookService, ratingService, commentService, reservationService, userService);
     }
 
     @Test
     void testBookDetailsLoadsForAuthenticatedUser() throws Exception {
-        BookDto book = BookDto.builder()
-                .id(1L)
-                .title("Test Book")
-                .authors(new HashSet<>())
-                .genres(new HashSet<>())
-                .build();
-
-        UserResponseDto currentUser = UserResponseDto.builder()
-                .id(1L)
-                .username("testuser")
-                .build();
+        BookDetailsDto book = bookDetails(1L, true, false);
 
-        Page<CommentDto> commentsPage = new PageImpl<>(List.of());
-
-        when(bookService.findById(1L)).thenReturn(Optional.of(book));
-        when(ratingService.calculateAverageRating(1L)).thenReturn(BigDecimal.valueOf(4.0));
-        when(ratingService.countRatingsForBook(1L)).thenReturn(5L);
-        when(commentService.findByBookId(eq(1L), any(Pageable.class))).thenReturn(commentsPage);
-        when(commentService.countCommentsForBook(1L)).thenReturn(3L);
-        when(reservationService.hasAvailableCopies(1L)).thenReturn(true);
-        when(userService.findByUsername("testuser")).thenReturn(Optional.of(currentUser));
-        when(ratingService.getUserRatingForBook(1L, 1L)).thenReturn(5);
-        when(reservationService.canUserReserveBook(1L, 1L)).thenReturn(true);
-        when(reservationService.getActiveReservation(1L, 1L)).thenReturn(Optional.empty());
+        when(bookDetailsService.getBookDetails(eq(1L), eq("testuser"), any(Pageable.class))).thenReturn(book);
 
         mockMvc.perform(get("/books/1")
                 .with(user("testuser").roles("USER")))
                 .andExpect(status().isOk())
                 .andExpect(view().name("book-details"))
-                .andExpect(model().attribute("currentUser", currentUser))
-                .andExpect(model().attribute("userRating", 5))
-                .andExpect(model().attribute("canReserve", true));
+                .andExpect(model().attribute("book", book))
+                .andExpect(content().string(containsString("Zarezerwuj")));
 
-        verify(userService).findByUsername("testuser");
-        verify(ratingService).getUserRatingForBook(1L, 1L);
-        verify(reservationService).canUserReserveBook(1L, 1L);
+        verifyNoInteractions(userService, ratingService, reservationService);
     }
 
     @Test
     void testBookDetailsWithActiveReservation() throws Exception {
-        BookDto book = BookDto.builder()
-                .id(1L)
-                .title("Test Book")
-                .authors(new HashSet<>())
-                .genres(new HashSet<>())
-                .build();
-
-        UserResponseDto currentUser = UserResponseDto.builder()
-                .id(1L)
-                .username("testuser")
-                .build();
-
-        ReservationDto activeReservation = ReservationDto.builder()
-                .id(1L)
-                .status(ReservationStatus.OCZEKUJĄCA)
-                .build();
-
-        Page<CommentDto> commentsPage = new PageImpl<>(List.of());
+        BookDetailsDto book = bookDetails(1L, false, true);
 
-        when(bookService.findById(1L)).thenReturn(Optional.of(book));
-        when(ratingService.calculateAverageRating(1L)).thenReturn(BigDecimal.ZERO);
-        when(ratingService.countRatingsForBook(1L)).thenReturn(0L);
-        when(commentService.findByBookId(eq(1L), any(Pageable.class))).thenReturn(commentsPage);
-        when(commentService.countCommentsForBook(1L)).thenReturn(0L);
-        when(reservationService.hasAvailableCopies(1L)).thenReturn(false);
-        when(userService.findByUsername("testuser")).thenReturn(Optional.of(currentUser));
-        when(ratingService.getUserRatingForBook(1L, 1L)).thenReturn(null);
-        when(reservationService.canUserReserveBook(1L, 1L)).thenReturn(false);
-        when(reservationService.getActiveReservation(1L, 1L)).thenReturn(Optional.of(activeReservation));
+        when(bookDetailsService.getBookDetails(eq(1L), eq("testuser"), any(Pageable.class))).thenReturn(book);
 
         mockMvc.perform(get("/books/1")
                 .with(user("testuser").roles("USER")))
                 .andExpect(status().isOk())
                 .andExpect(view().name("book-details"))
-                .andExpect(model().attribute("activeReservation", activeReservation))
-                .andExpect(model().attribute("hasAvailableCopies", false))
-                .andExpect(model().attribute("canReserve", false));
-
-        verify(reservationService).getActiveReservation(1L, 1L);
+                .andExpect(content().string(containsString("Masz już aktywną rezerwację tej książki.")))
+                .andExpect(content().string(not(containsString("bi-bookmark-plus"))));
     }
 
     @Test
     void testBookDetailsBookNotFound() throws Exception {
-        when(bookService.findById(999L)).thenReturn(Optional.empty());
+        when(bookDetailsService.getBookDetails(eq(999L), isNull(), any(Pageable.class)))
+                .thenThrow(new ResourceNotFoundException("Book not found with id: 999"));
 
         mockMvc.perform(get("/books/999"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("error/404"));
-
-        verify(bookService).findById(999L);
     }
 
     @Test
     void testBookDetailsWithCommentPagination() throws Exception {
-        BookDto book = BookDto.builder()
-                .id(1L)
-                .title("Test Book")
-                .authors(new HashSet<>())
-                .genres(new HashSet<>())
-                .build();
-
-        Page<CommentDto> commentsPage = new PageImpl<>(List.of());
-
-        when(bookService.findById(1L)).thenReturn(Optional.of(book));
-        when(ratingService.calculateAverageRating(1L)).thenReturn(BigDecimal.ZERO);
-        when(ratingService.countRatingsForBook(1L)).thenReturn(0L);
-        when(commentService.findByBookId(eq(1L), any(Pageable.class))).thenReturn(commentsPage);
-        when(commentService.countCommentsForBook(1L)).thenReturn(0L);
-        when(reservationService.hasAvailableCopies(1L)).thenReturn(true);
+        when(bookDetailsService.getBookDetails(eq(1L), isNull(), any(Pageable.class)))
+                .thenReturn(bookDetails(null, true, false));
 
         mockMvc.perform(get("/books/1")
                 .param("commentPage", "2"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("book-details"));
 
-        verify(commentService).findByBookId(eq(1L), any(Pageable.class));
-    }
-
-    @Test
-    void testBookDetailsWhenUserNotFoundInDatabase() throws Exception {
-        BookDto book = BookDto.builder()
-                .id(1L)
-                .title("Test Book")
-                .authors(new HashSet<>())
-                .genres(new HashSet<>())
-                .build();
-
-        Page<CommentDto> commentsPage = new PageImpl<>(List.of());
-
-        when(bookService.findById(1L)).thenReturn(Optional.of(book));
-        when(ratingService.calculateAverageRating(1L)).thenReturn(BigDecimal.ZERO);
-        when(ratingService.countRatingsForBook(1L)).thenReturn(0L);
-        when(commentService.findByBookId(eq(1L), any(Pageable.class))).thenReturn(commentsPage);
-        when(commentService.countCommentsForBook(1L)).thenReturn(0L);
-        when(reservationService.hasAvailableCopies(1L)).thenReturn(true);
-        when(userService.findByUsername("testuser")).thenReturn(Optional.empty());
-
-        mockMvc.perform(get("/books/1")
-                .with(user("testuser").roles("USER")))
-                .andExpect(status().isOk())
-                .andExpect(view().name("book-details"))
-                .andExpect(model().attributeDoesNotExist("currentUser"));
-
-        verify(userService).findByUsername("testuser");
-        verify(ratingService, never()).getUserRatingForBook(anyLong(), anyLong());
+        verify(bookDetailsService).getBookDetails(1L, null, PageRequest.of(2, 10));
     }
 
     // ==================== Rate Book Tests ====================
@@ -271,6 +185,22 @@ class BookDetailsControllerTest {
         verify(ratingService).rateBook(1L, 1L, 5);
     }
 
+    @Test
+    void testRateBookTakesUserIdFromPrincipal() throws Exception {
+        LibraryUserDetails principal = new LibraryUserDetails(7L, "testuser", "password", true, UserRole.USER);
+        when(ratingService.rateBook(7L, 1L, 4)).thenReturn(RatingDto.builder().id(1L).rating(4).build());
+
+        mockMvc.perform(post("/books/1/rate")
+                .param("rating", "4")
+                .with(user(principal))
+                .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(flash().attributeExists("success"));
+
+        verify(ratingService).rateBook(7L, 1L, 4);
+        verifyNoInteractions(userService);
+    }
+
     @Test
     void testRateBookRedirectsToLoginWhenNotAuthenticated() throws Exception {
         mockMvc.perform(post("/books/1/rate")
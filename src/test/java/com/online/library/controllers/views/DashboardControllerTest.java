@@ -4,6 +4,8 @@ import com.online.library.domain.dto.BookDto;
 import com.online.library.domain.dto.ReservationDto;
 import com.online.library.domain.dto.UserResponseDto;
 import com.online.library.domain.enums.ReservationStatus;
+import com.online.library.domain.enums.UserRole;
+import com.online.library.security.LibraryUserDetails;
 import com.online.library.services.ReservationService;
 import com.online.library.services.UserService;
 import org.junit.jupiter.api.Test;
@@ -180,6 +182,30 @@ class DashboardControllerTest {
                 verify(reservationService, never()).cancelReservation(anyLong());
         }
 
+        @Test
+        void testDashboardAndOwnershipCheckTakeUserIdFromPrincipal() throws Exception {
+                LibraryUserDetails principal = new LibraryUserDetails(1L, "testuser", "password", true, UserRole.USER);
+                ReservationDto reservation = ReservationDto.builder()
+                                .id(1L)
+                                .status(ReservationStatus.OCZEKUJĄCA)
+                                .user(UserResponseDto.builder().id(1L).username("testuser").build())
+                                .build();
+
+                when(reservationService.findByUserIdOrderByDate(1L)).thenReturn(List.of());
+                when(reservationService.findById(1L)).thenReturn(Optional.of(reservation));
+
+                mockMvc.perform(get("/dashboard")
+                                .with(user(principal)))
+                                .andExpect(status().isOk());
+                mockMvc.perform(post("/dashboard/reservations/1/cancel")
+                                .with(user(principal))
+                                .with(csrf()))
+                                .andExpect(flash().attributeExists("success"));
+
+                verify(reservationService).cancelReservation(1L);
+                verifyNoInteractions(userService);
+        }
+
         @Test
         void testConfirmReservationSuccess() throws Exception {
                 UserResponseDto user = UserResponseDto.builder()
@@ -1,15 +1,26 @@
 package com.online.library.controllers.views;
 
+import com.online.library.domain.enums.ImageSize;
 import com.online.library.services.FileStorageService;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -174,4 +185,132 @@ class FileControllerTest {
 
         verify(fileStorageService).loadFileAsResource("images/animated.GIF");
     }
+
+    @Test
+    void testDownloadListSizeCover() throws Exception {
+        Resource resource = new ByteArrayResource("scaled jpg content".getBytes());
+
+        when(fileStorageService.loadImageDerivative("covers/test.jpg", ImageSize.LIST)).thenReturn(resource);
+
+        mockMvc.perform(get("/uploads/covers/list/test.jpg"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(content().bytes("scaled jpg content".getBytes()));
+
+        verify(fileStorageService).loadImageDerivative("covers/test.jpg", ImageSize.LIST);
+    }
+
+    @Test
+    void testDownloadDetailSizeCover() throws Exception {
+        Resource resource = new ByteArrayResource("scaled png content".getBytes());
+
+        when(fileStorageService.loadImageDerivative("covers/image.png", ImageSize.DETAIL)).thenReturn(resource);
+
+        mockMvc.perform(get("/uploads/covers/detail/image.png"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/png"));
+    }
+
+    @Test
+    void testDownloadUnknownSizeReturns404() throws Exception {
+        mockMvc.perform(get("/uploads/covers/huge/test.jpg"))
+                .andExpect(status().isNotFound());
+
+        verify(fileStorageService, never()).loadImageDerivative(any(), any());
+    }
+
+    @Test
+    void testDownloadSetsImmutableCachingHeaders() throws Exception {
+        when(fileStorageService.loadFileAsResource("covers/test.jpg"))
+                .thenReturn(new ByteArrayResource("fake jpg content".getBytes()));
+
+        mockMvc.perform(get("/uploads/covers/test.jpg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"covers/test.jpg\""))
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"));
+    }
+
+    @Test
+    void testDownloadWithMatchingETagReturns304() throws Exception {
+        when(fileStorageService.loadFileAsResource("covers/test.jpg"))
+                .thenReturn(new ByteArrayResource("fake jpg content".getBytes()));
+
+        mockMvc.perform(get("/uploads/covers/test.jpg").header("If-None-Match", "\"covers/test.jpg\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void testDerivativeETagDiffersFromOriginal() throws Exception {
+        when(fileStorageService.loadImageDerivative("covers/test.jpg", ImageSize.LIST))
+                .thenReturn(new ByteArrayResource("scaled jpg content".getBytes()));
+
+        mockMvc.perform(get("/uploads/covers/list/test.jpg").header("If-None-Match", "\"covers/test.jpg\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"covers/list/test.jpg\""));
+    }
+
+    @Test
+    void testDownloadRangeReturnsPartialContent() throws Exception {
+        when(fileStorageService.loadFileAsResource("covers/test.pdf"))
+                .thenReturn(new ByteArrayResource("0123456789".getBytes()));
+
+        mockMvc.perform(get("/uploads/covers/test.pdf").header("Range", "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 2-5/10"))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void testLargeFileIsHandedToSendfile(@TempDir Path dir) throws Exception {
+        Path file = Files.write(dir.resolve("big.pdf"), new byte[100 * 1024]);
+        when(fileStorageService.loadFileAsResource("covers/big.pdf")).thenReturn(new FileSystemResource(file));
+
+        mockMvc.perform(get("/uploads/covers/big.pdf")
+                        .requestAttr(FileController.SENDFILE_SUPPORT, Boolean.TRUE)
+                        .header("Range", "bytes=1024-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 1024-102399/102400"))
+                .andExpect(header().longValue("Content-Length", 101376))
+                .andExpect(request().attribute(FileController.SENDFILE_FILENAME, file.toFile().getAbsolutePath()))
+                .andExpect(request().attribute(FileController.SENDFILE_START, 1024L))
+                .andExpect(request().attribute(FileController.SENDFILE_END, 102400L))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void testSmallFileIsNotHandedToSendfile(@TempDir Path dir) throws Exception {
+        Path file = Files.write(dir.resolve("small.png"), "small png".getBytes());
+        when(fileStorageService.loadFileAsResource("covers/small.png")).thenReturn(new FileSystemResource(file));
+
+        mockMvc.perform(get("/uploads/covers/small.png").requestAttr(FileController.SENDFILE_SUPPORT, Boolean.TRUE))
+                .andExpect(status().isOk())
+                .andExpect(request().attribute(FileController.SENDFILE_FILENAME, nullValue()))
+                .andExpect(content().string("small png"));
+    }
+
+    @Test
+    void testDownloadRedirectsToObjectStorage() throws Exception {
+        URI presigned = URI.create("https://bucket.example.com/covers/test.jpg?X-Amz-Signature=abc");
+        when(fileStorageService.findDownloadUrl("covers/test.jpg")).thenReturn(Optional.of(presigned));
+
+        mockMvc.perform(get("/uploads/covers/test.jpg"))
+                .andExpect(status().isFound())
+                .andExpect(header().string("Location", presigned.toString()))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+
+        verify(fileStorageService, never()).loadFileAsResource(any());
+    }
+
+    @Test
+    void testDerivativeRedirectsToObjectStorage() throws Exception {
+        URI presigned = URI.create("https://bucket.example.com/covers/list/test.jpg?X-Amz-Signature=abc");
+        when(fileStorageService.findDownloadUrl("covers/test.jpg", ImageSize.LIST)).thenReturn(Optional.of(presigned));
+
+        mockMvc.perform(get("/uploads/covers/list/test.jpg"))
+                .andExpect(status().isFound())
+                .andExpect(header().string("Location", presigned.toString()));
+
+        verify(fileStorageService, never()).loadImageDerivative(any(), any());
+    }
 }
@@ -1,6 +1,9 @@
 package com.online.library.controllers.views;
 
+import com.online.library.domain.dto.BookBrowseDto;
 import com.online.library.domain.dto.BookDto;
+import com.online.library.domain.dto.BookFacetsDto;
+import com.online.library.domain.dto.FacetValueDto;
 import com.online.library.services.BookService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,8 +17,14 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasProperty;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,13 +42,14 @@ public class HomeControllerTest {
     @Test
     public void testHomePageLoads() throws Exception {
         Page<BookDto> emptyPage = new PageImpl<>(List.of());
-        when(bookService.findAll(any(Pageable.class))).thenReturn(emptyPage);
+        when(bookService.browse(any(), any(), any(), any(Pageable.class))).thenReturn(browse());
         when(bookService.getPopularBooks(any(Pageable.class))).thenReturn(emptyPage);
 
         mockMvc.perform(get("/"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("index"))
                 .andExpect(model().attributeExists("books"))
+                .andExpect(model().attributeExists("facets"))
                 .andExpect(model().attributeExists("popularBooks"));
     }
 
@@ -47,19 +57,29 @@ public class HomeControllerTest {
     public void testHomePageWithBooks() throws Exception {
         BookDto book1 = BookDto.builder().id(1L).title("Test Book 1").build();
         BookDto book2 = BookDto.builder().id(2L).title("Test Book 2").build();
-        Page<BookDto> booksPage = new PageImpl<>(List.of(book1, book2));
         Page<BookDto> popularPage = new PageImpl<>(List.of(book1));
 
-        when(bookService.findAll(any(Pageable.class))).thenReturn(booksPage);
+        when(bookService.browse(any(), any(), any(), any(Pageable.class))).thenReturn(browse(book1, book2));
         when(bookService.getPopularBooks(any(Pageable.class))).thenReturn(popularPage);
 
         mockMvc.perform(get("/"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("index"))
-                .andExpect(model().attribute("books", booksPage))
+                .andExpect(model().attribute("books", hasProperty("content", contains(book1, book2))))
                 .andExpect(model().attribute("popularBooks", popularPage));
     }
 
+    @Test
+    public void testHomePageUsesListSizeCovers() throws Exception {
+        BookDto book = BookDto.builder().id(1L).title("Test Book").coverImagePath("covers/abc.jpg").build();
+        when(bookService.browse(any(), any(), any(), any(Pageable.class))).thenReturn(browse(book));
+        when(bookService.getPopularBooks(any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+
+        mockMvc.perform(get("/"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("src=\"/uploads/covers/list/abc.jpg\"")));
+    }
+
     @Test
     public void testHomePageWithSearchTerm() throws Exception {
         BookDto book = BookDto.builder().id(1L).title("Searched Book").build();
@@ -79,7 +99,7 @@ public class HomeControllerTest {
     @Test
     public void testHomePageWithSorting() throws Exception {
         Page<BookDto> emptyPage = new PageImpl<>(List.of());
-        when(bookService.findAll(any(Pageable.class))).thenReturn(emptyPage);
+        when(bookService.browse(any(), any(), any(), any(Pageable.class))).thenReturn(browse());
         when(bookService.getPopularBooks(any(Pageable.class))).thenReturn(emptyPage);
 
         mockMvc.perform(get("/")
@@ -90,4 +110,34 @@ public class HomeControllerTest {
                 .andExpect(model().attribute("sortField", "publishYear"))
                 .andExpect(model().attribute("sortDir", "desc"));
     }
+
+    @Test
+    public void testHomePageFiltersByFacets() throws Exception {
+        BookDto book = BookDto.builder().id(1L).title("Lalka").build();
+        BookFacetsDto facets = BookFacetsDto.builder()
+                .genres(List.of(FacetValueDto.builder().value(3L).label("Powieść").count(1).selected(true).build()))
+                .decades(List.of(FacetValueDto.builder().value(1890L).label("1890–1899").count(1).build()))
+                .build();
+        when(bookService.browse(eq(List.of(3L)), any(), any(), any(Pageable.class)))
+                .thenReturn(BookBrowseDto.builder().content(List.of(book)).totalElements(40).facets(facets).build());
+        when(bookService.getPopularBooks(any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+
+        mockMvc.perform(get("/").param("genre", "3"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("facets", facets))
+                .andExpect(content().string(containsString("id=\"genre-3\"")))
+                .andExpect(content().string(containsString("1890–1899")))
+                // The next page keeps the selection
+                .andExpect(content().string(containsString("page=1&amp;q=&amp;sort=title&amp;dir=asc&amp;genre=3&amp;")));
+
+        verify(bookService).browse(eq(List.of(3L)), isNull(), isNull(), any(Pageable.class));
+    }
+
+    private static BookBrowseDto browse(BookDto... books) {
+        return BookBrowseDto.builder()
+                .content(List.of(books))
+                .totalElements(books.length)
+                .facets(new BookFacetsDto())
+                .build();
+    }
 }
@@ -7,8 +7,11 @@ import com.online.library.domain.dto.UserStatDto;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -20,6 +23,9 @@ public class AnalyticsDaoTest {
     @Autowired
     private AnalyticsDao analyticsDao;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     public void testGetMostPopularBooksReturnsResults() {
         List<BookStatDto> result = analyticsDao.getMostPopularBooks(10);
@@ -89,4 +95,70 @@ public class AnalyticsDaoTest {
             assertThat(stat.getUsername()).isNotNull();
         }
     }
+
+    @Test
+    public void testForEachPopularBookVisitsEveryBook() {
+        List<BookStatDto> streamed = new ArrayList<>();
+
+        analyticsDao.forEachPopularBook(streamed::add);
+
+        assertThat(streamed).hasSize(4);
+        assertThat(streamed.get(0).getTitle()).isNotNull();
+    }
+
+    @Test
+    public void testForEachReadAuthorMatchesListQueryOrder() {
+        List<AuthorStatDto> streamed = new ArrayList<>();
+
+        analyticsDao.forEachReadAuthor(streamed::add);
+
+        assertThat(streamed).extracting(AuthorStatDto::getId)
+                .containsExactlyElementsOf(analyticsDao.getMostReadAuthors(streamed.size()).stream()
+                        .map(AuthorStatDto::getId).toList());
+    }
+
+    @Test
+    public void testForEachActiveUserVisitsEveryUser() {
+        List<UserStatDto> streamed = new ArrayList<>();
+
+        analyticsDao.forEachActiveUser(streamed::add);
+
+        assertThat(streamed).hasSize(3);
+    }
+
+    @Test
+    @Transactional
+    public void testReportsReflectNewReservationsOnlyAfterRefresh() {
+        long before = reservationCountOf("admin");
+        jdbcTemplate.update("INSERT INTO reservations (user_id, book_id) VALUES (1, 4)");
+
+        assertThat(reservationCountOf("admin")).isEqualTo(before);
+
+        analyticsDao.refreshRollups();
+
+        assertThat(reservationCountOf("admin")).isEqualTo(before + 1);
+        assertThat(analyticsDao.getRollupsRefreshedAt()).isPresent();
+    }
+
+    @Test
+    @Transactional
+    public void testRefreshedRollupsMatchLiveAggregates() {
+        analyticsDao.refreshRollups();
+
+        Long liveLoans = jdbcTemplate.queryForObject("""
+                SELECT COUNT(r.id) FROM book_authors ba
+                JOIN reservations r ON r.book_id = ba.book_id AND r.status IN ('WYPOŻYCZONA', 'ZWRÓCONA')
+                """, Long.class);
+        long rolledUpLoans = analyticsDao.getMostReadAuthors(1_000).stream()
+                .mapToLong(AuthorStatDto::getLoanCount).sum();
+
+        assertThat(rolledUpLoans).isEqualTo(liveLoans);
+    }
+
+    private long reservationCountOf(String username) {
+        return analyticsDao.getMostActiveUsers(1_000).stream()
+                .filter(user -> username.equals(user.getUsername()))
+                .mapToLong(UserStatDto::getReservationCount)
+                .findFirst().orElseThrow();
+    }
 }
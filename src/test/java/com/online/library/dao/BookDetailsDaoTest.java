@@ -0,0 +1,72 @@
+package com.online.library.dao;
+
+import com.online.library.config.SqlStatementCounter;
+import com.online.library.domain.dao.BookDetailsDao;
+import com.online.library.domain.dto.BookDetailsDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+public class BookDetailsDaoTest {
+
+    @Autowired
+    private BookDetailsDao bookDetailsDao;
+
+    @Test
+    public void testThatDetailsForLoggedInUserTakeTwoStatements() {
+        SqlStatementCounter.reset();
+
+        Optional<BookDetailsDto> result = bookDetailsDao.findBookDetails(1L, "test2", PageRequest.of(0, 10));
+
+        assertThat(SqlStatementCounter.current()).isEqualTo(2);
+        assertThat(result).isPresent();
+        BookDetailsDto details = result.get();
+        assertThat(details.getTitle()).isEqualTo("Harry Potter i Kamień filozoficzny");
+        assertThat(details.getAuthors()).extracting(BookDetailsDto.Author::lastName).containsExactly("Rowling");
+        assertThat(details.getGenres()).extracting(BookDetailsDto.Genre::name)
+                .containsExactlyInAnyOrder("Fantasy", "Przygodowe");
+        assertThat(details.getRatingCount()).isEqualTo(2);
+        assertThat(details.getAverageRating()).isEqualByComparingTo("4.50");
+        assertThat(details.getCommentCount()).isEqualTo(2);
+        assertThat(details.getComments().getContent()).hasSize(2);
+        assertThat(details.getComments().getTotalElements()).isEqualTo(2);
+        assertThat(details.isHasAvailableCopies()).isTrue();
+        assertThat(details.getCurrentUserId()).isEqualTo(2L);
+        assertThat(details.getUserRating()).isEqualTo(5);
+        assertThat(details.isHasActiveReservation()).isTrue();
+        assertThat(details.isCanReserve()).isFalse();
+    }
+
+    @Test
+    public void testThatDetailsForAnonymousUserHaveNoUserData() {
+        Optional<BookDetailsDto> result = bookDetailsDao.findBookDetails(4L, null, PageRequest.of(0, 10));
+
+        assertThat(result).isPresent();
+        assertThat(result.get().getCurrentUserId()).isNull();
+        assertThat(result.get().getUserRating()).isNull();
+        assertThat(result.get().isHasActiveReservation()).isFalse();
+        assertThat(result.get().isCanReserve()).isFalse();
+        assertThat(result.get().getGenres()).hasSize(3);
+    }
+
+    @Test
+    public void testThatUserWithoutReservationCanReserve() {
+        Optional<BookDetailsDto> result = bookDetailsDao.findBookDetails(4L, "test", PageRequest.of(0, 10));
+
+        assertThat(result).isPresent();
+        assertThat(result.get().isCanReserve()).isTrue();
+    }
+
+    @Test
+    public void testThatMissingBookReturnsEmpty() {
+        assertThat(bookDetailsDao.findBookDetails(999L, "test", PageRequest.of(0, 10))).isEmpty();
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -45,4 +46,12 @@ public class AuthorRepositoryTest {
         Optional<AuthorEntity> result = underTest.findById(author.getId());
         assertThat(result).isNotPresent();
     }
+
+    @Test
+    public void testThatFindExistingIdsLeavesOutUnknownIds() {
+        AuthorEntity author = TestDataUtil.createTestAuthor();
+        underTest.save(author);
+        List<Long> result = underTest.findExistingIds(List.of(author.getId(), author.getId() + 1000));
+        assertThat(result).containsExactly(author.getId());
+    }
 }
@@ -1,9 +1,11 @@
 package com.online.library.repositories;
 
+import com.online.library.config.SqlStatementCounter;
 import com.online.library.domain.entities.AuthorEntity;
 import com.online.library.domain.entities.BookEntity;
 import com.online.library.domain.entities.GenreEntity;
 import com.online.library.utils.TestDataUtil;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -13,6 +15,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -32,6 +35,35 @@ public class BookRepositoryTest {
     @Autowired
     private GenreRepository genreRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    public void testThatListingLoadsAssociationsInBoundedNumberOfStatements() {
+        AuthorEntity author = authorRepository.save(TestDataUtil.createTestAuthor());
+        GenreEntity genre = genreRepository.save(TestDataUtil.createTestGenre());
+        for (int i = 0; i < 30; i++) {
+            BookEntity book = TestDataUtil.createTestBook();
+            book.setIsbn("978-00000" + i);
+            book.setAuthors(Set.of(author));
+            book.setGenres(Set.of(genre));
+            underTest.save(book);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        SqlStatementCounter.reset();
+        Page<BookEntity> page = underTest.findAll(PageRequest.of(0, 25));
+        page.forEach(book -> {
+            book.getAuthors().size();
+            book.getGenres().size();
+        });
+
+        // page + count + one batch for authors + one batch for genres
+        assertThat(page.getContent()).hasSize(25);
+        assertThat(SqlStatementCounter.current()).isEqualTo(4L);
+    }
+
     @Test
     public void testThatBookCanBeCreatedAndRecalled() {
         BookEntity bookEntity = TestDataUtil.createTestBook();
@@ -88,6 +120,39 @@ public class BookRepositoryTest {
         assertThat(resultByGenre.getContent().get(0).getTitle()).isEqualTo("Java Programming");
     }
 
+    @Test
+    public void testThatFindByFacetsCombinesGenreAuthorAndDecade() {
+        AuthorEntity author = authorRepository.save(TestDataUtil.createTestAuthor());
+        GenreEntity genre = genreRepository.save(TestDataUtil.createTestGenre());
+
+        BookEntity book1 = TestDataUtil.createTestBook();
+        book1.setTitle("Java Programming");
+        book1.setPublishYear(2004);
+        book1.setAuthors(Set.of(author));
+        book1.setGenres(Set.of(genre));
+        underTest.save(book1);
+
+        BookEntity book2 = TestDataUtil.createTestBook();
+        book2.setTitle("Spring in Action");
+        book2.setIsbn("1234567890");
+        book2.setPublishYear(2011);
+        book2.setGenres(Set.of(genre));
+        underTest.save(book2);
+
+        Page<BookEntity> byGenre = underTest.findByFacets(true, List.of(genre.getId()), false, List.of(-1L),
+                false, List.of(-1), PageRequest.of(0, 10));
+        assertThat(byGenre.getContent()).hasSize(2);
+
+        Page<BookEntity> byGenreAndDecade = underTest.findByFacets(true, List.of(genre.getId()), false, List.of(-1L),
+                true, List.of(2010), PageRequest.of(0, 10));
+        assertThat(byGenreAndDecade.getContent()).extracting(BookEntity::getTitle).containsExactly("Spring in Action");
+
+        Page<BookEntity> byAuthor = underTest.findByFacets(false, List.of(-1L), true, List.of(author.getId()),
+                true, List.of(2000, 2010), PageRequest.of(0, 10));
+        assertThat(byAuthor.getContent()).extracting(BookEntity::getTitle).containsExactly("Java Programming");
+        assertThat(byAuthor.getTotalElements()).isEqualTo(1);
+    }
+
     @Test
     public void testThatFindAllByOrderByAverageRatingDescReturnsSortedBooks() {
         BookEntity book1 = TestDataUtil.createTestBook();
@@ -117,4 +182,26 @@ public class BookRepositoryTest {
         assertThat(index2).isGreaterThan(-1);
         assertThat(index2).isLessThan(index1);
     }
+
+    @Test
+    public void testThatApplyRatingDeltaMaintainsRunningAverage() {
+        BookEntity book = underTest.save(TestDataUtil.createTestBook());
+
+        underTest.applyRatingDelta(book.getId(), 5, 1);
+        underTest.applyRatingDelta(book.getId(), 4, 1);
+        underTest.applyRatingDelta(book.getId(), 3, 1);
+        underTest.applyRatingDelta(book.getId(), -1, 0);
+        entityManager.clear();
+
+        assertThat(underTest.findRatingCountById(book.getId())).contains(3L);
+        assertThat(underTest.findAverageRatingById(book.getId()))
+                .hasValueSatisfying(average -> assertThat(average).isEqualByComparingTo("3.67"));
+
+        underTest.applyRatingDelta(book.getId(), -11, -3);
+        entityManager.clear();
+
+        assertThat(underTest.findRatingCountById(book.getId())).contains(0L);
+        assertThat(underTest.findAverageRatingById(book.getId()))
+                .hasValueSatisfying(average -> assertThat(average).isEqualByComparingTo("0"));
+    }
 }
@@ -4,16 +4,22 @@ import com.online.library.domain.entities.BookEntity;
 import com.online.library.domain.entities.CommentEntity;
 import com.online.library.domain.entities.UserEntity;
 import com.online.library.utils.TestDataUtil;
+import jakarta.persistence.PersistenceException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 public class CommentRepositoryTest {
@@ -27,6 +33,9 @@ public class CommentRepositoryTest {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     @Test
     public void testThatCommentCanBeCreatedAndRecalled() {
         UserEntity user = TestDataUtil.createTestUser();
@@ -138,4 +147,52 @@ public class CommentRepositoryTest {
         Long result = underTest.countByBookId(book.getId());
         assertThat(result).isEqualTo(2L);
     }
+
+    @Test
+    public void testThatKeysetPagesWalkAllCommentsWithoutGapsWhenTimestampsTie() {
+        UserEntity user = TestDataUtil.createTestUser();
+        userRepository.save(user);
+        BookEntity book = TestDataUtil.createTestBook();
+        bookRepository.save(book);
+        for (int i = 0; i < 5; i++) {
+            underTest.save(CommentEntity.builder().user(user).book(book).content("Komentarz " + i).build());
+        }
+        underTest.flush();
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE comments SET created_at = TIMESTAMP '2025-01-01 10:00:00'")
+                .executeUpdate();
+        entityManager.clear();
+
+        List<Long> walked = new ArrayList<>();
+        List<CommentEntity> page = underTest.findAllByOrderByCreatedAtDescIdDesc(Limit.of(2));
+        while (!page.isEmpty()) {
+            page.forEach(comment -> walked.add(comment.getId()));
+            CommentEntity last = page.get(page.size() - 1);
+            page = underTest.findOlderThan(last.getCreatedAt(), last.getId(), Limit.of(2));
+        }
+
+        List<Long> allIds = underTest.findAll().stream().map(CommentEntity::getId)
+                .sorted(Comparator.reverseOrder()).toList();
+        assertThat(walked).containsExactlyElementsOf(allIds);
+    }
+
+    @Test
+    public void testThatKeysetBoundaryRowCannotLoseItsTimestamp() {
+        UserEntity user = TestDataUtil.createTestUser();
+        userRepository.save(user);
+        BookEntity book = TestDataUtil.createTestBook();
+        bookRepository.save(book);
+        for (int i = 0; i < 3; i++) {
+            underTest.save(CommentEntity.builder().user(user).book(book).content("Komentarz " + i).build());
+        }
+        underTest.flush();
+        CommentEntity boundary = underTest.findAllByOrderByCreatedAtDescIdDesc(Limit.of(2)).get(1);
+
+        // A NULL created_at could not be put in a cursor nor matched by findOlderThan, so the column refuses it
+        assertThatThrownBy(() -> entityManager.getEntityManager()
+                .createNativeQuery("UPDATE comments SET created_at = NULL WHERE id = :id")
+                .setParameter("id", boundary.getId())
+                .executeUpdate())
+                .isInstanceOf(PersistenceException.class);
+    }
 }
@@ -0,0 +1,192 @@
+package com.online.library.repositories;
+
+import com.online.library.domain.entities.BookEntity;
+import com.online.library.domain.entities.UserEntity;
+import com.online.library.domain.enums.ReservationStatus;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs EXPLAIN for the SQL behind each hot repository finder and fails when H2 plans a full table scan.
+// H2 indexes foreign keys on its own, so this mainly guards the composite and non-FK indexes of the V3 and V6
+// migrations.
+// searchBooks is left out: its LIKE '%term%' predicates rely on the PostgreSQL-only trigram indexes.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.online.library.repositories.RepositoryQueryPlanTest$RecordingStatementInspector")
+public class RepositoryQueryPlanTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private BookEntity book;
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        book = bookRepository.findById(1L).orElseThrow();
+        user = userRepository.findById(2L).orElseThrow();
+    }
+
+    @Test
+    public void testThatHotRepositoryQueriesUseIndexes() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("BookRepository.findByIsbn", () -> bookRepository.findByIsbn("978-83-00000-00-0"));
+        queries.put("BookRepository.findByIdIn", () -> bookRepository.findByIdIn(List.of(1L, 2L), PageRequest.of(0, 10)));
+        queries.put("BookRepository.findAverageRatingById", () -> bookRepository.findAverageRatingById(1L));
+        queries.put("BookRepository.findRatingCountById", () -> bookRepository.findRatingCountById(1L));
+        queries.put("BookRepository.findAvailabilityById",
+                () -> bookRepository.findAvailabilityById(1L, ReservationStatus.WYPOŻYCZONA));
+        queries.put("BookRepository.findByIdGreaterThanOrderByIdAsc",
+                () -> bookRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(10)));
+        queries.put("BookRepository.countByCoverImagePath",
+                () -> bookRepository.countByCoverImagePath("covers/abc.jpg"));
+        queries.put("BookRepository.findCoverImagePathById", () -> bookRepository.findCoverImagePathById(1L));
+        queries.put("BookRepository.findAllCoverImagePaths", () -> bookRepository.findAllCoverImagePaths());
+        queries.put("AuthorRepository.findByIdGreaterThanOrderByIdAsc",
+                () -> authorRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(10)));
+        queries.put("GenreRepository.findByName", () -> genreRepository.findByName("Fantasy"));
+        queries.put("UserRepository.findByUsername", () -> userRepository.findByUsername("test"));
+        queries.put("UserRepository.findByEmail", () -> userRepository.findByEmail("test@example.com"));
+        queries.put("ReservationRepository.findByUserId", () -> reservationRepository.findByUserId(2L));
+        queries.put("ReservationRepository.findByUserIdOrderByReservedAtDesc",
+                () -> reservationRepository.findByUserIdOrderByReservedAtDesc(2L));
+        queries.put("ReservationRepository.findByBookId", () -> reservationRepository.findByBookId(1L));
+        queries.put("ReservationRepository.findByStatus",
+                () -> reservationRepository.findByStatus(ReservationStatus.OCZEKUJĄCA));
+        queries.put("ReservationRepository.countByBookIdAndStatus",
+                () -> reservationRepository.countByBookIdAndStatus(1L, ReservationStatus.WYPOŻYCZONA));
+        queries.put("ReservationRepository.findByUserIdAndBookIdAndStatusIsActive",
+                () -> reservationRepository.findByUserIdAndBookIdAndStatusIsActive(2L, 1L));
+        queries.put("ReservationRepository.findOlderThan",
+                () -> reservationRepository.findOlderThan(now, 10L, Limit.of(10)));
+        queries.put("RatingRepository.findByBookId", () -> ratingRepository.findByBookId(1L));
+        queries.put("RatingRepository.findByUserId", () -> ratingRepository.findByUserId(2L));
+        queries.put("RatingRepository.findByUserAndBook", () -> ratingRepository.findByUserAndBook(user, book));
+        queries.put("RatingRepository.existsByUserAndBook", () -> ratingRepository.existsByUserAndBook(user, book));
+        queries.put("RatingRepository.calculateAverageRatingByBookId",
+                () -> ratingRepository.calculateAverageRatingByBookId(1L));
+        queries.put("RatingRepository.countRatingsByBookId", () -> ratingRepository.countRatingsByBookId(1L));
+        queries.put("RatingRepository.findRatedBookIdsByUserId", () -> ratingRepository.findRatedBookIdsByUserId(2L));
+        queries.put("CommentRepository.findByBookIdOrderByCreatedAtDesc",
+                () -> commentRepository.findByBookIdOrderByCreatedAtDesc(1L, PageRequest.of(0, 10)));
+        queries.put("CommentRepository.findByUserId", () -> commentRepository.findByUserId(2L));
+        queries.put("CommentRepository.countByBookId", () -> commentRepository.countByBookId(1L));
+        queries.put("CommentRepository.findOlderThan",
+                () -> commentRepository.findOlderThan(now, 10L, Limit.of(10)));
+
+        List<String> unrecorded = new ArrayList<>();
+        List<String> tableScans = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            RecordingStatementInspector.STATEMENTS.clear();
+            query.run();
+            List<String> selects = RecordingStatementInspector.STATEMENTS.stream()
+                    .filter(sql -> sql.stripLeading().toLowerCase().startsWith("select"))
+                    .toList();
+            if (selects.isEmpty()) {
+                unrecorded.add(name);
+            }
+            for (String sql : selects) {
+                String plan = explain(sql);
+                if (isTableScan(plan)) {
+                    tableScans.add(name + ":\n" + plan);
+                }
+            }
+        });
+
+        assertThat(unrecorded).as("queries that issued no SQL").isEmpty();
+        assertThat(tableScans).as("queries planned as a full table scan").isEmpty();
+    }
+
+    // Unfiltered ORDER BY ... LIMIT finders: a scan here is expected, so instead check that the rows come off the
+    // intended index in order rather than being sorted.
+    @Test
+    public void testThatOrderedFindersReadTheirIndexInOrder() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("idx_books_average_rating",
+                () -> bookRepository.findAllByOrderByAverageRatingDesc(PageRequest.of(0, 10)));
+        queries.put("idx_comments_created_at_id",
+                () -> commentRepository.findAllByOrderByCreatedAtDescIdDesc(Limit.of(10)));
+        queries.put("idx_reservations_reserved_at_id",
+                () -> reservationRepository.findAllByOrderByReservedAtDescIdDesc(Limit.of(10)));
+
+        List<String> unsorted = new ArrayList<>();
+        queries.forEach((index, query) -> {
+            RecordingStatementInspector.STATEMENTS.clear();
+            query.run();
+            // The first select is the page itself; a Page finder follows it with its count query
+            String plan = RecordingStatementInspector.STATEMENTS.stream()
+                    .filter(sql -> sql.stripLeading().toLowerCase().startsWith("select"))
+                    .findFirst().map(this::explain).orElse(null);
+            if (plan == null || !plan.toLowerCase().contains("/* public." + index + " */")
+                    || !plan.toLowerCase().contains("/* index sorted */")) {
+                unsorted.add(index + ":\n" + plan);
+            }
+        });
+
+        assertThat(unsorted).as("ordered finders not read in order from their index").isEmpty();
+    }
+
+    @Test
+    public void testThatUnindexedPredicateIsReportedAsTableScan() {
+        String plan = explain("SELECT id FROM books WHERE publisher = ?");
+
+        assertThat(isTableScan(plan)).isTrue();
+    }
+
+    // Prepared, so the bind markers stay unset parameters instead of failing to parse.
+    private String explain(String sql) {
+        return jdbcTemplate.query(connection -> connection.prepareStatement("EXPLAIN " + sql),
+                rs -> rs.next() ? rs.getString(1) : null);
+    }
+
+    private static boolean isTableScan(String plan) {
+        return plan != null && plan.toLowerCase().contains(".tablescan");
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
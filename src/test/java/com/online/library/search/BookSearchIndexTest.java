@@ -0,0 +1,90 @@
+package com.online.library.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookSearchIndexTest {
+
+    private BookSearchIndex underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new BookSearchIndex();
+        underTest.rebuild(consumer -> {
+            consumer.accept(new SearchDocument(1L, "Pan Tadeusz", "Ostatni zajazd na Litwie",
+                    List.of("Adam Mickiewicz"), List.of("Epopeja")));
+            consumer.accept(new SearchDocument(2L, "Książka o lesie", "Przyroda",
+                    List.of("Jan Kowalski"), List.of("Popularnonaukowa")));
+            consumer.accept(new SearchDocument(3L, "Dziady", "Dramat, w którym pojawia się książka",
+                    List.of("Adam Mickiewicz"), List.of("Dramat")));
+        });
+    }
+
+    @Test
+    public void testThatIndexIsReadyAfterRebuild() {
+        assertThat(underTest.isReady()).isTrue();
+        assertThat(underTest.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void testThatSearchIgnoresDiacriticsAndCase() {
+        assertThat(underTest.search("KSIAZKA")).containsExactly(2L, 3L);
+        assertThat(underTest.search("łódź")).isEmpty();
+    }
+
+    @Test
+    public void testThatSearchMatchesPrefixes() {
+        assertThat(underTest.search("mick")).containsExactly(1L, 3L);
+        assertThat(underTest.search("tad")).containsExactly(1L);
+    }
+
+    @Test
+    public void testThatAllQueryTokensMustMatch() {
+        assertThat(underTest.search("mickiewicz dramat")).containsExactly(3L);
+        assertThat(underTest.search("mickiewicz przyroda")).isEmpty();
+    }
+
+    @Test
+    public void testThatTitleMatchesRankAboveDescriptionMatches() {
+        assertThat(underTest.search("ksiazka").get(0)).isEqualTo(2L);
+    }
+
+    @Test
+    public void testThatIndexIsUpdatedIncrementally() {
+        underTest.index(new SearchDocument(2L, "Wiersze", null, List.of("Jan Kowalski"), List.of()));
+        underTest.index(new SearchDocument(4L, "Lalka", null, List.of("Bolesław Prus"), List.of("Powieść")));
+
+        assertThat(underTest.search("ksiazka")).containsExactly(3L);
+        assertThat(underTest.search("wiersze")).containsExactly(2L);
+        assertThat(underTest.search("boleslaw")).containsExactly(4L);
+
+        underTest.remove(1L);
+
+        assertThat(underTest.search("tadeusz")).isEmpty();
+        assertThat(underTest.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void testThatChangesMadeDuringRebuildSurviveTheSwap() {
+        underTest.rebuild(consumer -> {
+            consumer.accept(new SearchDocument(1L, "Pan Tadeusz", null, List.of("Adam Mickiewicz"), List.of()));
+            // Committed while the rebuild is still reading: one new book, one the source had already passed
+            underTest.index(new SearchDocument(4L, "Lalka", null, List.of("Bolesław Prus"), List.of()));
+            underTest.remove(1L);
+            consumer.accept(new SearchDocument(3L, "Dziady", null, List.of("Adam Mickiewicz"), List.of()));
+        });
+
+        assertThat(underTest.search("lalka")).containsExactly(4L);
+        assertThat(underTest.search("mickiewicz")).containsExactly(3L);
+        assertThat(underTest.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testThatBlankQueryReturnsNothing() {
+        assertThat(underTest.search("  ,. ")).isEmpty();
+    }
+}
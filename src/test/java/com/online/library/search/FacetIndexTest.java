@@ -0,0 +1,175 @@
+package com.online.library.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class FacetIndexTest {
+
+    private static final long NOVEL = 1L;
+    private static final long POETRY = 2L;
+    private static final long DRAMA = 3L;
+    private static final long PRUS = 10L;
+    private static final long MICKIEWICZ = 11L;
+    private static final long SLOWACKI = 12L;
+
+    private FacetIndex underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new FacetIndex();
+        underTest.rebuild(consumer -> {
+            consumer.accept(new FacetDocument(1L, 1890, List.of(PRUS), List.of(NOVEL)));
+            consumer.accept(new FacetDocument(2L, 1894, List.of(PRUS), List.of(NOVEL)));
+            consumer.accept(new FacetDocument(3L, 1834, List.of(MICKIEWICZ), List.of(POETRY)));
+            consumer.accept(new FacetDocument(4L, 1832, List.of(MICKIEWICZ), List.of(POETRY, DRAMA)));
+            consumer.accept(new FacetDocument(5L, 1834, List.of(SLOWACKI), List.of(DRAMA)));
+            consumer.accept(new FacetDocument(6L, null, List.of(), List.of()));
+        });
+    }
+
+    @Test
+    public void testThatEmptyFilterMatchesEveryBook() {
+        FacetResult result = underTest.query(FacetFilter.NONE, 20);
+
+        assertThat(underTest.isReady()).isTrue();
+        assertThat(result.total()).isEqualTo(6);
+        assertThat(result.ids()).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+        assertThat(result.genreCounts()).containsExactly(entry(NOVEL, 2), entry(POETRY, 2), entry(DRAMA, 2));
+        assertThat(result.decadeCounts()).containsOnly(entry(1830, 3), entry(1890, 2));
+    }
+
+    @Test
+    public void testThatValuesOfOneFacetAreUnitedAndFacetsIntersected() {
+        FacetFilter genres = new FacetFilter(Set.of(POETRY, DRAMA), Set.of(), Set.of());
+        FacetFilter genresAndAuthor = new FacetFilter(Set.of(POETRY, DRAMA), Set.of(SLOWACKI), Set.of());
+
+        assertThat(underTest.query(genres, 20).ids()).containsExactly(3L, 4L, 5L);
+        assertThat(underTest.query(genresAndAuthor, 20).ids()).containsExactly(5L);
+    }
+
+    @Test
+    public void testThatAnyYearSelectsItsDecade() {
+        FacetFilter filter = new FacetFilter(Set.of(), Set.of(), Set.of(1836));
+
+        assertThat(filter.decades()).containsExactly(1830);
+        assertThat(underTest.query(filter, 20).ids()).containsExactly(3L, 4L, 5L);
+    }
+
+    @Test
+    public void testThatCountsIgnoreTheirOwnFacetSelection() {
+        FacetResult result = underTest.query(new FacetFilter(Set.of(DRAMA), Set.of(), Set.of()), 20);
+
+        // Other genres stay selectable with the counts they would have on their own
+        assertThat(result.genreCounts()).containsOnly(entry(DRAMA, 2), entry(NOVEL, 2), entry(POETRY, 2));
+        // The other facets are narrowed to the dramas
+        assertThat(result.authorCounts()).containsOnly(entry(MICKIEWICZ, 1), entry(SLOWACKI, 1));
+        assertThat(result.decadeCounts()).containsOnly(entry(1830, 2));
+    }
+
+    @Test
+    public void testThatSelectedValueWithoutBooksMatchesNothing() {
+        FacetResult result = underTest.query(new FacetFilter(Set.of(99L), Set.of(), Set.of()), 20);
+
+        assertThat(result.total()).isZero();
+        assertThat(result.ids()).isEmpty();
+        assertThat(result.genreCounts()).containsEntry(99L, 0);
+    }
+
+    @Test
+    public void testThatAuthorCountsAreLimitedButKeepSelection() {
+        FacetResult result = underTest.query(new FacetFilter(Set.of(), Set.of(SLOWACKI), Set.of()), 1);
+
+        assertThat(result.authorCounts()).containsExactly(entry(PRUS, 2), entry(SLOWACKI, 1));
+        assertThat(underTest.query(FacetFilter.NONE, 1).authorCounts()).containsOnlyKeys(PRUS);
+    }
+
+    @Test
+    public void testThatIndexIsUpdatedIncrementally() {
+        underTest.index(new FacetDocument(5L, 1901, List.of(PRUS), List.of(NOVEL)));
+        underTest.remove(3L);
+
+        FacetResult result = underTest.query(FacetFilter.NONE, 20);
+        assertThat(result.ids()).containsExactly(1L, 2L, 4L, 5L, 6L);
+        assertThat(result.authorCounts()).containsOnly(entry(PRUS, 3), entry(MICKIEWICZ, 1));
+        assertThat(result.decadeCounts()).containsOnly(entry(1830, 1), entry(1890, 2), entry(1900, 1));
+        assertThat(underTest.query(new FacetFilter(Set.of(), Set.of(SLOWACKI), Set.of()), 20).total()).isZero();
+    }
+
+    @Test
+    public void testThatChangesMadeDuringRebuildSurviveTheSwap() {
+        underTest.rebuild(consumer -> {
+            consumer.accept(new FacetDocument(1L, 1890, List.of(PRUS), List.of(NOVEL)));
+            // Committed while the rebuild is still reading: one new book, one the source had already passed
+            underTest.index(new FacetDocument(7L, 1901, List.of(PRUS), List.of(NOVEL)));
+            underTest.remove(1L);
+            consumer.accept(new FacetDocument(3L, 1834, List.of(MICKIEWICZ), List.of(POETRY)));
+        });
+
+        FacetResult result = underTest.query(FacetFilter.NONE, 20);
+        assertThat(result.ids()).containsExactly(3L, 7L);
+        assertThat(result.authorCounts()).containsOnly(entry(PRUS, 1), entry(MICKIEWICZ, 1));
+    }
+
+    @Test
+    public void testThatPagesAreCutFromTheMatches() {
+        FacetResult result = underTest.query(FacetFilter.NONE, 20);
+
+        assertThat(result.ids(0, 2)).containsExactly(1L, 2L);
+        assertThat(result.ids(4, 2)).containsExactly(5L, 6L);
+        assertThat(result.ids(5, 10)).containsExactly(6L);
+        assertThat(result.ids(6, 2)).isEmpty();
+    }
+
+    @Test
+    public void testThatCountsMatchFullScan() {
+        // Given - many authors, so they are tallied book by book, and few genres, which are intersected
+        Random random = new Random(11);
+        List<FacetDocument> books = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            books.add(new FacetDocument(id, 1900 + random.nextInt(120),
+                    List.of((long) random.nextInt(500), (long) random.nextInt(500)),
+                    List.of((long) random.nextInt(8))));
+        }
+        underTest.rebuild(consumer -> books.forEach(consumer));
+
+        for (FacetFilter filter : List.of(
+                FacetFilter.NONE,
+                new FacetFilter(Set.of(1L), Set.of(), Set.of()),
+                new FacetFilter(Set.of(2L, 3L), Set.of(), Set.of(1950, 1960)),
+                new FacetFilter(Set.of(), Set.of(7L), Set.of()))) {
+            // When
+            FacetResult result = underTest.query(filter, Integer.MAX_VALUE);
+
+            // Then
+            assertThat(result.ids()).as("%s", filter)
+                    .containsExactlyElementsOf(books.stream()
+                            .filter(book -> matches(book, filter, true, true, true))
+                            .map(FacetDocument::id).toList());
+            assertThat(result.authorCounts()).as("%s", filter)
+                    .containsAllEntriesOf(books.stream()
+                            .filter(book -> matches(book, filter, true, false, true))
+                            .flatMap(book -> book.authorIds().stream().distinct())
+                            .collect(Collectors.toMap(author -> author, author -> 1, Integer::sum)));
+            assertThat(result.genreCounts()).as("%s", filter)
+                    .containsAllEntriesOf(books.stream()
+                            .filter(book -> matches(book, filter, false, true, true))
+                            .flatMap(book -> book.genreIds().stream())
+                            .collect(Collectors.toMap(genre -> genre, genre -> 1, Integer::sum)));
+        }
+    }
+
+    private static boolean matches(FacetDocument book, FacetFilter filter,
+                                   boolean genres, boolean authors, boolean decades) {
+        return (!genres || filter.genreIds().isEmpty() || book.genreIds().stream().anyMatch(filter.genreIds()::contains))
+                && (!authors || filter.authorIds().isEmpty()
+                || book.authorIds().stream().anyMatch(filter.authorIds()::contains))
+                && (!decades || filter.decades().isEmpty()
+                || filter.decades().contains(FacetFilter.decade(book.publishYear())));
+    }
+}
@@ -0,0 +1,152 @@
+package com.online.library.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SuggestionIndexTest {
+
+    private SuggestionIndex underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new SuggestionIndex();
+        underTest.rebuild(consumer -> {
+            consumer.accept(Suggestion.book(1L, "Pan Tadeusz", 4.5f));
+            consumer.accept(Suggestion.book(2L, "Pan Wołodyjowski", 4.8f));
+            consumer.accept(Suggestion.book(3L, "Panny z Wilka", 3.9f));
+            consumer.accept(Suggestion.book(4L, "Lalka", 4.2f));
+            consumer.accept(Suggestion.author(10L, "Adam", "Mickiewicz", 4.5f));
+            consumer.accept(Suggestion.author(11L, "Henryk", "Sienkiewicz", 4.8f));
+        });
+    }
+
+    @Test
+    public void testThatIndexIsReadyAfterRebuild() {
+        assertThat(underTest.isReady()).isTrue();
+        assertThat(underTest.size()).isEqualTo(6);
+    }
+
+    @Test
+    public void testThatSuggestionsAreRankedByRating() {
+        assertThat(underTest.suggest("pan", 10))
+                .extracting(Suggestion::id)
+                .containsExactly(2L, 1L, 3L);
+        assertThat(underTest.suggest("pan", 2))
+                .extracting(Suggestion::id)
+                .containsExactly(2L, 1L);
+    }
+
+    @Test
+    public void testThatPrefixIsNormalized() {
+        assertThat(underTest.suggest("PAN WOŁ", 10)).extracting(Suggestion::id).containsExactly(2L);
+        assertThat(underTest.suggest("pan  wol", 10)).extracting(Suggestion::id).containsExactly(2L);
+        assertThat(underTest.suggest("pan t", 10)).extracting(Suggestion::id).containsExactly(1L);
+        assertThat(underTest.suggest("   ", 10)).isEmpty();
+        assertThat(underTest.suggest("xyz", 10)).isEmpty();
+    }
+
+    @Test
+    public void testThatAuthorsAreFoundByFullAndLastName() {
+        assertThat(underTest.suggest("mick", 10))
+                .singleElement()
+                .satisfies(suggestion -> {
+                    assertThat(suggestion.type()).isEqualTo(Suggestion.Type.AUTHOR);
+                    assertThat(suggestion.text()).isEqualTo("Adam Mickiewicz");
+                });
+        assertThat(underTest.suggest("adam m", 10)).extracting(Suggestion::id).containsExactly(10L);
+    }
+
+    @Test
+    public void testThatIndexIsUpdatedIncrementally() {
+        underTest.put(Suggestion.book(1L, "Dziady", 4.5f));
+        underTest.remove(Suggestion.Type.BOOK, 2L);
+        underTest.put(Suggestion.book(5L, "Pan Samochodzik", 3.0f));
+
+        assertThat(underTest.suggest("pan", 10)).extracting(Suggestion::id).containsExactly(3L, 5L);
+        assertThat(underTest.suggest("dzia", 10)).extracting(Suggestion::id).containsExactly(1L);
+        assertThat(underTest.size()).isEqualTo(6);
+    }
+
+    @Test
+    public void testThatChangesMadeDuringRebuildSurviveTheSwap() {
+        underTest.rebuild(consumer -> {
+            consumer.accept(Suggestion.book(1L, "Pan Tadeusz", 4.5f));
+            // Committed while the rebuild is still reading: one new book, one the source had already passed
+            underTest.put(Suggestion.book(5L, "Pan Samochodzik", 3.0f));
+            underTest.remove(Suggestion.Type.BOOK, 1L);
+            consumer.accept(Suggestion.book(2L, "Pan Wołodyjowski", 4.8f));
+        });
+
+        assertThat(underTest.suggest("pan", 10)).extracting(Suggestion::id).containsExactly(2L, 5L);
+        assertThat(underTest.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testThatRefreshReordersByNewRating() {
+        underTest.refresh(Suggestion.book(3L, "Panny z Wilka", 5.0f));
+
+        assertThat(underTest.suggest("pan", 1)).extracting(Suggestion::id).containsExactly(3L);
+    }
+
+    @Test
+    public void testThatRemovalKeepsTrieCompressed() {
+        int nodes = underTest.nodeCount();
+
+        underTest.put(Suggestion.book(6L, "Pan Tadeusz wydanie drugie", 1.0f));
+        underTest.remove(Suggestion.Type.BOOK, 6L);
+
+        assertThat(underTest.nodeCount()).isEqualTo(nodes);
+        assertThat(underTest.suggest("pan tadeusz", 10)).extracting(Suggestion::id).containsExactly(1L);
+    }
+
+    @Test
+    public void testThatStaleRatingsAreDrainedOnce() {
+        underTest.markRatingStale(1L);
+        underTest.markRatingStale(1L);
+        underTest.markRatingStale(2L);
+
+        assertThat(underTest.drainStaleRatings()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(underTest.drainStaleRatings()).isEmpty();
+    }
+
+    @Test
+    public void testThatTopSuggestionsMatchFullScan() {
+        // Given - random titles over a small alphabet, so prefixes are shared heavily
+        Random random = new Random(7);
+        List<Suggestion> books = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            StringBuilder title = new StringBuilder();
+            int length = 3 + random.nextInt(10);
+            for (int i = 0; i < length; i++) {
+                title.append(random.nextInt(6) == 0 ? ' ' : (char) ('a' + random.nextInt(4)));
+            }
+            books.add(Suggestion.book(id, title.toString(), random.nextInt(500) / 100.0f));
+        }
+        underTest.rebuild(consumer -> books.forEach(consumer));
+        for (int i = 0; i < 300; i++) {
+            underTest.remove(Suggestion.Type.BOOK, books.get(i).id());
+        }
+        List<Suggestion> remaining = books.subList(300, books.size());
+
+        // When/Then
+        for (String prefix : List.of("a", "ab", "abc", "b a", "dd", "cab")) {
+            List<Float> expected = remaining.stream()
+                    .filter(book -> SuggestionIndex.key(book.text()).startsWith(prefix))
+                    .map(Suggestion::rating)
+                    .sorted(Comparator.reverseOrder())
+                    .limit(10)
+                    .toList();
+            assertThat(underTest.suggest(prefix, 10))
+                    .as("prefix '%s'", prefix)
+                    .extracting(Suggestion::rating)
+                    .containsExactlyElementsOf(expected);
+        }
+    }
+}
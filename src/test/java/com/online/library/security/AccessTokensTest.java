@@ -0,0 +1,165 @@
+package com.online.library.security;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AccessTokensTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private static final Duration TTL = Duration.ofMinutes(15);
+    private static final Instant NOW = Instant.parse("2026-03-01T12:00:00Z");
+
+    private final TokenRevocationList revocationList = new TokenRevocationList(TTL, Clock.fixed(NOW, ZoneOffset.UTC));
+    private final AccessTokens underTest = tokens(SECRET, NOW);
+
+    @Test
+    void testIssuedTokenVerifies() {
+        // When
+        AccessToken issued = underTest.issue("admin", List.of("ROLE_ADMIN"));
+
+        // Then
+        assertThat(underTest.verify(issued.value())).get().satisfies(token -> {
+            assertThat(token.username()).isEqualTo("admin");
+            assertThat(token.authorities()).containsExactly("ROLE_ADMIN");
+            assertThat(token.id()).isEqualTo(issued.id());
+            assertThat(token.expiresAt()).isEqualTo(NOW.plus(TTL));
+        });
+    }
+
+    @Test
+    void testTamperedClaimsAreRejected() {
+        // Given - same signature, claims swapped for a role the user does not have
+        AccessToken issued = underTest.issue("user", List.of("ROLE_USER"));
+        String[] parts = issued.value().split("\\.");
+        String claims = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("ROLE_USER", "ROLE_ADMIN");
+        String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+
+        // When/Then
+        assertThat(underTest.verify(forged)).isEmpty();
+    }
+
+    @Test
+    void testTokenSignedWithOtherKeyIsRejected() {
+        // Given
+        byte[] otherSecret = "fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.UTF_8);
+        AccessToken issued = tokens(otherSecret, NOW).issue("admin", List.of("ROLE_ADMIN"));
+
+        // When/Then
+        assertThat(underTest.verify(issued.value())).isEmpty();
+    }
+
+    @Test
+    void testExpiredTokenIsRejected() {
+        // Given
+        AccessToken issued = underTest.issue("admin", List.of("ROLE_ADMIN"));
+
+        // When/Then
+        assertThat(tokens(SECRET, NOW.plus(TTL).minusSeconds(1)).verify(issued.value())).isPresent();
+        assertThat(tokens(SECRET, NOW.plus(TTL)).verify(issued.value())).isEmpty();
+    }
+
+    @Test
+    void testRevokedTokenIsRejected() {
+        // Given
+        AccessToken revoked = underTest.issue("admin", List.of("ROLE_ADMIN"));
+        AccessToken other = underTest.issue("admin", List.of("ROLE_ADMIN"));
+
+        // When
+        underTest.revoke(revoked);
+
+        // Then
+        assertThat(underTest.verify(revoked.value())).isEmpty();
+        assertThat(underTest.verify(other.value())).isPresent();
+    }
+
+    @Test
+    void testRevokingUserRejectsTokensIssuedBefore() {
+        // Given
+        AccessToken before = tokens(SECRET, NOW.minusSeconds(1)).issue("admin", List.of("ROLE_ADMIN"));
+        AccessToken otherUser = tokens(SECRET, NOW.minusSeconds(1)).issue("other", List.of("ROLE_ADMIN"));
+
+        // When
+        revocationList.revokeUser("admin");
+
+        // Then
+        assertThat(underTest.verify(before.value())).isEmpty();
+        assertThat(underTest.verify(otherUser.value())).isPresent();
+        AccessToken after = tokens(SECRET, NOW.plusSeconds(1)).issue("admin", List.of("ROLE_ADMIN"));
+        assertThat(tokens(SECRET, NOW.plusSeconds(1)).verify(after.value())).isPresent();
+    }
+
+    @Test
+    void testTokenIssuedInSameSecondAsUserRevocationIsAccepted() {
+        // Given - revoked part way through a second; iat only has whole seconds
+        TokenRevocationList list = new TokenRevocationList(TTL, Clock.fixed(NOW.plusMillis(400), ZoneOffset.UTC));
+
+        // When
+        list.revokeUser("admin");
+
+        // Then
+        assertThat(list.isRevoked("fresh", "admin", NOW)).isFalse();
+        assertThat(list.isRevoked("stale", "admin", NOW.minusSeconds(1))).isTrue();
+    }
+
+    @Test
+    void testLockingOutUserAlsoRejectsTokenIssuedInSameSecond() {
+        // Given
+        TokenRevocationList list = new TokenRevocationList(TTL, Clock.fixed(NOW.plusMillis(400), ZoneOffset.UTC));
+        list.lockOutUser("admin");
+
+        // When
+        list.revokeUser("admin");
+
+        // Then - the later password-change cutoff does not shorten the lock-out
+        assertThat(list.isRevoked("same-second", "admin", NOW)).isTrue();
+        assertThat(list.isRevoked("next-second", "admin", NOW.plusSeconds(1))).isFalse();
+    }
+
+    @Test
+    void testMalformedTokensAreRejected() {
+        assertThat(underTest.verify("")).isEmpty();
+        assertThat(underTest.verify("abc")).isEmpty();
+        assertThat(underTest.verify("a.b.c")).isEmpty();
+        assertThat(underTest.verify(underTest.issue("admin", List.of()).value() + "x")).isEmpty();
+    }
+
+    @Test
+    void testShortSecretIsRefused() {
+        assertThatThrownBy(() -> tokens("too short".getBytes(StandardCharsets.UTF_8), NOW))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testRevocationEntriesAreDroppedOnceTokensExpire() {
+        // Given
+        TokenRevocationList list = new TokenRevocationList(TTL, Clock.fixed(NOW, ZoneOffset.UTC));
+        list.revokeToken("old", NOW.minusSeconds(1));
+        assertThat(list.size()).isEqualTo(1);
+
+        // When
+        list.revokeToken("current", NOW.plus(TTL));
+
+        // Then
+        assertThat(list.size()).isEqualTo(1);
+        assertThat(list.isRevoked("old", "someone", NOW)).isFalse();
+        assertThat(list.isRevoked("current", "someone", NOW)).isTrue();
+    }
+
+    private AccessTokens tokens(byte[] secret, Instant now) {
+        return new AccessTokens(secret, TTL, revocationList, JsonMapper.builder().build(),
+                Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,231 @@
+package com.online.library.security;
+
+import com.online.library.config.SqlStatementCounter;
+import com.online.library.domain.dto.UserRequestDto;
+import com.online.library.domain.entities.UserEntity;
+import com.online.library.domain.enums.UserRole;
+import com.online.library.repositories.UserRepository;
+import com.online.library.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ApiTokenAuthenticationTest {
+
+    private static final String PASSWORD = "adminPassword123";
+    private static final int MEASURED_REQUESTS = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private UserEntity admin;
+
+    @BeforeEach
+    void setUp() {
+        String username = "admin-" + UUID.randomUUID().toString().substring(0, 8);
+        admin = userRepository.save(UserEntity.builder()
+                .username(username)
+                .password(passwordEncoder.encode(PASSWORD))
+                .email(username + "@example.com")
+                .role(UserRole.ADMIN)
+                .enabled(true)
+                .build());
+    }
+
+    @Test
+    void testTokenGrantsAdminApiAccess() throws Exception {
+        // Given
+        String token = obtainToken();
+
+        // When/Then - an admin-only endpoint; 404 means the request got past security
+        mockMvc.perform(adminRequest().header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(adminRequest())
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testWrongPasswordGetsNoToken() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + admin.getUsername() + "\",\"password\":\"wrongPassword123\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testInvalidTokenIsRejected() throws Exception {
+        mockMvc.perform(adminRequest().header(HttpHeaders.AUTHORIZATION, "Bearer " + obtainToken() + "x"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\""));
+    }
+
+    @Test
+    void testRevokedTokenIsRejected() throws Exception {
+        // Given
+        String token = obtainToken();
+
+        // When
+        mockMvc.perform(delete("/api/v1/auth/token").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isNoContent());
+
+        // Then
+        mockMvc.perform(adminRequest().header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testRoleChangeRevokesIssuedTokens() throws Exception {
+        // Given - a second later, as tokens issued in the second of the change are kept
+        String token = obtainToken();
+        awaitNextSecond();
+
+        // When
+        userService.partialUpdate(admin.getId(), UserRequestDto.builder().role(UserRole.USER).build());
+
+        // Then
+        mockMvc.perform(adminRequest().header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testPutOverUserRevokesIssuedTokens() throws Exception {
+        // Given
+        String token = obtainToken();
+        awaitNextSecond();
+
+        // When
+        mockMvc.perform(put("/api/v1/users/" + admin.getId())
+                        .header(HttpHeaders.AUTHORIZATION, basic(PASSWORD))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + admin.getUsername() + "\",\"password\":\"" + PASSWORD
+                                + "\",\"email\":\"" + admin.getEmail() + "\",\"role\":\"USER\",\"enabled\":true}"))
+                .andExpect(status().isOk());
+
+        // Then
+        mockMvc.perform(adminRequest().header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testPasswordChangedByPutRejectsOldBasicCredentials() throws Exception {
+        // Given - the account is in the user cache after the first request
+        String oldBasic = basic(PASSWORD);
+        String newPassword = "changedPassword456";
+        mockMvc.perform(adminRequest().header(HttpHeaders.AUTHORIZATION, oldBasic))
+                .andExpect(status().isNotFound());
+
+        // When
+        mockMvc.perform(put("/api/v1/users/" + admin.getId())
+                        .header(HttpHeaders.AUTHORIZATION, oldBasic)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + admin.getUsername() + "\",\"password\":\"" + newPassword
+                                + "\",\"email\":\"" + admin.getEmail() + "\",\"role\":\"ADMIN\",\"enabled\":true}"))
+                .andExpect(status().isOk());
+
+        // Then
+        mockMvc.perform(adminRequest().header(HttpHeaders.AUTHORIZATION, oldBasic))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(adminRequest().header(HttpHeaders.AUTHORIZATION, basic(newPassword)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testBearerTokenCostsFractionOfBasicAuthCpu() throws Exception {
+        // Given
+        String bearer = "Bearer " + obtainToken();
+        String basic = basic(PASSWORD);
+        cpuNanosPerRequest(basic);
+        cpuNanosPerRequest(bearer);
+
+        // When
+        long basicCpu = cpuNanosPerRequest(basic);
+        long bearerCpu = cpuNanosPerRequest(bearer);
+        long bearerStatements = SqlStatementCounter.current();
+
+        // Then - Basic runs BCrypt on every request (the account itself comes from the user cache),
+        // the token only an HMAC
+        assertThat(bearerStatements).isZero();
+        assertThat(bearerCpu * 5)
+                .as("CPU per request: bearer %d µs, basic %d µs", bearerCpu / 1000, basicCpu / 1000)
+                .isLessThan(basicCpu);
+    }
+
+    private long cpuNanosPerRequest(String authorization) throws Exception {
+        long start = requestCpuTime();
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            mockMvc.perform(adminRequest().header(HttpHeaders.AUTHORIZATION, authorization))
+                    .andExpect(status().isNotFound());
+        }
+        return (requestCpuTime() - start) / MEASURED_REQUESTS;
+    }
+
+    // The request thread plus the password-hashing pool, where BCrypt runs on its behalf
+    private static long requestCpuTime() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long total = threads.getCurrentThreadCpuTime();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("password-hash-")) {
+                total += Math.max(0, threads.getThreadCpuTime(thread.threadId()));
+            }
+        }
+        return total;
+    }
+
+    private String basic(String password) {
+        return "Basic " + Base64.getEncoder()
+                .encodeToString((admin.getUsername() + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Revocation works in whole seconds like the token iat, so a change has to land in a later second to cover it.
+    private static void awaitNextSecond() throws InterruptedException {
+        Thread.sleep(1000 - System.currentTimeMillis() % 1000 + 10);
+    }
+
+    private MockHttpServletRequestBuilder adminRequest() {
+        return get("/api/v1/imports/books/" + UUID.randomUUID());
+    }
+
+    private String obtainToken() throws Exception {
+        String response = mockMvc.perform(post("/api/v1/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + admin.getUsername() + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonMapper.builder().build().readTree(response).path("access_token").asString();
+    }
+}
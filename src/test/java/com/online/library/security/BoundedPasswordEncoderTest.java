@@ -0,0 +1,115 @@
+package com.online.library.security;
+
+import com.online.library.exceptions.PasswordHashingBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder underTest;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (underTest != null) {
+            underTest.close();
+        }
+    }
+
+    @Test
+    void testEncodesAndMatchesWithConfiguredCost() {
+        // Given
+        underTest = new BoundedPasswordEncoder(4, 1, 10, Duration.ofSeconds(5));
+
+        // When
+        String hash = underTest.encode("secretPassword");
+
+        // Then
+        assertThat(hash).startsWith("$2a$04$");
+        assertThat(underTest.matches("secretPassword", hash)).isTrue();
+        assertThat(underTest.matches("wrongPassword", hash)).isFalse();
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() throws Exception {
+        // Given - one worker stuck on a hash and one task waiting behind it
+        underTest = new BoundedPasswordEncoder(blockingEncoder(), 4, 1, 1, Duration.ofSeconds(5));
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> underTest.encode("first"));
+        waitUntil(() -> underTest.getActive() == 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> underTest.encode("second"));
+        waitUntil(() -> underTest.getQueued() == 1);
+
+        // When/Then
+        assertThatThrownBy(() -> underTest.encode("third"))
+                .isInstanceOf(PasswordHashingBusyException.class);
+        release.countDown();
+        assertThat(running.get()).isEqualTo("hash:first");
+        assertThat(queued.get()).isEqualTo("hash:second");
+    }
+
+    @Test
+    void testGivesUpAfterTimeout() throws Exception {
+        // Given
+        underTest = new BoundedPasswordEncoder(blockingEncoder(), 4, 1, 1, Duration.ofMillis(50));
+
+        // When/Then
+        assertThatThrownBy(() -> underTest.encode("slow"))
+                .isInstanceOf(PasswordHashingBusyException.class)
+                .hasMessageContaining("timed out");
+        waitUntil(() -> underTest.getActive() == 0);
+    }
+
+    @Test
+    void testUpgradeEncodingWhenCostDiffers() {
+        // Given
+        underTest = new BoundedPasswordEncoder(10, 1, 10, Duration.ofSeconds(5));
+
+        // When/Then
+        assertThat(underTest.upgradeEncoding(new BCryptPasswordEncoder(4).encode("pw"))).isTrue();
+        assertThat(underTest.upgradeEncoding("$2a$12$abcdefghijklmnopqrstuuabcdefghijklmnopqrstuvwxyz01234")).isTrue();
+        assertThat(underTest.upgradeEncoding("$2a$10$abcdefghijklmnopqrstuuabcdefghijklmnopqrstuvwxyz01234")).isFalse();
+        assertThat(underTest.upgradeEncoding("plain")).isFalse();
+        assertThat(underTest.upgradeEncoding(null)).isFalse();
+    }
+
+    // Hashes only once the test releases it, so the pool can be filled deterministically
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 5 s");
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.online.library.security;
+
+import com.online.library.domain.entities.UserEntity;
+import com.online.library.domain.enums.UserRole;
+import com.online.library.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoginProtectionTest {
+
+    private static final String PASSWORD = "userPassword123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testFormLoginIsBlockedAfterRepeatedFailures() throws Exception {
+        // Given - the default limit is 10 failures per user name
+        UserEntity user = createUser(new BCryptPasswordEncoder(10).encode(PASSWORD));
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(login(user.getUsername(), "wrongPassword", "198.51.100.1"))
+                    .andExpect(redirectedUrl("/login?error=true"));
+        }
+
+        // When/Then - even the right password is refused, from any address
+        mockMvc.perform(login(user.getUsername(), PASSWORD, "198.51.100.2"))
+                .andExpect(redirectedUrl("/login?blocked=true"));
+    }
+
+    @Test
+    void testLoginRehashesPasswordMadeWithOtherCost() throws Exception {
+        // Given
+        UserEntity user = createUser(new BCryptPasswordEncoder(4).encode(PASSWORD));
+
+        // When
+        mockMvc.perform(login(user.getUsername(), PASSWORD, "198.51.100.3"))
+                .andExpect(redirectedUrl("/dashboard"));
+
+        // Then
+        String rehashed = userRepository.findByUsername(user.getUsername()).orElseThrow().getPassword();
+        assertThat(rehashed).startsWith("$2a$10$");
+        assertThat(new BCryptPasswordEncoder().matches(PASSWORD, rehashed)).isTrue();
+        mockMvc.perform(login(user.getUsername(), PASSWORD, "198.51.100.3"))
+                .andExpect(redirectedUrl("/dashboard"));
+    }
+
+    private UserEntity createUser(String passwordHash) {
+        String username = "user-" + UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(UserEntity.builder()
+                .username(username)
+                .password(passwordHash)
+                .email(username + "@example.com")
+                .role(UserRole.USER)
+                .enabled(true)
+                .build());
+    }
+
+    private static MockHttpServletRequestBuilder login(String username, String password, String address) {
+        return post("/login")
+                .param("username", username)
+                .param("password", password)
+                .with(csrf())
+                .with(request -> {
+                    request.setRemoteAddr(address);
+                    return request;
+                });
+    }
+}
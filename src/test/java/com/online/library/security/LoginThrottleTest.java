@@ -0,0 +1,110 @@
+package com.online.library.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginThrottleTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(10);
+    private static final Instant WINDOW_START = Instant.parse("2026-01-01T10:00:00Z");
+
+    private final MutableClock clock = new MutableClock(WINDOW_START);
+    private final LoginThrottle underTest = new LoginThrottle(WINDOW, 3, 5, 1000, clock);
+
+    @Test
+    void testBlocksUsernameAfterLimit() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            assertThat(underTest.isBlocked("alice", "10.0.0.1")).isFalse();
+            underTest.recordFailure("alice", "10.0.0.1");
+        }
+
+        // When/Then - the name is blocked from anywhere, other names from the same address are not
+        assertThat(underTest.isBlocked("alice", "10.0.0.2")).isTrue();
+        assertThat(underTest.isBlocked("ALICE", null)).isTrue();
+        assertThat(underTest.isBlocked("bob", "10.0.0.1")).isFalse();
+    }
+
+    @Test
+    void testBlocksAddressSprayingManyUsernames() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            underTest.recordFailure("user" + i, "10.0.0.1");
+        }
+
+        // When/Then
+        assertThat(underTest.isBlocked("someone-else", "10.0.0.1")).isTrue();
+        assertThat(underTest.isBlocked("someone-else", "10.0.0.2")).isFalse();
+    }
+
+    @Test
+    void testPreviousWindowFadesOut() {
+        // Given - three failures late in one window
+        clock.set(WINDOW_START.plus(Duration.ofMinutes(9)));
+        for (int i = 0; i < 3; i++) {
+            underTest.recordFailure("alice", null);
+        }
+
+        // When/Then - halfway through the next window they still weigh 1.5, later less, then nothing
+        clock.set(WINDOW_START.plus(Duration.ofMinutes(15)));
+        assertThat(underTest.isBlocked("alice", null)).isFalse();
+        underTest.recordFailure("alice", null);
+        underTest.recordFailure("alice", null);
+        assertThat(underTest.isBlocked("alice", null)).isTrue();
+
+        clock.set(WINDOW_START.plus(Duration.ofMinutes(18)));
+        assertThat(underTest.isBlocked("alice", null)).isFalse();
+        clock.set(WINDOW_START.plus(Duration.ofMinutes(40)));
+        assertThat(underTest.isBlocked("alice", null)).isFalse();
+    }
+
+    @Test
+    void testFixedWindowBoundaryDoesNotResetCount() {
+        // Given - failures just before the window boundary
+        clock.set(WINDOW_START.plus(Duration.ofMinutes(10)).minusSeconds(1));
+        for (int i = 0; i < 4; i++) {
+            underTest.recordFailure("alice", null);
+        }
+
+        // When
+        clock.set(WINDOW_START.plus(Duration.ofMinutes(10)).plusSeconds(1));
+
+        // Then
+        assertThat(underTest.isBlocked("alice", null)).isTrue();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -11,7 +11,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.verify;
@@ -107,4 +110,29 @@ public class AnalyticsServiceImplTest {
 
         verify(analyticsDao).getMostActiveUsers(3);
     }
+
+    @Test
+    public void testForEachPopularBookDelegatesToDao() {
+        Consumer<BookStatDto> consumer = book -> {
+        };
+
+        analyticsService.forEachPopularBook(consumer);
+
+        verify(analyticsDao).forEachPopularBook(consumer);
+    }
+
+    @Test
+    public void testRefreshRollupsDelegatesToDao() {
+        analyticsService.refreshRollups();
+
+        verify(analyticsDao).refreshRollups();
+    }
+
+    @Test
+    public void testGetRollupsRefreshedAt() {
+        LocalDateTime refreshedAt = LocalDateTime.of(2025, 1, 1, 12, 0);
+        when(analyticsDao.getRollupsRefreshedAt()).thenReturn(Optional.of(refreshedAt));
+
+        assertThat(analyticsService.getRollupsRefreshedAt()).contains(refreshedAt);
+    }
 }
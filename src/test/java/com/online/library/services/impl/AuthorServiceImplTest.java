@@ -5,6 +5,8 @@ import com.online.library.domain.entities.AuthorEntity;
 import com.online.library.exceptions.ResourceNotFoundException;
 import com.online.library.mappers.Mapper;
 import com.online.library.repositories.AuthorRepository;
+import com.online.library.services.BookService;
+import com.online.library.services.EntityCacheService;
 import com.online.library.utils.TestDataUtil;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -33,6 +35,12 @@ public class AuthorServiceImplTest {
     @Mock
     private Mapper<AuthorEntity, AuthorDto> authorMapper;
 
+    @Mock
+    private EntityCacheService entityCacheService;
+
+    @Mock
+    private BookService bookService;
+
     @InjectMocks
     private AuthorServiceImpl underTest;
 
@@ -53,6 +61,7 @@ public class AuthorServiceImplTest {
 
         assertThat(result).isEqualTo(authorDto);
         verify(authorRepository, times(1)).save(authorEntity);
+        verify(entityCacheService, never()).evictAuthor(any());
     }
 
     @Test
@@ -71,6 +80,21 @@ public class AuthorServiceImplTest {
         assertThat(result.getContent().get(0)).isEqualTo(authorDto);
     }
 
+    @Test
+    public void testThatFindAllByIdInLoadsAuthorsInOneQuery() {
+        AuthorEntity authorEntity = TestDataUtil.createTestAuthor();
+        AuthorDto authorDto = AuthorDto.builder().id(1L).name("H.P.").build();
+
+        when(authorRepository.findAllByIdIn(List.of(1L, 2L))).thenReturn(List.of(authorEntity));
+        when(authorMapper.mapTo(authorEntity)).thenReturn(authorDto);
+
+        List<AuthorDto> result = underTest.findAllByIdIn(List.of(1L, 2L));
+
+        assertThat(result).containsExactly(authorDto);
+        assertThat(underTest.findAllByIdIn(List.of())).isEmpty();
+        verify(authorRepository, times(1)).findAllByIdIn(any());
+    }
+
     @Test
     public void testThatFindByIdReturnsAuthorWhenExists() {
         AuthorEntity authorEntity = TestDataUtil.createTestAuthor();
@@ -151,6 +175,8 @@ public class AuthorServiceImplTest {
         underTest.delete(authorId);
 
         verify(authorRepository, times(1)).deleteById(authorId);
+        verify(entityCacheService).evictDeletedAuthor(authorId);
+        verify(bookService).reindexAuthor(authorId);
     }
 
     @Test
@@ -0,0 +1,49 @@
+package com.online.library.services.impl;
+
+import com.online.library.domain.dao.BookDetailsDao;
+import com.online.library.domain.dto.BookDetailsDto;
+import com.online.library.exceptions.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookDetailsServiceImplTest {
+
+    @Mock
+    private BookDetailsDao bookDetailsDao;
+
+    @InjectMocks
+    private BookDetailsServiceImpl underTest;
+
+    @Test
+    public void testThatGetBookDetailsReturnsDetailsFromDao() {
+        Pageable pageable = PageRequest.of(0, 10);
+        BookDetailsDto details = BookDetailsDto.builder().id(1L).title("Hobbit").build();
+
+        when(bookDetailsDao.findBookDetails(1L, "test", pageable)).thenReturn(Optional.of(details));
+
+        assertThat(underTest.getBookDetails(1L, "test", pageable)).isEqualTo(details);
+    }
+
+    @Test
+    public void testThatGetBookDetailsThrowsWhenBookDoesNotExist() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        when(bookDetailsDao.findBookDetails(999L, null, pageable)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> underTest.getBookDetails(999L, null, pageable))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Book not found with id: 999");
+    }
+}
@@ -0,0 +1,197 @@
+package com.online.library.services.impl;
+
+import com.online.library.domain.dao.BookImportDao;
+import com.online.library.domain.dto.BookImportStatusDto;
+import com.online.library.domain.enums.ImportFormat;
+import com.online.library.exceptions.ImportQueueFullException;
+import com.online.library.repositories.BookRepository;
+import com.online.library.search.BookSearchIndex;
+import com.online.library.search.FacetIndex;
+import com.online.library.search.SuggestionIndex;
+import com.online.library.services.AuthorService;
+import com.online.library.services.BookImportService;
+import com.online.library.services.EntityCacheService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+// A small batch size, so the files below are imported in several chunks.
+@SpringBootTest(properties = "app.import.batch-size=2")
+public class BookImportServiceImplTest {
+
+    @Autowired
+    private BookImportService underTest;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testThatCsvImportDedupesByIsbnAndResolvesAuthorsAndGenres() throws Exception {
+        long authorsOnFirstPage = authorService.findAll(PageRequest.of(0, 100)).getTotalElements();
+        String csv = """
+                title;isbn;authors;genres;publisher;publish_year;copies_available
+                Ferdydurke;978-83-0000-001;Witold Gombrowicz;Groteska|fantasy;Rój;1937;2
+                "Trans-Atlantyk; wydanie II";978-83-0000-002;Witold Gombrowicz;Groteska;;1953;
+                Harry Potter (dup);9780590353403;J.K. Rowling;Fantasy;;;
+                Ferdydurke (again);978-83-0000-001;Witold Gombrowicz;;;;
+                Bez ISBN;;Ktoś;;;;
+                Zły rok;978-83-0000-003;;;;tysiąc;
+                Nowa Rowling;978-83-0000-004;J.K. Rowling|Witold Gombrowicz;;;;
+                """;
+
+        BookImportStatusDto status = await(underTest.startImport(stream(csv), ImportFormat.CSV).getId());
+
+        assertThat(status.getState()).isEqualTo(BookImportStatusDto.State.COMPLETED);
+        assertThat(status.getProcessedRows()).isEqualTo(7);
+        assertThat(status.getImportedBooks()).isEqualTo(3);
+        assertThat(status.getDuplicateRows()).isEqualTo(2);
+        assertThat(status.getRejectedRows()).isEqualTo(2);
+        assertThat(status.getErrors()).containsExactly(
+                "Wiersz 6: Brak ISBN",
+                "Wiersz 7: Nieprawidłowa liczba w kolumnie publishyear: tysiąc");
+        assertThat(status.getCreatedAuthors()).isEqualTo(1);
+        assertThat(status.getCreatedGenres()).isEqualTo(1);
+
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM book_genres bg JOIN books b ON b.id = bg.book_id JOIN genres g ON g.id = bg.genre_id
+                WHERE b.isbn = '978-83-0000-001' AND g.name IN ('Groteska', 'Fantasy')
+                """, Integer.class)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM book_authors ba JOIN books b ON b.id = ba.book_id
+                WHERE b.isbn = '978-83-0000-004' AND ba.author_id = 1
+                """, Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT title FROM books WHERE isbn = '978-83-0000-002'", String.class))
+                .isEqualTo("Trans-Atlantyk; wydanie II");
+        assertThat(bookSearchIndex.search("gombrowicz")).hasSize(3);
+        // The authors were written past Hibernate; the cached page query must not hide them.
+        assertThat(authorService.findAll(PageRequest.of(0, 100)).getTotalElements())
+                .isEqualTo(authorsOnFirstPage + 1);
+    }
+
+    @Test
+    public void testThatJsonLinesImportReportsMalformedLinesAndKeepsGoing() throws Exception {
+        String jsonLines = """
+                {"title": "Lalka", "isbn": "978-83-0001-001", "authors": ["Bolesław Prus"], "genres": ["Powieść"], "publishYear": 1890}
+                {"title": "Faraon", "isbn": "978-83-0001-002", "authors": ["Bolesław Prus"]
+
+                {"title": "Emancypantki", "isbn": "978-83-0001-003", "authors": ["Bolesław Prus"], "copiesAvailable": 4}
+                """;
+
+        BookImportStatusDto status = await(underTest.startImport(stream(jsonLines), ImportFormat.JSON_LINES).getId());
+
+        assertThat(status.getState()).isEqualTo(BookImportStatusDto.State.COMPLETED);
+        assertThat(status.getImportedBooks()).isEqualTo(2);
+        assertThat(status.getRejectedRows()).isEqualTo(1);
+        assertThat(status.getErrors()).singleElement().asString().startsWith("Wiersz 2: Nieprawidłowy JSON");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT copies_available FROM books WHERE isbn = '978-83-0001-003'", Integer.class)).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM authors WHERE last_name = 'Prus'", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    public void testThatJsonLinesRowsAreCleanedLikeCsvRows() throws Exception {
+        String jsonLines = """
+                {"title": " Placówka ", "isbn": " 978-83-0002-001", "authors": [null, "", " Bolesław Prus "], "genres": [null, " "]}
+                {"title": "Placówka (again)", "isbn": "978-83-0002-001", "authors": ["Bolesław Prus"]}
+                {"title": "Anielka", "isbn": "978-83-0002-002", "authors": [null], "genres": [null]}
+                {"title": " ", "isbn": "978-83-0002-003"}
+                """;
+
+        BookImportStatusDto status = await(underTest.startImport(stream(jsonLines), ImportFormat.JSON_LINES).getId());
+
+        assertThat(status.getState()).isEqualTo(BookImportStatusDto.State.COMPLETED);
+        assertThat(status.getImportedBooks()).isEqualTo(2);
+        assertThat(status.getDuplicateRows()).isEqualTo(1);
+        assertThat(status.getErrors()).containsExactly("Wiersz 4: Brak tytułu");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT title FROM books WHERE isbn = '978-83-0002-001'", String.class)).isEqualTo("Placówka");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM authors WHERE last_name = '' OR last_name IS NULL", Integer.class)).isZero();
+    }
+
+    @Test
+    public void testThatCsvWithoutRequiredColumnsFails() throws Exception {
+        BookImportStatusDto status = await(underTest.startImport(stream("name;year\nx;1\n"), ImportFormat.CSV).getId());
+
+        assertThat(status.getState()).isEqualTo(BookImportStatusDto.State.FAILED);
+        assertThat(status.getFailure()).contains("title");
+    }
+
+    @Test
+    public void testThatFullQueueTurnsImportsAwayAndUnfinishedImportsAreKept() throws Exception {
+        // The worker is held inside the first import, so everything after it has to wait in the queue
+        CountDownLatch release = new CountDownLatch(1);
+        BookImportDao blockingDao = mock(BookImportDao.class);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(blockingDao).forEachAuthor(any());
+        int queued = 60;
+        BookImportServiceImpl service = new BookImportServiceImpl(blockingDao, mock(BookRepository.class),
+                mock(BookSearchIndex.class), mock(SuggestionIndex.class), mock(FacetIndex.class),
+                mock(EntityCacheService.class), mock(TransactionTemplate.class), JsonMapper.builder().build(), 2,
+                queued);
+        try {
+            List<UUID> ids = new ArrayList<>();
+            ids.add(service.startImport(stream("title;isbn\n"), ImportFormat.CSV).getId());
+            while (service.getStatus(ids.get(0)).orElseThrow().getState() != BookImportStatusDto.State.RUNNING) {
+                Thread.sleep(5);
+            }
+            for (int i = 0; i < queued; i++) {
+                ids.add(service.startImport(stream("title;isbn\n"), ImportFormat.CSV).getId());
+            }
+
+            assertThatThrownBy(() -> service.startImport(stream("title;isbn\n"), ImportFormat.CSV))
+                    .isInstanceOf(ImportQueueFullException.class);
+            // More imports than are kept once finished, but none of them has finished yet
+            assertThat(ids).allSatisfy(id -> assertThat(service.getStatus(id)).isPresent());
+        } finally {
+            release.countDown();
+            service.shutdown();
+        }
+    }
+
+    private BookImportStatusDto await(UUID id) throws InterruptedException {
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(30));
+        while (Instant.now().isBefore(deadline)) {
+            BookImportStatusDto status = underTest.getStatus(id).orElseThrow();
+            if (status.getState() == BookImportStatusDto.State.COMPLETED
+                    || status.getState() == BookImportStatusDto.State.FAILED) {
+                return status;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Import " + id + " did not finish");
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,10 +1,26 @@
 package com.online.library.services.impl;
 
+import com.online.library.domain.dao.BookSearchDao;
+import com.online.library.domain.dto.BookBrowseDto;
 import com.online.library.domain.dto.BookDto;
+import com.online.library.domain.dto.BookSuggestionDto;
+import com.online.library.domain.dto.FacetValueDto;
+import com.online.library.domain.entities.AuthorEntity;
 import com.online.library.domain.entities.BookEntity;
+import com.online.library.domain.entities.GenreEntity;
 import com.online.library.exceptions.ResourceNotFoundException;
 import com.online.library.mappers.Mapper;
+import com.online.library.repositories.AuthorRepository;
 import com.online.library.repositories.BookRepository;
+import com.online.library.repositories.GenreRepository;
+import com.online.library.search.BookSearchIndex;
+import com.online.library.search.FacetFilter;
+import com.online.library.search.FacetIndex;
+import com.online.library.search.FacetResult;
+import com.online.library.search.Suggestion;
+import com.online.library.search.SuggestionIndex;
+import com.online.library.services.FileStorageService;
+import com.online.library.services.InventoryService;
 import com.online.library.utils.TestDataUtil;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,13 +31,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,9 +53,33 @@ public class BookServiceImplTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @Mock
+    private GenreRepository genreRepository;
+
     @Mock
     private Mapper<BookEntity, BookDto> bookMapper;
 
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private SuggestionIndex suggestionIndex;
+
+    @Mock
+    private FacetIndex facetIndex;
+
+    @Mock
+    private BookSearchDao bookSearchDao;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
     @InjectMocks
     private BookServiceImpl underTest;
 
@@ -55,6 +102,56 @@ public class BookServiceImplTest {
         verify(bookRepository, times(1)).save(bookEntity);
     }
 
+    @Test
+    public void testThatSaveWithAssociationsLinksReferencesWithoutLoadingThem() {
+        BookEntity bookEntity = TestDataUtil.createTestBook();
+        BookDto bookDto = BookDto.builder().title(bookEntity.getTitle()).build();
+        AuthorEntity author = AuthorEntity.builder().id(1L).build();
+        GenreEntity genre = GenreEntity.builder().id(2L).build();
+
+        when(bookMapper.mapFrom(bookDto)).thenReturn(bookEntity);
+        when(authorRepository.findExistingIds(List.of(1L))).thenReturn(List.of(1L));
+        when(genreRepository.findExistingIds(List.of(2L))).thenReturn(List.of(2L));
+        when(authorRepository.getReferenceById(1L)).thenReturn(author);
+        when(genreRepository.getReferenceById(2L)).thenReturn(genre);
+        when(bookRepository.save(bookEntity)).thenAnswer(invocation -> {
+            bookEntity.setId(5L);
+            return bookEntity;
+        });
+
+        Long result = underTest.saveWithAssociations(bookDto, List.of(1L, 1L), List.of(2L));
+
+        assertThat(result).isEqualTo(5L);
+        assertThat(bookEntity.getAuthors()).containsExactly(author);
+        assertThat(bookEntity.getGenres()).containsExactly(genre);
+        verify(authorRepository, times(1)).getReferenceById(1L);
+        verify(authorRepository, never()).findById(any());
+        verify(inventoryService, never()).evict(any());
+    }
+
+    @Test
+    public void testThatSaveWithAssociationsSkipsIdsThatNoLongerExist() {
+        BookEntity bookEntity = TestDataUtil.createTestBook();
+        BookDto bookDto = BookDto.builder().title(bookEntity.getTitle()).build();
+        AuthorEntity author = AuthorEntity.builder().id(1L).build();
+
+        when(bookMapper.mapFrom(bookDto)).thenReturn(bookEntity);
+        when(authorRepository.findExistingIds(List.of(1L, 99L))).thenReturn(List.of(1L));
+        when(genreRepository.findExistingIds(List.of(98L))).thenReturn(List.of());
+        when(authorRepository.getReferenceById(1L)).thenReturn(author);
+        when(bookRepository.save(bookEntity)).thenAnswer(invocation -> {
+            bookEntity.setId(5L);
+            return bookEntity;
+        });
+
+        underTest.saveWithAssociations(bookDto, List.of(1L, 99L), List.of(98L));
+
+        assertThat(bookEntity.getAuthors()).containsExactly(author);
+        assertThat(bookEntity.getGenres()).isEmpty();
+        verify(authorRepository, never()).getReferenceById(99L);
+        verify(genreRepository, never()).getReferenceById(any());
+    }
+
     @Test
     public void testThatFindAllWithPageableReturnsPageOfBooks() {
         BookEntity bookEntity = TestDataUtil.createTestBook();
@@ -143,6 +240,51 @@ public class BookServiceImplTest {
         underTest.delete(bookId);
 
         verify(bookRepository, times(1)).deleteById(bookId);
+        verify(inventoryService).evict(bookId);
+        verify(bookSearchIndex, times(1)).remove(bookId);
+        verify(facetIndex).remove(bookId);
+    }
+
+    @Test
+    public void testThatDeleteReleasesCover() {
+        Long bookId = 1L;
+        when(bookRepository.findCoverImagePathById(bookId)).thenReturn(Optional.of("covers/abc.jpg"));
+
+        underTest.delete(bookId);
+
+        verify(fileStorageService).release("covers/abc.jpg");
+    }
+
+    @Test
+    public void testThatPartialUpdateReleasesReplacedCover() {
+        Long bookId = 1L;
+        BookEntity existingBook = TestDataUtil.createTestBook();
+        existingBook.setId(bookId);
+        existingBook.setCoverImagePath("covers/old.jpg");
+
+        when(bookRepository.findById(bookId)).thenReturn(Optional.of(existingBook));
+        when(bookRepository.save(any(BookEntity.class))).thenReturn(existingBook);
+        when(bookMapper.mapTo(any(BookEntity.class))).thenReturn(BookDto.builder().id(bookId).build());
+
+        underTest.partialUpdate(bookId, BookDto.builder().coverImagePath("covers/new.jpg").build());
+
+        verify(fileStorageService).release("covers/old.jpg");
+    }
+
+    @Test
+    public void testThatPartialUpdateKeepsUnchangedCover() {
+        Long bookId = 1L;
+        BookEntity existingBook = TestDataUtil.createTestBook();
+        existingBook.setId(bookId);
+        existingBook.setCoverImagePath("covers/old.jpg");
+
+        when(bookRepository.findById(bookId)).thenReturn(Optional.of(existingBook));
+        when(bookRepository.save(any(BookEntity.class))).thenReturn(existingBook);
+        when(bookMapper.mapTo(any(BookEntity.class))).thenReturn(BookDto.builder().id(bookId).build());
+
+        underTest.partialUpdate(bookId, BookDto.builder().title("New Title").build());
+
+        verify(fileStorageService, never()).release(any());
     }
 
     @Test
@@ -162,6 +304,195 @@ public class BookServiceImplTest {
         assertThat(result.getContent().get(0)).isEqualTo(bookDto);
     }
 
+    @Test
+    public void testThatSearchBooksReturnsRankedPageFromIndex() {
+        BookEntity first = TestDataUtil.createTestBook();
+        first.setId(7L);
+        BookEntity second = TestDataUtil.createTestBook();
+        second.setId(3L);
+        BookDto firstDto = BookDto.builder().id(7L).build();
+        BookDto secondDto = BookDto.builder().id(3L).build();
+        Pageable pageable = PageRequest.of(0, 2);
+
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.search("ksiazka")).thenReturn(List.of(7L, 3L, 5L));
+        when(bookRepository.findAllById(List.of(7L, 3L))).thenReturn(List.of(second, first));
+        when(bookMapper.mapTo(first)).thenReturn(firstDto);
+        when(bookMapper.mapTo(second)).thenReturn(secondDto);
+
+        Page<BookDto> result = underTest.searchBooks("ksiazka", pageable);
+
+        assertThat(result.getContent()).containsExactly(firstDto, secondDto);
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        verify(bookRepository, never()).searchBooks(any(), any());
+    }
+
+    @Test
+    public void testThatSortedSearchLoadsIndexHitsById() {
+        BookEntity bookEntity = TestDataUtil.createTestBook();
+        BookDto bookDto = BookDto.builder().id(1L).build();
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("title"));
+
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.search("java")).thenReturn(List.of(1L));
+        when(bookRepository.findByIdIn(List.of(1L), pageable)).thenReturn(new PageImpl<>(List.of(bookEntity)));
+        when(bookMapper.mapTo(bookEntity)).thenReturn(bookDto);
+
+        Page<BookDto> result = underTest.searchBooks("java", pageable);
+
+        assertThat(result.getContent()).containsExactly(bookDto);
+    }
+
+    @Test
+    public void testThatSearchWithoutIndexHitsReturnsEmptyPage() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.search("xyz")).thenReturn(List.of());
+
+        Page<BookDto> result = underTest.searchBooks("xyz", pageable);
+
+        assertThat(result.getContent()).isEmpty();
+        verifyNoInteractions(bookMapper);
+    }
+
+    @Test
+    public void testThatBrowseTakesUnsortedPageFromFacetIndex() {
+        BookEntity first = BookEntity.builder().id(4L).title("Lalka").build();
+        BookEntity second = BookEntity.builder().id(9L).title("Emancypantki").build();
+        BookDto firstDto = BookDto.builder().id(4L).build();
+        BookDto secondDto = BookDto.builder().id(9L).build();
+        FacetResult result = mock(FacetResult.class);
+        when(facetIndex.isReady()).thenReturn(true);
+        when(facetIndex.query(eq(new FacetFilter(Set.of(3L), Set.of(), Set.of(1890))), anyInt())).thenReturn(result);
+        when(result.total()).thenReturn(12);
+        when(result.ids(10L, 10)).thenReturn(List.of(4L, 9L));
+        when(result.genreCounts()).thenReturn(Map.of(3L, 12));
+        when(result.authorCounts()).thenReturn(Map.of(7L, 2));
+        when(result.decadeCounts()).thenReturn(Map.of(1890, 12));
+        when(bookRepository.findAllById(List.of(4L, 9L))).thenReturn(List.of(second, first));
+        when(genreRepository.findAllById(Set.of(3L))).thenReturn(List.of(GenreEntity.builder().id(3L).name("Powieść").build()));
+        when(authorRepository.findAllById(Set.of(7L)))
+                .thenReturn(List.of(AuthorEntity.builder().id(7L).name("Bolesław").lastName("Prus").build()));
+        when(bookMapper.mapTo(first)).thenReturn(firstDto);
+        when(bookMapper.mapTo(second)).thenReturn(secondDto);
+
+        BookBrowseDto page = underTest.browse(List.of(3L), null, List.of(1894), PageRequest.of(1, 10));
+
+        assertThat(page.getContent()).containsExactly(firstDto, secondDto);
+        assertThat(page.getTotalElements()).isEqualTo(12);
+        assertThat(page.getTotalPages()).isEqualTo(2);
+        assertThat(page.getFacets().getGenres()).extracting(FacetValueDto::getLabel, FacetValueDto::getCount,
+                FacetValueDto::isSelected).containsExactly(tuple("Powieść", 12L, true));
+        assertThat(page.getFacets().getAuthors()).extracting(FacetValueDto::getLabel).containsExactly("Bolesław Prus");
+        assertThat(page.getFacets().getDecades()).extracting(FacetValueDto::getValue, FacetValueDto::getLabel,
+                FacetValueDto::isSelected).containsExactly(tuple(1890L, "1890–1899", true));
+        verify(bookRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    public void testThatBrowseWithSortUsesMatchingIds() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("title"));
+        FacetResult result = mock(FacetResult.class);
+        when(facetIndex.isReady()).thenReturn(true);
+        when(facetIndex.query(any(), anyInt())).thenReturn(result);
+        when(result.total()).thenReturn(2);
+        when(result.ids()).thenReturn(List.of(1L, 2L));
+        when(bookRepository.findByIdIn(List.of(1L, 2L), pageable)).thenReturn(Page.empty(pageable));
+
+        underTest.browse(null, List.of(7L), null, pageable);
+
+        verify(bookRepository).findByIdIn(List.of(1L, 2L), pageable);
+        verify(bookRepository, never()).findByFacets(anyBoolean(), any(), anyBoolean(), any(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    public void testThatBrowseWithoutFilterListsAllBooks() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(facetIndex.isReady()).thenReturn(true);
+        when(facetIndex.query(eq(FacetFilter.NONE), anyInt())).thenReturn(mock(FacetResult.class));
+        when(bookRepository.findAll(pageable)).thenReturn(Page.empty(pageable));
+
+        BookBrowseDto page = underTest.browse(null, null, null, pageable);
+
+        assertThat(page.getContent()).isEmpty();
+        verify(bookRepository).findAll(pageable);
+    }
+
+    @Test
+    public void testThatBrowseFallsBackToDatabaseBeforeIndexIsBuilt() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(facetIndex.isReady()).thenReturn(false);
+        when(bookRepository.findByFacets(true, Set.of(3L), false, List.of(-1L), false, List.of(-1), pageable))
+                .thenReturn(Page.empty(pageable));
+
+        BookBrowseDto page = underTest.browse(List.of(3L), null, null, pageable);
+
+        assertThat(page.getFacets().getGenres()).isEmpty();
+        verify(facetIndex, never()).query(any(), anyInt());
+    }
+
+    @Test
+    public void testThatSuggestMapsIndexHits() {
+        when(suggestionIndex.suggest("pan", 5)).thenReturn(List.of(
+                Suggestion.book(2L, "Pan Wołodyjowski", 4.75f),
+                Suggestion.author(7L, "Henryk", "Sienkiewicz", 4.75f)));
+
+        List<BookSuggestionDto> result = underTest.suggest("pan", 5);
+
+        assertThat(result).extracting(BookSuggestionDto::getType, BookSuggestionDto::getId,
+                        BookSuggestionDto::getText, BookSuggestionDto::getAverageRating)
+                .containsExactly(
+                        tuple("BOOK", 2L, "Pan Wołodyjowski", 4.75),
+                        tuple("AUTHOR", 7L, "Henryk Sienkiewicz", 4.75));
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    public void testThatRefreshSuggestionRatingsReadsOnlyStaleBooks() {
+        Suggestion book = Suggestion.book(1L, "Lalka", 4.1f);
+        Suggestion author = Suggestion.author(3L, "Bolesław", "Prus", 4.1f);
+        when(suggestionIndex.drainStaleRatings()).thenReturn(Set.of(1L));
+        when(bookSearchDao.findSuggestionsForBooks(Set.of(1L))).thenReturn(List.of(book, author));
+
+        underTest.refreshSuggestionRatings();
+
+        verify(suggestionIndex).refresh(book);
+        verify(suggestionIndex).refresh(author);
+    }
+
+    @Test
+    public void testThatRefreshSuggestionRatingsSkipsQueryWithoutVotes() {
+        when(suggestionIndex.drainStaleRatings()).thenReturn(Set.of());
+
+        underTest.refreshSuggestionRatings();
+
+        verifyNoInteractions(bookSearchDao);
+    }
+
+    @Test
+    public void testThatReindexAuthorUpdatesBooksAndAuthorSuggestion() {
+        Suggestion author = Suggestion.author(3L, "Bolesław", "Prus", 4.1f);
+        when(bookSearchDao.findBookIdsByAuthor(3L)).thenReturn(List.of(1L, 2L));
+        when(bookSearchDao.findAuthorSuggestion(3L)).thenReturn(Optional.of(author));
+
+        underTest.reindexAuthor(3L);
+
+        verify(bookSearchDao).forEachDocument(eq(List.of(1L, 2L)), any());
+        verify(suggestionIndex).put(author);
+        verify(bookSearchDao).forEachFacetDocument(eq(List.of(1L, 2L)), any());
+    }
+
+    @Test
+    public void testThatReindexOfDeletedAuthorRemovesSuggestion() {
+        when(bookSearchDao.findBookIdsByAuthor(3L)).thenReturn(List.of());
+        when(bookSearchDao.findAuthorSuggestion(3L)).thenReturn(Optional.empty());
+
+        underTest.reindexAuthor(3L);
+
+        verify(suggestionIndex).remove(Suggestion.Type.AUTHOR, 3L);
+    }
+
     @Test
     public void testThatGetPopularBooksReturnsPageOfBooks() {
         BookEntity bookEntity = TestDataUtil.createTestBook();
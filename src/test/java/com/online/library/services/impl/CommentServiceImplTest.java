@@ -1,6 +1,7 @@
 package com.online.library.services.impl;
 
 import com.online.library.domain.dto.CommentDto;
+import com.online.library.domain.dto.CursorPageDto;
 import com.online.library.domain.entities.BookEntity;
 import com.online.library.domain.entities.CommentEntity;
 import com.online.library.domain.entities.UserEntity;
@@ -9,17 +10,20 @@ import com.online.library.mappers.Mapper;
 import com.online.library.repositories.BookRepository;
 import com.online.library.repositories.CommentRepository;
 import com.online.library.repositories.UserRepository;
+import com.online.library.services.support.KeysetPagination;
 import com.online.library.utils.TestDataUtil;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -258,4 +262,40 @@ public class CommentServiceImplTest {
         assertThat(result).isFalse();
         verify(commentRepository).existsById(999L);
     }
+
+    @Test
+    public void testThatFindAllAfterReturnsSliceWithCursorOfLastRow() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 10, 0);
+        CommentEntity newer = CommentEntity.builder().id(3L).content("c").createdAt(createdAt).build();
+        CommentEntity older = CommentEntity.builder().id(2L).content("b").createdAt(createdAt).build();
+        CommentEntity extra = CommentEntity.builder().id(1L).content("a").createdAt(createdAt).build();
+
+        when(commentRepository.findAllByOrderByCreatedAtDescIdDesc(Limit.of(3)))
+                .thenReturn(List.of(newer, older, extra));
+        when(commentMapper.mapTo(any(CommentEntity.class)))
+                .thenAnswer(invocation -> CommentDto.builder().id(invocation.<CommentEntity>getArgument(0).getId())
+                        .build());
+
+        CursorPageDto<CommentDto> result = underTest.findAllAfter(null, 2);
+
+        assertThat(result.getContent()).extracting(CommentDto::getId).containsExactly(3L, 2L);
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(KeysetPagination.decodePosition(result.getNextCursor()))
+                .isEqualTo(new KeysetPagination.Position(createdAt, 2L));
+    }
+
+    @Test
+    public void testThatFindAllAfterContinuesFromCursor() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 10, 0);
+        String cursor = KeysetPagination.encodePosition(createdAt, 2L);
+
+        when(commentRepository.findOlderThan(createdAt, 2L, Limit.of(3))).thenReturn(List.of());
+
+        CursorPageDto<CommentDto> result = underTest.findAllAfter(cursor, 2);
+
+        assertThat(result.getContent()).isEmpty();
+        assertThat(result.isHasNext()).isFalse();
+        verify(commentRepository, never()).findAll(any(Pageable.class));
+        verify(commentRepository, never()).count();
+    }
 }
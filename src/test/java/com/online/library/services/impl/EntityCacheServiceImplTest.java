@@ -0,0 +1,100 @@
+package com.online.library.services.impl;
+
+import com.online.library.domain.dto.AuthorDto;
+import com.online.library.domain.dto.CacheRegionStatsDto;
+import com.online.library.domain.entities.AuthorEntity;
+import com.online.library.domain.entities.BookEntity;
+import com.online.library.repositories.AuthorRepository;
+import com.online.library.repositories.BookRepository;
+import com.online.library.services.AuthorService;
+import com.online.library.services.EntityCacheService;
+import com.online.library.utils.TestDataUtil;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class EntityCacheServiceImplTest {
+
+    @Autowired
+    private EntityCacheService underTest;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testThatRepeatedAuthorLookupIsServedFromCache() {
+        AuthorEntity author = authorRepository.save(TestDataUtil.createTestAuthor());
+        long hitsBefore = regionHits("authors");
+
+        authorService.findById(author.getId());
+        authorService.findById(author.getId());
+
+        assertThat(regionHits("authors")).isGreaterThan(hitsBefore);
+    }
+
+    @Test
+    public void testThatDeletingAuthorEvictsCachedBookAuthors() {
+        AuthorEntity author = authorRepository.save(TestDataUtil.createTestAuthor());
+        BookEntity book = TestDataUtil.createTestBook();
+        book.setIsbn("978-83-240-0000-1");
+        book.setAuthors(Set.of(author));
+        Long bookId = bookRepository.save(book).getId();
+
+        // Loads the collection lazily, which stores the author ids in the book-authors region.
+        assertThat(authorCount(bookId)).isEqualTo(1);
+
+        authorService.delete(author.getId());
+
+        assertThat(authorCount(bookId)).isZero();
+        bookRepository.deleteById(bookId);
+    }
+
+    @Test
+    public void testThatCreatingAuthorKeepsCachedBookAuthors() {
+        AuthorEntity author = authorRepository.save(TestDataUtil.createTestAuthor());
+        BookEntity book = TestDataUtil.createTestBook();
+        book.setIsbn("978-83-240-0000-2");
+        book.setAuthors(Set.of(author));
+        Long bookId = bookRepository.save(book).getId();
+        authorCount(bookId);
+        long hitsBefore = regionHits("book-authors");
+
+        authorService.save(AuthorDto.builder().name("Olga").lastName("Tokarczuk").build());
+
+        assertThat(authorCount(bookId)).isEqualTo(1);
+        assertThat(regionHits("book-authors")).isGreaterThan(hitsBefore);
+        bookRepository.deleteById(bookId);
+    }
+
+    private int authorCount(Long bookId) {
+        return transactionTemplate.execute(status ->
+                entityManager.find(BookEntity.class, bookId).getAuthors().size());
+    }
+
+    private long regionHits(String region) {
+        return underTest.getRegionStatistics().stream()
+                .filter(stats -> stats.getRegion().equals(region))
+                .mapToLong(CacheRegionStatsDto::getHitCount)
+                .findFirst()
+                .orElse(0L);
+    }
+}
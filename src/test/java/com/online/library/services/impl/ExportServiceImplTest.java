@@ -6,6 +6,7 @@ import com.online.library.domain.dto.UserStatDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
@@ -330,4 +331,44 @@ class ExportServiceImplTest {
         // Then
         assertThat(csvContent).contains("ąęćżźńłóś");
     }
+
+    // ==================== streaming tests ====================
+
+    @Test
+    void testWritePopularBooksCsvStreamsEveryRowFromSource() throws Exception {
+        // Given - a row source far larger than the old export limit of 100
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        underTest.writePopularBooksCsv(consumer -> {
+            for (long i = 1; i <= 1_000; i++) {
+                consumer.accept(BookStatDto.builder()
+                        .id(i)
+                        .title("Book " + i)
+                        .averageRating(BigDecimal.ONE)
+                        .reservationCount(i)
+                        .build());
+            }
+        }, out);
+        String csvContent = out.toString(StandardCharsets.UTF_8);
+
+        // Then
+        assertThat(csvContent.lines()).hasSize(1_001);
+        assertThat(csvContent).contains("1000" + CSV_SEPARATOR + "Book 1000" + CSV_SEPARATOR + "1" + CSV_SEPARATOR + "1000");
+    }
+
+    @Test
+    void testStreamedAndInMemoryExportsAreIdentical() throws Exception {
+        // Given
+        List<UserStatDto> users = List.of(
+                UserStatDto.builder().id(1L).username("jan;kowalski").email("jan@example.com").reservationCount(2L)
+                        .build());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        underTest.writeActiveUsersCsv(users::forEach, out);
+
+        // Then
+        assertThat(out.toByteArray()).isEqualTo(underTest.exportActiveUsersToCsv(users));
+    }
 }
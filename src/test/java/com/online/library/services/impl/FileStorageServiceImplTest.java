@@ -1,6 +1,10 @@
 package com.online.library.services.impl;
 
+import com.online.library.domain.enums.ImageSize;
 import com.online.library.exceptions.FileStorageException;
+import com.online.library.repositories.BookRepository;
+import com.online.library.storage.LocalObjectStorage;
+import com.online.library.storage.ObjectStorage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -8,23 +12,39 @@ import org.springframework.core.io.Resource;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class FileStorageServiceImplTest {
 
     @TempDir
     Path tempDir;
 
+    private BookRepository bookRepository;
+
     private FileStorageServiceImpl underTest;
 
     @BeforeEach
-    void setUp() {
-        underTest = new FileStorageServiceImpl(tempDir.toString());
+    void setUp() throws IOException {
+        bookRepository = mock(BookRepository.class);
+        underTest = new FileStorageServiceImpl(new LocalObjectStorage(tempDir), Duration.ofHours(1), bookRepository);
     }
 
     @Test
@@ -183,4 +203,203 @@ class FileStorageServiceImplTest {
         assertThat(result).startsWith(directory + "/");
         assertThat(Files.exists(tempDir.resolve(result))).isTrue();
     }
+
+    @Test
+    void testStoreImageCreatesScaledDerivatives() throws IOException {
+        // Given
+        MultipartFile file = new MockMultipartFile("file", "cover.jpg", "image/jpeg", image(1600, 2400, "jpeg"));
+
+        // When
+        String result = underTest.storeFile(file, "covers");
+
+        // Then
+        String filename = result.substring("covers/".length());
+        BufferedImage list = ImageIO.read(tempDir.resolve("covers/list").resolve(filename).toFile());
+        BufferedImage detail = ImageIO.read(tempDir.resolve("covers/detail").resolve(filename).toFile());
+        assertThat(list.getWidth()).isEqualTo(400);
+        assertThat(list.getHeight()).isEqualTo(600);
+        assertThat(detail.getWidth()).isEqualTo(800);
+        assertThat(detail.getHeight()).isEqualTo(1200);
+    }
+
+    @Test
+    void testLoadImageDerivativeCreatesMissingDerivativeOnFirstUse() throws IOException {
+        // Given - an upload from before derivatives existed
+        Files.createDirectories(tempDir.resolve("covers"));
+        Files.write(tempDir.resolve("covers/old.png"), image(1000, 500, "png"));
+
+        // When
+        Resource resource = underTest.loadImageDerivative("covers/old.png", ImageSize.LIST);
+
+        // Then
+        BufferedImage scaled = ImageIO.read(resource.getInputStream());
+        assertThat(scaled.getWidth()).isEqualTo(400);
+        assertThat(scaled.getHeight()).isEqualTo(200);
+        assertThat(Files.exists(tempDir.resolve("covers/list/old.png"))).isTrue();
+    }
+
+    @Test
+    void testLoadImageDerivativeKeepsSmallImageAsIs() throws IOException {
+        // Given
+        byte[] small = image(100, 150, "png");
+        Files.createDirectories(tempDir.resolve("covers"));
+        Files.write(tempDir.resolve("covers/small.png"), small);
+
+        // When
+        Resource resource = underTest.loadImageDerivative("covers/small.png", ImageSize.DETAIL);
+
+        // Then
+        assertThat(resource.getContentAsByteArray()).isEqualTo(small);
+    }
+
+    @Test
+    void testLoadImageDerivativeFallsBackToOriginalForUndecodableFile() throws IOException {
+        // Given
+        Files.createDirectories(tempDir.resolve("covers"));
+        Files.writeString(tempDir.resolve("covers/broken.jpg"), "not an image");
+
+        // When
+        Resource resource = underTest.loadImageDerivative("covers/broken.jpg", ImageSize.LIST);
+
+        // Then
+        assertThat(resource.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("not an image");
+        assertThat(Files.exists(tempDir.resolve("covers/list/broken.jpg"))).isFalse();
+    }
+
+    @Test
+    void testLoadImageDerivativeDoesNotRetryUndecodableFile() throws IOException {
+        // Given
+        ObjectStorage storage = spy(new LocalObjectStorage(tempDir));
+        underTest = new FileStorageServiceImpl(storage, Duration.ofHours(1), bookRepository);
+        Files.createDirectories(tempDir.resolve("covers"));
+        Files.writeString(tempDir.resolve("covers/broken.jpg"), "not an image");
+        underTest.loadImageDerivative("covers/broken.jpg", ImageSize.LIST);
+
+        // When
+        Resource resource = underTest.loadImageDerivative("covers/broken.jpg", ImageSize.DETAIL);
+
+        // Then - the second view neither looks for a derivative nor decodes again
+        assertThat(resource.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("not an image");
+        verify(storage, never()).stat("covers/detail/broken.jpg");
+    }
+
+    @Test
+    void testDeleteFileRemovesDerivatives() throws IOException {
+        // Given
+        String result = underTest.storeFile(
+                new MockMultipartFile("file", "cover.png", "image/png", image(900, 900, "png")), "covers");
+        String filename = result.substring("covers/".length());
+
+        // When
+        underTest.deleteFile(result);
+
+        // Then
+        assertThat(Files.exists(tempDir.resolve(result))).isFalse();
+        assertThat(Files.exists(tempDir.resolve("covers/list").resolve(filename))).isFalse();
+        assertThat(Files.exists(tempDir.resolve("covers/detail").resolve(filename))).isFalse();
+    }
+
+    @Test
+    void testStoreSameContentTwiceKeepsOneFile() throws IOException {
+        // Given
+        MultipartFile first = new MockMultipartFile("file", "front.jpg", "image/jpeg", "same bytes".getBytes());
+        MultipartFile second = new MockMultipartFile("file", "FRONT-copy.JPG", "image/jpeg", "same bytes".getBytes());
+
+        // When
+        String result1 = underTest.storeFile(first, "covers");
+        String result2 = underTest.storeFile(second, "covers");
+
+        // Then - named after the SHA-256 of the content
+        assertThat(result1).isEqualTo("covers/58100dc8fc06562ce3e578231dc948e083520ee49c4b4ee5a5a28bb4b4003feb.jpg");
+        assertThat(result2).isEqualTo(result1);
+        try (var files = Files.list(tempDir.resolve("covers"))) {
+            assertThat(files.filter(Files::isRegularFile).toList()).hasSize(1);
+        }
+    }
+
+    @Test
+    void testReleaseKeepsFileStillUsedByAnotherBook() throws IOException {
+        // Given
+        String result = storeAged("shared cover");
+        when(bookRepository.countByCoverImagePath(result)).thenReturn(1L);
+
+        // When
+        underTest.release(result);
+
+        // Then
+        assertThat(Files.exists(tempDir.resolve(result))).isTrue();
+    }
+
+    @Test
+    void testReleaseDeletesUnreferencedFile() throws IOException {
+        // Given
+        String result = storeAged("old cover");
+        when(bookRepository.countByCoverImagePath(result)).thenReturn(0L);
+
+        // When
+        underTest.release(result);
+
+        // Then
+        assertThat(Files.exists(tempDir.resolve(result))).isFalse();
+    }
+
+    @Test
+    void testReleaseKeepsFreshlyUploadedFile() {
+        // Given - uploaded moments ago, the book using it may not have been saved yet
+        String result = underTest.storeFile(
+                new MockMultipartFile("file", "new.jpg", "image/jpeg", "new cover".getBytes()), "covers");
+
+        // When
+        underTest.release(result);
+
+        // Then
+        assertThat(Files.exists(tempDir.resolve(result))).isTrue();
+    }
+
+    @Test
+    void testCollectGarbageDeletesOnlyStaleUnreferencedFiles() throws IOException {
+        // Given
+        String referenced = storeAged("referenced");
+        String orphan = storeAged("orphan");
+        String fresh = underTest.storeFile(
+                new MockMultipartFile("file", "fresh.jpg", "image/jpeg", "fresh".getBytes()), "covers");
+        when(bookRepository.findAllCoverImagePaths()).thenReturn(List.of(referenced));
+
+        // When
+        int deleted = underTest.collectGarbage();
+
+        // Then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(Files.exists(tempDir.resolve(referenced))).isTrue();
+        assertThat(Files.exists(tempDir.resolve(orphan))).isFalse();
+        assertThat(Files.exists(tempDir.resolve(fresh))).isTrue();
+    }
+
+    @Test
+    void testReuploadOfOrphanSurvivesCollection() throws IOException {
+        // Given - an orphan gets uploaded again before its new book is saved
+        String orphan = storeAged("orphan");
+        underTest.storeFile(new MockMultipartFile("file", "again.jpg", "image/jpeg", "orphan".getBytes()), "covers");
+        when(bookRepository.findAllCoverImagePaths()).thenReturn(List.of());
+
+        // When
+        underTest.collectGarbage();
+
+        // Then
+        assertThat(Files.exists(tempDir.resolve(orphan))).isTrue();
+    }
+
+    private String storeAged(String content) throws IOException {
+        String result = underTest.storeFile(
+                new MockMultipartFile("file", "cover.jpg", "image/jpeg", content.getBytes()), "covers");
+        Files.setLastModifiedTime(tempDir.resolve(result), FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        return result;
+    }
+
+    private static byte[] image(int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
 }
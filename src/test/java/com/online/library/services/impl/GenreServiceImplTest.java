@@ -5,6 +5,8 @@ import com.online.library.domain.entities.GenreEntity;
 import com.online.library.exceptions.ResourceNotFoundException;
 import com.online.library.mappers.Mapper;
 import com.online.library.repositories.GenreRepository;
+import com.online.library.services.BookService;
+import com.online.library.services.EntityCacheService;
 import com.online.library.utils.TestDataUtil;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -33,6 +35,12 @@ public class GenreServiceImplTest {
     @Mock
     private Mapper<GenreEntity, GenreDto> genreMapper;
 
+    @Mock
+    private EntityCacheService entityCacheService;
+
+    @Mock
+    private BookService bookService;
+
     @InjectMocks
     private GenreServiceImpl underTest;
 
@@ -49,6 +57,7 @@ public class GenreServiceImplTest {
 
         assertThat(result).isEqualTo(genreDto);
         verify(genreRepository, times(1)).save(genreEntity);
+        verify(entityCacheService, never()).evictGenre(any());
     }
 
     @Test
@@ -139,6 +148,8 @@ public class GenreServiceImplTest {
         underTest.delete(genreId);
 
         verify(genreRepository, times(1)).deleteById(genreId);
+        verify(entityCacheService).evictDeletedGenre(genreId);
+        verify(bookService).reindexGenre(genreId);
     }
 
     @Test
@@ -0,0 +1,144 @@
+package com.online.library.services.impl;
+
+import com.online.library.domain.dto.BookAvailabilityDto;
+import com.online.library.domain.enums.ReservationStatus;
+import com.online.library.exceptions.ResourceNotFoundException;
+import com.online.library.repositories.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InventoryServiceImplTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private InventoryServiceImpl underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new InventoryServiceImpl(bookRepository, 2, Runnable::run);
+    }
+
+    private void givenAvailability(Long bookId, Integer copies, long loaned) {
+        when(bookRepository.findAvailabilityById(bookId, ReservationStatus.WYPOŻYCZONA))
+                .thenReturn(Optional.of(new BookAvailabilityDto(copies, loaned)));
+    }
+
+    @Test
+    public void testHasAvailableCopiesReturnsTrue() {
+        givenAvailability(1L, 5, 2L);
+
+        assertThat(underTest.hasAvailableCopies(1L)).isTrue();
+    }
+
+    @Test
+    public void testHasAvailableCopiesReturnsFalseWhenAllLoaned() {
+        givenAvailability(1L, 3, 3L);
+
+        assertThat(underTest.hasAvailableCopies(1L)).isFalse();
+    }
+
+    @Test
+    public void testHasAvailableCopiesReturnsFalseWhenZeroCopies() {
+        givenAvailability(1L, 0, 0L);
+
+        assertThat(underTest.hasAvailableCopies(1L)).isFalse();
+    }
+
+    @Test
+    public void testHasAvailableCopiesReturnsFalseWhenCopiesNull() {
+        givenAvailability(1L, null, 0L);
+
+        assertThat(underTest.hasAvailableCopies(1L)).isFalse();
+    }
+
+    @Test
+    public void testHasAvailableCopiesThrowsWhenBookNotFound() {
+        when(bookRepository.findAvailabilityById(999L, ReservationStatus.WYPOŻYCZONA)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> underTest.hasAvailableCopies(999L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Book not found");
+    }
+
+    @Test
+    public void testThatAvailabilityIsServedFromMemoryAfterFirstRead() {
+        givenAvailability(1L, 5, 0L);
+
+        underTest.hasAvailableCopies(1L);
+        underTest.hasAvailableCopies(1L);
+
+        verify(bookRepository, times(1)).findAvailabilityById(1L, ReservationStatus.WYPOŻYCZONA);
+    }
+
+    @Test
+    public void testThatCheckOutAdjustsCachedAvailability() {
+        givenAvailability(1L, 2, 0L);
+        when(bookRepository.decrementCopiesAvailable(1L)).thenReturn(1);
+
+        assertThat(underTest.hasAvailableCopies(1L)).isTrue();
+        underTest.checkOut(1L);
+
+        // One copy left on the shelf, one loaned out.
+        assertThat(underTest.hasAvailableCopies(1L)).isFalse();
+        verify(bookRepository, times(1)).findAvailabilityById(1L, ReservationStatus.WYPOŻYCZONA);
+    }
+
+    @Test
+    public void testThatCheckInAdjustsCachedAvailability() {
+        givenAvailability(1L, 1, 1L);
+        when(bookRepository.incrementCopiesAvailable(1L)).thenReturn(1);
+
+        assertThat(underTest.hasAvailableCopies(1L)).isFalse();
+        underTest.checkIn(1L);
+
+        assertThat(underTest.hasAvailableCopies(1L)).isTrue();
+    }
+
+    @Test
+    public void testCheckOutThrowsWhenNoCopiesLeft() {
+        when(bookRepository.decrementCopiesAvailable(1L)).thenReturn(0);
+
+        assertThatThrownBy(() -> underTest.checkOut(1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("No copies available");
+    }
+
+    @Test
+    public void testThatEvictReloadsAvailability() {
+        givenAvailability(1L, 5, 0L);
+
+        underTest.hasAvailableCopies(1L);
+        underTest.evict(1L);
+        underTest.hasAvailableCopies(1L);
+
+        verify(bookRepository, times(2)).findAvailabilityById(1L, ReservationStatus.WYPOŻYCZONA);
+    }
+
+    @Test
+    public void testThatCacheDoesNotGrowPastItsLimit() {
+        givenAvailability(1L, 5, 0L);
+        givenAvailability(2L, 5, 0L);
+        givenAvailability(3L, 5, 0L);
+
+        underTest.hasAvailableCopies(1L);
+        underTest.hasAvailableCopies(2L);
+        underTest.hasAvailableCopies(3L);
+        underTest.hasAvailableCopies(1L);
+        underTest.hasAvailableCopies(2L);
+        underTest.hasAvailableCopies(3L);
+
+        // With room for two books, at least one of them had to be read again.
+        verify(bookRepository, atLeast(4)).findAvailabilityById(anyLong(), eq(ReservationStatus.WYPOŻYCZONA));
+    }
+}
@@ -9,6 +9,7 @@ import com.online.library.mappers.Mapper;
 import com.online.library.repositories.BookRepository;
 import com.online.library.repositories.RatingRepository;
 import com.online.library.repositories.UserRepository;
+import com.online.library.search.SuggestionIndex;
 import com.online.library.utils.TestDataUtil;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -44,6 +45,9 @@ public class RatingServiceImplTest {
     @Mock
     private Mapper<RatingEntity, RatingDto> ratingMapper;
 
+    @Mock
+    private SuggestionIndex suggestionIndex;
+
     @InjectMocks
     private RatingServiceImpl underTest;
 
@@ -62,6 +66,33 @@ public class RatingServiceImplTest {
         verify(ratingRepository, times(1)).save(ratingEntity);
     }
 
+    @Test
+    public void testThatSaveMovingRatingToAnotherBookMovesTheVote() {
+        BookEntity oldBook = TestDataUtil.createTestBook();
+        oldBook.setId(1L);
+        BookEntity newBook = TestDataUtil.createTestBook();
+        newBook.setId(2L);
+        RatingEntity existingRating = TestDataUtil.createTestRating(null, oldBook);
+        existingRating.setId(1L);
+        existingRating.setRating(3);
+        RatingEntity movedRating = TestDataUtil.createTestRating(null, newBook);
+        movedRating.setId(1L);
+        movedRating.setRating(5);
+        RatingDto ratingDto = RatingDto.builder().id(1L).rating(5).build();
+
+        when(ratingRepository.findById(1L)).thenReturn(Optional.of(existingRating));
+        when(ratingMapper.mapFrom(ratingDto)).thenReturn(movedRating);
+        when(ratingRepository.save(movedRating)).thenReturn(movedRating);
+        when(ratingMapper.mapTo(movedRating)).thenReturn(ratingDto);
+
+        underTest.save(ratingDto);
+
+        verify(bookRepository, times(1)).applyRatingDelta(1L, -3, -1);
+        verify(bookRepository, times(1)).applyRatingDelta(2L, 5, 1);
+        verify(suggestionIndex, times(1)).markRatingStale(1L);
+        verify(suggestionIndex, times(1)).markRatingStale(2L);
+    }
+
     @Test
     public void testThatFindAllWithPageableReturnsPageOfRatings() {
         RatingEntity ratingEntity = TestDataUtil.createTestRating(null, null);
@@ -143,13 +174,29 @@ public class RatingServiceImplTest {
     }
 
     @Test
-    public void testThatDeleteCallsRepository() {
+    public void testThatDeleteRemovesRatingFromBookAggregates() {
         Long ratingId = 1L;
-        doNothing().when(ratingRepository).deleteById(ratingId);
+        BookEntity book = TestDataUtil.createTestBook();
+        book.setId(2L);
+        RatingEntity rating = TestDataUtil.createTestRating(null, book);
+        rating.setId(ratingId);
+
+        when(ratingRepository.findById(ratingId)).thenReturn(Optional.of(rating));
 
         underTest.delete(ratingId);
 
-        verify(ratingRepository, times(1)).deleteById(ratingId);
+        verify(ratingRepository, times(1)).delete(rating);
+        verify(bookRepository, times(1)).applyRatingDelta(2L, -5, -1);
+    }
+
+    @Test
+    public void testThatDeleteIgnoresMissingRating() {
+        when(ratingRepository.findById(1L)).thenReturn(Optional.empty());
+
+        underTest.delete(1L);
+
+        verify(ratingRepository, never()).delete(any(RatingEntity.class));
+        verifyNoInteractions(bookRepository);
     }
 
     @Test
@@ -200,14 +247,14 @@ public class RatingServiceImplTest {
         when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
         when(ratingRepository.findByUserAndBook(user, book)).thenReturn(Optional.empty());
         when(ratingRepository.save(any(RatingEntity.class))).thenReturn(savedRating);
-        when(ratingRepository.calculateAverageRatingByBookId(bookId)).thenReturn(Optional.of(new BigDecimal("4.00")));
         when(ratingMapper.mapTo(savedRating)).thenReturn(ratingDto);
 
         RatingDto result = underTest.rateBook(userId, bookId, ratingValue);
 
         assertThat(result).isEqualTo(ratingDto);
         verify(ratingRepository, times(1)).save(any(RatingEntity.class));
-        verify(bookRepository, times(1)).save(book);
+        verify(bookRepository, times(1)).applyRatingDelta(bookId, 4, 1);
+        verify(bookRepository, never()).save(any(BookEntity.class));
     }
 
     @Test
@@ -228,7 +275,6 @@ public class RatingServiceImplTest {
         when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
         when(ratingRepository.findByUserAndBook(user, book)).thenReturn(Optional.of(existingRating));
         when(ratingRepository.save(existingRating)).thenReturn(existingRating);
-        when(ratingRepository.calculateAverageRatingByBookId(bookId)).thenReturn(Optional.of(new BigDecimal("5.00")));
         when(ratingMapper.mapTo(existingRating)).thenReturn(ratingDto);
 
         RatingDto result = underTest.rateBook(userId, bookId, newRatingValue);
@@ -236,6 +282,7 @@ public class RatingServiceImplTest {
         assertThat(result.getRating()).isEqualTo(newRatingValue);
         assertThat(existingRating.getRating()).isEqualTo(newRatingValue);
         verify(ratingRepository, times(1)).save(existingRating);
+        verify(bookRepository, times(1)).applyRatingDelta(bookId, 2, 0);
     }
 
     @Test
@@ -270,7 +317,7 @@ public class RatingServiceImplTest {
         Long bookId = 1L;
         BigDecimal expectedAverage = new BigDecimal("4.50");
 
-        when(ratingRepository.calculateAverageRatingByBookId(bookId))
+        when(bookRepository.findAverageRatingById(bookId))
                 .thenReturn(Optional.of(expectedAverage));
 
         BigDecimal result = underTest.calculateAverageRating(bookId);
@@ -282,7 +329,7 @@ public class RatingServiceImplTest {
     public void testThatCalculateAverageRatingReturnsZeroWhenNoRatings() {
         Long bookId = 1L;
 
-        when(ratingRepository.calculateAverageRatingByBookId(bookId))
+        when(bookRepository.findAverageRatingById(bookId))
                 .thenReturn(Optional.empty());
 
         BigDecimal result = underTest.calculateAverageRating(bookId);
@@ -295,7 +342,7 @@ public class RatingServiceImplTest {
         Long bookId = 1L;
         Long expectedCount = 10L;
 
-        when(ratingRepository.countRatingsByBookId(bookId)).thenReturn(expectedCount);
+        when(bookRepository.findRatingCountById(bookId)).thenReturn(Optional.of(expectedCount));
 
         Long result = underTest.countRatingsForBook(bookId);
 
@@ -0,0 +1,96 @@
+package com.online.library.services.impl;
+
+import com.online.library.domain.entities.BookEntity;
+import com.online.library.domain.entities.ReservationEntity;
+import com.online.library.domain.entities.UserEntity;
+import com.online.library.domain.enums.ReservationStatus;
+import com.online.library.repositories.BookRepository;
+import com.online.library.repositories.ReservationRepository;
+import com.online.library.repositories.UserRepository;
+import com.online.library.services.ReservationService;
+import com.online.library.utils.TestDataUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Not @Transactional: every loan has to commit on its own thread for the race to be real.
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class ReservationServiceConcurrencyTest {
+
+    private static final int COPIES = 3;
+    private static final int BORROWERS = 20;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Test
+    public void testThatConcurrentLoansNeverOversellCopies() throws Exception {
+        BookEntity book = TestDataUtil.createTestBook();
+        book.setCopiesAvailable(COPIES);
+        book = bookRepository.save(book);
+
+        List<Long> reservationIds = new ArrayList<>();
+        for (int i = 0; i < BORROWERS; i++) {
+            UserEntity user = TestDataUtil.createTestUser();
+            user.setUsername("borrower" + i);
+            user.setEmail("borrower" + i + "@example.com");
+            ReservationEntity reservation = TestDataUtil.createTestReservation(userRepository.save(user), book);
+            reservation.setStatus(ReservationStatus.POTWIERDZONA);
+            reservationIds.add(reservationRepository.save(reservation).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(BORROWERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (Long reservationId : reservationIds) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        reservationService.changeStatus(reservationId, ReservationStatus.WYPOŻYCZONA);
+                        return true;
+                    } catch (IllegalStateException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int loaned = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    loaned++;
+                }
+            }
+
+            assertThat(loaned).isEqualTo(COPIES);
+            assertThat(bookRepository.findById(book.getId()).orElseThrow().getCopiesAvailable()).isZero();
+            assertThat(reservationRepository.countByBookIdAndStatus(book.getId(), ReservationStatus.WYPOŻYCZONA))
+                    .isEqualTo(COPIES);
+            assertThat(reservationService.hasAvailableCopies(book.getId())).isFalse();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.online.library.mappers.Mapper;
 import com.online.library.repositories.BookRepository;
 import com.online.library.repositories.ReservationRepository;
 import com.online.library.repositories.UserRepository;
+import com.online.library.services.InventoryService;
 import com.online.library.utils.TestDataUtil;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -44,6 +45,9 @@ public class ReservationServiceImplTest {
     @Mock
     private Mapper<ReservationEntity, ReservationDto> reservationMapper;
 
+    @Mock
+    private InventoryService inventoryService;
+
     @InjectMocks
     private ReservationServiceImpl underTest;
 
@@ -173,12 +177,10 @@ public class ReservationServiceImplTest {
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book)); // called in createReservation AND
-                                                                             // hasAvailableCopies
+        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
         when(reservationRepository.findByUserIdAndBookIdAndStatusIsActive(userId, bookId))
                 .thenReturn(Optional.empty());
-        when(reservationRepository.countByBookIdAndStatus(bookId, ReservationStatus.WYPOŻYCZONA))
-                .thenReturn(0L);
+        when(inventoryService.hasAvailableCopies(bookId)).thenReturn(true);
         when(reservationRepository.save(any(ReservationEntity.class))).thenReturn(savedReservation);
         when(reservationMapper.mapTo(savedReservation)).thenReturn(expectedDto);
 
@@ -189,7 +191,7 @@ public class ReservationServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.getStatus()).isEqualTo(ReservationStatus.OCZEKUJĄCA);
         verify(userRepository).findById(userId);
-        verify(bookRepository, times(2)).findById(bookId); // called twice: createReservation + hasAvailableCopies
+        verify(bookRepository, times(1)).findById(bookId);
         verify(reservationRepository).save(any(ReservationEntity.class));
     }
 
@@ -273,6 +275,7 @@ public class ReservationServiceImplTest {
         when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
         when(reservationRepository.findByUserIdAndBookIdAndStatusIsActive(userId, bookId))
                 .thenReturn(Optional.empty());
+        when(inventoryService.hasAvailableCopies(bookId)).thenReturn(false);
 
         // When/Then
         assertThatThrownBy(() -> underTest.createReservation(userId, bookId))
@@ -307,7 +310,7 @@ public class ReservationServiceImplTest {
         // Then
         assertThat(result.getStatus()).isEqualTo(ReservationStatus.POTWIERDZONA);
         verify(reservationRepository).save(any(ReservationEntity.class));
-        verify(bookRepository, never()).save(any());
+        verifyNoInteractions(inventoryService);
     }
 
     @Test
@@ -316,7 +319,7 @@ public class ReservationServiceImplTest {
         Long reservationId = 1L;
         UserEntity user = TestDataUtil.createTestUser();
         BookEntity book = TestDataUtil.createTestBook();
-        book.setCopiesAvailable(5);
+        book.setId(2L);
         ReservationEntity reservation = TestDataUtil.createTestReservation(user, book);
         reservation.setId(reservationId);
         reservation.setStatus(ReservationStatus.POTWIERDZONA);
@@ -328,7 +331,6 @@ public class ReservationServiceImplTest {
 
         when(reservationRepository.findById(reservationId)).thenReturn(Optional.of(reservation));
         when(reservationRepository.save(any(ReservationEntity.class))).thenReturn(reservation);
-        when(bookRepository.save(any(BookEntity.class))).thenReturn(book);
         when(reservationMapper.mapTo(any(ReservationEntity.class))).thenReturn(expectedDto);
 
         // When
@@ -336,18 +338,37 @@ public class ReservationServiceImplTest {
 
         // Then
         assertThat(result.getStatus()).isEqualTo(ReservationStatus.WYPOŻYCZONA);
-        assertThat(book.getCopiesAvailable()).isEqualTo(4);
-        verify(bookRepository).save(book);
+        verify(inventoryService).checkOut(2L);
         verify(reservationRepository).save(any(ReservationEntity.class));
     }
 
+    @Test
+    public void testChangeStatusToWypozyczonaThrowsWhenLastCopyIsTaken() {
+        // Given
+        Long reservationId = 1L;
+        BookEntity book = TestDataUtil.createTestBook();
+        book.setId(2L);
+        ReservationEntity reservation = TestDataUtil.createTestReservation(TestDataUtil.createTestUser(), book);
+        reservation.setId(reservationId);
+        reservation.setStatus(ReservationStatus.POTWIERDZONA);
+
+        when(reservationRepository.findById(reservationId)).thenReturn(Optional.of(reservation));
+        doThrow(new IllegalStateException("No copies available")).when(inventoryService).checkOut(2L);
+
+        // When/Then
+        assertThatThrownBy(() -> underTest.changeStatus(reservationId, ReservationStatus.WYPOŻYCZONA))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("No copies available");
+        verify(reservationRepository, never()).save(any());
+    }
+
     @Test
     public void testChangeStatusFromWypozyczonaToZwroconaIncrementsCopies() {
         // Given
         Long reservationId = 1L;
         UserEntity user = TestDataUtil.createTestUser();
         BookEntity book = TestDataUtil.createTestBook();
-        book.setCopiesAvailable(4);
+        book.setId(2L);
         ReservationEntity reservation = TestDataUtil.createTestReservation(user, book);
         reservation.setId(reservationId);
         reservation.setStatus(ReservationStatus.WYPOŻYCZONA);
@@ -359,7 +380,6 @@ public class ReservationServiceImplTest {
 
         when(reservationRepository.findById(reservationId)).thenReturn(Optional.of(reservation));
         when(reservationRepository.save(any(ReservationEntity.class))).thenReturn(reservation);
-        when(bookRepository.save(any(BookEntity.class))).thenReturn(book);
         when(reservationMapper.mapTo(any(ReservationEntity.class))).thenReturn(expectedDto);
 
         // When
@@ -367,8 +387,7 @@ public class ReservationServiceImplTest {
 
         // Then
         assertThat(result.getStatus()).isEqualTo(ReservationStatus.ZWRÓCONA);
-        assertThat(book.getCopiesAvailable()).isEqualTo(5);
-        verify(bookRepository).save(book);
+        verify(inventoryService).checkIn(2L);
     }
 
     @Test
@@ -480,15 +499,10 @@ public class ReservationServiceImplTest {
         // Given
         Long userId = 1L;
         Long bookId = 2L;
-        BookEntity book = TestDataUtil.createTestBook();
-        book.setId(bookId);
-        book.setCopiesAvailable(5);
 
         when(reservationRepository.findByUserIdAndBookIdAndStatusIsActive(userId, bookId))
                 .thenReturn(Optional.empty());
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
-        when(reservationRepository.countByBookIdAndStatus(bookId, ReservationStatus.WYPOŻYCZONA))
-                .thenReturn(2L);
+        when(inventoryService.hasAvailableCopies(bookId)).thenReturn(true);
 
         // When
         boolean result = underTest.canUserReserveBook(userId, bookId);
@@ -526,13 +540,10 @@ public class ReservationServiceImplTest {
         // Given
         Long userId = 1L;
         Long bookId = 2L;
-        BookEntity book = TestDataUtil.createTestBook();
-        book.setId(bookId);
-        book.setCopiesAvailable(0);
 
         when(reservationRepository.findByUserIdAndBookIdAndStatusIsActive(userId, bookId))
                 .thenReturn(Optional.empty());
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        when(inventoryService.hasAvailableCopies(bookId)).thenReturn(false);
 
         // When
         boolean result = underTest.canUserReserveBook(userId, bookId);
@@ -542,82 +553,25 @@ public class ReservationServiceImplTest {
     }
 
     @Test
-    public void testHasAvailableCopiesReturnsTrue() {
+    public void testHasAvailableCopiesDelegatesToInventory() {
         // Given
         Long bookId = 1L;
-        BookEntity book = TestDataUtil.createTestBook();
-        book.setId(bookId);
-        book.setCopiesAvailable(5);
-
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
-        when(reservationRepository.countByBookIdAndStatus(bookId, ReservationStatus.WYPOŻYCZONA))
-                .thenReturn(2L);
+        when(inventoryService.hasAvailableCopies(bookId)).thenReturn(true);
 
         // When
         boolean result = underTest.hasAvailableCopies(bookId);
 
         // Then
         assertThat(result).isTrue();
-    }
-
-    @Test
-    public void testHasAvailableCopiesReturnsFalseWhenAllLoaned() {
-        // Given
-        Long bookId = 1L;
-        BookEntity book = TestDataUtil.createTestBook();
-        book.setId(bookId);
-        book.setCopiesAvailable(3);
-
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
-        when(reservationRepository.countByBookIdAndStatus(bookId, ReservationStatus.WYPOŻYCZONA))
-                .thenReturn(3L);
-
-        // When
-        boolean result = underTest.hasAvailableCopies(bookId);
-
-        // Then
-        assertThat(result).isFalse();
-    }
-
-    @Test
-    public void testHasAvailableCopiesReturnsFalseWhenZeroCopies() {
-        // Given
-        Long bookId = 1L;
-        BookEntity book = TestDataUtil.createTestBook();
-        book.setId(bookId);
-        book.setCopiesAvailable(0);
-
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
-
-        // When
-        boolean result = underTest.hasAvailableCopies(bookId);
-
-        // Then
-        assertThat(result).isFalse();
-    }
-
-    @Test
-    public void testHasAvailableCopiesReturnsFalseWhenCopiesNull() {
-        // Given
-        Long bookId = 1L;
-        BookEntity book = TestDataUtil.createTestBook();
-        book.setId(bookId);
-        book.setCopiesAvailable(null);
-
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
-
-        // When
-        boolean result = underTest.hasAvailableCopies(bookId);
-
-        // Then
-        assertThat(result).isFalse();
+        verifyNoInteractions(bookRepository);
     }
 
     @Test
     public void testHasAvailableCopiesThrowsWhenBookNotFound() {
         // Given
         Long bookId = 999L;
-        when(bookRepository.findById(bookId)).thenReturn(Optional.empty());
+        when(inventoryService.hasAvailableCopies(bookId))
+                .thenThrow(new ResourceNotFoundException("Book not found"));
 
         // When/Then
         assertThatThrownBy(() -> underTest.hasAvailableCopies(bookId))
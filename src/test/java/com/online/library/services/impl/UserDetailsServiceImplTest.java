@@ -3,14 +3,16 @@ package com.online.library.services.impl;
 import com.online.library.domain.entities.UserEntity;
 import com.online.library.domain.enums.UserRole;
 import com.online.library.repositories.UserRepository;
+import com.online.library.security.LibraryUserDetails;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -23,9 +25,13 @@ class UserDetailsServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
     private UserDetailsServiceImpl underTest;
 
+    @BeforeEach
+    void setUp() {
+        underTest = new UserDetailsServiceImpl(userRepository, 100, Duration.ofMinutes(10));
+    }
+
     @Test
     void testLoadUserByUsernameSuccessfully() {
         // Given
@@ -168,4 +174,112 @@ class UserDetailsServiceImplTest {
 
         verify(userRepository).findByUsername(username);
     }
+
+    @Test
+    void testLoadUserByUsernameCarriesIdAndRole() {
+        // Given
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(user(7L, "admin", UserRole.ADMIN)));
+
+        // When
+        UserDetails result = underTest.loadUserByUsername("admin");
+
+        // Then
+        assertThat(result).isInstanceOf(LibraryUserDetails.class);
+        assertThat(((LibraryUserDetails) result).getId()).isEqualTo(7L);
+        assertThat(((LibraryUserDetails) result).getRole()).isEqualTo(UserRole.ADMIN);
+    }
+
+    @Test
+    void testRepeatedLoadsAreServedFromCache() {
+        // Given
+        when(userRepository.findByUsername("cached")).thenReturn(Optional.of(user(1L, "cached", UserRole.USER)));
+
+        // When
+        UserDetails first = underTest.loadUserByUsername("cached");
+        UserDetails second = underTest.loadUserByUsername("cached");
+
+        // Then
+        assertThat(second.getUsername()).isEqualTo("cached");
+        assertThat(second).isNotSameAs(first);
+        verify(userRepository, times(1)).findByUsername("cached");
+    }
+
+    @Test
+    void testErasedCredentialsDoNotReachCache() {
+        // Given - Spring Security erases the password of the principal it authenticated
+        when(userRepository.findByUsername("cached")).thenReturn(Optional.of(user(1L, "cached", UserRole.USER)));
+        ((LibraryUserDetails) underTest.loadUserByUsername("cached")).eraseCredentials();
+
+        // When
+        UserDetails result = underTest.loadUserByUsername("cached");
+
+        // Then
+        assertThat(result.getPassword()).isEqualTo("encodedPassword");
+    }
+
+    @Test
+    void testEvictReloadsAccount() {
+        // Given
+        when(userRepository.findByUsername("cached")).thenReturn(Optional.of(user(1L, "cached", UserRole.USER)));
+        underTest.loadUserByUsername("cached");
+        when(userRepository.findByUsername("cached")).thenReturn(Optional.of(user(1L, "cached", UserRole.ADMIN)));
+
+        // When
+        underTest.evict("cached");
+        UserDetails result = underTest.loadUserByUsername("cached");
+
+        // Then
+        assertThat(result.getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN");
+        verify(userRepository, times(2)).findByUsername("cached");
+    }
+
+    @Test
+    void testUnknownUserIsNotCached() {
+        // Given
+        when(userRepository.findByUsername("newuser")).thenReturn(Optional.empty())
+                .thenReturn(Optional.of(user(2L, "newuser", UserRole.USER)));
+        assertThatThrownBy(() -> underTest.loadUserByUsername("newuser"))
+                .isInstanceOf(UsernameNotFoundException.class);
+
+        // When - registered in the meantime
+        UserDetails result = underTest.loadUserByUsername("newuser");
+
+        // Then
+        assertThat(result.getUsername()).isEqualTo("newuser");
+    }
+
+    private static UserEntity user(Long id, String username, UserRole role) {
+        return UserEntity.builder()
+                .id(id)
+                .username(username)
+                .password("encodedPassword")
+                .email(username + "@example.com")
+                .role(role)
+                .enabled(true)
+                .build();
+    }
+
+    @Test
+    void testUpdatePasswordStoresNewHashAndEvictsAccount() {
+        // Given
+        UserEntity userEntity = UserEntity.builder()
+                .id(1L)
+                .username("testuser")
+                .password("$2a$04$oldHash")
+                .role(UserRole.USER)
+                .enabled(true)
+                .build();
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(userEntity));
+        underTest.loadUserByUsername("testuser");
+
+        // When
+        UserDetails result = underTest.updatePassword(underTest.loadUserByUsername("testuser"), "$2a$10$newHash");
+
+        // Then
+        assertThat(result.getPassword()).isEqualTo("$2a$10$newHash");
+        assertThat(userEntity.getPassword()).isEqualTo("$2a$10$newHash");
+        verify(userRepository).save(userEntity);
+        underTest.loadUserByUsername("testuser");
+        verify(userRepository, times(3)).findByUsername("testuser");
+    }
 }
@@ -5,7 +5,12 @@ import com.online.library.domain.dto.UserResponseDto;
 import com.online.library.domain.entities.UserEntity;
 import com.online.library.exceptions.ResourceNotFoundException;
 import com.online.library.mappers.impl.UserMapper;
+import com.online.library.repositories.BookRepository;
+import com.online.library.repositories.RatingRepository;
 import com.online.library.repositories.UserRepository;
+import com.online.library.search.SuggestionIndex;
+import com.online.library.security.TokenRevocationList;
+import com.online.library.services.LibraryUserDetailsService;
 import com.online.library.utils.TestDataUtil;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -38,6 +43,21 @@ public class UserServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private RatingRepository ratingRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @Mock
+    private LibraryUserDetailsService userDetailsService;
+
+    @Mock
+    private SuggestionIndex suggestionIndex;
+
     @InjectMocks
     private UserServiceImpl underTest;
 
@@ -173,6 +193,17 @@ public class UserServiceImplTest {
         verify(userRepository, times(1)).deleteById(userId);
     }
 
+    @Test
+    public void testThatDeleteRecalculatesAggregatesOfRatedBooks() {
+        Long userId = 1L;
+        when(ratingRepository.findRatedBookIdsByUserId(userId)).thenReturn(List.of(3L, 4L));
+
+        underTest.delete(userId);
+
+        verify(userRepository, times(1)).deleteById(userId);
+        verify(bookRepository, times(1)).recalculateRatingAggregates(List.of(3L, 4L));
+    }
+
     @Test
     public void testThatFindByUsernameReturnsUserWhenExists() {
         String username = "testuser";
@@ -305,6 +336,96 @@ public class UserServiceImplTest {
         assertThat(existingUser.getPassword()).isEqualTo(originalPassword);
     }
 
+    @Test
+    public void testThatPartialUpdateRevokesTokensIssuedUnderPreviousUsername() {
+        Long userId = 1L;
+        UserEntity existingUser = TestDataUtil.createTestUser();
+        existingUser.setId(userId);
+        String previousUsername = existingUser.getUsername();
+
+        UserRequestDto updateDto = UserRequestDto.builder().username("newusername").build();
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(userRepository.save(any(UserEntity.class))).thenReturn(existingUser);
+        when(userMapper.mapToResponse(any(UserEntity.class))).thenReturn(UserResponseDto.builder().build());
+
+        underTest.partialUpdate(userId, updateDto);
+
+        verify(tokenRevocationList).revokeUser(previousUsername);
+        verify(userDetailsService).evict(previousUsername);
+    }
+
+    @Test
+    public void testThatPartialUpdateDisablingUserLocksOutTokens() {
+        Long userId = 1L;
+        UserEntity existingUser = TestDataUtil.createTestUser();
+        existingUser.setId(userId);
+
+        UserRequestDto updateDto = UserRequestDto.builder().enabled(false).build();
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(userRepository.save(any(UserEntity.class))).thenReturn(existingUser);
+        when(userMapper.mapToResponse(any(UserEntity.class))).thenReturn(UserResponseDto.builder().build());
+
+        underTest.partialUpdate(userId, updateDto);
+
+        verify(tokenRevocationList).lockOutUser(existingUser.getUsername());
+        verify(tokenRevocationList, never()).revokeUser(any());
+    }
+
+    @Test
+    public void testThatPartialUpdateWithoutCredentialChangesKeepsTokens() {
+        Long userId = 1L;
+        UserEntity existingUser = TestDataUtil.createTestUser();
+        existingUser.setId(userId);
+
+        UserRequestDto updateDto = UserRequestDto.builder().email("new@example.com").password("").build();
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(userRepository.save(any(UserEntity.class))).thenReturn(existingUser);
+        when(userMapper.mapToResponse(any(UserEntity.class))).thenReturn(UserResponseDto.builder().build());
+
+        underTest.partialUpdate(userId, updateDto);
+
+        verify(tokenRevocationList, never()).revokeUser(any());
+        verify(userDetailsService).evict(existingUser.getUsername());
+    }
+
+    @Test
+    public void testThatSaveOverExistingUserRevokesTokens() {
+        Long userId = 1L;
+        UserEntity existingUser = TestDataUtil.createTestUser();
+        existingUser.setId(userId);
+        String previousUsername = existingUser.getUsername();
+        UserRequestDto userRequestDto = UserRequestDto.builder().id(userId).username("newusername")
+                .password("newPassword123").build();
+        UserEntity replacement = UserEntity.builder().id(userId).username("newusername")
+                .password("newPassword123").build();
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(userMapper.mapFromRequest(userRequestDto)).thenReturn(replacement);
+        when(userRepository.save(replacement)).thenReturn(replacement);
+        when(userMapper.mapToResponse(replacement)).thenReturn(UserResponseDto.builder().build());
+
+        underTest.save(userRequestDto);
+
+        verify(tokenRevocationList).revokeUser(previousUsername);
+        verify(userDetailsService).evict(previousUsername);
+    }
+
+    @Test
+    public void testThatDeleteRevokesTokens() {
+        Long userId = 1L;
+        UserEntity existingUser = TestDataUtil.createTestUser();
+        existingUser.setId(userId);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+
+        underTest.delete(userId);
+
+        verify(tokenRevocationList).lockOutUser(existingUser.getUsername());
+        verify(userDetailsService).evict(existingUser.getUsername());
+    }
+
     @Test
     public void testThatIsExistsReturnsFalseWhenNotExists() {
         when(userRepository.existsById(999L)).thenReturn(false);
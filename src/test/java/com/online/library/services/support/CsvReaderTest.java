@@ -0,0 +1,50 @@
+package com.online.library.services.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CsvReaderTest {
+
+    @Test
+    public void testThatQuotedFieldsMayContainSeparatorsQuotesAndLineBreaks() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(
+                "\uFEFFa;b\r\n\"x;y\";\"say \"\"hi\"\"\"\r\n\r\n\"two\nlines\";\n"), ';');
+
+        assertThat(reader.next()).containsExactly("a", "b");
+        assertThat(reader.next()).containsExactly("x;y", "say \"hi\"");
+        assertThat(reader.line()).isEqualTo(2);
+        assertThat(reader.next()).containsExactly("two\nlines", "");
+        assertThat(reader.line()).isEqualTo(4);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    public void testThatCsvWriterOutputReadsBack() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvWriter writer = new CsvWriter(out, ';');
+        writer.bom().field("Tytuł").field("a;b").endRow();
+        writer.field("\"cytat\"").field((String) null).endRow();
+        writer.flush();
+
+        CsvReader reader = new CsvReader(new StringReader(out.toString(StandardCharsets.UTF_8)), ';');
+
+        assertThat(reader.next()).isEqualTo(List.of("Tytuł", "a;b"));
+        assertThat(reader.next()).isEqualTo(List.of("\"cytat\"", ""));
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    public void testThatUnclosedQuoteIsRejected() {
+        CsvReader reader = new CsvReader(new StringReader("\"open;end\n"), ';');
+
+        assertThatThrownBy(reader::next).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,70 @@
+package com.online.library.services.support;
+
+import com.online.library.domain.dto.CursorPageDto;
+import com.online.library.exceptions.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class KeysetPaginationTest {
+
+    @Test
+    public void testThatIdCursorRoundTrips() {
+        assertThat(KeysetPagination.decodeId(KeysetPagination.encodeId(42L))).isEqualTo(42L);
+    }
+
+    @Test
+    public void testThatPositionCursorRoundTrips() {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 3, 1, 12, 30, 15, 123_456_000);
+
+        KeysetPagination.Position position =
+                KeysetPagination.decodePosition(KeysetPagination.encodePosition(timestamp, 7L));
+
+        assertThat(position).isEqualTo(new KeysetPagination.Position(timestamp, 7L));
+    }
+
+    @Test
+    public void testThatEmptyCursorStartsAtFirstPage() {
+        assertThat(KeysetPagination.decodeId("")).isZero();
+        assertThat(KeysetPagination.decodeId(null)).isZero();
+        assertThat(KeysetPagination.decodePosition("")).isNull();
+    }
+
+    @Test
+    public void testThatMalformedCursorsAreRejected() {
+        assertThatThrownBy(() -> KeysetPagination.decodeId("not base64!"))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> KeysetPagination.decodePosition(KeysetPagination.encodeId(1L)))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> KeysetPagination.decodeId(KeysetPagination.encodePosition(LocalDateTime.now(), 1L)))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    public void testThatSliceDetectsNextPageFromExtraRow() {
+        CursorPageDto<String> page = KeysetPagination.slice(List.of(1L, 2L, 3L), 2,
+                KeysetPagination::encodeId, String::valueOf);
+
+        assertThat(page.getContent()).containsExactly("1", "2");
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(KeysetPagination.decodeId(page.getNextCursor())).isEqualTo(2L);
+    }
+
+    @Test
+    public void testThatLastSliceHasNoCursor() {
+        CursorPageDto<String> page = KeysetPagination.slice(List.of(1L), 2, KeysetPagination::encodeId, String::valueOf);
+
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void testThatSizeIsClamped() {
+        assertThat(KeysetPagination.size(0)).isEqualTo(1);
+        assertThat(KeysetPagination.size(10_000)).isEqualTo(KeysetPagination.MAX_SIZE);
+    }
+}
@@ -0,0 +1,240 @@
+package com.online.library.storage;
+
+import com.online.library.domain.enums.ImageSize;
+import com.online.library.repositories.BookRepository;
+import com.online.library.services.impl.FileStorageServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class S3ObjectStorageTest {
+
+    private static final int PART_SIZE = 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private S3StubServer stub;
+    private S3ObjectStorage underTest;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new S3StubServer(2);
+        underTest = storage(Clock.systemUTC());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void testPutAndStatSmallObject() throws IOException {
+        // When
+        underTest.put("covers/abc.jpg", file("small", "jpeg bytes".getBytes()));
+
+        // Then
+        S3StubServer.StubObject stored = stub.object("covers/abc.jpg");
+        assertThat(stored.data()).isEqualTo("jpeg bytes".getBytes());
+        assertThat(stored.contentType()).isEqualTo("image/jpeg");
+        assertThat(stored.cacheControl()).contains("immutable");
+        assertThat(underTest.stat("covers/abc.jpg")).get()
+                .extracting(StoredObject::size).isEqualTo(10L);
+        assertThat(stub.requests).noneMatch(request -> request.contains("?uploads"));
+    }
+
+    @Test
+    void testPutLargeObjectUsesMultipartUpload() throws IOException {
+        // Given
+        byte[] data = new byte[PART_SIZE * 2 + 500];
+        new Random(42).nextBytes(data);
+
+        // When
+        underTest.put("covers/big.png", file("big", data));
+
+        // Then
+        assertThat(stub.object("covers/big.png").data()).isEqualTo(data);
+        assertThat(stub.object("covers/big.png").contentType()).isEqualTo("image/png");
+        assertThat(stub.requests).filteredOn(request -> request.contains("partNumber=")).hasSize(3);
+        assertThat(stub.openUploads()).isZero();
+    }
+
+    @Test
+    void testStatMissingObjectIsEmpty() throws IOException {
+        assertThat(underTest.stat("covers/missing.jpg")).isEmpty();
+    }
+
+    @Test
+    void testGetStreamsObject() throws IOException {
+        // Given
+        underTest.put("covers/a b.gif", file("gif", "gif bytes".getBytes()));
+
+        // When
+        var resource = underTest.get("covers/a b.gif");
+
+        // Then
+        assertThat(resource.exists()).isTrue();
+        assertThat(resource.contentLength()).isEqualTo(9);
+        assertThat(resource.getContentAsByteArray()).isEqualTo("gif bytes".getBytes());
+    }
+
+    @Test
+    void testGetMissingObjectFailsOnRead() {
+        var resource = underTest.get("covers/missing.jpg");
+
+        assertThat(resource.exists()).isFalse();
+        assertThatThrownBy(resource::getInputStream).isInstanceOf(FileNotFoundException.class);
+    }
+
+    @Test
+    void testTouchRefreshesLastModifiedAndKeepsMetadata() throws IOException {
+        // Given
+        Instant old = Instant.now().minus(Duration.ofDays(3));
+        stub.putObject("covers/old.jpg", "old".getBytes(), old);
+
+        // When
+        underTest.touch("covers/old.jpg");
+
+        // Then
+        assertThat(underTest.stat("covers/old.jpg")).get()
+                .extracting(StoredObject::lastModified).matches(time -> time.isAfter(old));
+        assertThat(stub.object("covers/old.jpg").data()).isEqualTo("old".getBytes());
+        assertThat(stub.object("covers/old.jpg").contentType()).isEqualTo("image/jpeg");
+    }
+
+    @Test
+    void testDeleteRemovesObject() throws IOException {
+        // Given
+        underTest.put("covers/gone.jpg", file("gone", "x".getBytes()));
+
+        // When
+        underTest.delete("covers/gone.jpg");
+
+        // Then
+        assertThat(stub.object("covers/gone.jpg")).isNull();
+    }
+
+    @Test
+    void testListFollowsContinuationTokens() throws IOException {
+        // Given - the stub returns two keys per page
+        for (int i = 0; i < 5; i++) {
+            stub.putObject("covers/" + i + ".jpg", new byte[i], Instant.now());
+        }
+        stub.putObject("other/x.jpg", new byte[1], Instant.now());
+
+        // When/Then
+        assertThat(underTest.list("covers/"))
+                .extracting(StoredObject::key)
+                .containsExactly("covers/0.jpg", "covers/1.jpg", "covers/2.jpg", "covers/3.jpg", "covers/4.jpg");
+    }
+
+    @Test
+    void testDownloadUrlIsPresignedAndStableWithinWindow() throws Exception {
+        // Given
+        underTest.put("covers/abc.jpg", file("abc", "jpeg bytes".getBytes()));
+        Instant windowStart = Instant.ofEpochSecond(Instant.now().getEpochSecond() / 3600 * 3600);
+
+        // When
+        URI url = storage(Clock.fixed(windowStart.plusSeconds(10), ZoneOffset.UTC))
+                .downloadUrl("covers/abc.jpg").orElseThrow();
+        URI later = storage(Clock.fixed(windowStart.plus(Duration.ofMinutes(50)), ZoneOffset.UTC))
+                .downloadUrl("covers/abc.jpg").orElseThrow();
+
+        // Then - plain GET without credentials, like a browser following the redirect
+        HttpResponse<byte[]> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(url).build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).isEqualTo("jpeg bytes".getBytes());
+        assertThat(url.getRawQuery()).contains("X-Amz-Signature=");
+        assertThat(later).isEqualTo(url);
+    }
+
+    @Test
+    void testTamperedDownloadUrlIsRejected() throws Exception {
+        // Given
+        underTest.put("covers/abc.jpg", file("abc", "jpeg bytes".getBytes()));
+        URI url = underTest.downloadUrl("covers/abc.jpg").orElseThrow();
+        URI tampered = URI.create(url.toString().replace("covers/abc.jpg", "covers/other.jpg"));
+
+        // When
+        HttpResponse<byte[]> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(tampered).build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(403);
+    }
+
+    @Test
+    void testPresignTtlLongerThanHalfTheMaximumExpiryIsRejected() {
+        // Given
+        S3Signer signer = new S3Signer(S3StubServer.ACCESS_KEY, S3StubServer.SECRET_KEY, S3StubServer.REGION);
+
+        // When/Then - a URL signed late in a four-day window would already be past the seven-day cap
+        assertThatThrownBy(() -> new S3ObjectStorage(stub.endpoint(), S3StubServer.BUCKET, true, signer,
+                PART_SIZE, Duration.ofDays(4), Clock.systemUTC()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(new S3ObjectStorage(stub.endpoint(), S3StubServer.BUCKET, true, signer,
+                PART_SIZE, Duration.ofHours(84), Clock.systemUTC()).downloadUrl("covers/abc.jpg")).isPresent();
+    }
+
+    @Test
+    void testFileStorageServiceKeepsOriginalsAndDerivativesInBucket() throws IOException {
+        // Given
+        FileStorageServiceImpl service = new FileStorageServiceImpl(underTest, Duration.ofHours(1),
+                mock(BookRepository.class));
+
+        // When
+        String path = service.storeFile(new MockMultipartFile("file", "cover.png", "image/png", image(900, 900)),
+                "covers");
+
+        // Then
+        String name = path.substring("covers/".length());
+        assertThat(stub.object(path)).isNotNull();
+        try (InputStream list = new ByteArrayInputStream(stub.object("covers/list/" + name).data())) {
+            assertThat(ImageIO.read(list).getWidth()).isEqualTo(400);
+        }
+        assertThat(service.findDownloadUrl(path, ImageSize.DETAIL)).get()
+                .extracting(URI::getRawPath).isEqualTo("/" + S3StubServer.BUCKET + "/covers/detail/" + name);
+    }
+
+    private S3ObjectStorage storage(Clock clock) {
+        return new S3ObjectStorage(stub.endpoint(), S3StubServer.BUCKET, true,
+                new S3Signer(S3StubServer.ACCESS_KEY, S3StubServer.SECRET_KEY, S3StubServer.REGION),
+                PART_SIZE, Duration.ofHours(1), clock);
+    }
+
+    private Path file(String name, byte[] data) throws IOException {
+        return Files.write(tempDir.resolve(name), data);
+    }
+
+    private static byte[] image(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
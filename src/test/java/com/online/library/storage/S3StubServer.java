@@ -0,0 +1,242 @@
+package com.online.library.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// A minimal in-memory S3 (path-style, one bucket) for tests: objects, listing, self-copy and multipart uploads.
+// Every request must carry a valid SigV4 signature, header or presigned.
+class S3StubServer implements AutoCloseable {
+
+    static final String BUCKET = "uploads";
+    static final String ACCESS_KEY = "stub-access";
+    static final String SECRET_KEY = "stub-secret";
+    static final String REGION = "us-east-1";
+
+    private static final Pattern CREDENTIAL = Pattern.compile("Credential=([^,]+),SignedHeaders=([^,]+),Signature=(\\w+)");
+
+    record StubObject(byte[] data, String contentType, String cacheControl, Instant lastModified) {
+    }
+
+    private final HttpServer server;
+    private final S3Signer signer = new S3Signer(ACCESS_KEY, SECRET_KEY, REGION);
+    private final int pageSize;
+    private final NavigableMap<String, StubObject> objects = new ConcurrentSkipListMap<>();
+    private final Map<String, NavigableMap<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    // Metadata of a multipart upload is given when it starts
+    private final Map<String, StubObject> uploadMetadata = new ConcurrentHashMap<>();
+    private final AtomicInteger uploadIds = new AtomicInteger();
+    final List<String> requests = new ArrayList<>();
+
+    S3StubServer(int pageSize) throws IOException {
+        this.pageSize = pageSize;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    StubObject object(String key) {
+        return objects.get(key);
+    }
+
+    void putObject(String key, byte[] data, Instant lastModified) {
+        objects.put(key, new StubObject(data, "application/octet-stream", null, lastModified));
+    }
+
+    int openUploads() {
+        return uploads.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String rawPath = exchange.getRequestURI().getRawPath();
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            synchronized (requests) {
+                requests.add(method + " " + rawPath + (query.isEmpty() ? "" : "?" + S3Signer.canonicalQuery(query)));
+            }
+            if (!authorized(exchange, method, rawPath, query)) {
+                respond(exchange, 403, "<Error><Code>SignatureDoesNotMatch</Code></Error>");
+                return;
+            }
+
+            String prefix = "/" + BUCKET;
+            String key = rawPath.length() > prefix.length() + 1
+                    ? URLDecoder.decode(rawPath.substring(prefix.length() + 1), StandardCharsets.UTF_8)
+                    : "";
+            if (key.isEmpty() && method.equals("GET")) {
+                list(exchange, query);
+            } else if (method.equals("POST") && query.containsKey("uploads")) {
+                String uploadId = "upload-" + uploadIds.incrementAndGet();
+                uploads.put(uploadId, new ConcurrentSkipListMap<>());
+                uploadMetadata.put(uploadId, new StubObject(null, header(exchange, "Content-Type"),
+                        header(exchange, "Cache-Control"), null));
+                respond(exchange, 200, "<InitiateMultipartUploadResult><UploadId>" + uploadId +
+                        "</UploadId></InitiateMultipartUploadResult>");
+            } else if (method.equals("PUT") && query.containsKey("partNumber")) {
+                uploads.get(query.get("uploadId")).put(Integer.parseInt(query.get("partNumber")), body);
+                exchange.getResponseHeaders().set("ETag", "\"etag-" + query.get("partNumber") + "\"");
+                respond(exchange, 200, "");
+            } else if (method.equals("POST") && query.containsKey("uploadId")) {
+                NavigableMap<Integer, byte[]> parts = uploads.remove(query.get("uploadId"));
+                StubObject metadata = uploadMetadata.remove(query.get("uploadId"));
+                ByteArrayOutputStream data = new ByteArrayOutputStream();
+                parts.values().forEach(data::writeBytes);
+                objects.put(key, new StubObject(data.toByteArray(), metadata.contentType(),
+                        metadata.cacheControl(), Instant.now()));
+                respond(exchange, 200, "<CompleteMultipartUploadResult><Key>" + key + "</Key></CompleteMultipartUploadResult>");
+            } else if (method.equals("DELETE") && query.containsKey("uploadId")) {
+                uploads.remove(query.get("uploadId"));
+                uploadMetadata.remove(query.get("uploadId"));
+                respond(exchange, 204, null);
+            } else if (method.equals("PUT") && exchange.getRequestHeaders().containsKey("x-amz-copy-source")) {
+                String source = URLDecoder.decode(header(exchange, "x-amz-copy-source"), StandardCharsets.UTF_8)
+                        .substring(prefix.length() + 1);
+                StubObject original = objects.get(source);
+                if (original == null) {
+                    respond(exchange, 404, "<Error><Code>NoSuchKey</Code></Error>");
+                    return;
+                }
+                objects.put(key, new StubObject(original.data(), header(exchange, "Content-Type"),
+                        header(exchange, "Cache-Control"), Instant.now()));
+                respond(exchange, 200, "<CopyObjectResult></CopyObjectResult>");
+            } else if (method.equals("PUT")) {
+                objects.put(key, new StubObject(body, header(exchange, "Content-Type"),
+                        header(exchange, "Cache-Control"), Instant.now()));
+                respond(exchange, 200, "");
+            } else if (method.equals("GET") || method.equals("HEAD")) {
+                StubObject object = objects.get(key);
+                if (object == null) {
+                    respond(exchange, 404, method.equals("HEAD") ? null : "<Error><Code>NoSuchKey</Code></Error>");
+                    return;
+                }
+                exchange.getResponseHeaders().set("Last-Modified",
+                        DateTimeFormatter.RFC_1123_DATE_TIME.format(object.lastModified().atZone(ZoneOffset.UTC)));
+                exchange.getResponseHeaders().set("Content-Type", object.contentType());
+                if (method.equals("HEAD")) {
+                    exchange.getResponseHeaders().set("Content-Length", Integer.toString(object.data().length));
+                    exchange.sendResponseHeaders(200, -1);
+                } else {
+                    exchange.sendResponseHeaders(200, object.data().length);
+                    exchange.getResponseBody().write(object.data());
+                }
+            } else if (method.equals("DELETE")) {
+                objects.remove(key);
+                respond(exchange, 204, null);
+            } else {
+                respond(exchange, 400, "<Error><Code>NotImplemented</Code></Error>");
+            }
+        }
+    }
+
+    private void list(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String prefix = query.getOrDefault("prefix", "");
+        List<Map.Entry<String, StubObject>> matching = objects.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(prefix))
+                .toList();
+        int from = Integer.parseInt(query.getOrDefault("continuation-token", "0"));
+        int to = Math.min(from + pageSize, matching.size());
+        StringBuilder xml = new StringBuilder("<ListBucketResult>");
+        for (Map.Entry<String, StubObject> entry : matching.subList(from, to)) {
+            xml.append("<Contents><Key>").append(entry.getKey()).append("</Key><LastModified>")
+                    .append(entry.getValue().lastModified()).append("</LastModified><Size>")
+                    .append(entry.getValue().data().length).append("</Size></Contents>");
+        }
+        xml.append("<IsTruncated>").append(to < matching.size()).append("</IsTruncated>");
+        if (to < matching.size()) {
+            xml.append("<NextContinuationToken>").append(to).append("</NextContinuationToken>");
+        }
+        respond(exchange, 200, xml.append("</ListBucketResult>").toString());
+    }
+
+    private boolean authorized(HttpExchange exchange, String method, String rawPath, Map<String, String> query) {
+        String host = header(exchange, "Host");
+        String authorization = header(exchange, "Authorization");
+        if (authorization != null) {
+            Matcher matcher = CREDENTIAL.matcher(authorization);
+            if (!matcher.find()) {
+                return false;
+            }
+            Map<String, String> headers = new TreeMap<>();
+            for (String name : matcher.group(2).split(";")) {
+                headers.put(name, header(exchange, name));
+            }
+            String expected = signer.authorization(method, rawPath, query, headers, header(exchange, "x-amz-content-sha256"));
+            return expected.equals(authorization);
+        }
+        String signature = query.get("X-Amz-Signature");
+        if (signature == null || !method.equals("GET")) {
+            return false;
+        }
+        Instant signedAt = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC)
+                .parse(query.get("X-Amz-Date"), Instant::from);
+        Duration expires = Duration.ofSeconds(Long.parseLong(query.get("X-Amz-Expires")));
+        if (Instant.now().isAfter(signedAt.plus(expires))) {
+            return false;
+        }
+        String expected = signer.presignedQuery(rawPath, host, signedAt, expires);
+        return expected.endsWith("X-Amz-Signature=" + signature);
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new TreeMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        Arrays.stream(rawQuery.split("&")).forEach(pair -> {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        });
+        return query;
+    }
+
+    private static String header(HttpExchange exchange, String name) {
+        return exchange.getRequestHeaders().getFirst(name);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null || body.isEmpty()) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}